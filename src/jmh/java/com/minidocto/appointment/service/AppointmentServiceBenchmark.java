@@ -0,0 +1,44 @@
+package com.minidocto.appointment.service;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AppointmentService#convertToDTO} over 10, 1k and 100k appointments, i.e. the per-item
+ * enrichment cost of the appointment list endpoints (one slot lookup each, users from the near-cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private AppointmentService service;
+    private List<Appointment> appointments;
+
+    @Setup
+    public void setUp() {
+        // Every fifth slot is booked, so the fixture holds one appointment per five slots
+        BenchmarkData data = new BenchmarkData(Math.max(size, 10) * 5);
+        service = data.appointmentService();
+        appointments = new ArrayList<>(data.appointments.subList(0, size));
+    }
+
+    @Benchmark
+    public void convertToDTO(Blackhole blackhole) {
+        for (Appointment appointment : appointments) {
+            blackhole.consume(service.convertToDTO(appointment));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.minidocto.availability.service;
+
+import com.minidocto.availability.dto.ScheduleGroupDTO;
+import com.minidocto.availability.dto.ScheduleGroupsResponse;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule-groups hot path of {@link AvailabilityService} for one doctor with 10, 1k and 100k slots.
+ * The current user is a patient holding some of the doctor's slots, which is the most expensive case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private BenchmarkData data;
+    private AvailabilityService service;
+    private Map<String, Boolean> userBookingsByDate;
+    private String currentUserId;
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(size);
+        service = data.availabilityService();
+        currentUserId = data.currentUser().getId();
+        userBookingsByDate = new HashMap<>();
+        for (AvailabilitySlot slot : data.slots) {
+            userBookingsByDate.merge(slot.getStartTime().substring(0, 10),
+                    data.currentUser().getId().equals(String.valueOf(slot.getBookedBy())), Boolean::logicalOr);
+        }
+    }
+
+    @Benchmark
+    public List<ScheduleGroupDTO> groupSlotsByDay() {
+        // groupSlotsByDay sorts its argument in place, so it gets a fresh list in repository order
+        return service.groupSlotsByDay(new ArrayList<>(data.slots), userBookingsByDate);
+    }
+
+    @Benchmark
+    public void formatDateTime(Blackhole blackhole) {
+        for (AvailabilitySlot slot : data.slots) {
+            blackhole.consume(service.formatDateTime(slot.getStartTime()));
+        }
+    }
+
+    @Benchmark
+    public ScheduleGroupsResponse getDoctorScheduleGroups() {
+        return service.getDoctorScheduleGroups(data.doctor.getId(), 0, 10, currentUserId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.minidocto.benchmark;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.appointment.repository.InMemoryAppointmentRepository;
+import com.minidocto.appointment.service.AppointmentService;
+import com.minidocto.appointment.service.BookingMetrics;
+import com.minidocto.archive.repository.InMemoryArchiveRepository;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.availability.service.AvailabilityService;
+import com.minidocto.availability.service.SlotOverlapGuard;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.cache.SingleFlight;
+import com.minidocto.shared.config.HoldProperties;
+import com.minidocto.shared.config.SingleFlightProperties;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.shared.config.WaitlistProperties;
+import com.minidocto.shared.outbox.InMemoryOutboxRepository;
+import com.minidocto.shared.outbox.OutboxPublisher;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import com.minidocto.user.service.UserCardCache;
+import com.minidocto.waitlist.repository.InMemoryWaitlistRepository;
+import com.minidocto.waitlist.service.WaitlistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixture: one doctor with {@code slotCount} future 30-minute slots (8 per day from
+ * tomorrow), every fifth slot booked by one of 50 patients with a matching appointment.
+ * Patient 0 is the "current user" of schedule lookups. Everything is stored in the in-memory
+ * repositories of the "inmemory" profile, so the benchmarks measure service code only.
+ * Services are built here too, so a constructor change touches this class and no benchmark.
+ */
+public class BenchmarkData {
+    public static final int SLOTS_PER_DAY = 8;
+    private static final int PATIENTS = 50;
+
+    public final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    public final InMemoryAvailabilitySlotRepository slotRepository = new InMemoryAvailabilitySlotRepository(userRepository);
+    public final InMemoryAppointmentRepository appointmentRepository = new InMemoryAppointmentRepository();
+    public final User doctor;
+    public final List<User> patients = new ArrayList<>();
+    public final List<AvailabilitySlot> slots;
+    public final List<Appointment> appointments = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    public BenchmarkData(int slotCount) {
+        doctor = User.builder()
+                .id(new ObjectId().toHexString())
+                .name("Dr Claire Moreau")
+                .email("claire.moreau@minidocto.test")
+                .role(Role.PRO)
+                .specialty("Cardiology")
+                .score(87)
+                .build();
+        userRepository.save(doctor);
+        for (int i = 0; i < PATIENTS; i++) {
+            User patient = User.builder()
+                    .id(new ObjectId().toHexString())
+                    .name("Patient " + i)
+                    .email("patient" + i + "@minidocto.test")
+                    .role(Role.USER)
+                    .build();
+            patients.add(patient);
+            userRepository.save(patient);
+        }
+
+        slots = new ArrayList<>(slotCount);
+        ObjectId doctorId = new ObjectId(doctor.getId());
+        LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        for (int i = 0; i < slotCount; i++) {
+            LocalDateTime start = firstDay.plusDays(i / SLOTS_PER_DAY).atTime(9, 0).plusMinutes(30L * (i % SLOTS_PER_DAY));
+            AvailabilitySlot slot = AvailabilitySlot.builder()
+                    .id(new ObjectId().toHexString())
+                    .doctorId(doctorId)
+                    .startTime(SlotTimes.format(start))
+                    .endTime(SlotTimes.format(start.plusMinutes(30)))
+                    .build();
+            if (i % 5 == 0) {
+                ObjectId patientId = new ObjectId(patients.get((i / 5) % PATIENTS).getId());
+                slot.setStatus(SlotStatus.BOOKED);
+                slot.setBookedBy(patientId);
+                appointments.add(appointmentRepository.save(Appointment.builder()
+                        .id(new ObjectId().toHexString())
+                        .doctorId(doctorId)
+                        .patientId(patientId)
+                        .slotId(new ObjectId(slot.getId()))
+                        .status(AppointmentStatus.CONFIRMED)
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build()));
+            }
+            slots.add(slot);
+            slotRepository.save(slot);
+        }
+    }
+
+    public User currentUser() {
+        return patients.get(0);
+    }
+
+    /**
+     * AvailabilityService over the fixture, without an audit log: only slot writes feed it, and none are measured.
+     */
+    public AvailabilityService availabilityService() {
+        return new AvailabilityService(slotRepository, userRepository, userCardCache(),
+                new SlotOverlapGuard(slotRepository), null, new SingleFlight(new SingleFlightProperties(), registry),
+                new LocalInvalidationBus());
+    }
+
+    /**
+     * AppointmentService over the fixture, without an audit log, whose writer thread would outlive the trial.
+     */
+    public AppointmentService appointmentService() {
+        UserCardCache userCardCache = userCardCache();
+        OutboxPublisher outboxPublisher = new OutboxPublisher(new InMemoryOutboxRepository());
+        return new AppointmentService(appointmentRepository, slotRepository, userCardCache,
+                new SlotOverlapGuard(slotRepository), new BookingMetrics(registry), new InMemoryArchiveRepository(),
+                new HoldProperties(),
+                new WaitlistService(new InMemoryWaitlistRepository(), slotRepository, userCardCache,
+                        new WaitlistProperties(), outboxPublisher, registry),
+                outboxPublisher, null, new LocalInvalidationBus());
+    }
+
+    private UserCardCache userCardCache() {
+        return new UserCardCache(userRepository, new UserCacheProperties(), new LocalInvalidationBus(), registry);
+    }
+}
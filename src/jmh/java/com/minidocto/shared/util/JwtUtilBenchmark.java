@@ -0,0 +1,51 @@
+package com.minidocto.shared.util;
+
+import com.minidocto.shared.config.JwtProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and validation as done on every login and every authenticated request.
+ * Token cost does not depend on data size, so this benchmark has no size parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        // HS256 needs a key of at least 256 bits, as JWT_SECRET must be in deployments
+        properties.setSecret("kuQCDtoP7HqYSsGKYmW7ANZqLMOQxW6tG1nM1Ag8EJqFDk6C7NrOAKPuDETqk");
+        properties.setExpirationMs(900_000);
+        properties.setRefreshExpirationMs(604_800_000);
+        jwtUtil = new JwtUtil(properties);
+        claims = Map.of("role", "USER", "name", "Patient 0");
+        token = jwtUtil.generateToken("patient0@minidocto.test", claims);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("patient0@minidocto.test", claims);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+}
@@ -0,0 +1,75 @@
+package com.minidocto.user.service;
+
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.user.dto.DoctorSuggestionDTO;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups of {@link DoctorAutocompleteIndex} at 10k and 100k doctors.
+ * {@code rebuild} runs a full reload; with {@code -prof gc} its normalized allocation
+ * is an upper bound of the index footprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorAutocompleteIndexBenchmark {
+    private static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Louis", "Camille", "Hélène",
+            "Nicolas", "Amélie", "Thomas", "Claire", "Julien", "Inès", "Hugo", "Léa", "Mehdi", "Yasmine", "Karim"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+            "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefèvre", "Michel", "Garcia", "Benali",
+            "Haddad", "Roux", "Fontaine", "Chevalier"};
+    private static final String[] SPECIALTIES = {"Cardiology", "Dermatology", "Pediatrics", "General Medicine",
+            "Neurology", "Ophthalmology", "Psychiatry", "Radiology", "Oncology", "Gynecology"};
+    private static final String[] QUERIES = {"m", "ma", "mar", "martin", "dr mar", "card", "cardio", "lef", "hel",
+            "pediat", "jean d", "neuro", "z", "ha", "bena", "1a", "cla rou", "ophth"};
+
+    @Param({"10000", "100000"})
+    int doctors;
+
+    private DoctorAutocompleteIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        for (int i = 0; i < doctors; i++) {
+            userRepository.save(User.builder()
+                    .id(String.format("%024x", i))
+                    .name("Dr " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "-" + Integer.toString(i, 36))
+                    .specialty(SPECIALTIES[random.nextInt(SPECIALTIES.length)])
+                    .score(random.nextInt(101))
+                    .role(Role.PRO)
+                    .build());
+        }
+        index = new DoctorAutocompleteIndex(userRepository, new LocalInvalidationBus());
+        index.reload();
+    }
+
+    @Benchmark
+    public List<DoctorSuggestionDTO> suggest() {
+        next = (next + 1) % QUERIES.length;
+        return index.suggest(QUERIES[next], 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public DoctorAutocompleteIndex rebuild() {
+        index.reload();
+        return index;
+    }
+}
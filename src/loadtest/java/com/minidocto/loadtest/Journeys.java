@@ -0,0 +1,107 @@
+package com.minidocto.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.minidocto.loadtest.VirtualUser.JourneyAbortedException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The user journeys of the traffic mix, named as in the {@code --mix} argument.
+ */
+final class Journeys {
+    private static final DateTimeFormatter SLOT_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    interface Journey {
+        void run(VirtualUser user, LoadTestConfig config) throws JourneyAbortedException;
+    }
+
+    static final Map<String, Journey> ALL = Map.of(
+            "patient", Journeys::patient,
+            "doctor", Journeys::doctor);
+
+    private Journeys() {
+    }
+
+    /**
+     * login → available-doctors → schedule-groups → book → my appointments → cancel (cancel-ratio of journeys).
+     */
+    static void patient(VirtualUser user, LoadTestConfig config) throws JourneyAbortedException {
+        int patient = user.random.nextInt(config.patients);
+        user.login("patient-login", "/auth/patient/login", "patient" + patient + "@" + config.emailDomain);
+
+        JsonNode doctors = user.call("available-doctors", "GET",
+                "/availability/available-doctors?page=" + user.random.nextInt(3) + "&size=10", null)
+                .path("availableDoctors");
+        if (doctors.isEmpty()) {
+            throw new JourneyAbortedException("available-doctors: no doctor with open slots");
+        }
+        String doctorId = doctors.get(user.random.nextInt(doctors.size())).path("id").asText();
+
+        JsonNode groups = user.call("schedule-groups", "GET",
+                "/availability/doctors/" + doctorId + "/schedule-groups?page=0&size=7", null)
+                .path("data").path("scheduleGroups");
+        List<String> openSlots = new ArrayList<>();
+        for (JsonNode group : groups) {
+            for (JsonNode slot : group.path("timeSlots")) {
+                if ("AVAILABLE".equals(slot.path("status").asText())) {
+                    openSlots.add(slot.path("id").asText());
+                }
+            }
+        }
+        if (openSlots.isEmpty()) {
+            throw new JourneyAbortedException("schedule-groups: no open slot");
+        }
+
+        ObjectNode booking = JSON.objectNode()
+                .put("doctorId", doctorId)
+                .put("slotId", openSlots.get(user.random.nextInt(openSlots.size())));
+        String appointmentId = user.call("book", "POST", "/appointments/book", booking)
+                .path("appointment").path("id").asText();
+
+        user.call("my-appointments", "GET", "/appointments/me?page=0&size=10", null);
+
+        if (user.random.nextDouble() < config.cancelRatio) {
+            user.call("cancel", "DELETE", "/appointments/" + appointmentId, null);
+        }
+    }
+
+    /**
+     * login → add a slot → view appointments → remove the slot again, so the dataset stays stable.
+     */
+    static void doctor(VirtualUser user, LoadTestConfig config) throws JourneyAbortedException {
+        int doctor = user.random.nextInt(config.doctors);
+        user.login("doctor-login", "/auth/doctor/login", "doctor" + doctor + "@" + config.emailDomain);
+
+        // Far enough ahead not to collide with seeded schedules; a collision is recorded as rejected
+        LocalDateTime start = LocalDate.now(ZoneOffset.UTC).plusDays(60 + user.random.nextInt(300))
+                .atTime(7 + user.random.nextInt(12), user.random.nextInt(4) * 15);
+        String startTime = start.format(SLOT_TIME);
+        ObjectNode update = JSON.objectNode();
+        update.putArray("addedSlots").addObject()
+                .put("startTime", startTime)
+                .put("endTime", start.plusMinutes(15).format(SLOT_TIME));
+        update.putArray("removedSlots");
+        JsonNode slots = user.call("add-availability", "POST", "/availability/update", update).path("slots");
+
+        user.call("doctor-appointments", "GET", "/appointments/doctor/me?page=0&size=10", null);
+
+        for (JsonNode slot : slots) {
+            if (startTime.equals(slot.path("startTime").asText())) {
+                ObjectNode removal = JSON.objectNode();
+                removal.putArray("addedSlots");
+                removal.putArray("removedSlots").addObject().put("id", slot.path("id").asText());
+                user.call("remove-availability", "POST", "/availability/update", removal);
+                break;
+            }
+        }
+    }
+}
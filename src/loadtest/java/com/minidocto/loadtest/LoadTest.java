@@ -0,0 +1,185 @@
+package com.minidocto.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.minidocto.loadtest.VirtualUser.JourneyAbortedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP load generator for patient and doctor journeys against a running instance.
+ * Runs one stage per load level, each with a warm-up followed by a measured period, prints a
+ * per-step latency table and writes all stages to a JSON report. Increasing levels show where
+ * throughput stops scaling and latency turns up (the knee).
+ * <p>
+ * Closed model: each level is a number of users looping journeys. Open model: each level is a
+ * number of journeys started per second (Poisson arrivals), whatever the response times.
+ * Usage: {@code mvn -Ploadtest -DskipTests verify -Dloadtest.args="--model=open --stages=5,10,20"}
+ */
+public class LoadTest {
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final List<String> journeyNames = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool(daemonThreads("http-client")))
+                .build();
+        int total = 0;
+        cumulativeWeights = new int[config.mix.size()];
+        for (Map.Entry<String, Integer> entry : config.mix.entrySet()) {
+            if (!Journeys.ALL.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown journey " + entry.getKey() + ", expected one of " + Journeys.ALL.keySet());
+            }
+            total += entry.getValue();
+            cumulativeWeights[journeyNames.size()] = total;
+            journeyNames.add(entry.getKey());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.out.println("Load test: " + config);
+        LoadTest loadTest = new LoadTest(config);
+        List<Map<String, Object>> stages = new ArrayList<>();
+        for (int level : config.stages) {
+            StageStats stats = loadTest.runStage(level);
+            Map<String, Object> summary = stats.summary();
+            stages.add(summary);
+            print(summary);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config.toString());
+        report.put("stages", stages);
+        File file = new File(config.report);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+        System.exit(0);
+    }
+
+    StageStats runStage(int level) throws InterruptedException {
+        StageStats stats = new StageStats(level);
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup.toNanos();
+        long end = measureFrom + config.stageDuration.toNanos();
+        System.out.printf("Stage %d: %s %d, warm-up %ds, measuring %ds%n", level,
+                config.model == LoadTestConfig.Model.CLOSED ? "users" : "journeys/s",
+                level, config.warmup.toSeconds(), config.stageDuration.toSeconds());
+
+        ExecutorService users = Executors.newCachedThreadPool(daemonThreads("virtual-user"));
+        Random arrivals = new Random(config.randomSeed + level);
+        if (config.model == LoadTestConfig.Model.CLOSED) {
+            for (int i = 0; i < level; i++) {
+                Random random = new Random(arrivals.nextLong());
+                users.execute(() -> {
+                    // Users think between journeys as between steps, including after a failed one
+                    long next = System.nanoTime();
+                    while (next < end && !Thread.currentThread().isInterrupted()) {
+                        next = runJourney(stats, random, next);
+                    }
+                });
+            }
+        } else {
+            AtomicInteger inFlight = new AtomicInteger();
+            users.execute(() -> {
+                long next = start;
+                while (next < end && !Thread.currentThread().isInterrupted()) {
+                    VirtualUser.waitUntil(next);
+                    long intendedStart = next;
+                    if (inFlight.incrementAndGet() > config.maxSessions) {
+                        inFlight.decrementAndGet();
+                        if (stats.isRecording()) {
+                            stats.journeysDropped.increment();
+                        }
+                    } else {
+                        Random random = new Random(arrivals.nextLong());
+                        try {
+                            users.execute(() -> {
+                                try {
+                                    runJourney(stats, random, intendedStart);
+                                } finally {
+                                    inFlight.decrementAndGet();
+                                }
+                            });
+                        } catch (RejectedExecutionException e) {
+                            return; // Stage over
+                        }
+                    }
+                    // Poisson arrivals: exponential inter-arrival times at the target rate
+                    next += (long) (-Math.log(1 - arrivals.nextDouble()) * 1e9 / level);
+                }
+            });
+        }
+
+        VirtualUser.waitUntil(measureFrom);
+        stats.startRecording();
+        VirtualUser.waitUntil(end);
+        stats.stopRecording();
+        users.shutdownNow();
+        users.awaitTermination(35, TimeUnit.SECONDS);
+        return stats;
+    }
+
+    /**
+     * @return when the user's next request is due
+     */
+    private long runJourney(StageStats stats, Random random, long intendedStartNanos) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        VirtualUser user = new VirtualUser(client, config, stats, random, intendedStartNanos);
+        try {
+            Journeys.ALL.get(journeyNames.get(index)).run(user, config);
+            if (stats.isRecording()) {
+                stats.journeysCompleted.increment();
+            }
+        } catch (JourneyAbortedException e) {
+            if (stats.isRecording()) {
+                stats.journeysAborted.increment();
+            }
+        }
+        return user.nextIntendedStartNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> stage) {
+        System.out.printf("%nStage %s: %s journeys/s, %s aborted, %s dropped%n", stage.get("level"),
+                stage.get("journeysPerSec"), stage.get("journeysAborted"), stage.get("journeysDropped"));
+        System.out.printf("%-22s %8s %8s %8s %9s | %-40s | %s%n", "step", "ok", "rejected", "errors", "req/s",
+                "corrected ms p50/p90/p99/p99.9/max", "service ms p50/p99/max");
+        for (Map<String, Object> step : (List<Map<String, Object>>) stage.get("steps")) {
+            Map<String, Double> corrected = (Map<String, Double>) step.get("correctedMs");
+            Map<String, Double> service = (Map<String, Double>) step.get("serviceMs");
+            System.out.printf("%-22s %8s %8s %8s %9s | %-40s | %s%n", step.get("step"), step.get("ok"),
+                    step.get("rejected"), step.get("errors"), step.get("throughputPerSec"),
+                    corrected.get("p50") + "/" + corrected.get("p90") + "/" + corrected.get("p99") + "/"
+                            + corrected.get("p99.9") + "/" + corrected.get("max"),
+                    service.get("p50") + "/" + service.get("p99") + "/" + service.get("max"));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.minidocto.loadtest;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Load test settings, parsed from {@code --key=value} arguments.
+ */
+public class LoadTestConfig {
+    enum Model { CLOSED, OPEN }
+
+    final String baseUrl;
+    final Model model;
+    final List<Integer> stages; // Concurrent users (closed) or journeys started per second (open)
+    final Duration stageDuration;
+    final Duration warmup;
+    final Map<String, Integer> mix; // Journey name -> weight
+    final long thinkTimeMs; // Mean of the exponential think time between steps
+    final int patients;
+    final int doctors;
+    final String emailDomain;
+    final String password;
+    final double cancelRatio;
+    final int maxSessions; // Open model: journeys in flight before new arrivals are dropped
+    final String report;
+    final long randomSeed;
+
+    private LoadTestConfig(Map<String, String> args) {
+        baseUrl = args.getOrDefault("base-url", "http://localhost:8081");
+        model = Model.valueOf(args.getOrDefault("model", "closed").toUpperCase(Locale.ROOT));
+        stages = Arrays.stream(args.getOrDefault("stages", model == Model.CLOSED ? "10" : "5").split(","))
+                .map(String::trim).map(Integer::parseInt).toList();
+        stageDuration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("stage-duration", "60")));
+        warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "10")));
+        mix = parseMix(args.getOrDefault("mix", "patient:9,doctor:1"));
+        thinkTimeMs = Long.parseLong(args.getOrDefault("think-time-ms", "1000"));
+        patients = Integer.parseInt(args.getOrDefault("patients", "1000"));
+        doctors = Integer.parseInt(args.getOrDefault("doctors", "100"));
+        emailDomain = args.getOrDefault("email-domain", "seed.minidocto.test");
+        password = args.getOrDefault("password", "password123");
+        cancelRatio = Double.parseDouble(args.getOrDefault("cancel-ratio", "0.8"));
+        maxSessions = Integer.parseInt(args.getOrDefault("max-sessions", "2000"));
+        report = args.getOrDefault("report", "target/loadtest-report.json");
+        randomSeed = Long.parseLong(args.getOrDefault("seed", String.valueOf(System.nanoTime())));
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "model=" + model + " stages=" + stages + " stageDuration=" + stageDuration.toSeconds() + "s warmup="
+                + warmup.toSeconds() + "s mix=" + mix + " thinkTime=" + thinkTimeMs + "ms target=" + baseUrl;
+    }
+}
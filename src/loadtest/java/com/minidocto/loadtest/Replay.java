@@ -0,0 +1,291 @@
+package com.minidocto.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a traffic capture (minidocto.capture.*) against a running build, preserving the recorded
+ * arrival times (optionally accelerated), and compares latency distributions.
+ * <p>
+ * Replay: {@code --file=traffic-capture.ndjson --base-url=... --speed=1 --out=target/replay-a.json}.
+ * Each captured user pseudonym is mapped to a seeded account of the same role, so the target must
+ * hold the seed dataset the capture was taken against (same doctor, slot and appointment IDs).
+ * <p>
+ * Diff: {@code --diff=target/replay-a.json,target/replay-b.json} compares two replays endpoint by
+ * endpoint; {@code --diff=target/replay-a.json} compares a replay with the captured latencies.
+ */
+public class Replay {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, String> args;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new HashMap<>();
+
+    private Replay(Map<String, String> args) {
+        this.args = args;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            args.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        if (args.containsKey("diff")) {
+            diff(args.get("diff").split(","), Double.parseDouble(args.getOrDefault("threshold", "10")));
+        } else {
+            new Replay(args).replay();
+        }
+        System.exit(0);
+    }
+
+    private void replay() throws IOException, InterruptedException {
+        Path file = Path.of(args.getOrDefault("file", "traffic-capture.ndjson"));
+        String baseUrl = args.getOrDefault("base-url", "http://localhost:8081");
+        double speed = Double.parseDouble(args.getOrDefault("speed", "1"));
+        Semaphore inFlight = new Semaphore(Integer.parseInt(args.getOrDefault("max-in-flight", "500")));
+
+        Map<String, String> accounts = mapAccounts(file);
+        System.out.printf("Replaying %s against %s at %sx with %d mapped users%n", file, baseUrl, speed, accounts.size());
+        for (String email : new HashSet<>(accounts.values())) {
+            tokens.put(email, login(baseUrl, email));
+        }
+
+        long requests = 0;
+        long firstTimestamp = -1;
+        long startNanos = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode captured = MAPPER.readTree(line);
+                long timestamp = captured.path("timestamp").asLong();
+                if (firstTimestamp < 0) {
+                    firstTimestamp = timestamp;
+                }
+                long due = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(timestamp - firstTimestamp) / speed);
+                VirtualUser.waitUntil(due);
+                inFlight.acquire();
+                send(baseUrl, captured, accounts, due, inFlight);
+                requests++;
+            }
+        }
+        inFlight.acquire(Integer.parseInt(args.getOrDefault("max-in-flight", "500")));
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        ObjectNode report = MAPPER.createObjectNode()
+                .put("file", file.toString())
+                .put("baseUrl", baseUrl)
+                .put("speed", speed)
+                .put("requests", requests)
+                .put("seconds", Math.round(seconds));
+        ObjectNode endpointReports = report.putObject("endpoints");
+        new TreeMap<>(endpoints).forEach((endpoint, stats) -> endpointReports.set(endpoint, stats.toJson()));
+        File out = new File(args.getOrDefault("out", "target/replay-" + System.currentTimeMillis() + ".json"));
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        MAPPER.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+        System.out.printf("Replayed %d requests in %.0fs, report written to %s%n", requests, seconds, out.getAbsolutePath());
+        printTable(endpointReports);
+    }
+
+    /**
+     * Map each captured pseudonym to a seeded account of the same role, in order of first appearance.
+     */
+    private Map<String, String> mapAccounts(Path file) throws IOException {
+        int patients = Integer.parseInt(args.getOrDefault("patients", "1000"));
+        int doctors = Integer.parseInt(args.getOrDefault("doctors", "100"));
+        String domain = args.getOrDefault("email-domain", "seed.minidocto.test");
+        Map<String, String> accounts = new LinkedHashMap<>();
+        int[] next = new int[2];
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode captured = MAPPER.readTree(line);
+                String path = captured.path("path").asText();
+                String user = captured.path("user").asText(null);
+                boolean doctor = "PRO".equals(captured.path("role").asText()) || path.startsWith("/auth/doctor/");
+                if (user == null && path.startsWith("/auth/") && path.contains("login")) {
+                    user = captured.path("body").path("email").asText(null);
+                }
+                if (user != null && !accounts.containsKey(user)) {
+                    accounts.put(user, doctor
+                            ? "doctor" + (next[0]++ % doctors) + "@" + domain
+                            : "patient" + (next[1]++ % patients) + "@" + domain);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    private String login(String baseUrl, String email) throws IOException, InterruptedException {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("email", email)
+                .put("password", args.getOrDefault("password", "password123"));
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode() == 200 ? MAPPER.readTree(response.body()).path("token").asText(null) : null;
+    }
+
+    private void send(String baseUrl, JsonNode captured, Map<String, String> accounts, long due, Semaphore inFlight)
+            throws IOException {
+        String method = captured.path("method").asText();
+        String path = captured.path("path").asText();
+        String endpoint = method + " " + captured.path("pattern").asText(path.split("\\?")[0]);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+
+        String email = accounts.get(captured.path("user").asText(""));
+        if (email != null && tokens.get(email) != null) {
+            request.header("Authorization", "Bearer " + tokens.get(email));
+        }
+        JsonNode body = captured.get("body");
+        if (body != null && body.isObject() && body.has("email") && accounts.containsKey(body.get("email").asText())) {
+            // Login and signup: substitute the mapped account's credentials
+            ((ObjectNode) body).put("email", accounts.get(body.get("email").asText()))
+                    .put("password", args.getOrDefault("password", "password123"));
+        }
+        request.method(method, body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, EndpointStats::new);
+        stats.recorded.recordValue(Math.min(captured.path("durationMicros").asLong(), MAX_MICROS));
+        int recordedStatus = captured.path("status").asInt();
+        long sent = System.nanoTime();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long end = System.nanoTime();
+                    inFlight.release();
+                    stats.step.record(due, sent, end, 0);
+                    if (failure != null || response.statusCode() >= 500) {
+                        stats.step.errors.increment();
+                    } else {
+                        stats.step.ok.increment();
+                    }
+                    if (failure == null && response.statusCode() != recordedStatus) {
+                        stats.statusMismatches.increment();
+                    }
+                });
+    }
+
+    private static void diff(String[] files, double thresholdPercent) throws IOException {
+        JsonNode baseline = MAPPER.readTree(new File(files[0])).path("endpoints");
+        JsonNode candidate = files.length > 1 ? MAPPER.readTree(new File(files[1])).path("endpoints") : baseline;
+        String baselineName = files.length > 1 ? files[0] : "captured";
+        String candidateName = files.length > 1 ? files[1] : files[0];
+        System.out.printf("Latency diff (corrected, ms): %s -> %s, flagging changes over %.0f%%%n",
+                baselineName, candidateName, thresholdPercent);
+        System.out.printf("%-60s %8s %24s %24s %24s%n", "endpoint", "count", "p50", "p99", "p99.9");
+        Iterator<String> names = candidate.fieldNames();
+        while (names.hasNext()) {
+            String endpoint = names.next();
+            JsonNode before = baseline.path(endpoint);
+            if (before.isMissingNode()) {
+                continue;
+            }
+            Histogram a = decode(before.path(files.length > 1 ? "correctedHistogram" : "recordedHistogram").asText());
+            Histogram b = decode(candidate.path(endpoint).path("correctedHistogram").asText());
+            System.out.printf("%-60s %8d %24s %24s %24s%n", endpoint, b.getTotalCount(),
+                    change(a, b, 50, thresholdPercent), change(a, b, 99, thresholdPercent),
+                    change(a, b, 99.9, thresholdPercent));
+        }
+    }
+
+    private static String change(Histogram before, Histogram after, double percentile, double thresholdPercent) {
+        double a = before.getValueAtPercentile(percentile) / 1000.0;
+        double b = after.getValueAtPercentile(percentile) / 1000.0;
+        double percent = a > 0 ? (b - a) / a * 100 : 0;
+        return String.format("%.1f->%.1f (%+.0f%%)%s", a, b, percent, Math.abs(percent) > thresholdPercent ? " !" : "");
+    }
+
+    private static void printTable(JsonNode endpoints) {
+        System.out.printf("%-60s %8s %8s %10s | %-28s | %s%n", "endpoint", "ok", "errors", "mismatch",
+                "corrected ms p50/p99/max", "captured ms p50/p99/max");
+        endpoints.fields().forEachRemaining(entry -> {
+            JsonNode stats = entry.getValue();
+            System.out.printf("%-60s %8d %8d %10d | %-28s | %s%n", entry.getKey(), stats.path("ok").asLong(),
+                    stats.path("errors").asLong(), stats.path("statusMismatches").asLong(),
+                    percentiles(stats.path("correctedMs")), percentiles(stats.path("recordedMs")));
+        });
+    }
+
+    private static String percentiles(JsonNode node) {
+        return node.path("p50").asText() + "/" + node.path("p99").asText() + "/" + node.path("max").asText();
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static Histogram decode(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (java.util.zip.DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt histogram in replay report", e);
+        }
+    }
+
+    private static class EndpointStats {
+        final StepStats step;
+        final Histogram recorded = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder statusMismatches = new LongAdder();
+
+        EndpointStats(String endpoint) {
+            this.step = new StepStats(endpoint);
+        }
+
+        JsonNode toJson() {
+            ObjectNode json = MAPPER.valueToTree(step.summary(1));
+            json.remove("step");
+            json.remove("throughputPerSec");
+            json.remove("rejected");
+            json.put("statusMismatches", statusMismatches.sum());
+            json.set("recordedMs", MAPPER.valueToTree(StepStats.percentiles(recorded)));
+            json.put("correctedHistogram", encode(step.corrected));
+            json.put("recordedHistogram", encode(recorded));
+            return json;
+        }
+    }
+}
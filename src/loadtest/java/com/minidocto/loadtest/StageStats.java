@@ -0,0 +1,64 @@
+package com.minidocto.loadtest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Step statistics of one load stage. Nothing is recorded until {@link #startRecording()}, so the
+ * warm-up phase does not pollute the histograms.
+ */
+class StageStats {
+    final int level;
+    private final Map<String, StepStats> steps = new ConcurrentHashMap<>();
+    private final List<String> stepOrder = Collections.synchronizedList(new ArrayList<>());
+    final LongAdder journeysCompleted = new LongAdder();
+    final LongAdder journeysAborted = new LongAdder();
+    final LongAdder journeysDropped = new LongAdder();
+    private volatile boolean recording;
+    private volatile long recordingStartNanos;
+    private volatile long recordingEndNanos;
+
+    StageStats(int level) {
+        this.level = level;
+    }
+
+    void startRecording() {
+        recordingStartNanos = System.nanoTime();
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+        recordingEndNanos = System.nanoTime();
+    }
+
+    boolean isRecording() {
+        return recording;
+    }
+
+    StepStats step(String name) {
+        return steps.computeIfAbsent(name, key -> {
+            stepOrder.add(key);
+            return new StepStats(key);
+        });
+    }
+
+    Map<String, Object> summary() {
+        double seconds = Math.max(1e-9, (recordingEndNanos - recordingStartNanos) / 1e9);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("level", level);
+        summary.put("seconds", Math.round(seconds));
+        summary.put("journeysPerSec", Math.round(journeysCompleted.sum() / seconds * 10) / 10.0);
+        summary.put("journeysAborted", journeysAborted.sum());
+        summary.put("journeysDropped", journeysDropped.sum());
+        List<Map<String, Object>> stepSummaries = new ArrayList<>();
+        synchronized (stepOrder) {
+            for (String name : stepOrder) {
+                stepSummaries.add(steps.get(name).summary(seconds));
+            }
+        }
+        summary.put("steps", stepSummaries);
+        return summary;
+    }
+}
@@ -0,0 +1,72 @@
+package com.minidocto.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts of one journey step. Two histograms are kept (microseconds):
+ * {@code corrected} measures from the time the request was meant to be sent, so a stalled server
+ * is charged for the requests it delayed (coordinated omission); {@code service} measures from the
+ * time it was actually sent.
+ */
+class StepStats {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final String name;
+    final Histogram corrected = new ConcurrentHistogram(MAX_MICROS, 3);
+    final Histogram service = new ConcurrentHistogram(MAX_MICROS, 3);
+    final LongAdder ok = new LongAdder();
+    final LongAdder rejected = new LongAdder(); // Expected 4xx, e.g. a slot booked by someone else
+    final LongAdder errors = new LongAdder(); // 5xx, timeouts and connection failures
+
+    StepStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param expectedIntervalMicros closed model: the interval at which the user would have sent
+     *                               requests had the server kept up, used to back-fill the samples
+     *                               it prevented; 0 when latency is already measured from the intended time
+     */
+    void record(long intendedStartNanos, long sentNanos, long endNanos, long expectedIntervalMicros) {
+        long serviceMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(endNanos - sentNanos), MAX_MICROS);
+        long correctedMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos), MAX_MICROS);
+        service.recordValue(serviceMicros);
+        if (expectedIntervalMicros > 0) {
+            corrected.recordValueWithExpectedInterval(correctedMicros, expectedIntervalMicros);
+        } else {
+            corrected.recordValue(correctedMicros);
+        }
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("step", name);
+        summary.put("ok", ok.sum());
+        summary.put("rejected", rejected.sum());
+        summary.put("errors", errors.sum());
+        summary.put("throughputPerSec", Math.round(service.getTotalCount() / seconds * 10) / 10.0);
+        summary.put("correctedMs", percentiles(corrected));
+        summary.put("serviceMs", percentiles(service));
+        return summary;
+    }
+
+    static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p90", millis(histogram.getValueAtPercentile(90)));
+        percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+}
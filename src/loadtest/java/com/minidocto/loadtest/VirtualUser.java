@@ -0,0 +1,142 @@
+package com.minidocto.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One simulated user running a journey: sends each step when it is due (after an exponential think
+ * time), records its latency, and keeps the JWT obtained at login.
+ */
+class VirtualUser {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    final Random random;
+    private final HttpClient client;
+    private final LoadTestConfig config;
+    private final StageStats stats;
+    private final long expectedIntervalMicros;
+    private long nextIntendedStartNanos;
+    private String token;
+
+    /**
+     * @param intendedStartNanos when the journey was scheduled to start (open model), or now
+     */
+    VirtualUser(HttpClient client, LoadTestConfig config, StageStats stats, Random random, long intendedStartNanos) {
+        this.client = client;
+        this.config = config;
+        this.stats = stats;
+        this.random = random;
+        this.nextIntendedStartNanos = intendedStartNanos;
+        // Open model latencies already start at the scheduled time; the closed model back-fills instead
+        this.expectedIntervalMicros = config.model == LoadTestConfig.Model.CLOSED
+                ? TimeUnit.MILLISECONDS.toMicros(config.thinkTimeMs) : 0;
+    }
+
+    long nextIntendedStartNanos() {
+        return nextIntendedStartNanos;
+    }
+
+    void login(String step, String path, String email) throws JourneyAbortedException {
+        JsonNode response = call(step, "POST", path, MAPPER.createObjectNode()
+                .put("email", email)
+                .put("password", config.password));
+        token = response.path("token").asText(null);
+        if (token == null) {
+            throw new JourneyAbortedException(step + ": no token for " + email);
+        }
+    }
+
+    /**
+     * Send a step and return its JSON body, or abort the journey if it did not succeed.
+     */
+    JsonNode call(String step, String method, String path, Object body) throws JourneyAbortedException {
+        waitUntil(nextIntendedStartNanos);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(config.baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        StepStats stepStats = stats.step(step);
+        long intended = nextIntendedStartNanos;
+        long sent = System.nanoTime();
+        HttpResponse<byte[]> response = null;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            // Timeouts and connection failures count as errors below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JourneyAbortedException(step + ": interrupted");
+        }
+        long end = System.nanoTime();
+        nextIntendedStartNanos = end + thinkTimeNanos();
+
+        boolean recording = stats.isRecording();
+        if (recording) {
+            stepStats.record(intended, sent, end, expectedIntervalMicros);
+        }
+        int status = response != null ? response.statusCode() : 0;
+        if (status >= 200 && status < 300) {
+            if (recording) {
+                stepStats.ok.increment();
+            }
+            try {
+                byte[] bytes = response.body();
+                return bytes.length > 0 ? MAPPER.readTree(bytes) : MAPPER.nullNode();
+            } catch (IOException e) {
+                throw new JourneyAbortedException(step + ": unreadable response");
+            }
+        }
+        if (recording) {
+            (status >= 400 && status < 500 ? stepStats.rejected : stepStats.errors).increment();
+        }
+        throw new JourneyAbortedException(step + ": HTTP " + (status == 0 ? "failure" : status));
+    }
+
+    private long thinkTimeNanos() {
+        if (config.thinkTimeMs <= 0) {
+            return 0;
+        }
+        double exponential = -Math.log(1 - random.nextDouble()) * config.thinkTimeMs;
+        return TimeUnit.MICROSECONDS.toNanos(Math.round(exponential * 1000));
+    }
+
+    static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    static class JourneyAbortedException extends Exception {
+        JourneyAbortedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.minidocto.appointment.controller;
 
 import com.minidocto.appointment.dto.*;
+import com.minidocto.appointment.service.AppointmentExportService;
 import com.minidocto.appointment.service.AppointmentService;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.minidocto.user.repository.UserRepository;
 import com.minidocto.user.model.User;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/appointments")
 @RequiredArgsConstructor
@@ -21,6 +28,7 @@ public class AppointmentController {
     private static final Logger logger = LoggerFactory.getLogger(AppointmentController.class);
 
     private final AppointmentService appointmentService;
+    private final AppointmentExportService appointmentExportService;
     private final UserRepository userRepository;
 
     @PostMapping("/book")
@@ -69,6 +77,86 @@ public class AppointmentController {
         }
     }
 
+    @PostMapping("/hold")
+    public ResponseEntity<SlotHoldResponse> holdSlot(
+            @RequestBody BookAppointmentRequest request,
+            Authentication authentication) {
+        
+        try {
+            if (!request.isValid()) {
+                return ResponseEntity.badRequest().body(SlotHoldResponse.builder()
+                        .success(false)
+                        .message(request.getValidationError())
+                        .build());
+            }
+            
+            SlotHoldResponse response = appointmentService.holdSlot(
+                    currentUserId(authentication), request.getDoctorId(), request.getSlotId());
+            
+            return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            logger.error("Error holding slot", e);
+            return ResponseEntity.internalServerError().body(SlotHoldResponse.builder()
+                    .success(false)
+                    .message("Internal server error. Please try again.")
+                    .build());
+        }
+    }
+
+    @PostMapping("/hold/confirm")
+    public ResponseEntity<AppointmentResponse> confirmHold(
+            @RequestBody BookAppointmentRequest request,
+            Authentication authentication) {
+        
+        try {
+            if (!request.isValid()) {
+                return ResponseEntity.badRequest().body(AppointmentResponse.builder()
+                        .success(false)
+                        .message(request.getValidationError())
+                        .build());
+            }
+            
+            AppointmentResponse response = appointmentService.confirmHold(
+                    currentUserId(authentication), request.getDoctorId(), request.getSlotId());
+            
+            return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            logger.error("Error confirming slot hold", e);
+            return ResponseEntity.internalServerError().body(AppointmentResponse.builder()
+                    .success(false)
+                    .message("Internal server error. Please try again.")
+                    .build());
+        }
+    }
+
+    @DeleteMapping("/hold/{slotId}")
+    public ResponseEntity<SlotHoldResponse> releaseHold(
+            @PathVariable String slotId,
+            Authentication authentication) {
+        
+        try {
+            SlotHoldResponse response = appointmentService.releaseHold(currentUserId(authentication), slotId);
+            
+            return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            logger.error("Error releasing slot hold", e);
+            return ResponseEntity.internalServerError().body(SlotHoldResponse.builder()
+                    .success(false)
+                    .message("Internal server error. Please try again.")
+                    .build());
+        }
+    }
+
+    private ObjectId currentUserId(Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return new ObjectId(user.getId());
+    }
+
     @GetMapping("/me")
     public ResponseEntity<AppointmentListResponse> getMyAppointments(
             @RequestParam(value = "page", defaultValue = "0") int page,
@@ -144,6 +232,80 @@ public class AppointmentController {
         }
     }
 
+    // Archived appointments of the authenticated patient (settled and past the retention window)
+    @GetMapping("/me/history")
+    public ResponseEntity<AppointmentListResponse> getMyAppointmentHistory(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User patient = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(appointmentService.getPatientAppointmentHistory(new ObjectId(patient.getId()), page, size));
+    }
+
+    // Archived appointments of the authenticated doctor
+    @GetMapping("/doctor/me/history")
+    public ResponseEntity<AppointmentListResponse> getMyDoctorAppointmentHistory(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User doctor = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!doctor.getRole().equals(com.minidocto.user.model.Role.PRO)) {
+            return ResponseEntity.status(403).body(AppointmentListResponse.builder()
+                    .success(false)
+                    .message("Access denied. Only doctors can access this endpoint.")
+                    .appointments(java.util.List.of())
+                    .totalCount(0)
+                    .build());
+        }
+        return ResponseEntity.ok(appointmentService.getDoctorAppointmentHistory(new ObjectId(doctor.getId()), page, size));
+    }
+
+    // Full history export for the authenticated patient, streamed as it is read (format: ndjson or csv)
+    @GetMapping("/me/export")
+    public ResponseEntity<StreamingResponseBody> exportMyAppointments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        AppointmentExportService.Format exportFormat = AppointmentExportService.Format.of(format);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User patient = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        ObjectId patientId = new ObjectId(patient.getId());
+
+        return exportResponse(exportFormat,
+                out -> appointmentExportService.exportPatientAppointments(patientId, exportFormat, out));
+    }
+
+    // Full history export for the authenticated doctor, e.g. for billing (format: ndjson or csv)
+    @GetMapping("/doctor/me/export")
+    public ResponseEntity<StreamingResponseBody> exportMyDoctorAppointments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        AppointmentExportService.Format exportFormat = AppointmentExportService.Format.of(format);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User doctor = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!doctor.getRole().equals(com.minidocto.user.model.Role.PRO)) {
+            return ResponseEntity.status(403).build();
+        }
+        ObjectId doctorId = new ObjectId(doctor.getId());
+
+        return exportResponse(exportFormat,
+                out -> appointmentExportService.exportDoctorAppointments(doctorId, exportFormat, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(AppointmentExportService.Format format,
+                                                                        StreamingResponseBody body) {
+        String filename = "appointments-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     @DeleteMapping("/{appointmentId}")
     public ResponseEntity<AppointmentResponse> cancelAppointment(
             @PathVariable String appointmentId,
@@ -0,0 +1,18 @@
+package com.minidocto.appointment.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class SlotHoldResponse {
+    private boolean success;
+    private String message;
+    private String slotId;
+    private String doctorId;
+    private String startTime;
+    private String endTime;
+    private Instant holdExpiresAt;
+}
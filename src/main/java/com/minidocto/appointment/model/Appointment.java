@@ -5,6 +5,8 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
@@ -16,6 +18,15 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Document(collection = "appointments")
+@CompoundIndexes({
+    // Per-doctor and per-patient history, newest first for pages and oldest first for exports
+    @CompoundIndex(name = "doctorId_createdAt", def = "{'doctorId': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "patientId_createdAt", def = "{'patientId': 1, 'createdAt': -1}"),
+    // Lifecycle and archiving scans: appointments in a status, untouched since a given time
+    @CompoundIndex(name = "status_updatedAt", def = "{'status': 1, 'updatedAt': 1}"),
+    // Completion of the appointments held on past slots
+    @CompoundIndex(name = "slotId_status", def = "{'slotId': 1, 'status': 1}")
+})
 public class Appointment {
     @Id
     private String id;
@@ -3,6 +3,7 @@ package com.minidocto.appointment.repository;
 import com.minidocto.appointment.model.Appointment;
 import com.minidocto.appointment.model.AppointmentStatus;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.domain.Page;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends MongoRepository<Appointment, String> {
@@ -30,6 +32,14 @@ public interface AppointmentRepository extends MongoRepository<Appointment, Stri
     // Find all appointments by patient ID with pagination
     Page<Appointment> findByPatientIdOrderByCreatedAtDesc(ObjectId patientId, Pageable pageable);
     
+    // Stream a doctor's appointments through a cursor, oldest first (exports)
+    @Meta(cursorBatchSize = 500)
+    Stream<Appointment> streamByDoctorIdOrderByCreatedAtAsc(ObjectId doctorId);
+    
+    // Stream a patient's appointments through a cursor, oldest first (exports)
+    @Meta(cursorBatchSize = 500)
+    Stream<Appointment> streamByPatientIdOrderByCreatedAtAsc(ObjectId patientId);
+    
     // Find appointments by doctor ID
     List<Appointment> findByDoctorIdOrderByCreatedAtDesc(ObjectId doctorId);
     
@@ -37,7 +47,7 @@ public interface AppointmentRepository extends MongoRepository<Appointment, Stri
     Page<Appointment> findByDoctorIdOrderByCreatedAtDesc(ObjectId doctorId, Pageable pageable);
     
     // Check if patient has appointment on specific date
-    @Query("{ 'patientId': ?0, 'createdAt': { $gte: ?1, $lt: ?2 }, 'status': { $ne: 'CANCELLED' } }")
+    @Query("{ 'patientId': ?0, 'createdAt': { $gte: ?1, $lt: ?2 }, 'status': { $nin: ['CANCELLED', 'EXPIRED'] } }")
     List<Appointment> findPatientAppointmentsOnDate(ObjectId patientId, LocalDateTime startOfDay, LocalDateTime endOfDay);
     
     // Find existing appointment between patient and doctor (not completed or cancelled)
@@ -0,0 +1,146 @@
+package com.minidocto.appointment.repository;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.shared.inmemory.InMemoryRepository;
+import com.minidocto.shared.inmemory.SortedIndex;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link AppointmentRepository} for the "inmemory" profile.
+ * Appointments are indexed by patient, doctor, slot and status, each sorted by creation time,
+ * so the "OrderByCreatedAtDesc" queries are a descending walk of one partition.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryAppointmentRepository extends InMemoryRepository<Appointment> implements AppointmentRepository {
+    private static final List<AppointmentStatus> ACTIVE = List.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED);
+
+    private final SortedIndex<ObjectId, LocalDateTime> byPatient = new SortedIndex<>();
+    private final SortedIndex<ObjectId, LocalDateTime> byDoctor = new SortedIndex<>();
+    private final SortedIndex<ObjectId, LocalDateTime> bySlot = new SortedIndex<>();
+    private final SortedIndex<AppointmentStatus, LocalDateTime> byStatus = new SortedIndex<>();
+
+    @Override
+    public List<Appointment> findByPatientIdOrderByCreatedAtDesc(ObjectId patientId) {
+        return resolve(byPatient.idsDescending(patientId)).toList();
+    }
+
+    @Override
+    public List<Appointment> findUpcomingAppointmentsByPatient(ObjectId patientId) {
+        return resolve(byPatient.ids(patientId))
+                .filter(appointment -> ACTIVE.contains(appointment.getStatus()))
+                .toList();
+    }
+
+    @Override
+    public Page<Appointment> findUpcomingAppointmentsByPatient(ObjectId patientId, Pageable pageable) {
+        return page(resolve(byPatient.ids(patientId))
+                .filter(appointment -> ACTIVE.contains(appointment.getStatus())), pageable);
+    }
+
+    @Override
+    public Page<Appointment> findByPatientIdOrderByCreatedAtDesc(ObjectId patientId, Pageable pageable) {
+        return page(resolve(byPatient.idsDescending(patientId)), pageable);
+    }
+
+    @Override
+    public Stream<Appointment> streamByDoctorIdOrderByCreatedAtAsc(ObjectId doctorId) {
+        return resolve(byDoctor.ids(doctorId));
+    }
+
+    @Override
+    public Stream<Appointment> streamByPatientIdOrderByCreatedAtAsc(ObjectId patientId) {
+        return resolve(byPatient.ids(patientId));
+    }
+
+    @Override
+    public List<Appointment> findByDoctorIdOrderByCreatedAtDesc(ObjectId doctorId) {
+        return resolve(byDoctor.idsDescending(doctorId)).toList();
+    }
+
+    @Override
+    public Page<Appointment> findByDoctorIdOrderByCreatedAtDesc(ObjectId doctorId, Pageable pageable) {
+        return page(resolve(byDoctor.idsDescending(doctorId)), pageable);
+    }
+
+    @Override
+    public List<Appointment> findPatientAppointmentsOnDate(ObjectId patientId, LocalDateTime startOfDay,
+                                                           LocalDateTime endOfDay) {
+        return resolve(byPatient.ids(patientId, startOfDay, true, endOfDay, false))
+                .filter(appointment -> appointment.getStatus() != AppointmentStatus.CANCELLED
+                        && appointment.getStatus() != AppointmentStatus.EXPIRED)
+                .toList();
+    }
+
+    @Override
+    public Optional<Appointment> findActiveAppointmentBetweenPatientAndDoctor(ObjectId patientId, ObjectId doctorId) {
+        return single(resolve(byPatient.ids(patientId))
+                .filter(appointment -> Objects.equals(doctorId, appointment.getDoctorId())
+                        && ACTIVE.contains(appointment.getStatus())));
+    }
+
+    @Override
+    public Optional<Appointment> findBySlotId(ObjectId slotId) {
+        return single(resolve(bySlot.ids(slotId)));
+    }
+
+    @Override
+    public List<Appointment> findByStatus(AppointmentStatus status) {
+        return resolve(byStatus.ids(status)).toList();
+    }
+
+    @Override
+    public Optional<Appointment> findByIdAndPatientId(String appointmentId, ObjectId patientId) {
+        return findById(appointmentId).filter(appointment -> Objects.equals(patientId, appointment.getPatientId()));
+    }
+
+    @Override
+    protected String idOf(Appointment appointment) {
+        return appointment.getId();
+    }
+
+    @Override
+    protected void assignId(Appointment appointment, String id) {
+        appointment.setId(id);
+    }
+
+    @Override
+    protected Appointment copy(Appointment appointment) {
+        return Appointment.builder()
+                .id(appointment.getId())
+                .doctorId(appointment.getDoctorId())
+                .patientId(appointment.getPatientId())
+                .slotId(appointment.getSlotId())
+                .status(appointment.getStatus())
+                .createdAt(appointment.getCreatedAt())
+                .updatedAt(appointment.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    protected void index(Appointment appointment) {
+        byPatient.add(appointment.getPatientId(), appointment.getCreatedAt(), appointment.getId());
+        byDoctor.add(appointment.getDoctorId(), appointment.getCreatedAt(), appointment.getId());
+        bySlot.add(appointment.getSlotId(), appointment.getCreatedAt(), appointment.getId());
+        byStatus.add(appointment.getStatus(), appointment.getCreatedAt(), appointment.getId());
+    }
+
+    @Override
+    protected void unindex(Appointment appointment) {
+        byPatient.remove(appointment.getPatientId(), appointment.getCreatedAt(), appointment.getId());
+        byDoctor.remove(appointment.getDoctorId(), appointment.getCreatedAt(), appointment.getId());
+        bySlot.remove(appointment.getSlotId(), appointment.getCreatedAt(), appointment.getId());
+        byStatus.remove(appointment.getStatus(), appointment.getCreatedAt(), appointment.getId());
+    }
+}
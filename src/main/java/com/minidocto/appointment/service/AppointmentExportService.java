@@ -0,0 +1,248 @@
+package com.minidocto.appointment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.appointment.dto.AppointmentDTO;
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.repository.AppointmentRepository;
+import com.minidocto.archive.repository.ArchiveRepository;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.shared.exception.BadRequestException;
+import com.minidocto.user.model.UserCard;
+import com.minidocto.user.service.UserCardCache;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Full appointment history exports (NDJSON or CSV) for a doctor or a patient, archived
+ * appointments first, then the live ones. Appointments are read through MongoDB cursors and enriched a batch at a time, with one bulk
+ * lookup for the batch's slots and one for its users, then written straight to the output.
+ * Memory is bounded by the batch size, not by the length of the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentExportService {
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentExportService.class);
+
+    static final int BATCH_SIZE = 500;
+    private static final List<String> CSV_COLUMNS = List.of("id", "status", "startTime", "endTime",
+            "doctorId", "doctorName", "doctorSpecialty", "patientId", "patientName", "patientEmail",
+            "createdAt", "updatedAt");
+
+    private final AppointmentRepository appointmentRepository;
+    private final AvailabilitySlotRepository availabilitySlotRepository;
+    private final UserCardCache userCardCache;
+    private final ArchiveRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported export format: " + value + " (expected ndjson or csv)");
+        }
+    }
+
+    /**
+     * Write all of a doctor's appointments, oldest first.
+     *
+     * @return number of appointments written
+     */
+    public long exportDoctorAppointments(ObjectId doctorId, Format format, OutputStream out) throws IOException {
+        try (Stream<Appointment> appointments = oneAfterAnother(List.of(
+                () -> archiveRepository.streamDoctorAppointments(doctorId),
+                () -> appointmentRepository.streamByDoctorIdOrderByCreatedAtAsc(doctorId)))) {
+            long count = export(appointments, format, out);
+            logger.info("Exported {} appointments for doctor {} as {}", count, doctorId, format);
+            return count;
+        }
+    }
+
+    /**
+     * Write all of a patient's appointments, oldest first.
+     *
+     * @return number of appointments written
+     */
+    public long exportPatientAppointments(ObjectId patientId, Format format, OutputStream out) throws IOException {
+        try (Stream<Appointment> appointments = oneAfterAnother(List.of(
+                () -> archiveRepository.streamPatientAppointments(patientId),
+                () -> appointmentRepository.streamByPatientIdOrderByCreatedAtAsc(patientId)))) {
+            long count = export(appointments, format, out);
+            logger.info("Exported {} appointments for patient {} as {}", count, patientId, format);
+            return count;
+        }
+    }
+
+    /**
+     * Concatenate the sources, opening each one only when the previous one is exhausted and closing it then.
+     * A cursor opened up front would sit idle behind a long archive and hit the server's idle-cursor timeout.
+     * Unlike {@code flatMap}, pulling through {@code iterator()} never buffers a whole source.
+     */
+    static <T> Stream<T> oneAfterAnother(List<Supplier<Stream<T>>> sources) {
+        SequentialSpliterator<T> spliterator = new SequentialSpliterator<>(sources.iterator());
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::closeCurrent);
+    }
+
+    long export(Stream<Appointment> appointments, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+        }
+        long count = 0;
+        List<Appointment> batch = new ArrayList<>(BATCH_SIZE);
+        Iterator<Appointment> cursor = appointments.iterator();
+        while (cursor.hasNext()) {
+            batch.add(cursor.next());
+            if (batch.size() == BATCH_SIZE || !cursor.hasNext()) {
+                for (AppointmentDTO row : enrich(batch)) {
+                    writeRow(writer, format, row);
+                }
+                count += batch.size();
+                batch.clear();
+                // Hand each batch to the client as soon as it is ready
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private List<AppointmentDTO> enrich(List<Appointment> batch) {
+        List<String> slotIds = distinct(batch.stream().map(Appointment::getSlotId));
+        Map<String, AvailabilitySlot> slots = new HashMap<>(byId(availabilitySlotRepository.findAllById(slotIds),
+                AvailabilitySlot::getId));
+        if (slots.size() < slotIds.size()) {
+            // Slots of old appointments may have been archived
+            List<String> missing = slotIds.stream().filter(id -> !slots.containsKey(id)).toList();
+            slots.putAll(byId(archiveRepository.findSlotsById(missing), AvailabilitySlot::getId));
+        }
+        Map<String, UserCard> users = userCardCache.getAll(distinct(batch.stream()
+                .flatMap(appointment -> Stream.of(appointment.getDoctorId(), appointment.getPatientId()))));
+
+        List<AppointmentDTO> rows = new ArrayList<>(batch.size());
+        for (Appointment appointment : batch) {
+            rows.add(AppointmentService.toDTO(appointment,
+                    slots.get(hex(appointment.getSlotId())),
+                    users.get(hex(appointment.getDoctorId())),
+                    users.get(hex(appointment.getPatientId()))));
+        }
+        return rows;
+    }
+
+    private void writeRow(Writer writer, Format format, AppointmentDTO row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+            return;
+        }
+        List<Object> values = Arrays.asList(row.getId(), row.getStatus(), row.getStartTime(), row.getEndTime(),
+                row.getDoctorId(), row.getDoctorName(), row.getDoctorSpecialty(), row.getPatientId(),
+                row.getPatientName(), row.getPatientEmail(), row.getCreatedAt(), row.getUpdatedAt());
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            // Keep spreadsheets from evaluating names or emails as formulas
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static List<String> distinct(Stream<ObjectId> ids) {
+        return ids.filter(Objects::nonNull).map(ObjectId::toHexString).distinct().toList();
+    }
+
+    private static <T> Map<String, T> byId(List<T> documents, Function<T, String> id) {
+        return documents.stream().collect(Collectors.toMap(id, Function.identity(), (first, second) -> first));
+    }
+
+    private static String hex(ObjectId id) {
+        return id != null ? id.toHexString() : null;
+    }
+
+    private static final class SequentialSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Iterator<Supplier<Stream<T>>> pending;
+        private Stream<T> current;
+        private Spliterator<T> currentSpliterator;
+
+        SequentialSpliterator(Iterator<Supplier<Stream<T>>> pending) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.pending = pending;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (current == null) {
+                    if (!pending.hasNext()) {
+                        return false;
+                    }
+                    current = pending.next().get();
+                    currentSpliterator = current.spliterator();
+                }
+                if (currentSpliterator.tryAdvance(action)) {
+                    return true;
+                }
+                closeCurrent();
+            }
+        }
+
+        void closeCurrent() {
+            if (current != null) {
+                current.close();
+                current = null;
+                currentSpliterator = null;
+            }
+        }
+    }
+}
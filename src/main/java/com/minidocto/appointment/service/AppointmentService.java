@@ -4,47 +4,92 @@ import com.minidocto.appointment.dto.*;
 import com.minidocto.appointment.model.Appointment;
 import com.minidocto.appointment.model.AppointmentStatus;
 import com.minidocto.appointment.repository.AppointmentRepository;
+import com.minidocto.archive.repository.ArchiveRepository;
 import com.minidocto.availability.model.AvailabilitySlot;
 import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
 import com.minidocto.availability.repository.AvailabilitySlotRepository;
-import com.minidocto.user.model.User;
-import com.minidocto.user.repository.UserRepository;
+import com.minidocto.availability.service.DoctorDirectoryCache;
+import com.minidocto.availability.service.SlotOverlapGuard;
+import com.minidocto.user.model.UserCard;
+import com.minidocto.user.service.UserCardCache;
 import com.minidocto.shared.exception.ResourceNotFoundException;
 import com.minidocto.shared.exception.BadRequestException;
+import com.minidocto.shared.config.HoldProperties;
+import com.minidocto.shared.audit.AuditLog;
+import com.minidocto.shared.cache.InvalidationBus;
+import com.minidocto.shared.outbox.OutboxPublisher;
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.service.WaitlistService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import com.minidocto.availability.dto.PaginationDTO;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("minidocto.service")
 public class AppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
+    private static final String HOLD_LAPSED_MESSAGE = "You do not hold this time slot, or your hold has expired. Please hold it again.";
 
     private final AppointmentRepository appointmentRepository;
     private final AvailabilitySlotRepository availabilitySlotRepository;
-    private final UserRepository userRepository;
+    private final UserCardCache userCardCache;
+    private final SlotOverlapGuard slotOverlapGuard;
+    private final BookingMetrics bookingMetrics;
+    private final ArchiveRepository archiveRepository;
+    private final HoldProperties holdProperties;
+    private final WaitlistService waitlistService;
+    private final OutboxPublisher outboxPublisher;
+    private final AuditLog auditLog;
+    private final InvalidationBus invalidationBus;
 
     @Transactional
     public AppointmentResponse bookAppointment(ObjectId patientId, String doctorIdStr, String slotIdStr) {
-        logger.info("Attempting to book appointment - PatientId: {}, DoctorId: {}, SlotId: {}", 
-                   patientId, doctorIdStr, slotIdStr);
+        return book(patientId, doctorIdStr, slotIdStr, false);
+    }
+
+    /**
+     * Second phase of a hold: book the slot the patient holds, as {@link #bookAppointment} would an open one.
+     */
+    @Transactional
+    public AppointmentResponse confirmHold(ObjectId patientId, String doctorIdStr, String slotIdStr) {
+        AppointmentResponse response = book(patientId, doctorIdStr, slotIdStr, true);
+        if (response.isSuccess()) {
+            waitlistService.slotConfirmed(patientId, slotIdStr);
+        }
+        return response;
+    }
+
+    private AppointmentResponse book(ObjectId patientId, String doctorIdStr, String slotIdStr, boolean fromHold) {
+        logger.info("Attempting to book appointment - PatientId: {}, DoctorId: {}, SlotId: {}, FromHold: {}", 
+                   patientId, doctorIdStr, slotIdStr, fromHold);
         
+        boolean slotClaimed = false;
+        boolean booked = false;
+        AvailabilitySlot slot = null;
         try {
             // Convert string IDs to ObjectIds
             ObjectId doctorId = new ObjectId(doctorIdStr);
@@ -53,13 +98,23 @@ public class AppointmentService {
             logger.debug("Converted ObjectIds - DoctorId: {}, SlotId: {}", doctorId, slotId);
 
             // Validate the availability slot exists and is available
-            AvailabilitySlot slot = availabilitySlotRepository.findById(slotIdStr)
+            slot = availabilitySlotRepository.findById(slotIdStr)
                     .orElseThrow(() -> new ResourceNotFoundException("Availability slot not found with ID: " + slotIdStr));
 
             logger.debug("Found slot: {} with status: {}", slot.getId(), slot.getStatus());
 
-            // Check if slot is available
-            if (slot.getStatus() != SlotStatus.AVAILABLE) {
+            if (fromHold) {
+                if (!isActiveHold(slot, patientId)) {
+                    logger.warn("Hold confirmation failed - SlotId: {}, Status: {}, HeldBy: {}, RequestedBy: {}",
+                               slotIdStr, slot.getStatus(), slot.getBookedBy(), patientId);
+                    bookingMetrics.slotTaken();
+                    return AppointmentResponse.builder()
+                            .success(false)
+                            .message(HOLD_LAPSED_MESSAGE)
+                            .build();
+                }
+            } else if (slot.getStatus() != SlotStatus.AVAILABLE) {
+                // Slots on hold read as taken: they are mid-checkout for another patient
                 String message = "This time slot is no longer available. Current status: " + slot.getStatus();
                 if (slot.getBookedBy() != null) {
                     if (slot.getBookedBy().equals(patientId)) {
@@ -70,6 +125,7 @@ public class AppointmentService {
                 }
                 logger.warn("Slot booking failed - SlotId: {}, Status: {}, BookedBy: {}, RequestedBy: {}", 
                            slotIdStr, slot.getStatus(), slot.getBookedBy(), patientId);
+                bookingMetrics.slotTaken();
                            
                 return AppointmentResponse.builder()
                         .success(false)
@@ -79,6 +135,7 @@ public class AppointmentService {
 
             // Validate doctor ID matches slot's doctor ID
             if (!slot.getDoctorId().equals(doctorId)) {
+                bookingMetrics.failed();
                 return AppointmentResponse.builder()
                         .success(false)
                         .message("Invalid doctor for this time slot")
@@ -90,25 +147,47 @@ public class AppointmentService {
                     .findActiveAppointmentBetweenPatientAndDoctor(patientId, doctorId);
             
             boolean isRebooking = existingAppointmentOpt.isPresent();
+            String replacedSlotId = isRebooking && existingAppointmentOpt.get().getSlotId() != null
+                    ? existingAppointmentOpt.get().getSlotId().toString() : null;
+
+            // A started slot is never booked: lifecycle runs only complete appointments of slots that start later
+            String now = SlotTimes.now();
+            if (slot.getStartTime().compareTo(now) <= 0) {
+                bookingMetrics.slotTaken();
+                return AppointmentResponse.builder()
+                        .success(false)
+                        .message("This time slot has already started")
+                        .build();
+            }
+
+            // Claim the slot before touching appointments, so a concurrent booking or a lapsed hold changes nothing
+            boolean claimed = fromHold
+                    ? availabilitySlotRepository.confirmHold(slotIdStr, patientId, now, Instant.now())
+                    : availabilitySlotRepository.bookSlot(slotIdStr, patientId, now);
+            if (!claimed) {
+                bookingMetrics.slotTaken();
+                return AppointmentResponse.builder()
+                        .success(false)
+                        .message(fromHold ? HOLD_LAPSED_MESSAGE : "This time slot is no longer available")
+                        .build();
+            }
+            slotClaimed = true;
+
+            // Reject double-booking: the patient must not hold another slot overlapping this one.
+            // Checked after the claim, so two overlapping bookings on different nodes cannot both pass
+            if (slotOverlapGuard.overlapsPatientBooking(patientId, slot, replacedSlotId)) {
+                bookingMetrics.doubleBooked();
+                return AppointmentResponse.builder()
+                        .success(false)
+                        .message("You already have another appointment at this time")
+                        .build();
+            }
+
             Appointment appointmentToSave;
             
             if (isRebooking) {
-                // UPDATE existing appointment with new slot
+                // UPDATE existing appointment with new slot; the old slot is freed once this is saved
                 Appointment existingAppointment = existingAppointmentOpt.get();
-                
-                // Free up the old slot if it exists
-                if (existingAppointment.getSlotId() != null) {
-                    Optional<AvailabilitySlot> oldSlotOpt = availabilitySlotRepository
-                            .findById(existingAppointment.getSlotId().toString());
-                    if (oldSlotOpt.isPresent()) {
-                        AvailabilitySlot oldSlot = oldSlotOpt.get();
-                        oldSlot.setStatus(SlotStatus.AVAILABLE);
-                        oldSlot.setBookedBy(null);
-                        availabilitySlotRepository.save(oldSlot);
-                    }
-                }
-                
-                // Update existing appointment with new slot
                 existingAppointment.setSlotId(slotId);
                 existingAppointment.setStatus(AppointmentStatus.PENDING);
                 existingAppointment.setUpdatedAt(LocalDateTime.now());
@@ -132,31 +211,45 @@ public class AppointmentService {
             // Save appointment (either new or updated)
             Appointment savedAppointment = appointmentRepository.save(appointmentToSave);
 
-            // Update new slot status to BOOKED and set bookedBy
-            slot.setStatus(SlotStatus.BOOKED);
-            slot.setBookedBy(patientId);
-            availabilitySlotRepository.save(slot);
+            booked = true;
+            String appointmentId = savedAppointment.getId();
+            if (replacedSlotId != null) {
+                afterBooking(appointmentId, "freeing the replaced slot",
+                        () -> freeReplacedSlot(replacedSlotId, patientId));
+            }
+            String action = isRebooking ? "appointment.rebooked" : "appointment.booked";
+            Map<String, Object> payload = eventPayload(savedAppointment, slot);
+            afterBooking(appointmentId, "the outbox event", () -> outboxPublisher.publish(action, appointmentId, payload));
+            afterBooking(appointmentId, "the audit record", () -> auditLog.record(action, patientId, appointmentId, payload));
+            afterBooking(appointmentId, "the directory invalidation",
+                    () -> invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null));
 
             // Get doctor details (name and specialty) for response
-            Optional<User> doctorOpt = userRepository.findById(doctorIdStr);
+            Map<String, UserCard> cards = Map.of();
+            try {
+                cards = userCardCache.getAll(List.of(doctorIdStr, patientId.toHexString()));
+            } catch (RuntimeException e) {
+                logger.warn("Could not load user cards for appointment {}: {}", appointmentId, e.getMessage());
+            }
+            Optional<UserCard> doctorOpt = Optional.ofNullable(cards.get(doctorIdStr));
             String doctorName = "Unknown Doctor";
             String doctorSpecialty = "Unknown Specialty";
             
             if (doctorOpt.isPresent()) {
-                User doctor = doctorOpt.get();
-                doctorName = doctor.getName() != null ? doctor.getName() : "Unknown Doctor";
-                doctorSpecialty = doctor.getSpecialty() != null ? doctor.getSpecialty() : "General Practice";
+                UserCard doctor = doctorOpt.get();
+                doctorName = doctor.name() != null ? doctor.name() : "Unknown Doctor";
+                doctorSpecialty = doctor.specialty() != null ? doctor.specialty() : "General Practice";
             }
 
             // Get patient details for response
-            Optional<User> patientOpt = userRepository.findById(patientId.toString());
+            Optional<UserCard> patientOpt = Optional.ofNullable(cards.get(patientId.toHexString()));
             String patientName = "Unknown Patient";
             String patientEmail = "Unknown Email";
             
             if (patientOpt.isPresent()) {
-                User patient = patientOpt.get();
-                patientName = patient.getName() != null ? patient.getName() : "Unknown Patient";
-                patientEmail = patient.getEmail() != null ? patient.getEmail() : "Unknown Email";
+                UserCard patient = patientOpt.get();
+                patientName = patient.name() != null ? patient.name() : "Unknown Patient";
+                patientEmail = patient.email() != null ? patient.email() : "Unknown Email";
             }
 
             // Build response DTO
@@ -177,6 +270,11 @@ public class AppointmentService {
                     .build();
 
             logger.info("Appointment {} successfully: {}", isRebooking ? "rebooked" : "booked", savedAppointment.getId());
+            if (isRebooking) {
+                bookingMetrics.rebooked();
+            } else {
+                bookingMetrics.booked();
+            }
 
             String successMessage = isRebooking ? 
                     "Appointment rescheduled successfully" : 
@@ -191,24 +289,171 @@ public class AppointmentService {
         } catch (IllegalArgumentException e) {
             logger.error("Invalid ObjectId format - PatientId: {}, DoctorId: {}, SlotId: {}", 
                         patientId, doctorIdStr, slotIdStr, e);
+            rollbackOnFailure();
+            bookingMetrics.failed();
             return AppointmentResponse.builder()
                     .success(false)
                     .message("Invalid ID format: " + e.getMessage())
                     .build();
         } catch (ResourceNotFoundException e) {
             logger.error("Resource not found: {}", e.getMessage(), e);
+            rollbackOnFailure();
+            bookingMetrics.failed();
             return AppointmentResponse.builder()
                     .success(false)
                     .message(e.getMessage())
                     .build();
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
+            // Unexpected (e.g. a database timeout): propagated so the client gets a 5xx and may retry,
+            // rather than a 400 that an idempotent retry would replay
             logger.error("Error booking appointment - PatientId: {}, DoctorId: {}, SlotId: {}", 
                         patientId, doctorIdStr, slotIdStr, e);
-            return AppointmentResponse.builder()
+            bookingMetrics.failed();
+            throw e;
+        } finally {
+            if (slotClaimed && !booked) {
+                // Put the slot back, open or held, so the patient can retry; conditional, so a slot
+                // deleted or changed in the meantime is left as it is
+                availabilitySlotRepository.releaseBooking(slotIdStr, patientId,
+                        fromHold ? slot.getHoldExpiresAt() : null);
+            }
+        }
+    }
+
+    /**
+     * Run a step that follows the appointment save. Inside a transaction a failure propagates and rolls
+     * the booking back with it; without one the booking is already written, so the failure is logged and
+     * the booking still succeeds.
+     */
+    private static void afterBooking(String appointmentId, String step, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw e;
+            }
+            logger.error("Appointment {} is booked but {} failed", appointmentId, step, e);
+        }
+    }
+
+    /**
+     * Free the slot a rebooked appointment moved away from, and offer it to the doctor's waitlist.
+     */
+    private void freeReplacedSlot(String slotId, ObjectId patientId) {
+        if (availabilitySlotRepository.releaseBooking(slotId, patientId, null)) {
+            availabilitySlotRepository.findById(slotId).ifPresent(oldSlot -> waitlistService.offer(oldSlot, patientId));
+        }
+    }
+
+    /**
+     * First phase of a two-phase booking: put an open slot on hold for the patient for the configured
+     * duration. Held slots are PENDING, so they leave the listings and cannot be booked by others; a
+     * patient holds one slot at a time, and lapsed holds are reopened by {@link SlotHoldSweeper}.
+     */
+    public SlotHoldResponse holdSlot(ObjectId patientId, String doctorIdStr, String slotIdStr) {
+        ObjectId doctorId;
+        try {
+            doctorId = new ObjectId(doctorIdStr);
+            new ObjectId(slotIdStr);
+        } catch (IllegalArgumentException e) {
+            bookingMetrics.failed();
+            return SlotHoldResponse.builder()
+                    .success(false)
+                    .message("Invalid ID format: " + e.getMessage())
+                    .build();
+        }
+
+        Instant now = Instant.now();
+        Optional<AvailabilitySlot> held = availabilitySlotRepository.holdSlot(slotIdStr, doctorId, patientId,
+                SlotTimes.now(), now, now.plus(holdProperties.getDuration()));
+        if (held.isEmpty()) {
+            String message = holdFailureMessage(slotIdStr, doctorId);
+            logger.info("Slot hold failed - SlotId: {}, PatientId: {}: {}", slotIdStr, patientId, message);
+            bookingMetrics.slotTaken();
+            return SlotHoldResponse.builder()
                     .success(false)
-                    .message("Failed to book appointment: " + e.getMessage())
+                    .message(message)
+                    .slotId(slotIdStr)
                     .build();
         }
+
+        List<String> released = availabilitySlotRepository.releaseOtherHolds(patientId, slotIdStr);
+        if (!released.isEmpty()) {
+            logger.debug("Released {} earlier hold(s) of patient {}", released.size(), patientId);
+        }
+        // An earlier hold may have been a waitlist offer: its slot goes to the next patient in the queue
+        released.forEach(releasedSlotId -> waitlistService.holdReleased(patientId, releasedSlotId));
+        bookingMetrics.held();
+
+        AvailabilitySlot slot = held.get();
+        auditLog.record("slot.held", patientId, slot.getId(), Map.of("doctorId", doctorIdStr,
+                "holdExpiresAt", slot.getHoldExpiresAt()));
+        invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null);
+        return SlotHoldResponse.builder()
+                .success(true)
+                .message("Slot held, confirm it before it expires")
+                .slotId(slot.getId())
+                .doctorId(doctorIdStr)
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .holdExpiresAt(slot.getHoldExpiresAt())
+                .build();
+    }
+
+    /**
+     * Give up a hold before it lapses, so the slot is open again at once.
+     */
+    public SlotHoldResponse releaseHold(ObjectId patientId, String slotIdStr) {
+        if (!ObjectId.isValid(slotIdStr) || !availabilitySlotRepository.releaseHold(slotIdStr, patientId)) {
+            return SlotHoldResponse.builder()
+                    .success(false)
+                    .message("You hold no such slot")
+                    .slotId(slotIdStr)
+                    .build();
+        }
+        bookingMetrics.holdReleased();
+        auditLog.record("slot.hold_released", patientId, slotIdStr, Map.of());
+        invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null);
+        waitlistService.holdReleased(patientId, slotIdStr);
+        return SlotHoldResponse.builder()
+                .success(true)
+                .message("Hold released")
+                .slotId(slotIdStr)
+                .build();
+    }
+
+    private String holdFailureMessage(String slotIdStr, ObjectId doctorId) {
+        Optional<AvailabilitySlot> slotOpt = availabilitySlotRepository.findById(slotIdStr);
+        if (slotOpt.isEmpty()) {
+            return "Availability slot not found with ID: " + slotIdStr;
+        }
+        AvailabilitySlot slot = slotOpt.get();
+        if (!doctorId.equals(slot.getDoctorId())) {
+            return "Invalid doctor for this time slot";
+        }
+        if (slot.getStartTime().compareTo(SlotTimes.now()) <= 0) {
+            return "This time slot has already started";
+        }
+        return "This time slot is no longer available";
+    }
+
+    private static Map<String, Object> eventPayload(Appointment appointment, AvailabilitySlot slot) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("appointmentId", appointment.getId());
+        payload.put("patientId", appointment.getPatientId().toHexString());
+        payload.put("doctorId", appointment.getDoctorId().toHexString());
+        payload.put("slotId", appointment.getSlotId() != null ? appointment.getSlotId().toHexString() : null);
+        payload.put("status", appointment.getStatus().name());
+        if (slot != null) {
+            payload.put("startTime", slot.getStartTime());
+            payload.put("endTime", slot.getEndTime());
+        }
+        return payload;
+    }
+
+    private static boolean isActiveHold(AvailabilitySlot slot, ObjectId patientId) {
+        return slot.getStatus() == SlotStatus.PENDING && patientId.equals(slot.getBookedBy())
+                && slot.getHoldExpiresAt() != null && slot.getHoldExpiresAt().isAfter(Instant.now());
     }
 
     public AppointmentListResponse getPatientAppointments(ObjectId patientId, int page, int size) {
@@ -330,6 +575,42 @@ public class AppointmentService {
         return getDoctorAppointments(doctorId, 0, 10); // Default: page 0, size 10
     }
 
+    /**
+     * Archived (settled and older) appointments of a patient, newest first.
+     */
+    public AppointmentListResponse getPatientAppointmentHistory(ObjectId patientId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toListResponse(archiveRepository.findPatientAppointments(patientId, pageable),
+                "Appointment history retrieved successfully");
+    }
+
+    /**
+     * Archived (settled and older) appointments of a doctor, newest first.
+     */
+    public AppointmentListResponse getDoctorAppointmentHistory(ObjectId doctorId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toListResponse(archiveRepository.findDoctorAppointments(doctorId, pageable),
+                "Doctor appointment history retrieved successfully");
+    }
+
+    private AppointmentListResponse toListResponse(Page<Appointment> appointmentPage, String message) {
+        PaginationDTO pagination = PaginationDTO.builder()
+                .currentPage(appointmentPage.getNumber())
+                .pageSize(appointmentPage.getSize())
+                .totalPages(appointmentPage.getTotalPages())
+                .totalItems((int) appointmentPage.getTotalElements())
+                .hasNextPage(appointmentPage.hasNext())
+                .hasPreviousPage(appointmentPage.hasPrevious())
+                .build();
+        return AppointmentListResponse.builder()
+                .success(true)
+                .message(message)
+                .appointments(appointmentPage.getContent().stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .totalCount((int) appointmentPage.getTotalElements())
+                .pagination(pagination)
+                .build();
+    }
+
     @Transactional
     public AppointmentResponse cancelAppointment(String appointmentId, ObjectId patientId) {
         try {
@@ -353,6 +634,13 @@ public class AppointmentService {
                         .build();
             }
 
+            if (appointment.getStatus() == AppointmentStatus.EXPIRED) {
+                return AppointmentResponse.builder()
+                        .success(false)
+                        .message("Appointment has expired")
+                        .build();
+            }
+
             if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
                 return AppointmentResponse.builder()
                         .success(false)
@@ -375,20 +663,33 @@ public class AppointmentService {
                             .build();
                 }
 
-                // Free up the slot
-                slot.setStatus(SlotStatus.AVAILABLE);
-                slot.setBookedBy(null);
+                // Free up the slot, or hand it straight to the head of the doctor's waitlist
+                Optional<WaitlistEntry> offer = waitlistService.claimHead(slot, patientId);
+                if (offer.isPresent()) {
+                    slot.setStatus(SlotStatus.PENDING);
+                    slot.setBookedBy(offer.get().getPatientId());
+                    slot.setHoldExpiresAt(offer.get().getOfferExpiresAt());
+                } else {
+                    slot.setStatus(SlotStatus.AVAILABLE);
+                    slot.setBookedBy(null);
+                }
                 availabilitySlotRepository.save(slot);
+                offer.ifPresent(entry -> waitlistService.announceOffer(slot, entry));
             }
 
             // Update appointment status
             appointment.setStatus(AppointmentStatus.CANCELLED);
             appointment.setUpdatedAt(LocalDateTime.now());
             Appointment updatedAppointment = appointmentRepository.save(appointment);
+            Map<String, Object> payload = eventPayload(updatedAppointment, slotOpt.orElse(null));
+            outboxPublisher.publish("appointment.cancelled", updatedAppointment.getId(), payload);
+            auditLog.record("appointment.cancelled", patientId, updatedAppointment.getId(), payload);
+            invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null);
 
             AppointmentDTO appointmentDTO = convertToDTO(updatedAppointment);
 
             logger.info("Appointment cancelled successfully: {}", appointmentId);
+            bookingMetrics.cancelled();
 
             return AppointmentResponse.builder()
                     .success(true)
@@ -398,6 +699,7 @@ public class AppointmentService {
 
         } catch (Exception e) {
             logger.error("Error cancelling appointment", e);
+            rollbackOnFailure();
             return AppointmentResponse.builder()
                     .success(false)
                     .message("Failed to cancel appointment. Please try again.")
@@ -405,38 +707,57 @@ public class AppointmentService {
         }
     }
 
-    private AppointmentDTO convertToDTO(Appointment appointment) {
-        // Get slot details
-        Optional<AvailabilitySlot> slotOpt = availabilitySlotRepository.findById(appointment.getSlotId().toString());
+    /**
+     * Booking and cancellation report failures as responses instead of throwing, so the transaction would
+     * otherwise commit whatever was written before the failure.
+     */
+    private static void rollbackOnFailure() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
+
+    AppointmentDTO convertToDTO(Appointment appointment) {
+        String slotId = appointment.getSlotId().toString();
+        // Slots of old appointments may have been archived
+        AvailabilitySlot slot = availabilitySlotRepository.findById(slotId)
+                .or(() -> archiveRepository.findSlotsById(List.of(slotId)).stream().findFirst())
+                .orElse(null);
+        String doctorId = appointment.getDoctorId().toHexString();
+        String patientId = appointment.getPatientId().toHexString();
+        Map<String, UserCard> cards = userCardCache.getAll(List.of(doctorId, patientId));
+        return toDTO(appointment, slot, cards.get(doctorId), cards.get(patientId));
+    }
+
+    /**
+     * Build the DTO from an appointment and its already loaded slot, doctor and patient (any may be null).
+     */
+    static AppointmentDTO toDTO(Appointment appointment, AvailabilitySlot slot, UserCard doctor, UserCard patient) {
+        // Slot details
         String startTime = "";
         String endTime = "";
         
-        if (slotOpt.isPresent()) {
-            AvailabilitySlot slot = slotOpt.get();
+        if (slot != null) {
             startTime = slot.getStartTime();
             endTime = slot.getEndTime();
         }
 
-        // Get doctor details (name and specialty)
-        Optional<User> doctorOpt = userRepository.findById(appointment.getDoctorId().toString());
+        // Doctor details (name and specialty)
         String doctorName = "Unknown Doctor";
         String doctorSpecialty = "Unknown Specialty";
         
-        if (doctorOpt.isPresent()) {
-            User doctor = doctorOpt.get();
-            doctorName = doctor.getName() != null ? doctor.getName() : "Unknown Doctor";
-            doctorSpecialty = doctor.getSpecialty() != null ? doctor.getSpecialty() : "General Practice";
+        if (doctor != null) {
+            doctorName = doctor.name() != null ? doctor.name() : "Unknown Doctor";
+            doctorSpecialty = doctor.specialty() != null ? doctor.specialty() : "General Practice";
         }
 
-        // Get patient details (name and email)
-        Optional<User> patientOpt = userRepository.findById(appointment.getPatientId().toString());
+        // Patient details (name and email)
         String patientName = "Unknown Patient";
         String patientEmail = "Unknown Email";
         
-        if (patientOpt.isPresent()) {
-            User patient = patientOpt.get();
-            patientName = patient.getName() != null ? patient.getName() : "Unknown Patient";
-            patientEmail = patient.getEmail() != null ? patient.getEmail() : "Unknown Email";
+        if (patient != null) {
+            patientName = patient.name() != null ? patient.name() : "Unknown Patient";
+            patientEmail = patient.email() != null ? patient.email() : "Unknown Email";
         }
 
         return AppointmentDTO.builder()
@@ -0,0 +1,78 @@
+package com.minidocto.appointment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for booking outcomes, exported as {@code minidocto.booking.outcomes{outcome=...}}.
+ * Every counter is registered once up front so recording an outcome is a single increment,
+ * with no tag lookup or allocation on the request path.
+ */
+@Component
+public class BookingMetrics {
+    private final Counter booked;
+    private final Counter rebooked;
+    private final Counter slotTaken;
+    private final Counter doubleBooked;
+    private final Counter failed;
+    private final Counter cancelled;
+    private final Counter held;
+    private final Counter holdReleased;
+    private final Counter holdExpired;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.booked = outcome(registry, "success");
+        this.rebooked = outcome(registry, "rebook");
+        this.slotTaken = outcome(registry, "slot_taken");
+        this.doubleBooked = outcome(registry, "double_booked");
+        this.failed = outcome(registry, "failed");
+        this.cancelled = outcome(registry, "cancel");
+        this.held = outcome(registry, "hold");
+        this.holdReleased = outcome(registry, "hold_released");
+        this.holdExpired = outcome(registry, "hold_expired");
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.booking.outcomes")
+                .description("Booking attempts and cancellations by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void booked() {
+        booked.increment();
+    }
+
+    public void rebooked() {
+        rebooked.increment();
+    }
+
+    public void slotTaken() {
+        slotTaken.increment();
+    }
+
+    public void doubleBooked() {
+        doubleBooked.increment();
+    }
+
+    public void failed() {
+        failed.increment();
+    }
+
+    public void cancelled() {
+        cancelled.increment();
+    }
+
+    public void held() {
+        held.increment();
+    }
+
+    public void holdReleased() {
+        holdReleased.increment();
+    }
+
+    public void holdsExpired(long count) {
+        holdExpired.increment(count);
+    }
+}
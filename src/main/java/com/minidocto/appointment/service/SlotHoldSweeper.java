@@ -0,0 +1,52 @@
+package com.minidocto.appointment.service;
+
+import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.waitlist.service.WaitlistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Reopens slots whose hold lapsed without a confirmation, so they show up in the listings again.
+ * Each sweep is one updateMany over the partial {status, holdExpiresAt} index, which holds only the
+ * slots on hold, so it costs nothing when no hold has lapsed. Sweeps are idempotent and run on every node.
+ * Correctness does not depend on them: a lapsed hold can be taken over, and can no longer be confirmed,
+ * as soon as it expires. Lapsed waitlist offers are passed on to the next patient first, so their slots
+ * go from one waiting patient to the next without being reopened in between.
+ */
+@Component
+public class SlotHoldSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(SlotHoldSweeper.class);
+
+    private final AvailabilitySlotRepository slotRepository;
+    private final BookingMetrics bookingMetrics;
+    private final WaitlistService waitlistService;
+
+    public SlotHoldSweeper(AvailabilitySlotRepository slotRepository, BookingMetrics bookingMetrics,
+                           WaitlistService waitlistService) {
+        this.slotRepository = slotRepository;
+        this.bookingMetrics = bookingMetrics;
+        this.waitlistService = waitlistService;
+    }
+
+    @Scheduled(initialDelayString = "${minidocto.hold.sweep-interval:PT15S}",
+            fixedDelayString = "${minidocto.hold.sweep-interval:PT15S}")
+    public void sweep() {
+        try {
+            int passedOn = waitlistService.passOnLapsedOffers();
+            if (passedOn > 0) {
+                logger.debug("Passed on {} lapsed waitlist offer(s)", passedOn);
+            }
+            long released = slotRepository.releaseExpiredHolds(Instant.now());
+            if (released > 0) {
+                bookingMetrics.holdsExpired(released);
+                logger.debug("Reopened {} slot(s) with a lapsed hold", released);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Expired hold sweep failed, retrying next run: {}", e.getMessage());
+        }
+    }
+}
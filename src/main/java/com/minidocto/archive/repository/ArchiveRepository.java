@@ -0,0 +1,30 @@
+package com.minidocto.archive.repository;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.availability.model.AvailabilitySlot;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read path over archived slots and appointments, moved out of the hot collections by the
+ * {@link com.minidocto.archive.service.Archiver}. Archived documents keep their IDs and shape.
+ */
+public interface ArchiveRepository {
+
+    List<AvailabilitySlot> findSlotsById(Collection<String> slotIds);
+
+    // Archived appointments, newest first
+    Page<Appointment> findPatientAppointments(ObjectId patientId, Pageable pageable);
+
+    Page<Appointment> findDoctorAppointments(ObjectId doctorId, Pageable pageable);
+
+    // Archived appointments through a cursor, oldest first (exports)
+    Stream<Appointment> streamPatientAppointments(ObjectId patientId);
+
+    Stream<Appointment> streamDoctorAppointments(ObjectId doctorId);
+}
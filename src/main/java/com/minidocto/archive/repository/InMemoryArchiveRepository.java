@@ -0,0 +1,47 @@
+package com.minidocto.archive.repository;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.availability.model.AvailabilitySlot;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Archive of the "inmemory" profile: archiving is MongoDB-only, so the archive is always empty
+ * and all history stays in the in-memory repositories.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryArchiveRepository implements ArchiveRepository {
+
+    @Override
+    public List<AvailabilitySlot> findSlotsById(Collection<String> slotIds) {
+        return List.of();
+    }
+
+    @Override
+    public Page<Appointment> findPatientAppointments(ObjectId patientId, Pageable pageable) {
+        return Page.empty(pageable);
+    }
+
+    @Override
+    public Page<Appointment> findDoctorAppointments(ObjectId doctorId, Pageable pageable) {
+        return Page.empty(pageable);
+    }
+
+    @Override
+    public Stream<Appointment> streamPatientAppointments(ObjectId patientId) {
+        return Stream.empty();
+    }
+
+    @Override
+    public Stream<Appointment> streamDoctorAppointments(ObjectId doctorId) {
+        return Stream.empty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.minidocto.archive.repository;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.availability.model.AvailabilitySlot;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Archive collections in MongoDB, next to the hot ones and with the same document shape.
+ */
+@Repository
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class MongoArchiveRepository implements ArchiveRepository {
+    public static final String SLOTS_ARCHIVE = "availability_slots_archive";
+    public static final String APPOINTMENTS_ARCHIVE = "appointments_archive";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<AvailabilitySlot> findSlotsById(Collection<String> slotIds) {
+        if (slotIds.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.find(Query.query(Criteria.where("id").in(slotIds)), AvailabilitySlot.class, SLOTS_ARCHIVE);
+    }
+
+    @Override
+    public Page<Appointment> findPatientAppointments(ObjectId patientId, Pageable pageable) {
+        return page(Criteria.where("patientId").is(patientId), pageable);
+    }
+
+    @Override
+    public Page<Appointment> findDoctorAppointments(ObjectId doctorId, Pageable pageable) {
+        return page(Criteria.where("doctorId").is(doctorId), pageable);
+    }
+
+    @Override
+    public Stream<Appointment> streamPatientAppointments(ObjectId patientId) {
+        return stream(Criteria.where("patientId").is(patientId));
+    }
+
+    @Override
+    public Stream<Appointment> streamDoctorAppointments(ObjectId doctorId) {
+        return stream(Criteria.where("doctorId").is(doctorId));
+    }
+
+    private Page<Appointment> page(Criteria criteria, Pageable pageable) {
+        // Served by the {doctorId|patientId, createdAt} indexes the archiver creates
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt")).with(pageable);
+        List<Appointment> content = mongoTemplate.find(query, Appointment.class, APPOINTMENTS_ARCHIVE);
+        long total = mongoTemplate.count(Query.query(criteria), APPOINTMENTS_ARCHIVE);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private Stream<Appointment> stream(Criteria criteria) {
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "createdAt")).cursorBatchSize(500);
+        return mongoTemplate.stream(query, Appointment.class, APPOINTMENTS_ARCHIVE);
+    }
+}
@@ -0,0 +1,169 @@
+package com.minidocto.archive.service;
+
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.shared.config.ArchiveProperties;
+import com.minidocto.shared.scheduling.LeaderLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.minidocto.archive.repository.MongoArchiveRepository.APPOINTMENTS_ARCHIVE;
+import static com.minidocto.archive.repository.MongoArchiveRepository.SLOTS_ARCHIVE;
+
+/**
+ * Moves past slots and settled (cancelled, completed or expired) appointments out of the hot collections
+ * into their archive collections, so the hot collections and their indexes stay sized to the
+ * active window. Documents move in bounded batches: upserted into the archive, then removed from
+ * the hot collection only if they still match. The batch size adapts to write latency, and a
+ * batch slower than the target is followed by a pause as long as the batch itself.
+ * Runs on the node holding the "archiver" {@link LeaderLease}; a run outliving its lease is still safe
+ * alongside another node's, since copies are idempotent and removals re-check the criteria.
+ */
+@Component
+@Profile("!inmemory")
+@ConditionalOnProperty(prefix = "minidocto.archive", name = "enabled", havingValue = "true")
+public class Archiver {
+    private static final Logger logger = LoggerFactory.getLogger(Archiver.class);
+    private static final String SLOTS = "availability_slots";
+    private static final String APPOINTMENTS = "appointments";
+    static final String LEASE = "archiver";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaderLease lease;
+    private final ArchiveProperties properties;
+    private final MeterRegistry registry;
+    private int batchSize; // Adapted between batches; only used by the scheduler thread
+    private boolean archiveIndexesEnsured;
+
+    public Archiver(MongoTemplate mongoTemplate, LeaderLease lease, ArchiveProperties properties, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = lease;
+        this.properties = properties;
+        this.registry = registry;
+        this.batchSize = properties.getBatchSize();
+    }
+
+    @Scheduled(fixedDelayString = "${minidocto.archive.interval:PT1H}",
+            initialDelayString = "${minidocto.archive.initial-delay:PT1M}")
+    public void run() {
+        try {
+            if (!lease.tryAcquire(LEASE, properties.getLeaseDuration())) {
+                logger.debug("Archiver lease held by another node, skipping run");
+                return;
+            }
+            ensureArchiveIndexes();
+            String slotHorizon = SlotTimes.format(LocalDateTime.now(ZoneOffset.UTC).minus(properties.getSlotRetention()));
+            // Listing every status keeps the range on the {status, startTime, doctorId} index
+            Criteria pastSlots = Criteria.where("status").in(Arrays.stream(SlotStatus.values()).map(Enum::name).toList())
+                    .and("startTime").lt(slotHorizon);
+            Criteria settledAppointments = Criteria.where("status")
+                    .in(AppointmentStatus.CANCELLED.name(), AppointmentStatus.COMPLETED.name(), AppointmentStatus.EXPIRED.name())
+                    .and("updatedAt").lt(LocalDateTime.now().minus(properties.getAppointmentRetention()));
+
+            long slots = archive(SLOTS, SLOTS_ARCHIVE, pastSlots);
+            long appointments = archive(APPOINTMENTS, APPOINTMENTS_ARCHIVE, settledAppointments);
+            if (slots > 0 || appointments > 0) {
+                logger.info("Archived {} slots (before {}) and {} settled appointments", slots, slotHorizon, appointments);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Archiving run failed, retrying at the next run: {}", e.getMessage());
+        }
+    }
+
+    long archive(String collection, String archiveCollection, Criteria criteria) throws InterruptedException {
+        Timer batchTimer = Timer.builder("minidocto.archive.batch")
+                .description("Time to copy and remove one archiving batch")
+                .tag("collection", collection)
+                .register(registry);
+        Counter archived = Counter.builder("minidocto.archive.documents")
+                .description("Documents moved to the archive")
+                .tag("collection", collection)
+                .register(registry);
+
+        long moved = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int requested = batchSize;
+            long start = System.nanoTime();
+            List<Document> documents = mongoTemplate.find(Query.query(criteria).limit(requested), Document.class, collection);
+            if (documents.isEmpty()) {
+                break;
+            }
+            Date archivedAt = new Date();
+            BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, archiveCollection);
+            for (Document document : documents) {
+                document.put("archivedAt", archivedAt);
+                copy.replaceOne(Query.query(Criteria.where("_id").is(document.get("_id"))), document,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            copy.execute();
+            // A document modified since it was read no longer matches and stays hot; its copy is refreshed later
+            List<Object> ids = documents.stream().map(document -> document.get("_id")).toList();
+            long removed = mongoTemplate.remove(Query.query(new Criteria().andOperator(criteria,
+                    Criteria.where("_id").in(ids))), collection).getDeletedCount();
+            long elapsed = System.nanoTime() - start;
+
+            batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            archived.increment(removed);
+            moved += removed;
+            if (documents.size() < requested) {
+                break;
+            }
+            throttle(elapsed);
+        }
+        return moved;
+    }
+
+    private void throttle(long batchNanos) throws InterruptedException {
+        long target = properties.getTargetBatchLatency().toNanos();
+        if (batchNanos > target) {
+            // The database is under pressure: smaller batches, and give it back the time we took
+            batchSize = Math.max(properties.getMinBatchSize(), batchSize / 2);
+            TimeUnit.NANOSECONDS.sleep(batchNanos);
+        } else if (batchNanos < target / 2) {
+            batchSize = Math.min(properties.getBatchSize(), batchSize + Math.max(1, batchSize / 4));
+        }
+    }
+
+    private void ensureArchiveIndexes() {
+        if (archiveIndexesEnsured) {
+            return;
+        }
+        // The read path pages a patient's or doctor's archived appointments by creation date
+        IndexOperations appointmentIndexes = mongoTemplate.indexOps(APPOINTMENTS_ARCHIVE);
+        appointmentIndexes.createIndex(new Index().on("patientId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("patientId_createdAt"));
+        appointmentIndexes.createIndex(new Index().on("doctorId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("doctorId_createdAt"));
+        archiveIndexesEnsured = true;
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+}
@@ -6,7 +6,10 @@ import com.minidocto.auth.dto.AuthResponse;
 import com.minidocto.user.model.Role;
 import com.minidocto.user.model.User;
 import com.minidocto.user.repository.UserRepository;
+import com.minidocto.user.service.DoctorAutocompleteIndex;
+import com.minidocto.user.service.UserCardCache;
 import com.minidocto.shared.util.JwtUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,11 +22,14 @@ import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
+@Timed("minidocto.service")
 public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final DoctorAutocompleteIndex doctorAutocompleteIndex;
+    private final UserCardCache userCardCache;
 
     public AuthResponse signup(SignupRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -46,6 +52,10 @@ public class AuthService {
         }
         User user = userBuilder.build();
         userRepository.save(user);
+        userCardCache.invalidate(user.getId());
+        if (user.getRole() == Role.PRO) {
+            doctorAutocompleteIndex.add(user);
+        }
         return new AuthResponse(null, null, user.getRole().name(), user.getEmail(), "User registered successfully");
     }
 
@@ -1,5 +1,6 @@
 package com.minidocto.auth.service;
 
+import com.minidocto.shared.security.AuthenticatedUser;
 import com.minidocto.user.model.User;
 import com.minidocto.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,10 +18,6 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(user.getRole().getAuthorities())
-                .build();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole().getAuthorities());
     }
 } 
\ No newline at end of file
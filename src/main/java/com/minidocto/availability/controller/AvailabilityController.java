@@ -2,15 +2,20 @@ package com.minidocto.availability.controller;
 
 import com.minidocto.availability.dto.AvailabilityUpdateRequest;
 import com.minidocto.availability.dto.AvailabilityResponse;
-import com.minidocto.availability.dto.AvailableDoctorsResponse;
+import com.minidocto.availability.dto.DoctorSearchResponse;
 import com.minidocto.availability.dto.ScheduleGroupsResponse;
 import com.minidocto.availability.model.AvailabilitySlot;
 import com.minidocto.availability.service.AvailabilityService;
+import com.minidocto.availability.service.DoctorDirectoryCache;
+import com.minidocto.availability.service.DoctorSlotFeed;
+import com.minidocto.shared.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.time.LocalDate;
@@ -25,6 +30,8 @@ import java.time.format.DateTimeFormatter;
 @RequiredArgsConstructor
 public class AvailabilityController {
     private final AvailabilityService availabilityService;
+    private final DoctorSlotFeed doctorSlotFeed;
+    private final DoctorDirectoryCache doctorDirectoryCache;
 
     @PostMapping("/update")
     public ResponseEntity<AvailabilityResponse> updateAvailability(
@@ -42,37 +49,70 @@ public class AvailabilityController {
         return ResponseEntity.ok(new AvailabilityResponse(updatedSlots, "Availability updated successfully"));
     }
 
+    /**
+     * The doctor's slots in a time window, streamed as {@code {"slots": [...], "nextCursor": "..."}}:
+     * {@code ?from=2025-07-21&to=2025-07-28&status=BOOKED&limit=200}, then the same filters with
+     * {@code &cursor=<nextCursor>} for the next page. {@code date=2025-07-23} is a one-day window;
+     * without a window, slots from the start of today (UTC) are returned.
+     */
     @GetMapping("/my-slots")
-    public ResponseEntity<List<AvailabilitySlot>> getMySlots(
+    public ResponseEntity<StreamingResponseBody> getMySlots(
             @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(value = "date", required = false) String date
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
     ) {
-        String doctorId = userDetails.getUsername();
-        if (date != null && !date.isEmpty()) {
-            return ResponseEntity.ok(availabilityService.getDoctorSlotsByDate(doctorId, date));
-        } else {
-            return ResponseEntity.ok(availabilityService.getDoctorSlots(doctorId));
-        }
+        DoctorSlotFeed.Window window = doctorSlotFeed.window(userDetails.getUsername(), date, from, to, status,
+                cursor, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> doctorSlotFeed.write(window, out));
     }
 
+    /**
+     * The doctor directory, an {@code AvailableDoctorsResponse} served from the pre-encoded page cache.
+     */
     @GetMapping("/available-doctors")
-    public ResponseEntity<AvailableDoctorsResponse> getAvailableDoctors(
+    public ResponseEntity<byte[]> getAvailableDoctors(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size
     ) {
-        AvailableDoctorsResponse response = availabilityService.getAvailableDoctors(page, size);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(doctorDirectoryCache.getPage(page, size));
     }
     
+    /**
+     * Search doctors with an open slot in a time window, e.g. "tomorrow 9-12":
+     * {@code ?from=2025-07-24T09:00&to=2025-07-24T12:00&specialty=Cardiology&minScore=60}.
+     * Without from/to, searches the next {@code withinDays} days.
+     */
+    @GetMapping("/doctors/search")
+    public ResponseEntity<DoctorSearchResponse> searchDoctors(
+            @RequestParam(value = "specialty", required = false) String specialty,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "withinDays", defaultValue = "7") int withinDays,
+            @RequestParam(value = "minScore", required = false) Integer minScore,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size
+    ) {
+        DoctorSearchResponse response = availabilityService.searchAvailableDoctors(
+                specialty, from, to, withinDays, minScore, page, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/doctors/{doctorId}/schedule-groups")
     public ResponseEntity<ScheduleGroupsResponse> getDoctorScheduleGroups(
             @PathVariable String doctorId,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "30") int size,
-            @AuthenticationPrincipal UserDetails userDetails
+            @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        String currentUserEmail = userDetails != null ? userDetails.getUsername() : null;
-        ScheduleGroupsResponse response = availabilityService.getDoctorScheduleGroups(doctorId, page, size, currentUserEmail);
+        ScheduleGroupsResponse response = availabilityService.getDoctorScheduleGroups(doctorId, page, size, user.getId());
         return ResponseEntity.ok(response);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.minidocto.availability.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DoctorSearchResponse {
+    private List<AvailableDoctorDTO> doctors;
+    private List<SpecialtyFacetDTO> specialtyFacets;
+    private PaginationDTO pagination;
+}
@@ -0,0 +1,15 @@
+package com.minidocto.availability.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpecialtyFacetDTO {
+    private String specialty;
+    private long count; // Doctors of this specialty with an open slot in the search window
+}
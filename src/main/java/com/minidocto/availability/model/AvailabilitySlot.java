@@ -3,15 +3,33 @@ package com.minidocto.availability.model;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Document(collection = "availability_slots")
+@CompoundIndexes({
+    // Directory and search: open slots in a time window, grouped by doctor
+    @CompoundIndex(name = "status_startTime_doctorId", def = "{'status': 1, 'startTime': 1, 'doctorId': 1}"),
+    // Per-doctor schedule lookups
+    @CompoundIndex(name = "doctorId_status_startTime", def = "{'doctorId': 1, 'status': 1, 'startTime': 1}"),
+    // Per-doctor time windows across all statuses (my-slots)
+    @CompoundIndex(name = "doctorId_startTime", def = "{'doctorId': 1, 'startTime': 1}"),
+    // A patient's bookings (schedule overlay): only slots with a patient are indexed
+    @CompoundIndex(name = "bookedBy_status_startTime", def = "{'bookedBy': 1, 'status': 1, 'startTime': 1}",
+            partialFilter = "{'bookedBy': {$exists: true}}"),
+    // Expired-hold sweep: only slots on hold are indexed
+    @CompoundIndex(name = "status_holdExpiresAt", def = "{'status': 1, 'holdExpiresAt': 1}",
+            partialFilter = "{'status': 'PENDING'}")
+})
 public class AvailabilitySlot {
     @Id
     private String id;
@@ -22,5 +40,6 @@ public class AvailabilitySlot {
     @Builder.Default
     private SlotStatus status = SlotStatus.AVAILABLE;
     @JsonSerialize(using = ToStringSerializer.class)
-    private ObjectId bookedBy;
+    private ObjectId bookedBy; // Patient who booked the slot, or who holds it while PENDING
+    private Instant holdExpiresAt; // Set while PENDING: the hold lapses at this time
 } 
\ No newline at end of file
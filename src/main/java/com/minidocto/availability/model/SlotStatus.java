@@ -3,6 +3,7 @@ package com.minidocto.availability.model;
 public enum SlotStatus {
     AVAILABLE,
     BOOKED,
-    PENDING,
-    CANCELLED
+    PENDING, // On hold for a patient (bookedBy) until holdExpiresAt, pending confirmation
+    CANCELLED,
+    EXPIRED // Left AVAILABLE until its start time passed; set by the lifecycle engine
 }
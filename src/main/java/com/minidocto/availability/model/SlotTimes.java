@@ -0,0 +1,32 @@
+package com.minidocto.availability.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The stored format of slot start and end times: UTC to the second, e.g. {@code 2030-01-01T09:00:00Z}.
+ * Slots are filtered by comparing these strings, so every bound compared with them is built here.
+ */
+public final class SlotTimes {
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    private SlotTimes() {
+    }
+
+    /**
+     * Format a UTC date-time as a slot time.
+     */
+    public static String format(LocalDateTime utc) {
+        return utc.format(FORMAT);
+    }
+
+    public static String now() {
+        return format(LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    public static String startOfDay(LocalDate day) {
+        return format(day.atStartOfDay());
+    }
+}
@@ -6,11 +6,30 @@ import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
+import java.util.Optional;
 
-public interface AvailabilitySlotRepository extends MongoRepository<AvailabilitySlot, String> {
+public interface AvailabilitySlotRepository extends MongoRepository<AvailabilitySlot, String>, AvailabilitySlotRepositoryCustom {
     List<AvailabilitySlot> findByDoctorId(ObjectId doctorId);
     List<AvailabilitySlot> findByDoctorIdAndStartTimeBetween(ObjectId doctorId, String start, String end);
     
+    // Find a doctor's slots starting after a certain time
+    List<AvailabilitySlot> findByDoctorIdAndStartTimeGreaterThan(ObjectId doctorId, String startTime);
+    
+    // Find slots held by a patient with a given status after a certain time
+    List<AvailabilitySlot> findByBookedByAndStatusAndStartTimeGreaterThan(ObjectId bookedBy, SlotStatus status, String startTime);
+    
+    // Last slot of a doctor starting before a time: the only earlier slot that can run into it (overlap check)
+    Optional<AvailabilitySlot> findFirstByDoctorIdAndStatusNotAndStartTimeLessThanOrderByStartTimeDesc(
+            ObjectId doctorId, SlotStatus status, String startTime);
+    
+    // Find a doctor's slots, other than cancelled ones, starting in [from, to) (overlap check)
+    @Query("{ 'doctorId': ?0, 'status': { $ne: 'CANCELLED' }, 'startTime': { $gte: ?1, $lt: ?2 } }")
+    List<AvailabilitySlot> findDoctorSlotsStartingIn(ObjectId doctorId, String from, String to);
+    
+    // Find slots booked or held by a patient that overlap [from, to) (double-booking check)
+    @Query("{ 'bookedBy': ?0, 'status': { $in: ['BOOKED', 'PENDING'] }, 'startTime': { $lt: ?2 }, 'endTime': { $gt: ?1 } }")
+    List<AvailabilitySlot> findPatientSlotsOverlapping(ObjectId patientId, String from, String to);
+    
     // Find available slots for a specific doctor
     List<AvailabilitySlot> findByDoctorIdAndStatus(ObjectId doctorId, SlotStatus status);
     
@@ -0,0 +1,94 @@
+package com.minidocto.availability.repository;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries on availability slots that need the aggregation framework, and the atomic transitions of slot holds.
+ */
+public interface AvailabilitySlotRepositoryCustom {
+
+    /**
+     * Find doctors with at least one open slot in [from, to), filtered by specialty and minimum score,
+     * together with per-specialty facet counts. Filtering, grouping, sorting and paging all run in MongoDB.
+     *
+     * @param specialty optional exact specialty filter (not applied to the facet counts)
+     * @param minScore optional minimum doctor score
+     */
+    DoctorSearchResult searchAvailableDoctors(String from, String to, String specialty, Integer minScore,
+                                              int page, int size);
+
+    /**
+     * Stream one page of a doctor's slots with start time in [from, to), ordered by (startTime, id),
+     * through a cursor. Pages are keyset-based: the next page starts strictly after the last slot returned.
+     *
+     * @param from optional inclusive lower bound on startTime
+     * @param to optional exclusive upper bound on startTime
+     * @param status optional status filter
+     * @param afterStartTime startTime of the last slot of the previous page, or null for the first page
+     * @param afterId ID of the last slot of the previous page, or null for the first page
+     */
+    Stream<AvailabilitySlot> streamDoctorSlots(ObjectId doctorId, String from, String to, SlotStatus status,
+                                               String afterStartTime, String afterId, int limit);
+
+    /**
+     * Atomically put a slot of the given doctor on hold for the patient: an open slot, a slot whose hold
+     * has lapsed, or one the patient already holds (the hold is extended) becomes PENDING until expiresAt.
+     *
+     * @param startsAfter the slot must start strictly after this time
+     * @return the slot on hold, or empty if it does not exist, starts too early or is taken
+     */
+    Optional<AvailabilitySlot> holdSlot(String slotId, ObjectId doctorId, ObjectId patientId, String startsAfter,
+                                        Instant now, Instant expiresAt);
+
+    /**
+     * Atomically book an open slot for the patient (AVAILABLE to BOOKED).
+     *
+     * @param startsAfter the slot must start strictly after this time
+     * @return false if the slot is no longer open or has started
+     */
+    boolean bookSlot(String slotId, ObjectId patientId, String startsAfter);
+
+    /**
+     * Atomically turn the patient's unexpired hold into a booking (PENDING to BOOKED).
+     * A hold outlives the slot's start time if it was taken shortly before; such a slot is not booked,
+     * since lifecycle runs never go back to complete it.
+     *
+     * @param startsAfter the slot must start strictly after this time
+     * @return false if the patient holds no such slot, the hold has lapsed or the slot has started
+     */
+    boolean confirmHold(String slotId, ObjectId patientId, String startsAfter, Instant now);
+
+    /**
+     * Atomically undo the patient's booking of a slot (BOOKED by the patient): back on hold for them
+     * until holdExpiresAt, or open again if holdExpiresAt is null.
+     *
+     * @return false if the slot is no longer booked by the patient, e.g. it was deleted since
+     */
+    boolean releaseBooking(String slotId, ObjectId patientId, Instant holdExpiresAt);
+
+    /**
+     * Give up the patient's hold on a slot, expired or not.
+     *
+     * @return false if the patient holds no such slot
+     */
+    boolean releaseHold(String slotId, ObjectId patientId);
+
+    /**
+     * Give up every hold of the patient except the one on keepSlotId.
+     *
+     * @return the IDs of the slots released, so waitlist offers among them can be passed on
+     */
+    List<String> releaseOtherHolds(ObjectId patientId, String keepSlotId);
+
+    /**
+     * Reopen every slot whose hold lapsed before now. Served by the partial {status, holdExpiresAt} index.
+     */
+    long releaseExpiredHolds(Instant now);
+}
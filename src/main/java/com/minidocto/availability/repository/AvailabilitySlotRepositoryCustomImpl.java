@@ -0,0 +1,285 @@
+package com.minidocto.availability.repository;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.user.model.Role;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationPipeline;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class AvailabilitySlotRepositoryCustomImpl implements AvailabilitySlotRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public DoctorSearchResult searchAvailableDoctors(String from, String to, String specialty, Integer minScore,
+                                                     int page, int size) {
+        if (specialty == null && minScore == null) {
+            return searchFromSlots(from, to, page, size);
+        }
+
+        // Filtered searches start from the doctors: the {role, specialty, score} index narrows them down, then one
+        // {doctorId, status, startTime} index seek per doctor finds its next open slot in the window
+        Criteria doctorCriteria = Criteria.where("role").is(Role.PRO.name());
+        if (specialty != null) {
+            doctorCriteria.and("specialty").is(specialty);
+        }
+        if (minScore != null) {
+            doctorCriteria.and("score").gte(minScore);
+        }
+        DoctorSearchResult matching = aggregate(doctorsWithOpenSlot(doctorCriteria, from, to,
+                Aggregation.facet(hitsFacet("score", "next.startTime", page, size)).as("hits")
+                        .and(Aggregation.count().as("total")).as("total")), "users", true);
+        matching.setSpecialtyCounts(specialtyCounts(from, to, minScore));
+        return matching;
+    }
+
+    private DoctorSearchResult searchFromSlots(String from, String to, int page, int size) {
+        List<AggregationOperation> operations = doctorsFromSlots(from, to);
+        operations.add(Aggregation.facet(specialtyFacet())
+                .as("specialties")
+                .and(hitsFacet("doctor.score", "nextAvailable", page, size))
+                .as("hits")
+                .and(Aggregation.count().as("total"))
+                .as("total"));
+        Aggregation aggregation = Aggregation.newAggregation(operations);
+        return aggregate(aggregation, mongoTemplate.getCollectionName(AvailabilitySlot.class), false);
+    }
+
+    /**
+     * Open-slot counts per specialty, ignoring the specialty filter. Counted from the slots like the unfiltered
+     * search, so only doctors with an open slot in the window are looked up, however many doctors there are.
+     */
+    private Map<String, Long> specialtyCounts(String from, String to, Integer minScore) {
+        List<AggregationOperation> operations = doctorsFromSlots(from, to);
+        if (minScore != null) {
+            operations.add(Aggregation.match(Criteria.where("doctor.score").gte(minScore)));
+        }
+        operations.addAll(List.of(specialtyFacet()));
+        Map<String, Long> specialtyCounts = new LinkedHashMap<>();
+        for (Document count : mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                mongoTemplate.getCollectionName(AvailabilitySlot.class), Document.class)) {
+            specialtyCounts.put(count.getString("_id"), ((Number) count.get("count")).longValue());
+        }
+        return specialtyCounts;
+    }
+
+    /**
+     * Stages producing the doctors with an open slot in [from, to), each with its earliest one as "nextAvailable"
+     * and the user under "doctor". Served by the {status, startTime, doctorId} index: range scan over the window
+     * only, then one _id lookup per doctor found.
+     */
+    private static List<AggregationOperation> doctorsFromSlots(String from, String to) {
+        return new ArrayList<>(List.of(
+                Aggregation.match(Criteria.where("status").is(SlotStatus.AVAILABLE.name())
+                        .and("startTime").gte(from).lt(to)),
+                Aggregation.group("doctorId").min("startTime").as("nextAvailable"),
+                Aggregation.lookup("users", "_id", "_id", "doctor"),
+                Aggregation.unwind("doctor"),
+                Aggregation.match(Criteria.where("doctor.role").is(Role.PRO.name()))));
+    }
+
+    /**
+     * Facets over the doctors matching the criteria that have an open slot in [from, to), each with its earliest one as "next".
+     * The lookup combines localField/foreignField with a sub-pipeline, which needs MongoDB 5.0+.
+     */
+    private Aggregation doctorsWithOpenSlot(Criteria doctorCriteria, String from, String to, FacetOperation facets) {
+        AggregationPipeline firstOpenSlot = AggregationPipeline.of(
+                Aggregation.match(Criteria.where("status").is(SlotStatus.AVAILABLE.name())
+                        .and("startTime").gte(from).lt(to)),
+                Aggregation.sort(Sort.Direction.ASC, "startTime"),
+                Aggregation.limit(1),
+                Aggregation.project("startTime"));
+        return Aggregation.newAggregation(
+                Aggregation.match(doctorCriteria),
+                LookupOperation.newLookup()
+                        .from(mongoTemplate.getCollectionName(AvailabilitySlot.class))
+                        .localField("_id")
+                        .foreignField("doctorId")
+                        .pipeline(firstOpenSlot)
+                        .as("next"),
+                Aggregation.unwind("next"),
+                Aggregation.project("_id", "name", "specialty", "score", "next"),
+                facets);
+    }
+
+    private static AggregationOperation[] specialtyFacet() {
+        return new AggregationOperation[]{
+                Aggregation.group("doctor.specialty").count().as("count"),
+                Aggregation.sort(Sort.Direction.DESC, "count")};
+    }
+
+    private static AggregationOperation[] hitsFacet(String scoreField, String nextAvailableField, int page, int size) {
+        return new AggregationOperation[]{
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, scoreField)
+                        .and(Sort.by(Sort.Direction.ASC, nextAvailableField, "_id"))),
+                Aggregation.skip((long) page * size),
+                Aggregation.limit(size)};
+    }
+
+    /**
+     * Runs a faceted search and reads its facets. Hits are either user documents with a "next" slot
+     * (doctor-first pipelines) or doctorId groups with the user under "doctor" (slot-first pipeline).
+     */
+    private DoctorSearchResult aggregate(Aggregation aggregation, String collection, boolean fromUsers) {
+        AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, collection, Document.class);
+        Document facets = results.getUniqueMappedResult();
+
+        List<DoctorSearchResult.Hit> hits = new ArrayList<>();
+        Map<String, Long> specialtyCounts = new LinkedHashMap<>();
+        long totalHits = 0;
+        if (facets != null) {
+            for (Document hit : facets.getList("hits", Document.class, List.of())) {
+                Document doctor = fromUsers ? hit : hit.get("doctor", Document.class);
+                hits.add(DoctorSearchResult.Hit.builder()
+                        .doctorId(hit.get("_id").toString())
+                        .name(doctor.getString("name"))
+                        .specialty(doctor.getString("specialty"))
+                        .score(doctor.getInteger("score"))
+                        .nextAvailable(fromUsers
+                                ? hit.get("next", Document.class).getString("startTime")
+                                : hit.getString("nextAvailable"))
+                        .build());
+            }
+            for (Document facet : facets.getList("specialties", Document.class, List.of())) {
+                specialtyCounts.put(facet.getString("_id"), ((Number) facet.get("count")).longValue());
+            }
+            List<Document> total = facets.getList("total", Document.class, List.of());
+            if (!total.isEmpty()) {
+                totalHits = ((Number) total.get(0).get("total")).longValue();
+            }
+        }
+
+        return DoctorSearchResult.builder()
+                .hits(hits)
+                .specialtyCounts(specialtyCounts)
+                .totalHits(totalHits)
+                .build();
+    }
+
+    @Override
+    public Stream<AvailabilitySlot> streamDoctorSlots(ObjectId doctorId, String from, String to, SlotStatus status,
+                                                      String afterStartTime, String afterId, int limit) {
+        Criteria criteria = Criteria.where("doctorId").is(doctorId);
+        if (status != null) {
+            criteria.and("status").is(status.name());
+        }
+        if (from != null || to != null) {
+            Criteria startTime = criteria.and("startTime");
+            if (from != null) {
+                startTime.gte(from);
+            }
+            if (to != null) {
+                startTime.lt(to);
+            }
+        }
+        if (afterStartTime != null) {
+            // Keyset: strictly after the last (startTime, _id) of the previous page
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("startTime").gt(afterStartTime),
+                    Criteria.where("startTime").is(afterStartTime).and("_id").gt(new ObjectId(afterId))));
+        }
+        // Served by the {doctorId, startTime} index, or {doctorId, status, startTime} with a status filter
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "startTime", "_id"))
+                .limit(limit)
+                .cursorBatchSize(Math.min(limit, 500));
+        return mongoTemplate.stream(query, AvailabilitySlot.class);
+    }
+
+    @Override
+    public Optional<AvailabilitySlot> holdSlot(String slotId, ObjectId doctorId, ObjectId patientId, String startsAfter,
+                                               Instant now, Instant expiresAt) {
+        Criteria criteria = Criteria.where("_id").is(slotId).and("doctorId").is(doctorId).and("startTime").gt(startsAfter)
+                .orOperator(
+                        Criteria.where("status").is(SlotStatus.AVAILABLE.name()),
+                        Criteria.where("status").is(SlotStatus.PENDING.name()).and("holdExpiresAt").lte(now),
+                        Criteria.where("status").is(SlotStatus.PENDING.name()).and("bookedBy").is(patientId));
+        Update update = Update.update("status", SlotStatus.PENDING.name())
+                .set("bookedBy", patientId)
+                .set("holdExpiresAt", expiresAt);
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), AvailabilitySlot.class));
+    }
+
+    @Override
+    public boolean bookSlot(String slotId, ObjectId patientId, String startsAfter) {
+        Query query = Query.query(Criteria.where("_id").is(slotId).and("status").is(SlotStatus.AVAILABLE.name())
+                .and("startTime").gt(startsAfter));
+        Update update = Update.update("status", SlotStatus.BOOKED.name()).set("bookedBy", patientId);
+        return mongoTemplate.updateFirst(query, update, AvailabilitySlot.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean confirmHold(String slotId, ObjectId patientId, String startsAfter, Instant now) {
+        Query query = Query.query(Criteria.where("_id").is(slotId)
+                .and("status").is(SlotStatus.PENDING.name())
+                .and("bookedBy").is(patientId)
+                .and("holdExpiresAt").gt(now)
+                .and("startTime").gt(startsAfter));
+        Update update = Update.update("status", SlotStatus.BOOKED.name()).unset("holdExpiresAt");
+        return mongoTemplate.updateFirst(query, update, AvailabilitySlot.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean releaseBooking(String slotId, ObjectId patientId, Instant holdExpiresAt) {
+        Query query = Query.query(Criteria.where("_id").is(slotId)
+                .and("status").is(SlotStatus.BOOKED.name())
+                .and("bookedBy").is(patientId));
+        Update update = holdExpiresAt != null
+                ? Update.update("status", SlotStatus.PENDING.name()).set("holdExpiresAt", holdExpiresAt)
+                : reopen();
+        return mongoTemplate.updateFirst(query, update, AvailabilitySlot.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean releaseHold(String slotId, ObjectId patientId) {
+        Query query = Query.query(Criteria.where("_id").is(slotId)
+                .and("status").is(SlotStatus.PENDING.name())
+                .and("bookedBy").is(patientId));
+        return mongoTemplate.updateFirst(query, reopen(), AvailabilitySlot.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<String> releaseOtherHolds(ObjectId patientId, String keepSlotId) {
+        // A patient holds a slot or two at most: find them, then release each one conditionally
+        Query query = Query.query(Criteria.where("bookedBy").is(patientId)
+                .and("status").is(SlotStatus.PENDING.name())
+                .and("_id").ne(keepSlotId));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, AvailabilitySlot.class).stream()
+                .map(AvailabilitySlot::getId)
+                .filter(slotId -> releaseHold(slotId, patientId))
+                .toList();
+    }
+
+    @Override
+    public long releaseExpiredHolds(Instant now) {
+        Query query = Query.query(Criteria.where("status").is(SlotStatus.PENDING.name()).and("holdExpiresAt").lte(now));
+        return mongoTemplate.updateMulti(query, reopen(), AvailabilitySlot.class).getModifiedCount();
+    }
+
+    private static Update reopen() {
+        return Update.update("status", SlotStatus.AVAILABLE.name()).unset("bookedBy").unset("holdExpiresAt");
+    }
+}
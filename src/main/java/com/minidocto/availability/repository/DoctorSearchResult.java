@@ -0,0 +1,28 @@
+package com.minidocto.availability.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw result of a faceted doctor search, as computed by the aggregation pipeline.
+ */
+@Data
+@Builder
+public class DoctorSearchResult {
+    private List<Hit> hits;
+    private Map<String, Long> specialtyCounts; // Facet counts over all matching doctors, ignoring the specialty filter
+    private long totalHits;
+
+    @Data
+    @Builder
+    public static class Hit {
+        private String doctorId;
+        private String name;
+        private String specialty;
+        private Integer score;
+        private String nextAvailable; // Earliest open slot start time inside the search window
+    }
+}
@@ -0,0 +1,352 @@
+package com.minidocto.availability.repository;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.shared.inmemory.InMemoryRepository;
+import com.minidocto.shared.inmemory.SortedIndex;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.UserRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link AvailabilitySlotRepository} for the "inmemory" profile.
+ * Mirrors the MongoDB compound indexes with skip-lists: slots by (doctorId, startTime),
+ * by (status, startTime) and by (bookedBy, startTime); the remaining conditions of each
+ * query are filters over the range scan, as they would be in the index.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryAvailabilitySlotRepository extends InMemoryRepository<AvailabilitySlot>
+        implements AvailabilitySlotRepository {
+    private final SortedIndex<ObjectId, String> byDoctor = new SortedIndex<>();
+    private final SortedIndex<SlotStatus, String> byStatus = new SortedIndex<>();
+    private final SortedIndex<ObjectId, String> byBookedBy = new SortedIndex<>();
+    private final UserRepository userRepository;
+
+    public InMemoryAvailabilitySlotRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorId(ObjectId doctorId) {
+        return resolve(byDoctor.ids(doctorId)).toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorIdAndStartTimeBetween(ObjectId doctorId, String start, String end) {
+        // Derived Between queries are exclusive on both ends ($gt / $lt)
+        return resolve(byDoctor.ids(doctorId, start, false, end, false)).toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorIdAndStartTimeGreaterThan(ObjectId doctorId, String startTime) {
+        return resolve(byDoctor.ids(doctorId, startTime, false, null, false)).toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByBookedByAndStatusAndStartTimeGreaterThan(ObjectId bookedBy, SlotStatus status,
+                                                                                 String startTime) {
+        return resolve(byBookedBy.ids(bookedBy, startTime, false, null, false))
+                .filter(slot -> slot.getStatus() == status)
+                .toList();
+    }
+
+    @Override
+    public Optional<AvailabilitySlot> findFirstByDoctorIdAndStatusNotAndStartTimeLessThanOrderByStartTimeDesc(
+            ObjectId doctorId, SlotStatus status, String startTime) {
+        return resolve(byDoctor.idsDescending(doctorId, startTime, false))
+                .filter(slot -> slot.getStatus() != status)
+                .findFirst();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findDoctorSlotsStartingIn(ObjectId doctorId, String from, String to) {
+        return resolve(byDoctor.ids(doctorId, from, true, to, false))
+                .filter(slot -> slot.getStatus() != SlotStatus.CANCELLED)
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findPatientSlotsOverlapping(ObjectId patientId, String from, String to) {
+        return resolve(byBookedBy.ids(patientId, null, false, to, false))
+                .filter(slot -> slot.getStatus() == SlotStatus.BOOKED || slot.getStatus() == SlotStatus.PENDING)
+                .filter(slot -> slot.getEndTime() != null && slot.getEndTime().compareTo(from) > 0)
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorIdAndStatus(ObjectId doctorId, SlotStatus status) {
+        return resolve(byDoctor.ids(doctorId))
+                .filter(slot -> slot.getStatus() == status)
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorIdAndStatusAndStartTimeAfter(ObjectId doctorId, SlotStatus status,
+                                                                           String startTime) {
+        return resolve(byDoctor.ids(doctorId, startTime, false, null, false))
+                .filter(slot -> slot.getStatus() == status)
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findDistinctDoctorIdsWithFutureAvailableSlots(SlotStatus status,
+                                                                                String currentDateTime) {
+        // Same projection as the MongoDB query: only the ID and doctorId are populated
+        return resolve(byStatus.ids(status, currentDateTime, false, null, false))
+                .map(slot -> AvailabilitySlot.builder().id(slot.getId()).doctorId(slot.getDoctorId()).build())
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findAvailableSlotsByDoctorIdAndAfterTime(ObjectId doctorId, SlotStatus status,
+                                                                           String currentDateTime) {
+        return findByDoctorIdAndStatusAndStartTimeAfter(doctorId, status, currentDateTime);
+    }
+
+    @Override
+    public List<AvailabilitySlot> findBookedSlotsByUserInDateRange(ObjectId userId, String startDate, String endDate) {
+        return resolve(byBookedBy.ids(userId, startDate, true, endDate, true))
+                .filter(slot -> slot.getStatus() == SlotStatus.BOOKED)
+                .toList();
+    }
+
+    @Override
+    public List<AvailabilitySlot> findByDoctorIdAndBookedByAndStartTimeAfter(ObjectId doctorId, ObjectId bookedBy,
+                                                                             String startTime) {
+        return resolve(byDoctor.ids(doctorId, startTime, false, null, false))
+                .filter(slot -> Objects.equals(bookedBy, slot.getBookedBy()) && slot.getStatus() == SlotStatus.BOOKED)
+                .toList();
+    }
+
+    @Override
+    public DoctorSearchResult searchAvailableDoctors(String from, String to, String specialty, Integer minScore,
+                                                     int page, int size) {
+        List<DoctorSearchResult.Hit> fromSlots = doctorsFromSlots(from, to);
+        List<DoctorSearchResult.Hit> doctors = specialty == null && minScore == null
+                ? fromSlots
+                : doctorsWithOpenSlot(specialty, minScore, from, to);
+
+        // Facet counts ignore the specialty filter and always come from the slots, as in MongoDB;
+        // doctors without a specialty are counted under null, as in $group
+        Map<String, Long> counts = new HashMap<>();
+        fromSlots.stream()
+                .filter(hit -> minScore == null || (hit.getScore() != null && hit.getScore() >= minScore))
+                .forEach(hit -> counts.merge(hit.getSpecialty(), 1L, Long::sum));
+        Map<String, Long> specialtyCounts = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(count -> specialtyCounts.put(count.getKey(), count.getValue()));
+
+        List<DoctorSearchResult.Hit> matching = doctors.stream()
+                .sorted(Comparator.comparing(DoctorSearchResult.Hit::getScore, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(DoctorSearchResult.Hit::getNextAvailable)
+                        .thenComparing(DoctorSearchResult.Hit::getDoctorId))
+                .toList();
+
+        return DoctorSearchResult.builder()
+                .hits(matching.stream().skip((long) page * size).limit(size).toList())
+                .specialtyCounts(specialtyCounts)
+                .totalHits(matching.size())
+                .build();
+    }
+
+    private List<DoctorSearchResult.Hit> doctorsFromSlots(String from, String to) {
+        // Open slots in [from, to) come out of the index by start time, so the first one seen per doctor is the earliest
+        Map<ObjectId, String> nextAvailable = new LinkedHashMap<>();
+        resolve(byStatus.ids(SlotStatus.AVAILABLE, from, true, to, false))
+                .forEach(slot -> nextAvailable.putIfAbsent(slot.getDoctorId(), slot.getStartTime()));
+
+        List<DoctorSearchResult.Hit> doctors = new ArrayList<>();
+        for (Map.Entry<ObjectId, String> entry : nextAvailable.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            User doctor = userRepository.findById(entry.getKey().toHexString()).orElse(null);
+            if (doctor != null && doctor.getRole() == Role.PRO) {
+                doctors.add(hit(doctor, entry.getValue()));
+            }
+        }
+        return doctors;
+    }
+
+    private List<DoctorSearchResult.Hit> doctorsWithOpenSlot(String specialty, Integer minScore, String from, String to) {
+        // Same plan as the filtered MongoDB pipeline: doctors first, then the earliest open slot of each in the window
+        List<DoctorSearchResult.Hit> doctors = new ArrayList<>();
+        try (Stream<User> candidates = userRepository.streamDoctorsForDirectory()) {
+            candidates
+                    .filter(doctor -> specialty == null || specialty.equals(doctor.getSpecialty()))
+                    .filter(doctor -> minScore == null || (doctor.getScore() != null && doctor.getScore() >= minScore))
+                    .forEach(doctor -> resolve(byDoctor.ids(new ObjectId(doctor.getId()), from, true, to, false))
+                            .filter(slot -> slot.getStatus() == SlotStatus.AVAILABLE)
+                            .findFirst()
+                            .ifPresent(slot -> doctors.add(hit(doctor, slot.getStartTime()))));
+        }
+        return doctors;
+    }
+
+    private static DoctorSearchResult.Hit hit(User doctor, String nextAvailable) {
+        return DoctorSearchResult.Hit.builder()
+                .doctorId(doctor.getId())
+                .name(doctor.getName())
+                .specialty(doctor.getSpecialty())
+                .score(doctor.getScore())
+                .nextAvailable(nextAvailable)
+                .build();
+    }
+
+    @Override
+    public Stream<AvailabilitySlot> streamDoctorSlots(ObjectId doctorId, String from, String to, SlotStatus status,
+                                                      String afterStartTime, String afterId, int limit) {
+        // The index orders a doctor's slots by (startTime, id), which is the keyset order
+        String lower = afterStartTime != null && (from == null || afterStartTime.compareTo(from) >= 0)
+                ? afterStartTime : from;
+        return resolve(byDoctor.ids(doctorId, lower, true, to, false))
+                .filter(slot -> afterStartTime == null || slot.getStartTime().compareTo(afterStartTime) > 0
+                        || (slot.getStartTime().equals(afterStartTime) && slot.getId().compareTo(afterId) > 0))
+                .filter(slot -> status == null || slot.getStatus() == status)
+                .limit(limit);
+    }
+
+    @Override
+    public Optional<AvailabilitySlot> holdSlot(String slotId, ObjectId doctorId, ObjectId patientId, String startsAfter,
+                                               Instant now, Instant expiresAt) {
+        return update(slotId,
+                slot -> Objects.equals(doctorId, slot.getDoctorId()) && slot.getStartTime().compareTo(startsAfter) > 0
+                        && (slot.getStatus() == SlotStatus.AVAILABLE
+                        || (slot.getStatus() == SlotStatus.PENDING && (!slot.getHoldExpiresAt().isAfter(now)
+                        || patientId.equals(slot.getBookedBy())))),
+                slot -> {
+                    slot.setStatus(SlotStatus.PENDING);
+                    slot.setBookedBy(patientId);
+                    slot.setHoldExpiresAt(expiresAt);
+                });
+    }
+
+    @Override
+    public boolean bookSlot(String slotId, ObjectId patientId, String startsAfter) {
+        return update(slotId,
+                slot -> slot.getStatus() == SlotStatus.AVAILABLE && slot.getStartTime().compareTo(startsAfter) > 0,
+                slot -> {
+                    slot.setStatus(SlotStatus.BOOKED);
+                    slot.setBookedBy(patientId);
+                }).isPresent();
+    }
+
+    @Override
+    public boolean confirmHold(String slotId, ObjectId patientId, String startsAfter, Instant now) {
+        return update(slotId,
+                slot -> isHeldBy(slot, patientId) && slot.getHoldExpiresAt().isAfter(now)
+                        && slot.getStartTime().compareTo(startsAfter) > 0,
+                slot -> {
+                    slot.setStatus(SlotStatus.BOOKED);
+                    slot.setHoldExpiresAt(null);
+                }).isPresent();
+    }
+
+    @Override
+    public boolean releaseBooking(String slotId, ObjectId patientId, Instant holdExpiresAt) {
+        return update(slotId,
+                slot -> slot.getStatus() == SlotStatus.BOOKED && patientId.equals(slot.getBookedBy()),
+                slot -> {
+                    if (holdExpiresAt != null) {
+                        slot.setStatus(SlotStatus.PENDING);
+                        slot.setHoldExpiresAt(holdExpiresAt);
+                    } else {
+                        reopen(slot);
+                    }
+                }).isPresent();
+    }
+
+    @Override
+    public boolean releaseHold(String slotId, ObjectId patientId) {
+        return update(slotId, slot -> isHeldBy(slot, patientId), InMemoryAvailabilitySlotRepository::reopen).isPresent();
+    }
+
+    @Override
+    public synchronized List<String> releaseOtherHolds(ObjectId patientId, String keepSlotId) {
+        return resolve(byBookedBy.ids(patientId))
+                .map(AvailabilitySlot::getId)
+                .filter(slotId -> !slotId.equals(keepSlotId))
+                .filter(slotId -> releaseHold(slotId, patientId))
+                .toList();
+    }
+
+    @Override
+    public synchronized long releaseExpiredHolds(Instant now) {
+        return resolve(byStatus.ids(SlotStatus.PENDING))
+                .filter(slot -> update(slot.getId(),
+                        held -> held.getStatus() == SlotStatus.PENDING && !held.getHoldExpiresAt().isAfter(now),
+                        InMemoryAvailabilitySlotRepository::reopen).isPresent())
+                .count();
+    }
+
+    private static boolean isHeldBy(AvailabilitySlot slot, ObjectId patientId) {
+        return slot.getStatus() == SlotStatus.PENDING && patientId.equals(slot.getBookedBy());
+    }
+
+    private static void reopen(AvailabilitySlot slot) {
+        slot.setStatus(SlotStatus.AVAILABLE);
+        slot.setBookedBy(null);
+        slot.setHoldExpiresAt(null);
+    }
+
+    /**
+     * Conditional update of one slot, atomic like a filtered findAndModify: writes are serialized on this repository.
+     */
+    private synchronized Optional<AvailabilitySlot> update(String slotId, Predicate<AvailabilitySlot> condition,
+                                                           Consumer<AvailabilitySlot> change) {
+        Optional<AvailabilitySlot> slot = findById(slotId).filter(condition);
+        slot.ifPresent(found -> {
+            change.accept(found);
+            save(found);
+        });
+        return slot;
+    }
+
+    @Override
+    protected String idOf(AvailabilitySlot slot) {
+        return slot.getId();
+    }
+
+    @Override
+    protected void assignId(AvailabilitySlot slot, String id) {
+        slot.setId(id);
+    }
+
+    @Override
+    protected AvailabilitySlot copy(AvailabilitySlot slot) {
+        return AvailabilitySlot.builder()
+                .id(slot.getId())
+                .doctorId(slot.getDoctorId())
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .status(slot.getStatus())
+                .bookedBy(slot.getBookedBy())
+                .holdExpiresAt(slot.getHoldExpiresAt())
+                .build();
+    }
+
+    @Override
+    protected void index(AvailabilitySlot slot) {
+        byDoctor.add(slot.getDoctorId(), slot.getStartTime(), slot.getId());
+        byStatus.add(slot.getStatus(), slot.getStartTime(), slot.getId());
+        byBookedBy.add(slot.getBookedBy(), slot.getStartTime(), slot.getId());
+    }
+
+    @Override
+    protected void unindex(AvailabilitySlot slot) {
+        byDoctor.remove(slot.getDoctorId(), slot.getStartTime(), slot.getId());
+        byStatus.remove(slot.getStatus(), slot.getStartTime(), slot.getId());
+        byBookedBy.remove(slot.getBookedBy(), slot.getStartTime(), slot.getId());
+    }
+}
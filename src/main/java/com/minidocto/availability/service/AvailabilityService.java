@@ -2,16 +2,27 @@ package com.minidocto.availability.service;
 
 import com.minidocto.availability.dto.AvailableDoctorDTO;
 import com.minidocto.availability.dto.AvailableDoctorsResponse;
+import com.minidocto.availability.dto.DoctorSearchResponse;
 import com.minidocto.availability.dto.ScheduleGroupDTO;
 import com.minidocto.availability.dto.ScheduleGroupsResponse;
 import com.minidocto.availability.dto.PaginationDTO;
 import com.minidocto.availability.dto.SlotWithUserDTO;
+import com.minidocto.availability.dto.SpecialtyFacetDTO;
 import com.minidocto.availability.model.AvailabilitySlot;
 import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
 import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.availability.repository.DoctorSearchResult;
+import com.minidocto.shared.audit.AuditLog;
+import com.minidocto.shared.cache.InvalidationBus;
+import com.minidocto.shared.cache.SingleFlight;
+import com.minidocto.shared.exception.BadRequestException;
 import com.minidocto.user.model.Role;
 import com.minidocto.user.model.User;
+import com.minidocto.user.model.UserCard;
 import com.minidocto.user.repository.UserRepository;
+import com.minidocto.user.service.UserCardCache;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -31,18 +42,24 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service for managing doctor's availability slots in a separate collection.
  */
 @Service
 @RequiredArgsConstructor
+@Timed("minidocto.service")
 public class AvailabilityService {
     private final AvailabilitySlotRepository slotRepository;
     private final UserRepository userRepository;
+    private final UserCardCache userCardCache;
+    private final SlotOverlapGuard slotOverlapGuard;
+    private final AuditLog auditLog;
+    private final SingleFlight singleFlight;
+    private final InvalidationBus invalidationBus;
     private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+    private static final String DEFAULT_SPECIALTY = "General Medicine";
+    private static final String DEFAULT_DOCTOR_IMAGE = "https://as2.ftcdn.net/v2/jpg/06/14/96/05/1000_F_614960515_mQsF7nS1r3qZ9eCHzqJ5cyCxmjsfJOCQ.webp";
 
     public List<AvailabilitySlot> getDoctorSlots(String doctorEmailOrId) {
         // Convert email to ID if necessary, then convert to ObjectId
@@ -55,8 +72,8 @@ public class AvailabilityService {
         String doctorId = doctorEmailOrId.contains("@") ? getUserIdByEmail(doctorEmailOrId) : doctorEmailOrId;
         // date is in format YYYY-MM-DD
         LocalDate localDate = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
-        String startOfDay = localDate.atStartOfDay(ZoneOffset.UTC).toString(); // e.g., 2025-07-23T00:00Z
-        String endOfDay = localDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toString(); // next day 00:00Z
+        String startOfDay = SlotTimes.startOfDay(localDate); // e.g., 2025-07-23T00:00:00Z
+        String endOfDay = SlotTimes.startOfDay(localDate.plusDays(1)); // next day 00:00:00Z
         return slotRepository.findByDoctorIdAndStartTimeBetween(new ObjectId(doctorId), startOfDay, endOfDay);
     }
 
@@ -67,8 +84,14 @@ public class AvailabilityService {
         ObjectId doctorObjectId = new ObjectId(doctorId);
         for (AvailabilitySlot slot : slots) {
             slot.setDoctorId(doctorObjectId);
-            slotRepository.save(slot);
         }
+        // Reject overlapping or duplicate slots before anything is written
+        slotOverlapGuard.checkDoctorSlots(doctorObjectId, slots);
+        slotRepository.saveAll(slots);
+        for (AvailabilitySlot slot : slots) {
+            auditLog.record("slot.added", doctorId, slot.getId(), slotDetails(slot));
+        }
+        invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null);
         logger.info("Added slots for doctor {}: {}", doctorId, slots);
     }
 
@@ -78,13 +101,30 @@ public class AvailabilityService {
         String doctorId = doctorEmailOrId.contains("@") ? getUserIdByEmail(doctorEmailOrId) : doctorEmailOrId;
         for (AvailabilitySlot slot : slotsToRemove) {
             slotRepository.deleteById(slot.getId());
+            auditLog.record("slot.removed", doctorId, slot.getId(), slotDetails(slot));
         }
+        invalidationBus.publishAfterCommit(DoctorDirectoryCache.NAME, null);
         logger.info("Removed slots for doctor {}: {}", doctorId, slotsToRemove);
     }
 
+    private static Map<String, Object> slotDetails(AvailabilitySlot slot) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("startTime", slot.getStartTime());
+        details.put("endTime", slot.getEndTime());
+        if (slot.getBookedBy() != null) {
+            details.put("bookedBy", slot.getBookedBy().toHexString());
+        }
+        return details;
+    }
+
     public AvailableDoctorsResponse getAvailableDoctors(int page, int size) {
+        // The same for every caller: concurrent requests for a page share one computation
+        return singleFlight.execute("available-doctors", page + "|" + size, () -> loadAvailableDoctors(page, size));
+    }
+
+    private AvailableDoctorsResponse loadAvailableDoctors(int page, int size) {
         // Get current datetime as string
-        String currentDateTime = LocalDateTime.now(ZoneOffset.UTC).toString();
+        String currentDateTime = SlotTimes.now();
         
         // Find all slots with future available status
         List<AvailabilitySlot> availableSlots = slotRepository.findDistinctDoctorIdsWithFutureAvailableSlots(SlotStatus.AVAILABLE, currentDateTime);
@@ -104,9 +144,9 @@ public class AvailabilityService {
         }
         
         // Find all doctors that are PRO (doctors) and have available slots
-        List<User> availableDoctors = userRepository.findAllById(doctorIds).stream()
-                .filter(user -> user.getRole() == Role.PRO)
-                .sorted(Comparator.comparing(User::getScore, Comparator.nullsLast(Comparator.reverseOrder())))
+        List<UserCard> availableDoctors = userCardCache.getAll(doctorIds).values().stream()
+                .filter(user -> user.role() == Role.PRO)
+                .sorted(Comparator.comparing(UserCard::score, Comparator.nullsLast(Comparator.reverseOrder())))
                 .collect(Collectors.toList());
         
         // Calculate pagination
@@ -124,14 +164,14 @@ public class AvailabilityService {
         }
         
         // Get doctors for current page
-        List<User> pagedDoctors = availableDoctors.subList(startIndex, endIndex);
+        List<UserCard> pagedDoctors = availableDoctors.subList(startIndex, endIndex);
         
         // Convert to DTOs
         List<AvailableDoctorDTO> doctorDTOs = new ArrayList<>();
-        for (User doctor : pagedDoctors) {
+        for (UserCard doctor : pagedDoctors) {
             // Find the earliest available slot for this doctor
             List<AvailabilitySlot> doctorSlots = slotRepository.findAvailableSlotsByDoctorIdAndAfterTime(
-                    new ObjectId(doctor.getId()), SlotStatus.AVAILABLE, currentDateTime);
+                    new ObjectId(doctor.id()), SlotStatus.AVAILABLE, currentDateTime);
             
             if (!doctorSlots.isEmpty()) {
                 // Sort by startTime to get the earliest
@@ -140,13 +180,13 @@ public class AvailabilityService {
                         .orElse(doctorSlots.get(0));
                 
                 AvailableDoctorDTO dto = AvailableDoctorDTO.builder()
-                        .id(doctor.getId()) // Add doctor ID
-                        .name(doctor.getName())
-                        .category(doctor.getSpecialty() != null ? doctor.getSpecialty() : "General Medicine")
-                        .image("https://as2.ftcdn.net/v2/jpg/06/14/96/05/1000_F_614960515_mQsF7nS1r3qZ9eCHzqJ5cyCxmjsfJOCQ.webp") // Static placeholder
+                        .id(doctor.id()) // Add doctor ID
+                        .name(doctor.name())
+                        .category(doctor.specialty() != null ? doctor.specialty() : DEFAULT_SPECIALTY)
+                        .image(DEFAULT_DOCTOR_IMAGE) // Static placeholder
                         .experience("5+ years") // Static placeholder
                         .datetime(formatDateTime(earliestSlot.getStartTime()))
-                        .score(doctor.getScore() != null ? doctor.getScore().doubleValue() : 4.5) // Convert Integer to Double with default
+                        .score(doctor.score() != null ? doctor.score().doubleValue() : 4.5) // Convert Integer to Double with default
                         .build();
                 
                 doctorDTOs.add(dto);
@@ -160,55 +200,114 @@ public class AvailabilityService {
                 .build();
     }
     
+    /**
+     * Search doctors with an open slot in a time window, filtered by specialty and minimum score,
+     * with per-specialty facet counts. Without an explicit window, searches the next {@code withinDays} days.
+     * All filtering and paging is pushed down to a single MongoDB aggregation.
+     */
+    public DoctorSearchResponse searchAvailableDoctors(String specialty, String from, String to, int withinDays,
+                                                       Integer minScore, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("Invalid pagination: page must be >= 0 and size >= 1");
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime windowStart = from != null && !from.isEmpty() ? parseSearchTime(from) : now;
+        if (windowStart.isBefore(now)) {
+            windowStart = now;
+        }
+        LocalDateTime windowEnd = to != null && !to.isEmpty() ? parseSearchTime(to) : windowStart.plusDays(withinDays);
+        String specialtyFilter = specialty != null && !specialty.isBlank() ? specialty.trim() : null;
+
+        DoctorSearchResult result = windowEnd.isAfter(windowStart)
+                ? slotRepository.searchAvailableDoctors(SlotTimes.format(windowStart), SlotTimes.format(windowEnd),
+                        specialtyFilter, minScore, page, size)
+                : DoctorSearchResult.builder().hits(List.of()).specialtyCounts(Map.of()).totalHits(0).build();
+
+        List<AvailableDoctorDTO> doctorDTOs = result.getHits().stream()
+                .map(hit -> AvailableDoctorDTO.builder()
+                        .id(hit.getDoctorId())
+                        .name(hit.getName())
+                        .category(hit.getSpecialty() != null ? hit.getSpecialty() : DEFAULT_SPECIALTY)
+                        .image(DEFAULT_DOCTOR_IMAGE) // Static placeholder
+                        .experience("5+ years") // Static placeholder
+                        .datetime(formatDateTime(hit.getNextAvailable()))
+                        .score(hit.getScore() != null ? hit.getScore().doubleValue() : 4.5)
+                        .build())
+                .collect(Collectors.toList());
+
+        List<SpecialtyFacetDTO> facets = result.getSpecialtyCounts().entrySet().stream()
+                .map(entry -> new SpecialtyFacetDTO(
+                        entry.getKey() != null ? entry.getKey() : DEFAULT_SPECIALTY, entry.getValue()))
+                .collect(Collectors.toList());
+
+        int totalItems = (int) result.getTotalHits();
+        int totalPages = (int) Math.ceil((double) totalItems / size);
+        PaginationDTO pagination = PaginationDTO.builder()
+                .currentPage(page)
+                .pageSize(size)
+                .totalPages(totalPages)
+                .totalItems(totalItems)
+                .hasNextPage(page < totalPages - 1)
+                .hasPreviousPage(page > 0)
+                .build();
+
+        return DoctorSearchResponse.builder()
+                .doctors(doctorDTOs)
+                .specialtyFacets(facets)
+                .pagination(pagination)
+                .build();
+    }
+
+    private LocalDateTime parseSearchTime(String isoDateTime) {
+        try {
+            return LocalDateTime.parse(isoDateTime.replace("Z", ""));
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid date-time, expected ISO format (e.g. 2025-07-23T09:00): " + isoDateTime);
+        }
+    }
+
     /**
      * Get schedule groups for a specific doctor with single day groupings
      */
-    public ScheduleGroupsResponse getDoctorScheduleGroups(String doctorId, int page, int size, String currentUserEmail) {
+    public ScheduleGroupsResponse getDoctorScheduleGroups(String doctorId, int page, int size, String currentUserId) {
         try {
             // Get current datetime as string
-            String currentDateTime = LocalDateTime.now(ZoneOffset.UTC).toString();
+            String currentDateTime = SlotTimes.now();
             
-            // Fetch all available slots for the doctor
-            List<AvailabilitySlot> availableSlots = slotRepository.findByDoctorIdAndStatusAndStartTimeAfter(
-                    new ObjectId(doctorId), SlotStatus.AVAILABLE, currentDateTime);
+            // The doctor's open slots by day are the same for every caller: concurrent requests share them, and
+            // only the caller's own bookings are laid over them below. Pages are cut after the overlay, since the
+            // caller's bookings can add days, so the shared result covers every page.
+            ObjectId doctorObjectId = new ObjectId(doctorId);
+            Map<String, List<SlotWithUserDTO>> openSlotsByDay = singleFlight.execute("schedule-groups",
+                    doctorObjectId.toHexString(), () -> slotsByDay(new ArrayList<>(
+                            slotRepository.findByDoctorIdAndStatusAndStartTimeAfter(
+                                    doctorObjectId, SlotStatus.AVAILABLE, currentDateTime))));
             
-            // Also fetch user's booked slots with this doctor if authenticated
+            // One query for the user's bookings from today on, with any doctor: their upcoming slots with this
+            // doctor are shown alongside the open ones, and every day they already have a booking is flagged
             List<AvailabilitySlot> userBookedSlots = new ArrayList<>();
-            String currentUserId = null;
-            if (currentUserEmail != null) {
-                try {
-                    currentUserId = getUserIdByEmail(currentUserEmail);
-                    ObjectId currentUserObjectId = new ObjectId(currentUserId);
-                    
-                    // Get user's booked slots with this doctor
-                    userBookedSlots = slotRepository.findByDoctorIdAndBookedByAndStartTimeAfter(
-                            new ObjectId(doctorId), currentUserObjectId, currentDateTime);
-                } catch (Exception e) {
-                    logger.warn("Could not fetch user booked slots for user: {}", currentUserEmail, e);
+            Map<String, Boolean> userBookingsByDate = new HashMap<>();
+            try {
+                List<AvailabilitySlot> userBookings = slotRepository.findByBookedByAndStatusAndStartTimeGreaterThan(
+                        new ObjectId(currentUserId), SlotStatus.BOOKED, SlotTimes.startOfDay(LocalDate.now(ZoneOffset.UTC)));
+                for (AvailabilitySlot booking : userBookings) {
+                    userBookingsByDate.put(booking.getStartTime().substring(0, 10), true);
+                    if (doctorObjectId.equals(booking.getDoctorId())
+                            && booking.getStartTime().compareTo(currentDateTime) > 0) {
+                        userBookedSlots.add(booking);
+                    }
                 }
+            } catch (Exception e) {
+                logger.warn("Could not fetch bookings for user {}: {}", currentUserId, e.getMessage());
             }
             
-            // Combine available slots and user's booked slots
-            List<AvailabilitySlot> allSlots = new ArrayList<>();
-            allSlots.addAll(availableSlots);
-            allSlots.addAll(userBookedSlots);
-            
-            if (allSlots.isEmpty()) {
+            Map<String, List<SlotWithUserDTO>> slotsByDay = userBookedSlots.isEmpty()
+                    ? openSlotsByDay : withUserSlots(openSlotsByDay, userBookedSlots);
+            if (slotsByDay.isEmpty()) {
                 return createEmptyScheduleGroupsResponse(page, size);
             }
             
-            // Get current user's booked slots if authenticated
-            Map<String, Boolean> userBookingsByDate = new HashMap<>();
-            if (currentUserEmail != null && currentUserId != null) {
-                try {
-                    userBookingsByDate = getUserBookingsByDate(currentUserId, allSlots);
-                } catch (Exception e) {
-                    logger.warn("Could not fetch user bookings for {}: {}", currentUserEmail, e.getMessage());
-                }
-            }
-            
-            // Group slots by single day (now includes both available and user's booked slots)
-            List<ScheduleGroupDTO> scheduleGroups = groupSlotsByDay(allSlots, userBookingsByDate, currentUserEmail);
+            List<ScheduleGroupDTO> scheduleGroups = toScheduleGroups(slotsByDay, userBookingsByDate);
             
             // Apply pagination
             int totalGroups = scheduleGroups.size();
@@ -252,45 +351,16 @@ public class AvailabilityService {
     }
     
     /**
-     * Get user's bookings mapped by date
+     * Helper method to group slots by single day
      */
-    private Map<String, Boolean> getUserBookingsByDate(String userId, List<AvailabilitySlot> availableSlots) {
-        Map<String, Boolean> userBookingsByDate = new HashMap<>();
-        
-        // Get all unique dates from available slots
-        Set<String> dates = new HashSet<>();
-        for (AvailabilitySlot slot : availableSlots) {
-            try {
-                LocalDateTime slotDateTime = LocalDateTime.parse(slot.getStartTime().replace("Z", ""));
-                LocalDate slotDate = slotDateTime.toLocalDate();
-                dates.add(slotDate.toString());
-            } catch (Exception e) {
-                logger.warn("Error parsing slot date for user booking check: {}", slot.getStartTime(), e);
-            }
-        }
-        
-        // Check each date for user bookings
-        for (String dateStr : dates) {
-            LocalDate date = LocalDate.parse(dateStr);
-            
-            // Convert to datetime strings for MongoDB query (whole day range)
-            String startDateTime = date.atStartOfDay(ZoneOffset.UTC).toString();
-            String endDateTime = date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toString();
-            
-            // Check if user has any bookings on this date
-            List<AvailabilitySlot> userBookings = slotRepository.findBookedSlotsByUserInDateRange(
-                    new ObjectId(userId), startDateTime, endDateTime);
-            
-            userBookingsByDate.put(dateStr, !userBookings.isEmpty());
-        }
-        
-        return userBookingsByDate;
+    List<ScheduleGroupDTO> groupSlotsByDay(List<AvailabilitySlot> slots, Map<String, Boolean> userBookingsByDate) {
+        return toScheduleGroups(slotsByDay(slots), userBookingsByDate);
     }
-    
+
     /**
-     * Helper method to group slots by single day
+     * Slots by day, both in time order. Sorts {@code slots} in place.
      */
-    private List<ScheduleGroupDTO> groupSlotsByDay(List<AvailabilitySlot> slots, Map<String, Boolean> userBookingsByDate, String currentUserEmail) {
+    private Map<String, List<SlotWithUserDTO>> slotsByDay(List<AvailabilitySlot> slots) {
         // Sort slots by start time
         slots.sort(Comparator.comparing(AvailabilitySlot::getStartTime));
         
@@ -311,7 +381,26 @@ public class AvailabilityService {
                 logger.warn("Error parsing slot start time: {}", slot.getStartTime(), e);
             }
         }
-        
+        return groupedSlots;
+    }
+
+    /**
+     * Copy of the shared open slots by day with the user's own slots added, leaving the shared lists untouched.
+     */
+    private Map<String, List<SlotWithUserDTO>> withUserSlots(Map<String, List<SlotWithUserDTO>> openSlotsByDay,
+                                                             List<AvailabilitySlot> userSlots) {
+        Map<String, List<SlotWithUserDTO>> merged = new TreeMap<>(openSlotsByDay);
+        for (Map.Entry<String, List<SlotWithUserDTO>> day : slotsByDay(userSlots).entrySet()) {
+            List<SlotWithUserDTO> slots = new ArrayList<>(merged.getOrDefault(day.getKey(), List.of()));
+            slots.addAll(day.getValue());
+            slots.sort(Comparator.comparing(SlotWithUserDTO::getStartTime));
+            merged.put(day.getKey(), slots);
+        }
+        return merged;
+    }
+
+    private List<ScheduleGroupDTO> toScheduleGroups(Map<String, List<SlotWithUserDTO>> groupedSlots,
+                                                    Map<String, Boolean> userBookingsByDate) {
         // Convert to ScheduleGroupDTO
         List<ScheduleGroupDTO> scheduleGroups = new ArrayList<>();
         int groupIndex = 1;
@@ -364,7 +453,7 @@ public class AvailabilityService {
                 .build();
     }
     
-    private String formatDateTime(String isoDateTime) {
+    String formatDateTime(String isoDateTime) {
         try {
             // Parse the ISO datetime and format it for display
             LocalDateTime dateTime = LocalDateTime.parse(isoDateTime.replace("Z", ""));
@@ -400,9 +489,9 @@ public class AvailabilityService {
         // If slot is booked, fetch the user email
         if (slot.getBookedBy() != null && slot.getStatus() == SlotStatus.BOOKED) {
             try {
-                Optional<User> bookedUser = userRepository.findById(slot.getBookedBy().toString());
+                Optional<UserCard> bookedUser = userCardCache.get(slot.getBookedBy().toHexString());
                 if (bookedUser.isPresent()) {
-                    builder.bookedByEmail(bookedUser.get().getEmail());
+                    builder.bookedByEmail(bookedUser.get().email());
                 } else {
                     builder.bookedByEmail("Unknown User");
                 }
@@ -0,0 +1,221 @@
+package com.minidocto.availability.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.shared.cache.InvalidationBus;
+import com.minidocto.shared.cache.SingleFlight;
+import com.minidocto.shared.config.DirectoryCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Stale-while-revalidate cache of the available-doctors directory, holding each page as encoded JSON
+ * so serving it is a copy of bytes. A page younger than the soft TTL is served as is; between the
+ * soft and hard TTLs it is still served while one background task recomputes it; past the hard TTL,
+ * or when missing, the request recomputes it, sharing the computation with identical requests.
+ * Slot and booking changes publish a {@value #NAME} invalidation (on every node, through the
+ * {@link InvalidationBus}): cached pages become stale and are refreshed early, still served meanwhile,
+ * but no sooner than the minimum refresh interval after they were computed, so a burst of changes
+ * costs one recomputation per page and interval. Each page records the invalidation generation it was
+ * computed in, so a page computed while a change happened is stale again and refreshed on a later read.
+ * Metrics: {@code minidocto.cache.requests{cache=doctor-directory,result=hit|stale|miss}} and
+ * {@code minidocto.cache.refreshes{cache=doctor-directory,outcome=success|failure}}.
+ */
+@Component
+public class DoctorDirectoryCache {
+    private static final Logger logger = LoggerFactory.getLogger(DoctorDirectoryCache.class);
+    public static final String NAME = "doctor-directory";
+
+    private final AvailabilityService availabilityService;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight singleFlight;
+    private final DirectoryCacheProperties properties;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Page, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Page> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService refresher;
+    private final Counter hits;
+    private final Counter stale;
+    private final Counter misses;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    @Autowired
+    public DoctorDirectoryCache(AvailabilityService availabilityService, ObjectMapper objectMapper,
+                                SingleFlight singleFlight, InvalidationBus invalidationBus,
+                                DirectoryCacheProperties properties, MeterRegistry registry) {
+        this(availabilityService, objectMapper, singleFlight, invalidationBus, properties, registry, System::nanoTime);
+    }
+
+    DoctorDirectoryCache(AvailabilityService availabilityService, ObjectMapper objectMapper, SingleFlight singleFlight,
+                         InvalidationBus invalidationBus, DirectoryCacheProperties properties, MeterRegistry registry,
+                         LongSupplier clock) {
+        this.availabilityService = availabilityService;
+        this.objectMapper = objectMapper;
+        this.singleFlight = singleFlight;
+        this.properties = properties;
+        this.clock = clock;
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "doctor-directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hits = result(registry, "hit");
+        this.stale = result(registry, "stale");
+        this.misses = result(registry, "miss");
+        this.refreshed = refresh(registry, "success");
+        this.refreshFailed = refresh(registry, "failure");
+        registry.gaugeMapSize("minidocto.cache.size", List.of(Tag.of("cache", NAME)), entries);
+        invalidationBus.subscribe(NAME, key -> invalidated());
+    }
+
+    private static Counter result(MeterRegistry registry, String result) {
+        return Counter.builder("minidocto.cache.requests")
+                .description("Near-cache lookups by result")
+                .tags("cache", NAME, "result", result)
+                .register(registry);
+    }
+
+    private static Counter refresh(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.cache.refreshes")
+                .description("Background refreshes of cached responses")
+                .tags("cache", NAME, "outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * The JSON of {@link AvailabilityService#getAvailableDoctors(int, int)} for this page.
+     */
+    public byte[] getPage(int page, int size) {
+        Page key = new Page(page, size);
+        if (!properties.isEnabled()) {
+            return encode(key);
+        }
+        Entry entry = entries.get(key);
+        long now = clock.getAsLong();
+        if (entry != null && now - entry.loadedAtNanos < properties.getHardTtl().toNanos()) {
+            entry.lastReadNanos = now;
+            if (isFresh(entry, now)) {
+                hits.increment();
+            } else {
+                stale.increment();
+                if (isRefreshDue(entry, now)) {
+                    scheduleRefresh(key);
+                }
+            }
+            return entry.json;
+        }
+        misses.increment();
+        return load(key).json;
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return entry.generation == generation.get() && now - entry.loadedAtNanos < properties.getSoftTtl().toNanos();
+    }
+
+    private boolean isRefreshDue(Entry entry, long now) {
+        return now - entry.loadedAtNanos >= properties.getMinRefreshInterval().toNanos();
+    }
+
+    private Entry load(Page key) {
+        return singleFlight.execute(NAME, key.page() + "|" + key.size(), () -> {
+            long loadedInGeneration = generation.get();
+            byte[] json = encode(key);
+            long now = clock.getAsLong();
+            Entry previous = entries.get(key);
+            Entry entry = new Entry(json, now, loadedInGeneration, previous != null ? previous.lastReadNanos : now);
+            if (entries.containsKey(key) || entries.size() < properties.getMaxPages()) {
+                entries.put(key, entry);
+            }
+            return entry;
+        });
+    }
+
+    private byte[] encode(Page key) {
+        try {
+            return objectMapper.writeValueAsBytes(availabilityService.getAvailableDoctors(key.page(), key.size()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scheduleRefresh(Page key) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> refresh(key));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key); // Shutting down
+        }
+    }
+
+    private void refresh(Page key) {
+        try {
+            load(key);
+            refreshed.increment();
+        } catch (RuntimeException e) {
+            refreshFailed.increment();
+            logger.warn("Could not refresh directory page {} (size {}): {}", key.page(), key.size(), e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    private void invalidated() {
+        generation.incrementAndGet();
+        long now = clock.getAsLong();
+        entries.forEach((key, entry) -> {
+            // Pages nobody read lately are dropped rather than recomputed on every change
+            if (now - entry.lastReadNanos >= properties.getHardTtl().toNanos()) {
+                entries.remove(key, entry);
+            } else if (isRefreshDue(entry, now)) {
+                scheduleRefresh(key);
+            }
+            // Otherwise left stale: the next read past the interval refreshes it
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private record Page(int page, int size) {
+    }
+
+    private static final class Entry {
+        final byte[] json;
+        final long loadedAtNanos;
+        final long generation; // Invalidations seen when it was computed
+        volatile long lastReadNanos;
+
+        Entry(byte[] json, long loadedAtNanos, long generation, long lastReadNanos) {
+            this.json = json;
+            this.loadedAtNanos = loadedAtNanos;
+            this.generation = generation;
+            this.lastReadNanos = lastReadNanos;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.minidocto.availability.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.shared.exception.BadRequestException;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A doctor's slots in a time window, one keyset page at a time, written as
+ * {@code {"slots": [...], "nextCursor": "..."}} while they are read from the cursor.
+ * Cursors are opaque (last startTime and ID of the page) and stay valid when slots are added or removed.
+ */
+@Component
+@RequiredArgsConstructor
+public class DoctorSlotFeed {
+    static final int DEFAULT_LIMIT = 200;
+    static final int MAX_LIMIT = 1000;
+    private static final int FLUSH_EVERY = 100;
+
+    private final AvailabilitySlotRepository slotRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validated page request, resolved before the response starts so errors still map to 400.
+     */
+    public record Window(ObjectId doctorId, String from, String to, SlotStatus status,
+                         String afterStartTime, String afterId, int limit) {
+    }
+
+    /**
+     * Resolve the request parameters of {@code GET /availability/my-slots}.
+     * {@code date} is a one-day window and cannot be combined with from/to; without any window
+     * the page starts at the beginning of the current day (UTC).
+     */
+    public Window window(String doctorEmail, String date, String from, String to, String status,
+                         String cursor, Integer limit) {
+        User doctor = userRepository.findByEmail(doctorEmail)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + doctorEmail));
+
+        String windowFrom;
+        String windowTo;
+        if (date != null && !date.isEmpty()) {
+            if (from != null || to != null) {
+                throw new BadRequestException("date cannot be combined with from/to");
+            }
+            LocalDate day = parseDate(date);
+            windowFrom = SlotTimes.startOfDay(day);
+            windowTo = SlotTimes.startOfDay(day.plusDays(1));
+        } else {
+            windowFrom = from != null ? normalize(from) : to == null
+                    ? SlotTimes.startOfDay(LocalDate.now(ZoneOffset.UTC)) : null;
+            windowTo = to != null ? normalize(to) : null;
+        }
+        if (windowFrom != null && windowTo != null && windowFrom.compareTo(windowTo) >= 0) {
+            throw new BadRequestException("from must be before to");
+        }
+
+        SlotStatus slotStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                slotStatus = SlotStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid slot status: " + status);
+            }
+        }
+
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        String afterStartTime = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keyset = decodeCursor(cursor);
+            afterStartTime = keyset[0];
+            afterId = keyset[1];
+        }
+        return new Window(new ObjectId(doctor.getId()), windowFrom, windowTo, slotStatus, afterStartTime, afterId,
+                pageSize);
+    }
+
+    /**
+     * Stream one page to the output; nextCursor is null when the page is not full.
+     */
+    public void write(Window window, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<AvailabilitySlot> slots = slotRepository.streamDoctorSlots(window.doctorId(), window.from(),
+                     window.to(), window.status(), window.afterStartTime(), window.afterId(), window.limit())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("slots");
+            AvailabilitySlot last = null;
+            int count = 0;
+            for (Iterator<AvailabilitySlot> cursor = slots.iterator(); cursor.hasNext(); ) {
+                last = cursor.next();
+                generator.writeObject(last);
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            if (count == window.limit() && last != null) {
+                generator.writeStringField("nextCursor", encodeCursor(last));
+            } else {
+                generator.writeNullField("nextCursor");
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    static String encodeCursor(AvailabilitySlot slot) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((slot.getStartTime() + "|" + slot.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String[] keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (keyset.length == 2 && !keyset[0].isEmpty() && ObjectId.isValid(keyset[1])) {
+                return keyset;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64, reported below
+        }
+        throw new BadRequestException("Invalid cursor: " + cursor);
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid date, expected YYYY-MM-DD: " + date);
+        }
+    }
+
+    /**
+     * Bring a date (2025-07-23) or date-time (2025-07-23T09:00, optional seconds and Z) to the
+     * stored slot format, so it compares correctly with startTime strings.
+     */
+    static String normalize(String value) {
+        if (value.length() == 10) {
+            return SlotTimes.startOfDay(parseDate(value));
+        }
+        try {
+            return SlotTimes.format(LocalDateTime.parse(value.replace("Z", "")));
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid date-time, expected ISO format (e.g. 2025-07-23T09:00): " + value);
+        }
+    }
+}
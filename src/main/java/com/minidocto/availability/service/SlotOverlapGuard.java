@@ -0,0 +1,152 @@
+package com.minidocto.availability.service;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.shared.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Overlap checks for doctor schedules and patient bookings, answered by MongoDB so that every
+ * node sees the same slots. A doctor's slots are checked with a floor lookup and a range scan on
+ * (doctorId, startTime); a patient's with a scan of the (bookedBy, status, startTime) index.
+ * Nothing is cached between calls.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotOverlapGuard {
+    private static final Logger logger = LoggerFactory.getLogger(SlotOverlapGuard.class);
+
+    private final AvailabilitySlotRepository slotRepository;
+
+    /**
+     * Reject the whole batch if any slot overlaps another slot of the same batch or an existing,
+     * non-cancelled slot of the doctor. Slots without an ID get one assigned, so a slot saved again
+     * with its ID is not reported as overlapping itself.
+     * Two overlapping batches submitted at the same moment on different nodes are not serialized;
+     * only the doctor edits their schedule, so this is left to the next edit.
+     */
+    public void checkDoctorSlots(ObjectId doctorId, List<AvailabilitySlot> slots) {
+        List<Interval> batch = new ArrayList<>(slots.size());
+        for (AvailabilitySlot slot : slots) {
+            if (slot.getId() == null) {
+                slot.setId(new ObjectId().toHexString());
+            }
+            batch.add(toInterval(slot));
+        }
+        // Sorted, the batch only has to be compared with its neighbours
+        batch.sort(Comparator.comparingLong(Interval::start));
+        for (int i = 1; i < batch.size(); i++) {
+            if (batch.get(i - 1).end() > batch.get(i).start()) {
+                throw overlap(batch.get(i), batch.get(i - 1));
+            }
+        }
+
+        Set<String> batchIds = new HashSet<>();
+        batch.forEach(interval -> batchIds.add(interval.slotId()));
+        for (Interval interval : batch) {
+            // A doctor's slots never overlap, so only the last one starting earlier can run into this one
+            Optional<Interval> before = slotRepository
+                    .findFirstByDoctorIdAndStatusNotAndStartTimeLessThanOrderByStartTimeDesc(doctorId,
+                            SlotStatus.CANCELLED, format(interval.start()))
+                    .filter(slot -> !batchIds.contains(slot.getId()))
+                    .flatMap(this::storedInterval)
+                    .filter(existing -> existing.overlaps(interval));
+            if (before.isPresent()) {
+                throw overlap(interval, before.get());
+            }
+            Optional<Interval> after = slotRepository
+                    .findDoctorSlotsStartingIn(doctorId, format(interval.start()), format(interval.end()))
+                    .stream()
+                    .filter(slot -> !batchIds.contains(slot.getId()))
+                    .flatMap(slot -> storedInterval(slot).stream())
+                    .findFirst();
+            if (after.isPresent()) {
+                throw overlap(interval, after.get());
+            }
+        }
+    }
+
+    /**
+     * Whether the patient has another booking, or an unexpired hold, overlapping the slot.
+     * Callers claim the slot first and check afterwards: of two overlapping bookings racing on
+     * different nodes, the later check always sees the earlier claim.
+     *
+     * @param replacedSlotId slot the patient is moving away from (rebooking), ignored in the check
+     */
+    public boolean overlapsPatientBooking(ObjectId patientId, AvailabilitySlot slot, String replacedSlotId) {
+        Interval interval = toInterval(slot);
+        Instant now = Instant.now();
+        Optional<AvailabilitySlot> conflict = slotRepository
+                .findPatientSlotsOverlapping(patientId, format(interval.start()), format(interval.end()))
+                .stream()
+                .filter(other -> !other.getId().equals(slot.getId()) && !other.getId().equals(replacedSlotId))
+                .filter(other -> other.getStatus() != SlotStatus.PENDING
+                        || (other.getHoldExpiresAt() != null && other.getHoldExpiresAt().isAfter(now)))
+                .filter(other -> storedInterval(other).filter(interval::overlaps).isPresent())
+                .findFirst();
+        conflict.ifPresent(other -> logger.warn("Patient {} double-booking rejected: slot {} overlaps slot {}",
+                patientId, slot.getId(), other.getId()));
+        return conflict.isPresent();
+    }
+
+    private Interval toInterval(AvailabilitySlot slot) {
+        long start = toEpochSecond(slot.getStartTime());
+        long end = toEpochSecond(slot.getEndTime());
+        if (end <= start) {
+            throw new BadRequestException("Slot end time must be after start time: "
+                    + slot.getStartTime() + " - " + slot.getEndTime());
+        }
+        return new Interval(start, end, slot.getId());
+    }
+
+    private Optional<Interval> storedInterval(AvailabilitySlot slot) {
+        try {
+            return Optional.of(toInterval(slot));
+        } catch (BadRequestException e) {
+            logger.warn("Skipping slot {} with invalid time range in overlap check", slot.getId());
+            return Optional.empty();
+        }
+    }
+
+    static long toEpochSecond(String isoDateTime) {
+        if (isoDateTime == null) {
+            throw new BadRequestException("Slot start and end times are required");
+        }
+        try {
+            return LocalDateTime.parse(isoDateTime.replace("Z", "")).toEpochSecond(ZoneOffset.UTC);
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid slot time: " + isoDateTime);
+        }
+    }
+
+    private static String format(long epochSecond) {
+        return SlotTimes.format(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    private static BadRequestException overlap(Interval interval, Interval conflict) {
+        return new BadRequestException("Slot " + formatInterval(interval)
+                + " overlaps existing slot " + formatInterval(conflict));
+    }
+
+    private static String formatInterval(Interval interval) {
+        return LocalDateTime.ofEpochSecond(interval.start(), 0, ZoneOffset.UTC) + "Z-"
+                + LocalDateTime.ofEpochSecond(interval.end(), 0, ZoneOffset.UTC) + "Z";
+    }
+
+    record Interval(long start, long end, String slotId) {
+        boolean overlaps(Interval other) {
+            return start < other.end() && other.start() < end;
+        }
+    }
+}
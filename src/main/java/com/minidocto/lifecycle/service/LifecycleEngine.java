@@ -0,0 +1,225 @@
+package com.minidocto.lifecycle.service;
+
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.shared.config.LifecycleProperties;
+import com.minidocto.shared.config.LifecycleProperties.PendingAction;
+import com.minidocto.shared.scheduling.LeaderLease;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves appointments and slots through their lifecycle on a schedule, on one node at a time
+ * (the holder of the "lifecycle" {@link LeaderLease}):
+ * <ul>
+ *   <li>PENDING appointments untouched for the pending timeout are confirmed, or expired with their slot released;</li>
+ *   <li>appointments on slots that have ended are completed;</li>
+ *   <li>AVAILABLE slots whose start time has passed are marked EXPIRED, so they leave the
+ *       {@code status = AVAILABLE, startTime > now} index ranges.</li>
+ * </ul>
+ * Every step is an indexed range scan followed by batched updateMany calls that repeat the scan
+ * criteria, so a document changed in between is left alone. Completion walks booked slots from a
+ * start-time checkpoint kept in the lease document, so each run only reads slots ended since the last one.
+ */
+@Component
+@Profile("!inmemory")
+@ConditionalOnProperty(prefix = "minidocto.lifecycle", name = "enabled", havingValue = "true")
+public class LifecycleEngine {
+    private static final Logger logger = LoggerFactory.getLogger(LifecycleEngine.class);
+    static final String LEASE = "lifecycle";
+    private static final String SLOTS = "availability_slots";
+    private static final String APPOINTMENTS = "appointments";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaderLease lease;
+    private final LifecycleProperties properties;
+    private final MeterRegistry registry;
+
+    public LifecycleEngine(MongoTemplate mongoTemplate, LeaderLease lease, LifecycleProperties properties,
+                           MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = lease;
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Scheduled(fixedDelayString = "${minidocto.lifecycle.interval:PT1M}",
+            initialDelayString = "${minidocto.lifecycle.initial-delay:PT30S}")
+    public void run() {
+        try {
+            if (!lease.tryAcquire(LEASE, properties.getLeaseDuration())) {
+                logger.debug("Lifecycle lease held by another node, skipping run");
+                return;
+            }
+            // Appointment timestamps are local date-times, slot times UTC strings
+            LocalDateTime now = LocalDateTime.now();
+            String slotNow = SlotTimes.now();
+
+            long settled = settlePendingAppointments(now);
+            long completed = completeEndedAppointments(slotNow, now);
+            long expired = expirePastSlots(slotNow);
+            if (settled > 0 || completed > 0 || expired > 0) {
+                logger.info("Lifecycle run: {} pending appointments {}, {} completed, {} past slots expired",
+                        settled, properties.getPendingAction() == PendingAction.CONFIRM ? "confirmed" : "expired",
+                        completed, expired);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Lifecycle run failed, retrying at the next run: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void releaseLease() {
+        lease.release(LEASE);
+    }
+
+    long settlePendingAppointments(LocalDateTime now) {
+        Criteria stale = Criteria.where("status").is(AppointmentStatus.PENDING.name())
+                .and("updatedAt").lt(now.minus(properties.getPendingTimeout()));
+        AppointmentStatus target = properties.getPendingAction() == PendingAction.CONFIRM
+                ? AppointmentStatus.CONFIRMED : AppointmentStatus.EXPIRED;
+
+        long settled = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            List<Object> ids = findIds(stale, APPOINTMENTS);
+            if (ids.isEmpty()) {
+                break;
+            }
+            // A rebooking since the scan refreshed updatedAt, so that appointment no longer matches
+            settled += mongoTemplate.updateMulti(Query.query(new Criteria().andOperator(stale, Criteria.where("_id").in(ids))),
+                    Update.update("status", target.name()).set("updatedAt", now), APPOINTMENTS).getModifiedCount();
+            if (target == AppointmentStatus.EXPIRED) {
+                releaseSlots(ids);
+            }
+            if (ids.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+        count("pending_" + target.name().toLowerCase(), settled);
+        return settled;
+    }
+
+    /**
+     * Free the slots of the given appointments that are now EXPIRED, unless they were booked again.
+     */
+    private void releaseSlots(List<Object> appointmentIds) {
+        Query expired = Query.query(Criteria.where("_id").in(appointmentIds)
+                .and("status").is(AppointmentStatus.EXPIRED.name()));
+        expired.fields().include("slotId", "patientId");
+        List<Document> appointments = mongoTemplate.find(expired, Document.class, APPOINTMENTS);
+        if (appointments.isEmpty()) {
+            return;
+        }
+        BulkOperations release = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SLOTS);
+        for (Document appointment : appointments) {
+            release.updateOne(Query.query(Criteria.where("_id").is(appointment.get("slotId"))
+                            .and("bookedBy").is(appointment.get("patientId"))
+                            .and("status").is(SlotStatus.BOOKED.name())),
+                    Update.update("status", SlotStatus.AVAILABLE.name()).unset("bookedBy"));
+        }
+        release.execute();
+    }
+
+    long completeEndedAppointments(String slotNow, LocalDateTime now) {
+        String checkpoint = lease.checkpoint(LEASE);
+        Criteria started = Criteria.where("status").is(SlotStatus.BOOKED.name());
+        started = checkpoint != null ? started.and("startTime").gte(checkpoint).lt(slotNow) : started.and("startTime").lt(slotNow);
+        Query query = Query.query(started).with(Sort.by("startTime")).cursorBatchSize(properties.getBatchSize());
+        query.fields().include("startTime", "endTime");
+
+        // Next run resumes at the first slot still in progress, or here if none is
+        String nextCheckpoint = slotNow;
+        long completed = 0;
+        List<Object> ended = new ArrayList<>(properties.getBatchSize());
+        try (Stream<Document> slots = mongoTemplate.stream(query, Document.class, SLOTS)) {
+            for (Document slot : (Iterable<Document>) slots::iterator) {
+                String endTime = slot.getString("endTime");
+                if (endTime != null && endTime.compareTo(slotNow) > 0) {
+                    if (nextCheckpoint.equals(slotNow)) {
+                        nextCheckpoint = slot.getString("startTime");
+                    }
+                    continue;
+                }
+                ended.add(slot.get("_id"));
+                if (ended.size() == properties.getBatchSize()) {
+                    completed += complete(ended, now);
+                    ended.clear();
+                }
+            }
+        }
+        completed += complete(ended, now);
+        if (!lease.checkpoint(LEASE, nextCheckpoint)) {
+            logger.warn("Lifecycle lease lost during the run, completion checkpoint not advanced");
+        }
+        count("completed", completed);
+        return completed;
+    }
+
+    private long complete(List<Object> slotIds, LocalDateTime now) {
+        if (slotIds.isEmpty()) {
+            return 0;
+        }
+        List<String> completable = properties.getPendingAction() == PendingAction.CONFIRM
+                ? List.of(AppointmentStatus.PENDING.name(), AppointmentStatus.CONFIRMED.name())
+                : List.of(AppointmentStatus.CONFIRMED.name());
+        long completed = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("slotId").in(slotIds).and("status").in(completable)),
+                Update.update("status", AppointmentStatus.COMPLETED.name()).set("updatedAt", now), APPOINTMENTS)
+                .getModifiedCount();
+        if (properties.getPendingAction() == PendingAction.EXPIRE) {
+            // Never confirmed before the slot ended; the slot stays BOOKED as a record of what was held
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("slotId").in(slotIds).and("status").is(AppointmentStatus.PENDING.name())),
+                    Update.update("status", AppointmentStatus.EXPIRED.name()).set("updatedAt", now), APPOINTMENTS);
+        }
+        return completed;
+    }
+
+    long expirePastSlots(String slotNow) {
+        Criteria past = Criteria.where("status").is(SlotStatus.AVAILABLE.name()).and("startTime").lt(slotNow);
+        long expired = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            List<Object> ids = findIds(past, SLOTS);
+            if (ids.isEmpty()) {
+                break;
+            }
+            // A slot booked since the scan is no longer AVAILABLE and is skipped
+            expired += mongoTemplate.updateMulti(Query.query(new Criteria().andOperator(past, Criteria.where("_id").in(ids))),
+                    Update.update("status", SlotStatus.EXPIRED.name()), SLOTS).getModifiedCount();
+            if (ids.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+        count("slots_expired", expired);
+        return expired;
+    }
+
+    private List<Object> findIds(Criteria criteria, String collection) {
+        Query query = Query.query(criteria).limit(properties.getBatchSize());
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, collection).stream().map(document -> document.get("_id")).toList();
+    }
+
+    private void count(String transition, long amount) {
+        registry.counter("minidocto.lifecycle.transitions", "transition", transition).increment(amount);
+    }
+}
@@ -0,0 +1,120 @@
+package com.minidocto.seed;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams documents into MongoDB through unordered insertMany batches written by a small pool of
+ * writer threads. The pool queue is bounded and the producer runs a batch itself when it is full,
+ * so memory stays at a few batches per collection however much data is loaded.
+ */
+public class BulkLoader implements DocumentSink, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final ThreadPoolExecutor writers;
+    private final Map<String, List<Document>> pending = new HashMap<>();
+    private final Map<String, AtomicLong> inserted = new ConcurrentHashMap<>();
+    private final List<Future<?>> inFlight = new ArrayList<>();
+    private final AtomicLong total = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private long lastProgressNanos = startNanos;
+
+    public BulkLoader(MongoTemplate mongoTemplate, int batchSize, int writerThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writerThreads * 2), runnable -> {
+                    Thread thread = new Thread(runnable, "seed-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void insert(String collection, Document document) {
+        List<Document> batch = pending.computeIfAbsent(collection, name -> new ArrayList<>(batchSize));
+        batch.add(document);
+        if (batch.size() >= batchSize) {
+            pending.put(collection, new ArrayList<>(batchSize));
+            submit(collection, batch);
+        }
+    }
+
+    /**
+     * Write the remaining partial batches and wait for every batch to be acknowledged.
+     */
+    public void flush() {
+        pending.forEach((collection, batch) -> {
+            if (!batch.isEmpty()) {
+                submit(collection, batch);
+            }
+        });
+        pending.clear();
+        inFlight.forEach(BulkLoader::await);
+        inFlight.clear();
+    }
+
+    public Map<String, Long> insertedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        inserted.forEach((collection, count) -> counts.put(collection, count.get()));
+        return counts;
+    }
+
+    public long totalInserted() {
+        return total.get();
+    }
+
+    public double documentsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? total.get() / seconds : 0;
+    }
+
+    private void submit(String collection, List<Document> batch) {
+        inFlight.add(writers.submit(() -> write(collection, batch)));
+        // Drop completed batches (surfacing failures) so the list does not grow with the dataset
+        if (inFlight.size() > 1024) {
+            inFlight.removeIf(future -> future.isDone() && await(future));
+        }
+        long now = System.nanoTime();
+        if (now - lastProgressNanos > PROGRESS_INTERVAL_NANOS) {
+            lastProgressNanos = now;
+            logger.info("Seeded {} documents ({} docs/s)", total.get(), Math.round(documentsPerSecond()));
+        }
+    }
+
+    private static boolean await(Future<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for seed batches", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seed batch failed", e.getCause());
+        }
+    }
+
+    private void write(String collection, List<Document> batch) {
+        mongoTemplate.getCollection(collection)
+                .withWriteConcern(WriteConcern.W1)
+                .insertMany(batch, new InsertManyOptions().ordered(false));
+        inserted.computeIfAbsent(collection, name -> new AtomicLong()).addAndGet(batch.size());
+        total.addAndGet(batch.size());
+    }
+
+    @Override
+    public void close() {
+        writers.shutdown();
+    }
+}
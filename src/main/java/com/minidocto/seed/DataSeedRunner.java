@@ -0,0 +1,83 @@
+package com.minidocto.seed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Loads a synthetic dataset and/or sample slot files into MongoDB, then exits the application.
+ * Usage: {@code java -jar app.jar --spring.profiles.active=seed --minidocto.seed.doctors=1000 ...}
+ * (see application-seed.properties).
+ */
+@Component
+@Profile("seed")
+@RequiredArgsConstructor
+public class DataSeedRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DataSeedRunner.class);
+
+    private final SeedProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        int exitCode = 1;
+        try {
+            seed();
+            exitCode = 0;
+        } finally {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+
+    private void seed() throws IOException {
+        if (properties.isDrop()) {
+            for (String collection : List.of(SyntheticDataGenerator.USERS, SyntheticDataGenerator.SLOTS,
+                    SyntheticDataGenerator.APPOINTMENTS)) {
+                mongoTemplate.dropCollection(collection);
+            }
+            logger.info("Dropped users, availability_slots and appointments");
+        }
+
+        try (BulkLoader loader = new BulkLoader(mongoTemplate, properties.getBatchSize(), properties.getWriterThreads())) {
+            if (properties.isGenerate()) {
+                logger.info("Generating {} doctors and {} patients, {} slots per day over {} days",
+                        properties.getDoctors(), properties.getPatients(), properties.getSlotsPerDay(),
+                        properties.getPastDays() + properties.getFutureDays());
+                new SyntheticDataGenerator(properties, passwordEncoder.encode(properties.getPassword())).generate(loader);
+            }
+
+            SampleJsonImporter importer = new SampleJsonImporter(objectMapper);
+            ObjectId defaultDoctorId = properties.getImportDoctorId() != null ? new ObjectId(properties.getImportDoctorId()) : null;
+            for (String file : properties.getImportFiles()) {
+                try (InputStream input = Files.newInputStream(Path.of(file))) {
+                    long imported = importer.importSlots(input, file, defaultDoctorId, loader);
+                    logger.info("Imported {} slots from {}", imported, file);
+                }
+            }
+
+            loader.flush();
+            logger.info("Seed complete: {} documents {} at {} docs/s", loader.totalInserted(),
+                    loader.insertedCounts(), Math.round(loader.documentsPerSecond()));
+        }
+    }
+}
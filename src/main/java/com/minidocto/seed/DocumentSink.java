@@ -0,0 +1,10 @@
+package com.minidocto.seed;
+
+import org.bson.Document;
+
+/**
+ * Destination of seed documents, one collection at a time.
+ */
+public interface DocumentSink {
+    void insert(String collection, Document document);
+}
@@ -0,0 +1,108 @@
+package com.minidocto.seed;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Stream-imports availability slots from the sample JSON formats: a top-level array of slots, or an
+ * object holding the slots under {@code addedSlots} (availability update request) or {@code slots}
+ * (availability response). Slots are read one at a time, so file size does not matter.
+ */
+public class SampleJsonImporter {
+    private static final Logger logger = LoggerFactory.getLogger(SampleJsonImporter.class);
+    private static final Set<String> SLOT_ARRAYS = Set.of("addedSlots", "slots");
+
+    private final ObjectMapper objectMapper;
+
+    public SampleJsonImporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param defaultDoctorId doctor of slots without a doctorId, may be null
+     * @return number of slots imported
+     */
+    public long importSlots(InputStream input, String source, ObjectId defaultDoctorId, DocumentSink sink) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                logger.warn("{} is empty, nothing to import", source);
+                return 0;
+            }
+            if (token == JsonToken.START_ARRAY) {
+                return readSlots(parser, source, defaultDoctorId, sink);
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException(source + ": expected a JSON array or object of slots");
+            }
+            long imported = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && SLOT_ARRAYS.contains(field)) {
+                    imported += readSlots(parser, source, defaultDoctorId, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return imported;
+        }
+    }
+
+    private long readSlots(JsonParser parser, String source, ObjectId defaultDoctorId, DocumentSink sink) throws IOException {
+        long imported = 0;
+        long skipped = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            SlotRecord slot = parser.readValueAs(SlotRecord.class);
+            Document document = toDocument(slot, defaultDoctorId);
+            if (document == null) {
+                skipped++;
+                continue;
+            }
+            sink.insert(SyntheticDataGenerator.SLOTS, document);
+            imported++;
+        }
+        if (skipped > 0) {
+            logger.warn("{}: skipped {} slots without start/end time or doctor", source, skipped);
+        }
+        return imported;
+    }
+
+    private Document toDocument(SlotRecord slot, ObjectId defaultDoctorId) {
+        ObjectId doctorId = slot.doctorId() != null ? objectId(slot.doctorId()) : defaultDoctorId;
+        if (doctorId == null || slot.startTime() == null || slot.endTime() == null) {
+            return null;
+        }
+        Document document = new Document("_id", slot.id() != null ? objectId(slot.id()) : new ObjectId())
+                .append("doctorId", doctorId)
+                .append("startTime", slot.startTime())
+                .append("endTime", slot.endTime())
+                .append("status", (slot.status() != null ? slot.status() : SlotStatus.AVAILABLE).name());
+        if (slot.bookedBy() != null) {
+            document.append("bookedBy", objectId(slot.bookedBy()));
+        }
+        return document.append("_class", AvailabilitySlot.class.getName());
+    }
+
+    private static ObjectId objectId(String hex) {
+        if (!ObjectId.isValid(hex)) {
+            throw new IllegalArgumentException("Invalid ObjectId in slot file: " + hex);
+        }
+        return new ObjectId(hex);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SlotRecord(String id, String doctorId, String startTime, String endTime, SlotStatus status, String bookedBy) {
+    }
+}
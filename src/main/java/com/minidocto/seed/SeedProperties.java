@@ -0,0 +1,29 @@
+package com.minidocto.seed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.seed")
+@Data
+public class SeedProperties {
+    private boolean generate = true; // Generate synthetic doctors, patients, slots and appointments
+    private int doctors = 100;
+    private int patients = 1000;
+    private int pastDays = 7; // Days of history before today
+    private int futureDays = 30; // Days of schedule from today
+    private int slotsPerDay = 16; // Slots per doctor and day, from 08:00
+    private int slotMinutes = 30;
+    private double bookingRatio = 0.3; // Share of slots booked by a patient, each with a confirmed appointment
+    private String password = "password123"; // Password of every generated user
+    private long randomSeed = 42;
+    private int batchSize = 5000; // Documents per insertMany
+    private int writerThreads = 4;
+    private boolean drop = false; // Drop the users, slots and appointments collections first
+    private List<String> importFiles = new ArrayList<>(); // Slot JSON files to stream-import
+    private String importDoctorId; // Doctor for imported slots that have no doctorId
+}
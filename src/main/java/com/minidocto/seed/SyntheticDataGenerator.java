@@ -0,0 +1,136 @@
+package com.minidocto.seed;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Generates a deterministic synthetic dataset as raw documents in the application's storage format.
+ * Doctors are generated and emitted one at a time, so only the patient IDs are held in memory.
+ * At a given time slot the booking patients of different doctors are distinct as long as there are
+ * at least as many patients as doctors, so no patient is double-booked. From today on a doctor books
+ * each patient at most once, as the application allows one active appointment per patient and doctor,
+ * so at most {@code patients} of a doctor's future slots are booked.
+ */
+public class SyntheticDataGenerator {
+    public static final String USERS = "users";
+    public static final String SLOTS = "availability_slots";
+    public static final String APPOINTMENTS = "appointments";
+    private static final int FIRST_SLOT_HOUR = 8;
+
+    private static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Louis", "Camille", "Hélène",
+            "Nicolas", "Amélie", "Thomas", "Claire", "Julien", "Inès", "Hugo", "Léa", "Mehdi", "Yasmine", "Karim"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+            "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefèvre", "Michel", "Garcia", "Benali",
+            "Haddad", "Roux", "Fontaine", "Chevalier"};
+    private static final String[] SPECIALTIES = {"General Medicine", "Cardiology", "Dermatology", "Pediatrics",
+            "Neurology", "Ophthalmology", "Psychiatry", "Radiology", "Gynecology", "Orthopedics"};
+
+    private final SeedProperties properties;
+    private final String passwordHash;
+    private final Random random;
+
+    /**
+     * @param passwordHash encoded password shared by every generated user (encoding one per user
+     *                     with BCrypt would dominate the load time)
+     */
+    public SyntheticDataGenerator(SeedProperties properties, String passwordHash) {
+        this.properties = properties;
+        this.passwordHash = passwordHash;
+        this.random = new Random(properties.getRandomSeed());
+    }
+
+    public void generate(DocumentSink sink) {
+        ObjectId[] patientIds = new ObjectId[properties.getPatients()];
+        for (int i = 0; i < patientIds.length; i++) {
+            patientIds[i] = new ObjectId();
+            sink.insert(USERS, user(patientIds[i], Role.USER, "patient", i, null, null));
+        }
+        int stride = coprimeStride(patientIds.length);
+        for (int doctor = 0; doctor < properties.getDoctors(); doctor++) {
+            ObjectId doctorId = new ObjectId();
+            sink.insert(USERS, user(doctorId, Role.PRO, "doctor", doctor,
+                    SPECIALTIES[random.nextInt(SPECIALTIES.length)], 50 + random.nextInt(51)));
+            generateSchedule(sink, doctor, doctorId, patientIds, stride);
+        }
+    }
+
+    private void generateSchedule(DocumentSink sink, int doctor, ObjectId doctorId, ObjectId[] patientIds, int stride) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Date created = new Date();
+        int days = properties.getPastDays() + properties.getFutureDays();
+        int firstFutureSlot = -1;
+        for (int day = 0; day < days; day++) {
+            LocalDate date = today.minusDays(properties.getPastDays()).plusDays(day);
+            for (int i = 0; i < properties.getSlotsPerDay(); i++) {
+                LocalDateTime start = date.atTime(FIRST_SLOT_HOUR, 0).plusMinutes((long) i * properties.getSlotMinutes());
+                ObjectId slotId = new ObjectId();
+                Document slot = new Document("_id", slotId)
+                        .append("doctorId", doctorId)
+                        .append("startTime", SlotTimes.format(start))
+                        .append("endTime", SlotTimes.format(start.plusMinutes(properties.getSlotMinutes())))
+                        .append("_class", AvailabilitySlot.class.getName());
+                int timeIndex = day * properties.getSlotsPerDay() + i;
+                if (firstFutureSlot < 0 && !start.isBefore(now)) {
+                    firstFutureSlot = timeIndex;
+                }
+                // The stride is coprime with the patient count, so any run of that many time indexes maps to
+                // distinct patients: future bookings stop there rather than book a patient twice
+                boolean booked = random.nextDouble() < properties.getBookingRatio()
+                        && patientIds.length > 0 && (firstFutureSlot < 0 || timeIndex - firstFutureSlot < patientIds.length);
+                if (booked) {
+                    ObjectId patientId = patientIds[Math.floorMod(doctor + (long) timeIndex * stride, patientIds.length)];
+                    slot.append("status", SlotStatus.BOOKED.name()).append("bookedBy", patientId);
+                    AppointmentStatus status = start.isBefore(now) ? AppointmentStatus.COMPLETED : AppointmentStatus.CONFIRMED;
+                    sink.insert(APPOINTMENTS, new Document("_id", new ObjectId())
+                            .append("doctorId", doctorId)
+                            .append("patientId", patientId)
+                            .append("slotId", slotId)
+                            .append("status", status.name())
+                            .append("createdAt", created)
+                            .append("updatedAt", created)
+                            .append("_class", Appointment.class.getName()));
+                } else {
+                    slot.append("status", SlotStatus.AVAILABLE.name());
+                }
+                sink.insert(SLOTS, slot);
+            }
+        }
+    }
+
+    private static int coprimeStride(int patients) {
+        int stride = 7919;
+        while (patients > 1 && BigInteger.valueOf(stride).gcd(BigInteger.valueOf(patients)).intValue() != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private Document user(ObjectId id, Role role, String kind, int index, String specialty, Integer score) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        Document user = new Document("_id", id)
+                .append("name", (role == Role.PRO ? "Dr " : "") + first + " " + last)
+                .append("email", kind + index + "@seed.minidocto.test")
+                .append("password", passwordHash)
+                .append("role", role.name());
+        if (role == Role.PRO) {
+            user.append("specialty", specialty).append("score", score);
+        }
+        return user.append("_class", User.class.getName());
+    }
+}
@@ -0,0 +1,14 @@
+package com.minidocto.shared.audit;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Who did what to which document, and when.
+ *
+ * @param action e.g. "appointment.booked", "slot.added"
+ * @param actorId user who made the change
+ * @param targetId document changed (appointment, slot)
+ */
+public record AuditEvent(Instant at, String action, String actorId, String targetId, Map<String, Object> details) {
+}
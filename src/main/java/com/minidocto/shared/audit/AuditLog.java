@@ -0,0 +1,134 @@
+package com.minidocto.shared.audit;
+
+import com.minidocto.shared.config.AuditProperties;
+import com.minidocto.shared.config.AuditProperties.OverflowPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit trail of mutations, off the request path. Services only enqueue an event into a bounded
+ * ring buffer (an {@link ArrayBlockingQueue}); a single writer thread drains it and hands batches to
+ * the {@link AuditStore}. When the buffer is full, the overflow policy decides: DROP counts the event
+ * and returns at once, BLOCK waits up to the block timeout for room, then drops.
+ * Metrics: {@code minidocto.audit.events{outcome=written|dropped|failed}} and the buffer depth.
+ */
+@Component
+public class AuditLog {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final AuditStore store;
+    private final AuditProperties properties;
+    private final BlockingQueue<AuditEvent> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(AuditStore store, AuditProperties properties, MeterRegistry registry) {
+        this.store = store;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueSize());
+        this.written = outcome(registry, "written");
+        this.dropped = outcome(registry, "dropped");
+        this.failed = outcome(registry, "failed");
+        registry.gaugeCollectionSize("minidocto.audit.queue.size", List.of(), queue);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+        if (properties.isEnabled()) {
+            this.writer.start();
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.audit.events")
+                .description("Audit events written, dropped on overflow, or lost to store failures")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void record(String action, Object actorId, String targetId, Map<String, Object> details) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(Instant.now(), action, actorId != null ? actorId.toString() : null,
+                targetId, details);
+        if (queue.offer(event)) {
+            return;
+        }
+        if (properties.getOverflowPolicy() == OverflowPolicy.BLOCK) {
+            try {
+                if (queue.offer(event, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dropped.increment();
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                store.insert(batch);
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS || !running) {
+                    logger.error("Lost {} audit event(s) after {} attempt(s): {}", batch.size(), attempt, e.getMessage());
+                    failed.increment(batch.size());
+                    return;
+                }
+                logger.warn("Audit write failed, retrying: {}", e.getMessage());
+                TimeUnit.SECONDS.sleep(attempt);
+            }
+        }
+    }
+
+    /**
+     * Write what is queued (for up to 5 seconds) and stop.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
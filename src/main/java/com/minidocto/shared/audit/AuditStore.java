@@ -0,0 +1,11 @@
+package com.minidocto.shared.audit;
+
+import java.util.List;
+
+/**
+ * Persistent side of the audit log, written by a single thread.
+ */
+public interface AuditStore {
+
+    void insert(List<AuditEvent> events);
+}
@@ -0,0 +1,33 @@
+package com.minidocto.shared.audit;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Audit store of the "inmemory" profile: keeps the latest events only.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryAuditStore implements AuditStore {
+    private static final int CAPACITY = 10_000;
+
+    private final Deque<AuditEvent> events = new ArrayDeque<>();
+
+    @Override
+    public synchronized void insert(List<AuditEvent> batch) {
+        for (AuditEvent event : batch) {
+            if (events.size() == CAPACITY) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<AuditEvent> recent() {
+        return List.copyOf(events);
+    }
+}
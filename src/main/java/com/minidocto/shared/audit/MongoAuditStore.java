@@ -0,0 +1,80 @@
+package com.minidocto.shared.audit;
+
+import com.minidocto.shared.config.AuditProperties;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Audit events in monthly collections ({@code audit_log_2025_07}), written with one insertMany per month
+ * present in a batch. Retention is a collection drop: when the writer first reaches a new month, months
+ * older than the retention are dropped, which costs nothing compared to deleting old documents.
+ */
+@Component
+@Profile("!inmemory")
+public class MongoAuditStore implements AuditStore {
+    private static final Logger logger = LoggerFactory.getLogger(MongoAuditStore.class);
+    static final String PREFIX = "audit_log_";
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final MongoTemplate mongoTemplate;
+    private final int retentionMonths;
+    private YearMonth latestMonth; // Only touched by the writer thread
+
+    public MongoAuditStore(MongoTemplate mongoTemplate, AuditProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.retentionMonths = properties.getRetentionMonths();
+    }
+
+    @Override
+    public void insert(List<AuditEvent> events) {
+        Map<YearMonth, List<AuditEvent>> byMonth = events.stream().collect(Collectors.groupingBy(
+                event -> YearMonth.from(event.at().atZone(ZoneOffset.UTC)), LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<YearMonth, List<AuditEvent>> month : byMonth.entrySet()) {
+            mongoTemplate.insert(month.getValue().stream().map(MongoAuditStore::toDocument).toList(),
+                    collection(month.getKey()));
+            if (latestMonth == null || month.getKey().isAfter(latestMonth)) {
+                latestMonth = month.getKey();
+                dropExpired(latestMonth);
+            }
+        }
+    }
+
+    private void dropExpired(YearMonth current) {
+        String oldestKept = collection(current.minusMonths(retentionMonths - 1L));
+        for (String name : mongoTemplate.getCollectionNames()) {
+            // Same prefix and fixed-width suffix: names compare like the months they hold
+            if (name.startsWith(PREFIX) && name.length() == oldestKept.length() && name.compareTo(oldestKept) < 0) {
+                mongoTemplate.dropCollection(name);
+                logger.info("Dropped expired audit partition {}", name);
+            }
+        }
+    }
+
+    static String collection(YearMonth month) {
+        return PREFIX + month.format(PARTITION);
+    }
+
+    private static Document toDocument(AuditEvent event) {
+        Document document = new Document("at", Date.from(event.at()))
+                .append("action", event.action())
+                .append("actorId", event.actorId())
+                .append("targetId", event.targetId());
+        if (event.details() != null && !event.details().isEmpty()) {
+            document.append("details", new Document(event.details()));
+        }
+        return document;
+    }
+}
@@ -0,0 +1,38 @@
+package com.minidocto.shared.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations to every node, this one included. Caches subscribe under their name
+ * and publish invalidations instead of evicting directly, so all copies go stale together.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Call {@code handler} with the key of each invalidation of {@code cache}; a null key means
+     * the whole cache.
+     */
+    void subscribe(String cache, Consumer<String> handler);
+
+    void publish(String cache, String key);
+
+    /**
+     * Publish once the current transaction commits, so no node reloads the data before the change
+     * is visible; at once outside a transaction.
+     */
+    default void publishAfterCommit(String cache, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(cache, key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(cache, key);
+            }
+        });
+    }
+}
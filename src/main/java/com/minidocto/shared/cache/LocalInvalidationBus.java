@@ -0,0 +1,57 @@
+package com.minidocto.shared.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process invalidations, for a single node. Also the delivery end of {@link MongoInvalidationBus},
+ * which replaces it (it is {@code @Primary}) when a transport is configured.
+ */
+@Component
+public class LocalInvalidationBus implements InvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(LocalInvalidationBus.class);
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void subscribe(String cache, Consumer<String> handler) {
+        handlers.computeIfAbsent(cache, name -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    @Override
+    public void publish(String cache, String key) {
+        apply(cache, key);
+    }
+
+    /**
+     * Run the handlers of {@code cache}; returns whether any is subscribed.
+     */
+    boolean apply(String cache, String key) {
+        List<Consumer<String>> subscribed = handlers.get(cache);
+        if (subscribed == null) {
+            return false;
+        }
+        for (Consumer<String> handler : subscribed) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation of {} {} failed: {}", cache, key, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Invalidate every subscribed cache entirely.
+     */
+    void applyAll() {
+        handlers.keySet().forEach(cache -> apply(cache, null));
+    }
+}
@@ -0,0 +1,322 @@
+package com.minidocto.shared.cache;
+
+import com.minidocto.shared.config.InvalidationProperties;
+import com.minidocto.shared.config.InvalidationProperties.Transport;
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidations shared by every node through the {@value #COLLECTION} capped collection. Publishing
+ * applies the invalidation here and inserts it; a daemon thread per node reads the others' inserts and
+ * applies them to the local caches, either with a tailable cursor ({@code TAILABLE}, any deployment)
+ * or a change stream ({@code CHANGE_STREAM}, replica sets).
+ * The reader reconnects with exponential backoff. A tailable cursor resumes from the last event seen,
+ * minus the replay window to cover clock skew between publishers; a change stream resumes from its
+ * token. When no resume point survives, or the capped collection no longer reaches back to it, every
+ * subscribed cache is flushed rather than risking a missed invalidation. Replays are harmless: invalidating twice changes nothing.
+ * Metrics: {@code minidocto.invalidation.events{outcome=published|applied|publish_failed}},
+ * {@code minidocto.invalidation.delay} (publisher to receiver, includes clock skew) and
+ * {@code minidocto.invalidation.reconnects}.
+ */
+@Component
+@Primary
+@Profile("!inmemory")
+@ConditionalOnExpression("!'${minidocto.invalidation.transport:none}'.equalsIgnoreCase('none')")
+public class MongoInvalidationBus implements InvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(MongoInvalidationBus.class);
+    public static final String COLLECTION = "cache_invalidations";
+    private static final long INITIAL_RECONNECT_MILLIS = 100;
+    private static final int NAMESPACE_EXISTS = 48;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int RECENT_IDS = 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final LocalInvalidationBus local;
+    private final InvalidationProperties properties;
+    private final String nodeId = new ObjectId().toHexString();
+    private final Counter published;
+    private final Counter applied;
+    private final Counter publishFailed;
+    private final Counter reconnects;
+    private final Timer delay;
+    private final Map<ObjectId, Boolean> recentIds = new LinkedHashMap<>(RECENT_IDS, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ObjectId, Boolean> eldest) {
+            return size() > RECENT_IDS;
+        }
+    };
+    private final Thread reader;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private boolean everConnected;
+    private Instant lastSeen = Instant.now();
+    private BsonDocument resumeToken;
+
+    public MongoInvalidationBus(MongoTemplate mongoTemplate, LocalInvalidationBus local,
+                                InvalidationProperties properties, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.local = local;
+        this.properties = properties;
+        this.published = outcome(registry, "published");
+        this.applied = outcome(registry, "applied");
+        this.publishFailed = outcome(registry, "publish_failed");
+        this.reconnects = Counter.builder("minidocto.invalidation.reconnects")
+                .description("Invalidation feed reconnections")
+                .register(registry);
+        this.delay = Timer.builder("minidocto.invalidation.delay")
+                .description("Time from publishing an invalidation to applying it on another node")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.reader = new Thread(this::run, "cache-invalidation-reader");
+        this.reader.setDaemon(true);
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.invalidation.events")
+                .description("Cache invalidations published and applied from other nodes")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Connect in the background so an unreachable database never blocks startup
+        reader.start();
+    }
+
+    @Override
+    public void subscribe(String cache, Consumer<String> handler) {
+        local.subscribe(cache, handler);
+    }
+
+    @Override
+    public void publish(String cache, String key) {
+        local.apply(cache, key);
+        try {
+            collection().insertOne(new Document("_id", new ObjectId())
+                    .append("cache", cache)
+                    .append("key", key)
+                    .append("origin", nodeId)
+                    .append("publishedAt", new Date()));
+            published.increment();
+        } catch (RuntimeException e) {
+            // The other nodes catch up when their entries expire
+            publishFailed.increment();
+            logger.warn("Could not publish invalidation of {} {}: {}", cache, key, e.getMessage());
+        }
+    }
+
+    private void run() {
+        long reconnectMillis = INITIAL_RECONNECT_MILLIS;
+        while (running) {
+            try {
+                ensureCollection();
+                if (properties.getTransport() == Transport.CHANGE_STREAM) {
+                    watch();
+                } else {
+                    tail();
+                }
+                // A tailable cursor on an empty collection dies at once: pause before reopening
+                reconnectMillis = INITIAL_RECONNECT_MILLIS;
+                sleep(reconnectMillis);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                if (connected) {
+                    logger.warn("Invalidation feed lost, reconnecting: {}", e.getMessage());
+                } else {
+                    logger.debug("Invalidation feed unavailable: {}", e.getMessage());
+                }
+                connected = false;
+                reconnects.increment();
+                sleep(reconnectMillis);
+                reconnectMillis = Math.min(reconnectMillis * 2, properties.getMaxReconnectDelay().toMillis());
+            }
+        }
+    }
+
+    private void tail() {
+        ObjectId from = new ObjectId(Date.from(lastSeen.minus(properties.getReplayWindow())));
+        if (everConnected) {
+            flushIfWrapped(from);
+        }
+        try (MongoCursor<Document> cursor = collection().find(Filters.gte("_id", from))
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .iterator()) {
+            onConnected();
+            while (running) {
+                Document event = cursor.tryNext();
+                if (event != null) {
+                    receive(event);
+                } else if (cursor.getServerCursor() == null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void watch() {
+        var stream = collection().watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        boolean resumed = resumeToken != null;
+        if (resumed) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            if (!resumed) {
+                // Nothing tells what was missed while disconnected
+                flushIfReconnecting();
+            }
+            onConnected();
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && change.getFullDocument() != null) {
+                    receive(change.getFullDocument());
+                }
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+            }
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                resumeToken = null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The capped collection drops its oldest events when full: if it now starts after the resume point,
+     * events published while this node was disconnected may be gone.
+     */
+    private void flushIfWrapped(ObjectId from) {
+        Document oldest = collection().find().sort(new Document("$natural", 1)).limit(1).first();
+        if (oldest != null && oldest.getObjectId("_id").getDate().after(from.getDate())) {
+            logger.info("Invalidation feed resumed after {} but the oldest event left is from {}, flushing local caches",
+                    from.getDate().toInstant(), oldest.getObjectId("_id").getDate().toInstant());
+            local.applyAll();
+        }
+    }
+
+    private void flushIfReconnecting() {
+        if (everConnected) {
+            logger.info("Invalidation feed resumed without a resume point, flushing local caches");
+            local.applyAll();
+        }
+    }
+
+    private void onConnected() {
+        if (!connected) {
+            logger.info("Invalidation feed connected ({})", properties.getTransport());
+        }
+        connected = true;
+        everConnected = true;
+    }
+
+    private void receive(Document event) {
+        ObjectId id = event.getObjectId("_id");
+        Date publishedAt = event.getDate("publishedAt");
+        if (publishedAt != null && publishedAt.toInstant().isAfter(lastSeen)) {
+            lastSeen = publishedAt.toInstant();
+        }
+        if (nodeId.equals(event.getString("origin")) || recentIds.put(id, Boolean.TRUE) != null) {
+            return; // Applied when published, or replayed after a reconnect
+        }
+        if (local.apply(event.getString("cache"), event.getString("key"))) {
+            applied.increment();
+            if (publishedAt != null) {
+                delay.record(Duration.between(publishedAt.toInstant(), Instant.now()).abs());
+            }
+        }
+    }
+
+    private void ensureCollection() {
+        Document info = mongoTemplate.getDb().listCollections().filter(Filters.eq("name", COLLECTION)).first();
+        if (info != null) {
+            Document options = info.get("options", Document.class);
+            if (options == null || !options.getBoolean("capped", false)) {
+                // Created by an insert before any reader: tailable cursors need it capped
+                logger.info("Converting {} to a capped collection", COLLECTION);
+                mongoTemplate.getDb().runCommand(new Document("convertToCapped", COLLECTION)
+                        .append("size", properties.getCappedSizeBytes()));
+            }
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty()
+                    .capped()
+                    .size(properties.getCappedSizeBytes())
+                    .maxDocuments(properties.getCappedMaxDocuments()));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    private void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        reader.interrupt();
+        try {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
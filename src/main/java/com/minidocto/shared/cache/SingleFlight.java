@@ -0,0 +1,95 @@
+package com.minidocto.shared.cache;
+
+import com.minidocto.shared.config.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for hot reads: while a computation for a key is in flight, identical calls wait
+ * for its result instead of running their own. Nothing is kept once it completes, so results are
+ * never staler than the call in flight. Keys must hold every parameter the result depends on;
+ * user-specific parts belong outside the shared computation. A caller waits at most
+ * {@code minidocto.single-flight.max-wait}, then computes alone; a failure is passed on to the callers
+ * that waited for it. Metrics: {@code minidocto.singleflight.calls{group,outcome=executed|coalesced|timed_out}}.
+ */
+@Component
+public class SingleFlight {
+    private final SingleFlightProperties properties;
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public SingleFlight(SingleFlightProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    /**
+     * Run {@code computation}, or share the result of the identical call in flight.
+     *
+     * @param group kind of computation, used in metrics, e.g. "available-doctors"
+     * @param key   normalized parameters of the computation within its group
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, String key, Supplier<T> computation) {
+        if (!properties.isEnabled()) {
+            return computation.get();
+        }
+        String flightKey = group + '|' + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, mine);
+        if (leader == null) {
+            count(group, "executed");
+            try {
+                T result = computation.get();
+                mine.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(flightKey, mine);
+            }
+        }
+
+        try {
+            T result = (T) leader.get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            count(group, "coalesced");
+            return result;
+        } catch (TimeoutException e) {
+            count(group, "timed_out");
+            return computation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical call", e);
+        } catch (ExecutionException e) {
+            count(group, "coalesced");
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void count(String group, String outcome) {
+        counters.computeIfAbsent(group + '|' + outcome, k -> Counter.builder("minidocto.singleflight.calls")
+                .description("Hot reads executed, or served by an identical call in flight")
+                .tags("group", group, "outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.minidocto.shared.capture;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One captured request, written as a line of the capture file. Contains no personal data:
+ * users appear as keyed pseudonyms and personal fields of the body are redacted.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CapturedRequest {
+    long timestamp; // Epoch millis at which the request arrived
+    String method;
+    String path; // Path and redacted query string
+    String pattern; // Matched endpoint pattern, e.g. /availability/doctors/{doctorId}/schedule-groups
+    String user; // Pseudonym of the authenticated user
+    String role;
+    JsonNode body; // Redacted JSON request body
+    int status;
+    long durationMicros;
+}
@@ -0,0 +1,86 @@
+package com.minidocto.shared.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes personal data from captured requests. Emails become keyed pseudonyms (HMAC-SHA256), so
+ * the same user keeps the same pseudonym across requests and replay can map it to a test account;
+ * secrets, names and free-text search terms are masked.
+ */
+class PiiRedactor {
+    static final String MASK = "***";
+    private static final Set<String> PSEUDONYMIZED = Set.of("email", "username");
+    private static final Set<String> MASKED = Set.of("password", "token", "refreshToken", "name", "q");
+
+    private final SecretKeySpec key;
+
+    PiiRedactor(byte[] key) {
+        this.key = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    String pseudonym(String email) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return "u-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    /**
+     * Redact a JSON body in place, at any depth.
+     */
+    JsonNode redact(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (PSEUDONYMIZED.contains(field.getKey()) && field.getValue().isTextual()) {
+                    field.setValue(new TextNode(pseudonym(field.getValue().asText())));
+                } else if (MASKED.contains(field.getKey())) {
+                    field.setValue(new TextNode(MASK));
+                } else {
+                    redact(field.getValue());
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(this::redact);
+        }
+        return node;
+    }
+
+    /**
+     * Mask the values of personal query parameters, keeping the others as sent.
+     */
+    String redactQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return query;
+        }
+        StringBuilder redacted = new StringBuilder(query.length());
+        for (String parameter : query.split("&")) {
+            if (!redacted.isEmpty()) {
+                redacted.append('&');
+            }
+            int separator = parameter.indexOf('=');
+            String name = separator >= 0 ? parameter.substring(0, separator) : parameter;
+            redacted.append(separator >= 0 && (MASKED.contains(name) || PSEUDONYMIZED.contains(name))
+                    ? name + "=" + MASK : parameter);
+        }
+        return redacted.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.minidocto.shared.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.shared.config.TrafficCaptureProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a sample of requests (method, path, redacted body, user pseudonym, status, duration) to an
+ * NDJSON file for replay against other builds. Enabled with {@code minidocto.capture.enabled=true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "minidocto.capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+    private final TrafficCaptureProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PiiRedactor redactor;
+    private final TrafficCaptureWriter writer;
+
+    public TrafficCaptureFilter(TrafficCaptureProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.redactor = new PiiRedactor(pseudonymKey(properties.getPseudonymKey()));
+        this.writer = new TrafficCaptureWriter(properties, objectMapper, registry);
+    }
+
+    private static byte[] pseudonymKey(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return writer.isFull()
+                || request.getRequestURI().startsWith("/actuator")
+                || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long timestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request, properties.getMaxBodyBytes());
+        try {
+            filterChain.doFilter(cachingRequest, response);
+        } finally {
+            long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            writer.submit(capture(cachingRequest, response.getStatus(), timestamp, durationMicros));
+        }
+    }
+
+    private CapturedRequest capture(ContentCachingRequestWrapper request, int status, long timestamp, long durationMicros) {
+        String query = redactor.redactQuery(request.getQueryString());
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        CapturedRequest.CapturedRequestBuilder captured = CapturedRequest.builder()
+                .timestamp(timestamp)
+                .method(request.getMethod())
+                .path(request.getRequestURI() + (query != null ? "?" + query : ""))
+                .pattern(pattern != null ? pattern.toString() : null)
+                .body(body(request))
+                .status(status)
+                .durationMicros(durationMicros);
+
+        JsonNode claims = tokenClaims(request.getHeader("Authorization"));
+        if (claims != null && claims.hasNonNull("sub")) {
+            captured.user(redactor.pseudonym(claims.get("sub").asText()))
+                    .role(claims.path("role").asText(null));
+        }
+        return captured.build();
+    }
+
+    private JsonNode body(ContentCachingRequestWrapper request) {
+        byte[] content = request.getContentAsByteArray();
+        // A body larger than the cache limit is truncated and not valid JSON
+        if (content.length == 0 || content.length >= properties.getMaxBodyBytes()
+                || request.getContentType() == null || !request.getContentType().contains("json")) {
+            return null;
+        }
+        try {
+            return redactor.redact(objectMapper.readTree(content));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Claims of the bearer token, read without verifying the signature: they only serve to name
+     * the user in the capture, and authentication itself is done by the JWT filter.
+     */
+    private JsonNode tokenClaims(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String[] parts = authorization.substring(7).split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        writer.close();
+    }
+}
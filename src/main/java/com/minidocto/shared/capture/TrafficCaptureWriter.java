@@ -0,0 +1,120 @@
+package com.minidocto.shared.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.shared.config.TrafficCaptureProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends captured requests to the NDJSON capture file from a single background thread.
+ * Requests only enqueue: when the queue is full or the file has reached its size limit,
+ * records are dropped and counted rather than slowing requests down.
+ */
+class TrafficCaptureWriter {
+    private static final Logger logger = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final BlockingQueue<CapturedRequest> queue;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final long maxFileBytes;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean full;
+
+    TrafficCaptureWriter(TrafficCaptureProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueSize());
+        this.objectMapper = objectMapper;
+        this.file = Path.of(properties.getFile());
+        this.maxFileBytes = properties.getMaxFileBytes();
+        this.written = outcome(registry, "written");
+        this.dropped = outcome(registry, "dropped");
+        this.thread = new Thread(this::run, "traffic-capture");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.info("Capturing traffic to {} (sample rate {})", file.toAbsolutePath(), properties.getSampleRate());
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.capture.records")
+                .description("Captured requests written to or dropped from the capture file")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    void submit(CapturedRequest request) {
+        if (full || !queue.offer(request)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<CapturedRequest> batch = new ArrayList<>();
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            long size = Files.size(file);
+            while (running || !queue.isEmpty()) {
+                CapturedRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 1000);
+                for (CapturedRequest request : batch) {
+                    byte[] line = objectMapper.writeValueAsBytes(request);
+                    if (size + line.length + 1 > maxFileBytes) {
+                        full = true;
+                        dropped.increment();
+                        continue;
+                    }
+                    out.write(line);
+                    out.write(NEWLINE);
+                    size += line.length + 1;
+                    written.increment();
+                }
+                out.flush();
+                batch.clear();
+                if (full) {
+                    logger.warn("Traffic capture file {} reached {} bytes, capture stopped", file, maxFileBytes);
+                    queue.clear();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            full = true;
+            logger.error("Traffic capture stopped: cannot write {}", file, e);
+        }
+    }
+
+    /**
+     * Write what is queued (for up to 5 seconds) and stop.
+     */
+    void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
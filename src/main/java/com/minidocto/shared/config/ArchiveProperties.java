@@ -0,0 +1,22 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.archive")
+@Data
+public class ArchiveProperties {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofHours(1); // Delay between the end of a run and the start of the next
+    private Duration slotRetention = Duration.ofDays(30); // Slots starting longer ago than this are archived
+    private Duration appointmentRetention = Duration.ofDays(30); // Cancelled/completed appointments untouched for this long are archived
+    private int batchSize = 500; // Upper bound on documents moved per batch
+    private int minBatchSize = 50; // Lower bound when the batch size is reduced under load
+    private Duration targetBatchLatency = Duration.ofMillis(200); // Batches slower than this shrink the batch and back off
+    private int maxBatchesPerRun = 1000; // Leftovers wait for the next run
+    private Duration leaseDuration = Duration.ofMinutes(30); // Only the lease holder archives; another node takes over once it expires
+}
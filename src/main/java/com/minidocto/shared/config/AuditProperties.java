@@ -0,0 +1,24 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.audit")
+@Data
+public class AuditProperties {
+    private boolean enabled = true;
+    private int queueSize = 8192; // Events buffered between the services and the writer
+    private int batchSize = 500; // Events per insertMany
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP; // What a mutation does when the buffer is full
+    private Duration blockTimeout = Duration.ofMillis(50); // BLOCK: longest wait for room before the event is dropped
+    private int retentionMonths = 12; // Monthly audit_log_yyyy_MM collections older than this are dropped
+
+    public enum OverflowPolicy {
+        DROP, // Never slow a request down; the event is counted as dropped
+        BLOCK // Wait up to blockTimeout for the writer to make room
+    }
+}
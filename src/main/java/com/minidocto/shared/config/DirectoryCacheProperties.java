@@ -0,0 +1,18 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.directory-cache")
+@Data
+public class DirectoryCacheProperties {
+    private boolean enabled = true;
+    private Duration softTtl = Duration.ofSeconds(5); // Older pages are still served, while refreshed in the background
+    private Duration hardTtl = Duration.ofSeconds(60); // Older pages are never served: the request recomputes them
+    private Duration minRefreshInterval = Duration.ofSeconds(1); // Changes refresh a page no sooner than this after it was computed
+    private int maxPages = 256; // Distinct page/size pairs cached; others are computed per request
+}
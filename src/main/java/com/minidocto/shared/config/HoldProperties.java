@@ -0,0 +1,15 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.hold")
+@Data
+public class HoldProperties {
+    private Duration duration = Duration.ofMinutes(5); // A held slot is reserved for the patient this long, pending confirmation
+    private Duration sweepInterval = Duration.ofSeconds(15); // Delay between sweeps reopening lapsed holds
+}
@@ -0,0 +1,22 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.idempotency")
+@Data
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    private List<String> paths = new ArrayList<>(); // POST endpoints honouring the Idempotency-Key header
+    private Duration ttl = Duration.ofHours(24); // Stored responses are replayed for this long
+    private Duration lockTimeout = Duration.ofSeconds(30); // An unfinished request older than this may be taken over
+    private Duration waitTimeout = Duration.ofSeconds(10); // Duplicates wait this long for the original before a 409
+    private int nearCacheSize = 10_000; // Recent responses kept in memory in front of the store
+    private int maxBodyBytes = 64 * 1024; // Larger request bodies are rejected when they carry a key
+}
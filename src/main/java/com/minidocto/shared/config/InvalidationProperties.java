@@ -0,0 +1,24 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.invalidation")
+@Data
+public class InvalidationProperties {
+    private Transport transport = Transport.NONE; // How cache invalidations reach the other nodes
+    private long cappedSizeBytes = 1024 * 1024; // Size of the cache_invalidations capped collection
+    private long cappedMaxDocuments = 10_000;
+    private Duration replayWindow = Duration.ofSeconds(5); // Re-read on reconnect, covers clock skew between publishers
+    private Duration maxReconnectDelay = Duration.ofSeconds(5); // Reconnect backoff starts at 100 ms and doubles up to this
+
+    public enum Transport {
+        NONE, // Single node: invalidations stay in process
+        TAILABLE, // Tailable cursor on a capped collection, works on a standalone server
+        CHANGE_STREAM // Change stream on the same collection, requires a replica set
+    }
+}
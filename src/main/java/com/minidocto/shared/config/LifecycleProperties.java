@@ -0,0 +1,25 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.lifecycle")
+@Data
+public class LifecycleProperties {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(1); // Delay between the end of a run and the start of the next
+    private Duration pendingTimeout = Duration.ofMinutes(30); // PENDING appointments untouched for this long are settled
+    private PendingAction pendingAction = PendingAction.CONFIRM; // What settling a PENDING appointment means
+    private int batchSize = 500; // Documents read and updated per updateMany
+    private int maxBatchesPerRun = 100; // Leftovers wait for the next run
+    private Duration leaseDuration = Duration.ofMinutes(5); // Another node takes over this long after the leader stops renewing
+
+    public enum PendingAction {
+        CONFIRM, // PENDING -> CONFIRMED
+        EXPIRE // PENDING -> EXPIRED, and the slot is released
+    }
+}
@@ -0,0 +1,29 @@
+package com.minidocto.shared.config;
+
+import com.minidocto.user.service.DoctorAutocompleteIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application-level meters. HTTP endpoints (http.server.requests), repositories
+ * (spring.data.repository.invocations) and @Timed services (minidocto.service) are timed
+ * by Spring Boot; their histogram settings live in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Sizes of the in-process caches and indexes, exported as {@code minidocto.cache.size{cache=...}}.
+     * Gauges are sampled at scrape time, so they cost nothing on the request path.
+     */
+    @Bean
+    public MeterBinder cacheSizeMetrics(DoctorAutocompleteIndex doctorAutocompleteIndex) {
+        return registry -> {
+            Gauge.builder("minidocto.cache.size", doctorAutocompleteIndex, DoctorAutocompleteIndex::size)
+                    .tag("cache", "doctor-autocomplete")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.minidocto.shared.config;
+
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.shared.idempotency.MongoIdempotencyStore;
+import com.minidocto.shared.outbox.OutboxEvent;
+import com.minidocto.shared.ratelimit.MongoRateLimiter;
+import com.minidocto.user.model.User;
+import com.minidocto.waitlist.model.WaitlistEntry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ensures the indexes declared on the documents (@CompoundIndex, @Indexed) exist.
+ * Runs in the background once the application is ready so a slow or unreachable
+ * database never blocks startup, unlike spring.data.mongodb.auto-index-creation.
+ */
+@Configuration
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Value("${minidocto.mongo.ensure-indexes:true}")
+    private boolean ensureIndexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexesOnStartup() {
+        if (!ensureIndexes) {
+            return;
+        }
+        Thread thread = new Thread(this::ensureIndexes, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> type : List.of(User.class, AvailabilitySlot.class, Appointment.class, WaitlistEntry.class,
+                OutboxEvent.class)) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(indexOps::createIndex);
+                logger.info("Ensured indexes for {}", type.getSimpleName());
+            } catch (Exception e) {
+                logger.warn("Could not ensure indexes for {}: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
+        // Rate limit buckets and idempotency keys expire at their expiresAt date
+        for (String collection : List.of(MongoRateLimiter.COLLECTION, MongoIdempotencyStore.COLLECTION)) {
+            try {
+                mongoTemplate.indexOps(collection).createIndex(new Index().on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO).named("expiresAt_ttl"));
+            } catch (Exception e) {
+                logger.warn("Could not ensure the TTL index of {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+}
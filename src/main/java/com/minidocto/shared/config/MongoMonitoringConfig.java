@@ -0,0 +1,25 @@
+package com.minidocto.shared.config;
+
+import com.minidocto.shared.monitoring.MongoCommandMonitor;
+import com.minidocto.shared.monitoring.MongoPoolMonitor;
+import com.minidocto.shared.monitoring.QueryCountingListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the slow query, query counting and connection pool listeners on the MongoDB client.
+ */
+@Configuration
+public class MongoMonitoringConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMonitoringCustomizer(MongoCommandMonitor commandMonitor,
+                                                                          QueryCountingListener queryCountingListener,
+                                                                          MongoPoolMonitor poolMonitor) {
+        return builder -> builder
+                .addCommandListener(commandMonitor)
+                .addCommandListener(queryCountingListener)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolMonitor));
+    }
+}
@@ -0,0 +1,19 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.mongo.monitoring")
+@Data
+public class MongoMonitoringProperties {
+    private long slowQueryThresholdMs = 100; // Commands slower than this are captured in the slow query log
+    private int slowQueryBufferSize = 200; // Most recent slow queries kept in memory
+    private int queryBudget = 10; // MongoDB commands allowed per HTTP request before a warning is logged
+    private Map<String, Integer> queryBudgets = new HashMap<>(); // Per-endpoint budgets, keyed by URI pattern
+    private boolean captureCallSites = true; // Attribute each command to its calling service method
+}
@@ -0,0 +1,23 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document transactions for the @Transactional services (booking, cancellation), so an
+ * appointment change and its outbox events commit together. Needs a replica set; off by default.
+ */
+@Configuration
+@Profile("!inmemory")
+@ConditionalOnProperty(prefix = "minidocto.mongo", name = "transactions", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -0,0 +1,23 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.outbox")
+@Data
+public class OutboxProperties {
+    private boolean dispatchEnabled = true; // Off: events are still recorded, for another node to deliver
+    private Duration pollInterval = Duration.ofSeconds(1); // Delay between the end of a dispatch run and the start of the next
+    private int batchSize = 100; // Events claimed and handed to the sinks at once
+    private int maxBatchesPerRun = 50; // Leftovers wait for the next run
+    private Duration claimTimeout = Duration.ofMinutes(1); // A claimed batch not settled by then is delivered again
+    private Duration initialBackoff = Duration.ofSeconds(5); // Delay before the first retry, doubled on each failure
+    private Duration maxBackoff = Duration.ofMinutes(15);
+    private int maxAttempts = 10; // Events still failing after this many deliveries are parked as DEAD
+    private boolean logSink = true; // Log every event (stand-in for real notification sinks)
+    private String file; // If set, also append every event to this NDJSON file
+}
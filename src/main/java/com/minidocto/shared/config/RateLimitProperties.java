@@ -0,0 +1,40 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.ratelimit")
+@Data
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Store store = Store.LOCAL; // MONGO shares budgets across nodes, on top of the local limit
+    private int maxBuckets = 100_000; // Local buckets kept in memory; idle (full) buckets are evicted first
+    private Map<String, Route> routes = new LinkedHashMap<>(); // Keyed by route name, used in metrics
+
+    public enum Store {
+        LOCAL,
+        MONGO
+    }
+
+    @Data
+    public static class Route {
+        private List<String> paths = new ArrayList<>(); // Path patterns, e.g. /auth/login
+        private List<String> methods = new ArrayList<>(); // Empty for every method
+        private Limit ip; // Per client address; null to not limit by address
+        private Limit principal; // Per authenticated user; null to not limit by user
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity = 10; // Burst size: requests allowed at once from a full bucket
+        private Duration period = Duration.ofMinutes(1); // Time for an empty bucket to refill completely
+    }
+}
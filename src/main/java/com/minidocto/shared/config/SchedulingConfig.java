@@ -0,0 +1,12 @@
+package com.minidocto.shared.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (archiving, lifecycle). Each job is switched on by its own property.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,8 +1,14 @@
 package com.minidocto.shared.config;
 
 import com.minidocto.auth.service.UserDetailsServiceImpl;
+import com.minidocto.shared.idempotency.IdempotencyFilter;
+import com.minidocto.shared.idempotency.IdempotencyService;
+import com.minidocto.shared.ratelimit.RateLimitFilter;
+import com.minidocto.shared.ratelimit.RateLimiter;
 import com.minidocto.shared.security.JwtFilter;
 import com.minidocto.shared.security.RestAccessDeniedHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +20,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
 
@@ -23,6 +30,11 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtFilter jwtFilter;
     private final RestAccessDeniedHandler accessDeniedHandler;
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final MeterRegistry meterRegistry;
+    private final IdempotencyService idempotencyService;
+    private final IdempotencyProperties idempotencyProperties;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -32,13 +44,23 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Preflight only
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Streamed responses, authorized on the initial dispatch
                 .requestMatchers("/auth/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Probes and metrics scraping
                 .anyRequest().authenticated()
             )
             .exceptionHandling(ex -> ex
                 .accessDeniedHandler(accessDeniedHandler)
             )
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitProperties.isEnabled()) {
+            // After the JWT filter so limits can be keyed by the authenticated user
+            http.addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitProperties, meterRegistry), JwtFilter.class);
+        }
+        if (idempotencyProperties.isEnabled()) {
+            // Last before authorization: replays skip the controller but not the rate limits
+            http.addFilterBefore(new IdempotencyFilter(idempotencyService, idempotencyProperties), AuthorizationFilter.class);
+        }
         return http.build();
     }
 
@@ -0,0 +1,15 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.single-flight")
+@Data
+public class SingleFlightProperties {
+    private boolean enabled = true;
+    private Duration maxWait = Duration.ofSeconds(2); // Longest wait on an identical call in flight before computing alone
+}
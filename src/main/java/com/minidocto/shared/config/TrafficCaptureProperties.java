@@ -0,0 +1,18 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.capture")
+@Data
+public class TrafficCaptureProperties {
+    private boolean enabled = false;
+    private double sampleRate = 1.0; // Share of requests captured
+    private String file = "traffic-capture.ndjson";
+    private long maxFileBytes = 100L * 1024 * 1024; // Capture stops once the file reaches this size
+    private int maxBodyBytes = 8192; // Larger request bodies are not captured
+    private int queueSize = 10_000; // Records waiting for the writer before new ones are dropped
+    private String pseudonymKey; // HMAC key for user pseudonyms; random per process when empty
+}
@@ -0,0 +1,15 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.user-cache")
+@Data
+public class UserCacheProperties {
+    private int maxSize = 10_000; // Cached user cards, beyond which the oldest loaded are evicted
+    private Duration ttl = Duration.ofMinutes(10); // A card is reloaded after this long (minus up to 10% jitter)
+}
@@ -0,0 +1,16 @@
+package com.minidocto.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "minidocto.waitlist")
+@Data
+public class WaitlistProperties {
+    private Duration offerDuration = Duration.ofMinutes(15); // A freed slot is held for the head of the queue this long
+    private int maxEntriesPerPatient = 5; // Active (waiting or offered) entries per patient
+    private int sweepBatchSize = 100; // Lapsed offers passed on per sweep
+}
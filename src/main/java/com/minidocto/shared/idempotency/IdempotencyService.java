@@ -0,0 +1,174 @@
+package com.minidocto.shared.idempotency;
+
+import com.minidocto.shared.config.IdempotencyProperties;
+import com.minidocto.shared.idempotency.IdempotencyStore.Claim;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides what to do with a request carrying an idempotency key: execute it, replay the stored
+ * response, or reject it. A near-cache of in-flight and recent keys sits in front of the
+ * {@link IdempotencyStore}: duplicates on the same node wait on the original's future instead of
+ * racing it, and replays of recent keys are served without a store read. Duplicates in flight on
+ * another node are polled through the store until they complete or the wait times out.
+ */
+@Component
+public class IdempotencyService {
+    private static final long STORE_POLL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final Map<String, Local> nearCache = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store, IdempotencyProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    public Outcome begin(String key, String fingerprint) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            Local local = nearCache.get(key);
+            if (local != null) {
+                if (local.isExpired()) {
+                    nearCache.remove(key, local);
+                    continue;
+                }
+                if (!local.fingerprint().equals(fingerprint)) {
+                    return Outcome.MISMATCH;
+                }
+                StoredResponse response = await(local.response(), deadline);
+                if (response != null) {
+                    return Outcome.replay(response);
+                }
+                if (local.response().isDone()) {
+                    continue; // The original failed and gave the key up: claim it
+                }
+                return Outcome.BUSY;
+            }
+
+            Local mine = new Local(fingerprint, new CompletableFuture<>(),
+                    System.nanoTime() + properties.getTtl().toNanos());
+            if (nearCache.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+            evictIfFull();
+            try {
+                Outcome outcome = claim(key, fingerprint, deadline);
+                if (outcome.action() == Action.REPLAY) {
+                    mine.response().complete(outcome.response());
+                } else if (outcome.action() != Action.EXECUTE) {
+                    release(key, mine);
+                }
+                return outcome;
+            } catch (RuntimeException | InterruptedException e) {
+                release(key, mine);
+                throw e;
+            }
+        }
+    }
+
+    private Outcome claim(String key, String fingerprint, long deadline) throws InterruptedException {
+        while (true) {
+            Claim claim = store.claim(key, fingerprint, properties.getLockTimeout(), properties.getTtl());
+            switch (claim.state()) {
+                case ACQUIRED:
+                    return Outcome.EXECUTE;
+                case COMPLETED:
+                    return Outcome.replay(claim.response());
+                case MISMATCH:
+                    return Outcome.MISMATCH;
+                default:
+                    // In flight on another node
+                    if (System.nanoTime() - deadline >= 0) {
+                        return Outcome.BUSY;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(STORE_POLL_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Store the response of an executed request and hand it to the duplicates waiting on this node.
+     */
+    public void complete(String key, StoredResponse response) {
+        store.complete(key, response, properties.getTtl());
+        Local local = nearCache.get(key);
+        if (local != null) {
+            local.response().complete(response);
+        }
+    }
+
+    /**
+     * Give the key up after a failure, so the next retry executes the request again.
+     */
+    public void abandon(String key) {
+        try {
+            store.abandon(key);
+        } finally {
+            Local local = nearCache.get(key);
+            if (local != null && !local.response().isDone()) {
+                release(key, local);
+            }
+        }
+    }
+
+    private void release(String key, Local local) {
+        nearCache.remove(key, local);
+        local.response().complete(null);
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> response, long deadline) throws InterruptedException {
+        try {
+            return response.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void evictIfFull() {
+        if (nearCache.size() > properties.getNearCacheSize()) {
+            // Completed responses are also in the store; in-flight entries must stay
+            nearCache.values().removeIf(local -> local.response().isDone());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${minidocto.idempotency.eviction-interval:PT1M}")
+    public void evictExpired() {
+        nearCache.values().removeIf(Local::isExpired);
+    }
+
+    int nearCacheSize() {
+        return nearCache.size();
+    }
+
+    public enum Action {
+        EXECUTE, // First request with this key: run it, then complete or abandon the key
+        REPLAY, // Already executed: send the stored response
+        MISMATCH, // The key was used with a different request
+        BUSY // Still executing after the wait timeout
+    }
+
+    public record Outcome(Action action, StoredResponse response) {
+        static final Outcome EXECUTE = new Outcome(Action.EXECUTE, null);
+        static final Outcome MISMATCH = new Outcome(Action.MISMATCH, null);
+        static final Outcome BUSY = new Outcome(Action.BUSY, null);
+
+        static Outcome replay(StoredResponse response) {
+            return new Outcome(Action.REPLAY, response);
+        }
+    }
+
+    private record Local(String fingerprint, CompletableFuture<StoredResponse> response, long expiresAtNanos) {
+        boolean isExpired() {
+            return response.isDone() && System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.minidocto.shared.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Durable record of idempotency keys, shared by all nodes: which request owns a key, and its
+ * response once it has completed.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claim the key for a request with the given fingerprint (hash of method, path and body).
+     * A claim left unfinished for longer than the lock timeout can be taken over.
+     */
+    Claim claim(String key, String fingerprint, Duration lockTimeout, Duration ttl);
+
+    /**
+     * Record the response of the request holding the key.
+     */
+    void complete(String key, StoredResponse response, Duration ttl);
+
+    /**
+     * Drop the claim of a request that failed, so a retry executes again.
+     */
+    void abandon(String key);
+
+    enum State {
+        ACQUIRED, // The caller owns the key and executes the request
+        COMPLETED, // Already executed: replay the response
+        IN_PROGRESS, // Being executed elsewhere
+        MISMATCH // The key was used for a different request
+    }
+
+    record Claim(State state, StoredResponse response) {
+        static final Claim ACQUIRED = new Claim(State.ACQUIRED, null);
+        static final Claim IN_PROGRESS = new Claim(State.IN_PROGRESS, null);
+        static final Claim MISMATCH = new Claim(State.MISMATCH, null);
+
+        static Claim completed(StoredResponse response) {
+            return new Claim(State.COMPLETED, response);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.minidocto.shared.idempotency;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotency store of the "inmemory" profile, with the same claim semantics as the MongoDB one.
+ * Expired keys are dropped when they are claimed again.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration lockTimeout, Duration ttl) {
+        Instant now = Instant.now();
+        Claim[] claim = new Claim[1];
+        entries.compute(key, (k, existing) -> {
+            if (existing == null || existing.expiresAt().isBefore(now)
+                    || (existing.response() == null && existing.lockedUntil().isBefore(now)
+                    && existing.fingerprint().equals(fingerprint))) {
+                claim[0] = Claim.ACQUIRED;
+                return new Entry(fingerprint, null, now.plus(lockTimeout), now.plus(ttl));
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                claim[0] = Claim.MISMATCH;
+            } else {
+                claim[0] = existing.response() != null ? Claim.completed(existing.response()) : Claim.IN_PROGRESS;
+            }
+            return existing;
+        });
+        return claim[0];
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response, Duration ttl) {
+        entries.computeIfPresent(key, (k, existing) ->
+                new Entry(existing.fingerprint(), response, null, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public void abandon(String key) {
+        entries.computeIfPresent(key, (k, existing) -> existing.response() == null ? null : existing);
+    }
+
+    private record Entry(String fingerprint, StoredResponse response, Instant lockedUntil, Instant expiresAt) {
+    }
+}
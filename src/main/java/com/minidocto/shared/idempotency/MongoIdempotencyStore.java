@@ -0,0 +1,88 @@
+package com.minidocto.shared.idempotency;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Idempotency keys in the {@code idempotency_keys} collection: claimed by inserting the key document,
+ * completed by storing the response in it, and removed by a TTL index (see MongoIndexConfig) once the
+ * retention has passed.
+ */
+@Component
+@Profile("!inmemory")
+public class MongoIdempotencyStore implements IdempotencyStore {
+    public static final String COLLECTION = "idempotency_keys";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIdempotencyStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration lockTimeout, Duration ttl) {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.insert(new Document("_id", key)
+                    .append("fingerprint", fingerprint)
+                    .append("state", IN_PROGRESS)
+                    .append("lockedUntil", Date.from(now.plus(lockTimeout)))
+                    .append("expiresAt", Date.from(now.plus(ttl))), COLLECTION);
+            return Claim.ACQUIRED;
+        } catch (DuplicateKeyException e) {
+            // Claimed before: fall through to what the existing claim says
+        }
+        Document existing = mongoTemplate.findById(key, Document.class, COLLECTION);
+        if (existing == null) {
+            // Abandoned or expired in the meantime
+            return claim(key, fingerprint, lockTimeout, ttl);
+        }
+        if (!fingerprint.equals(existing.getString("fingerprint"))) {
+            return Claim.MISMATCH;
+        }
+        if (COMPLETED.equals(existing.getString("state"))) {
+            return Claim.completed(new StoredResponse(existing.getInteger("status"), existing.getString("contentType"),
+                    existing.get("body", Binary.class).getData()));
+        }
+        // The owner stopped without completing or abandoning the key: take it over
+        Date lockedUntil = existing.getDate("lockedUntil");
+        if (lockedUntil.toInstant().isBefore(now)) {
+            long taken = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)
+                            .and("state").is(IN_PROGRESS).and("lockedUntil").is(lockedUntil)),
+                    Update.update("lockedUntil", Date.from(now.plus(lockTimeout))), COLLECTION).getModifiedCount();
+            if (taken > 0) {
+                return Claim.ACQUIRED;
+            }
+        }
+        return Claim.IN_PROGRESS;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response, Duration ttl) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)),
+                Update.update("state", COMPLETED)
+                        .set("status", response.status())
+                        .set("contentType", response.contentType())
+                        .set("body", new Binary(response.body()))
+                        .set("expiresAt", Date.from(Instant.now().plus(ttl)))
+                        .unset("lockedUntil"), COLLECTION);
+    }
+
+    @Override
+    public void abandon(String key) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(key).and("state").is(IN_PROGRESS)), COLLECTION);
+    }
+}
@@ -0,0 +1,7 @@
+package com.minidocto.shared.idempotency;
+
+/**
+ * Response of a request made with an Idempotency-Key, replayed as is to its retries.
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
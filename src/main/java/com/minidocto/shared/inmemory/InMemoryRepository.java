@@ -0,0 +1,380 @@
+package com.minidocto.shared.inmemory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base of the in-memory repositories (profile "inmemory"): documents are held in a concurrent map by ID
+ * and subclasses maintain their secondary indexes in {@link #index} / {@link #unindex}.
+ * Like MongoDB, the store never shares instances with callers: saved documents are copied in and
+ * every read returns a fresh copy, so a service mutating an entity changes nothing until it saves it.
+ * Writes are serialized per repository; reads are lock-free.
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+    protected final Map<String, T> documents = new ConcurrentHashMap<>();
+
+    protected abstract String idOf(T document);
+
+    protected abstract void assignId(T document, String id);
+
+    protected abstract T copy(T document);
+
+    protected abstract void index(T document);
+
+    protected abstract void unindex(T document);
+
+    @Override
+    public <S extends T> S save(S entity) {
+        if (idOf(entity) == null) {
+            assignId(entity, new ObjectId().toHexString());
+        }
+        T stored = copy(entity);
+        synchronized (this) {
+            T previous = documents.put(idOf(stored), stored);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(stored);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        synchronized (this) {
+            if (idOf(entity) != null && documents.containsKey(idOf(entity))) {
+                throw new DuplicateKeyException("Duplicate key: " + idOf(entity));
+            }
+            return save(entity);
+        }
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(id != null ? documents.get(id) : null).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return documents.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return sorted(documents.values().stream(), sort).map(this::copy).toList();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return page(documents.values().stream().map(this::copy), pageable);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        T removed = documents.remove(id);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        documents.keySet().forEach(this::deleteById);
+    }
+
+    // Query by example scans the documents: these queries are not used on hot paths
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return single(matching(example));
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return matching(example).toList();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return sorted(matching(example), sort).toList();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return page(matching(example), pageable);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return matching(example).count();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return matching(example).findAny().isPresent();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, Sort.unsorted(), 0));
+    }
+
+    /**
+     * Resolve index entries to copies of their documents, skipping entries removed concurrently.
+     */
+    protected Stream<T> resolve(Stream<String> ids) {
+        return ids.map(documents::get).filter(Objects::nonNull).map(this::copy);
+    }
+
+    /**
+     * Single-result query semantics: empty, one match, or an error when several documents match.
+     */
+    protected <S extends T> Optional<S> single(Stream<S> matches) {
+        List<S> found = matches.limit(2).toList();
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Apply a Pageable to query results (already copies, in query order); a sort carried by the Pageable
+     * takes precedence.
+     */
+    protected <S extends T> Page<S> page(Stream<S> matches, Pageable pageable) {
+        List<S> all = sorted(matches, pageable.getSort()).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    protected <S extends T> Stream<S> sorted(Stream<S> documents, Sort sort) {
+        if (sort.isUnsorted()) {
+            return documents;
+        }
+        Comparator<S> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<S> byProperty = Comparator.comparing(
+                    (S document) -> sortValue(document, order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            byProperty = order.isAscending() ? byProperty : byProperty.reversed();
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return documents.sorted(comparator);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable sortValue(Object document, String property) {
+        Object value = new BeanWrapperImpl(document).getPropertyValue(property);
+        // Enums are stored as strings in MongoDB and sort by name
+        return value instanceof Enum<?> constant ? constant.name() : (Comparable) value;
+    }
+
+    /**
+     * Copies of the documents matching an example. Only top-level properties take part, as in these flat
+     * documents: the probe's non-null ones (or all of them when the matcher includes nulls) must equal the
+     * document's, strings per the matcher's string matching and case rules, combined by its all/any mode.
+     */
+    private <S extends T> Stream<S> matching(Example<S> example) {
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+        BeanWrapperImpl probe = new BeanWrapperImpl(example.getProbe());
+        List<Predicate<BeanWrapperImpl>> conditions = new ArrayList<>();
+        for (PropertyDescriptor property : probe.getPropertyDescriptors()) {
+            String path = property.getName();
+            if (property.getReadMethod() == null || "class".equals(path) || accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Optional<Object> value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probe.getPropertyValue(path)));
+            if (value.isEmpty()) {
+                if (matcher.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(document -> document.getPropertyValue(path) == null);
+                }
+            } else if (value.get() instanceof String expected) {
+                ExampleMatcher.StringMatcher stringMatcher = accessor.getStringMatcherForPath(path);
+                boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+                conditions.add(document -> document.getPropertyValue(path) instanceof String actual
+                        && matches(actual, expected, stringMatcher, ignoreCase));
+            } else {
+                Object expected = value.get();
+                conditions.add(document -> Objects.equals(document.getPropertyValue(path), expected));
+            }
+        }
+
+        Class<S> type = example.getProbeType();
+        return documents.values().stream()
+                .filter(type::isInstance)
+                .filter(document -> {
+                    BeanWrapperImpl wrapper = new BeanWrapperImpl(document);
+                    return conditions.isEmpty() || (matcher.isAllMatching()
+                            ? conditions.stream().allMatch(condition -> condition.test(wrapper))
+                            : conditions.stream().anyMatch(condition -> condition.test(wrapper)));
+                })
+                .map(this::copy)
+                .map(type::cast);
+    }
+
+    private static boolean matches(String actual, String expected, ExampleMatcher.StringMatcher stringMatcher,
+                                   boolean ignoreCase) {
+        if (stringMatcher == ExampleMatcher.StringMatcher.REGEX) {
+            return Pattern.compile(expected, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0)
+                    .matcher(actual).find();
+        }
+        String value = ignoreCase ? actual.toLowerCase(Locale.ROOT) : actual;
+        String probe = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+        return switch (stringMatcher) {
+            case STARTING -> value.startsWith(probe);
+            case ENDING -> value.endsWith(probe);
+            case CONTAINING -> value.contains(probe);
+            default -> value.equals(probe);
+        };
+    }
+
+    /**
+     * Fluent query-by-example over {@link #matching}. Documents are always returned whole, so
+     * projections are accepted but select nothing.
+     */
+    private final class ExampleQuery<S extends T> implements FluentQuery.FetchableFluentQuery<S> {
+        private final Example<S> example;
+        private final Sort sort;
+        private final int limit;
+
+        private ExampleQuery(Example<S> example, Sort sort, int limit) {
+            this.example = example;
+            this.sort = sort;
+            this.limit = limit;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, this.sort.and(sort), limit);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> limit(int limit) {
+            return new ExampleQuery<>(example, sort, limit);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> FluentQuery.FetchableFluentQuery<R> as(Class<R> resultType) {
+            if (!resultType.isAssignableFrom(example.getProbeType())) {
+                throw new UnsupportedOperationException("DTO projections are not supported by the in-memory repositories");
+            }
+            return (FluentQuery.FetchableFluentQuery<R>) this;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public S oneValue() {
+            return single(stream()).orElse(null);
+        }
+
+        @Override
+        public S firstValue() {
+            return stream().findFirst().orElse(null);
+        }
+
+        @Override
+        public List<S> all() {
+            return stream().toList();
+        }
+
+        @Override
+        public Page<S> page(Pageable pageable) {
+            return InMemoryRepository.this.page(sorted(matching(example), sort), pageable);
+        }
+
+        @Override
+        public Stream<S> stream() {
+            Stream<S> matches = sorted(matching(example), sort);
+            return limit > 0 ? matches.limit(limit) : matches;
+        }
+
+        @Override
+        public long count() {
+            return matching(example).count();
+        }
+
+        @Override
+        public boolean exists() {
+            return matching(example).findAny().isPresent();
+        }
+    }
+}
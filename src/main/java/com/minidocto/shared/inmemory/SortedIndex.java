@@ -0,0 +1,102 @@
+package com.minidocto.shared.inmemory;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index of an in-memory repository: document IDs partitioned by one field and, inside a
+ * partition, kept in a skip-list sorted by a second field (e.g. slots by doctorId, then startTime).
+ * Equality on the partition plus a range on the sort field is a sub-set view, like a compound index scan.
+ * Reads are lock-free; writers are serialized by the owning repository.
+ *
+ * @param <P> partition field type
+ * @param <S> sort field type; null values sort first and never match a bounded range
+ */
+public class SortedIndex<P, S extends Comparable<? super S>> {
+    // Bounds around every real ID (IDs are non-empty hex strings), used to turn ranges into sub-sets
+    private static final String BELOW_ALL_IDS = "";
+    private static final String ABOVE_ALL_IDS = "\uffff";
+
+    private final Comparator<Key<S>> order = Comparator
+            .comparing((Key<S> key) -> key.sort(), Comparator.nullsFirst(Comparator.<S>naturalOrder()))
+            .thenComparing(Key::id);
+    private final ConcurrentHashMap<P, ConcurrentSkipListSet<Key<S>>> partitions = new ConcurrentHashMap<>();
+
+    public void add(P partition, S sort, String id) {
+        if (partition != null) {
+            partitions.computeIfAbsent(partition, p -> new ConcurrentSkipListSet<>(order)).add(new Key<>(sort, id));
+        }
+    }
+
+    public void remove(P partition, S sort, String id) {
+        if (partition == null) {
+            return;
+        }
+        partitions.computeIfPresent(partition, (p, keys) -> {
+            keys.remove(new Key<>(sort, id));
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * IDs of a partition in ascending sort order.
+     */
+    public Stream<String> ids(P partition) {
+        return keys(partition).stream().map(Key::id);
+    }
+
+    /**
+     * IDs of a partition in descending sort order.
+     */
+    public Stream<String> idsDescending(P partition) {
+        return keys(partition).descendingSet().stream().map(Key::id);
+    }
+
+    /**
+     * IDs of a partition whose sort value is below the given bound, in descending order.
+     */
+    public Stream<String> idsDescending(P partition, S to, boolean toInclusive) {
+        return keys(partition).headSet(new Key<>(to, toInclusive ? ABOVE_ALL_IDS : BELOW_ALL_IDS), true)
+                .descendingSet().stream()
+                .filter(key -> key.sort() != null)
+                .map(Key::id);
+    }
+
+    /**
+     * IDs of a partition whose sort value is in the given range, in ascending order.
+     * A null bound leaves that side of the range open.
+     */
+    public Stream<String> ids(P partition, S from, boolean fromInclusive, S to, boolean toInclusive) {
+        NavigableSet<Key<S>> keys = keys(partition);
+        if (from != null) {
+            keys = keys.tailSet(new Key<>(from, fromInclusive ? BELOW_ALL_IDS : ABOVE_ALL_IDS), true);
+        } else if (to != null) {
+            // Documents without a sort value never match a range condition
+            keys = keys.tailSet(new Key<>(null, ABOVE_ALL_IDS), true);
+        }
+        if (to != null) {
+            keys = keys.headSet(new Key<>(to, toInclusive ? ABOVE_ALL_IDS : BELOW_ALL_IDS), true);
+        }
+        return keys.stream().map(Key::id);
+    }
+
+    public Set<P> partitions() {
+        return partitions.keySet();
+    }
+
+    public void clear() {
+        partitions.clear();
+    }
+
+    private NavigableSet<Key<S>> keys(P partition) {
+        NavigableSet<Key<S>> keys = partition != null ? partitions.get(partition) : null;
+        return keys != null ? keys : new ConcurrentSkipListSet<>(order);
+    }
+
+    private record Key<S>(S sort, String id) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.minidocto.shared.monitoring;
+
+import org.bson.*;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns MongoDB command documents into shapes: the structure of the command is kept, but every
+ * value in a filter or update position is replaced by a placeholder of the same BSON type.
+ * A shape identifies the query for the plan cache and can be explained, without holding user data.
+ */
+final class CommandShapes {
+    private static final Set<String> EXPLAINABLE = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+    // Fields added by the driver that are not part of the query and must not be replayed
+    private static final Set<String> DRIVER_FIELDS = Set.of(
+            "$db", "lsid", "$clusterTime", "txnNumber", "$readPreference", "readConcern", "writeConcern",
+            "apiVersion", "apiStrict", "apiDeprecationErrors", "startTransaction", "autocommit");
+    // Fields holding user values: filters, updates and inserted documents
+    private static final Set<String> VALUE_FIELDS = Set.of("filter", "query", "q", "u", "update");
+    private static final ObjectId PLACEHOLDER_ID = new ObjectId("000000000000000000000000");
+
+    private CommandShapes() {
+    }
+
+    static boolean isExplainable(String commandName) {
+        return EXPLAINABLE.contains(commandName);
+    }
+
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    static BsonDocument shapeOf(BsonDocument command) {
+        return shapeOf(command, true);
+    }
+
+    private static BsonDocument shapeOf(BsonDocument command, boolean topLevel) {
+        BsonDocument shape = new BsonDocument();
+        boolean commandName = topLevel;
+        for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+            String key = entry.getKey();
+            BsonValue value = entry.getValue();
+            if (DRIVER_FIELDS.contains(key) || "documents".equals(key)) {
+                continue;
+            }
+            if (commandName) {
+                // The first field names the command and its collection ({update: "appointments"})
+                shape.put(key, value);
+                commandName = false;
+            } else if (VALUE_FIELDS.contains(key)) {
+                shape.put(key, placeholder(value));
+            } else if (("updates".equals(key) || "deletes".equals(key)) && value.isArray()) {
+                BsonArray statements = new BsonArray();
+                for (BsonValue statement : value.asArray()) {
+                    statements.add(statement.isDocument() ? shapeOf(statement.asDocument(), false) : statement);
+                }
+                shape.put(key, statements);
+            } else if ("pipeline".equals(key) && value.isArray()) {
+                BsonArray stages = new BsonArray();
+                for (BsonValue stage : value.asArray()) {
+                    stages.add(stage.isDocument() && stage.asDocument().containsKey("$match")
+                            ? new BsonDocument("$match", placeholder(stage.asDocument().get("$match")))
+                            : stage);
+                }
+                shape.put(key, stages);
+            } else {
+                shape.put(key, value);
+            }
+        }
+        return shape;
+    }
+
+    private static BsonValue placeholder(BsonValue value) {
+        switch (value.getBsonType()) {
+            case DOCUMENT: {
+                BsonDocument document = new BsonDocument();
+                for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                    document.put(entry.getKey(), placeholder(entry.getValue()));
+                }
+                return document;
+            }
+            case ARRAY: {
+                BsonArray array = value.asArray();
+                BsonArray shaped = new BsonArray();
+                if (!array.isEmpty() && array.get(0).isDocument()) {
+                    // $and / $or branches: each branch is part of the shape
+                    array.forEach(element -> shaped.add(placeholder(element)));
+                } else if (!array.isEmpty()) {
+                    // $in lists and the like: one placeholder stands for the whole list
+                    shaped.add(placeholder(array.get(0)));
+                }
+                return shaped;
+            }
+            case STRING:
+                // Field paths in expressions ("$doctorId") are structure, not values
+                return value.asString().getValue().startsWith("$") ? value : new BsonString("?");
+            case INT32:
+                return new BsonInt32(0);
+            case INT64:
+                return new BsonInt64(0);
+            case DOUBLE:
+                return new BsonDouble(0);
+            case DECIMAL128:
+                return new BsonDecimal128(Decimal128.POSITIVE_ZERO);
+            case OBJECT_ID:
+                return new BsonObjectId(PLACEHOLDER_ID);
+            case DATE_TIME:
+                return new BsonDateTime(0);
+            case REGULAR_EXPRESSION:
+                return new BsonRegularExpression("?");
+            case BOOLEAN:
+            case NULL:
+                return value;
+            default:
+                return new BsonString("?");
+        }
+    }
+}
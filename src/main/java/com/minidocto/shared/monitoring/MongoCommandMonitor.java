@@ -0,0 +1,95 @@
+package com.minidocto.shared.monitoring;
+
+import com.minidocto.shared.config.MongoMonitoringProperties;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver command listener capturing commands slower than the configured threshold into the
+ * {@link SlowQueryLog}. Per-command latency histograms come from Spring Boot's own listener
+ * (mongodb.driver.commands, tagged by command and collection).
+ */
+@Component
+public class MongoCommandMonitor implements CommandListener {
+    private static final Logger logger = LoggerFactory.getLogger(MongoCommandMonitor.class);
+    // Handshake, auth and our own explain() calls are never interesting
+    static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart", "saslContinue",
+            "endSessions", "killCursors", "explain");
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMs;
+    private final Counter slowQueries;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+
+    public MongoCommandMonitor(SlowQueryLog slowQueryLog, MongoMonitoringProperties properties, MeterRegistry registry) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMs = properties.getSlowQueryThresholdMs();
+        this.slowQueries = Counter.builder("minidocto.mongo.slow.queries")
+                .description("MongoDB commands slower than the slow query threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (IGNORED_COMMANDS.contains(commandName) || inFlight.size() >= MAX_IN_FLIGHT) {
+            return;
+        }
+        // The command document is only valid during this callback, so the shape is taken now
+        BsonDocument command = event.getCommand();
+        inFlight.put(event.getRequestId(), new StartedCommand(
+                CommandShapes.collectionOf(commandName, command), CommandShapes.shapeOf(command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.MILLISECONDS), true);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.MILLISECONDS), false);
+    }
+
+    private void completed(int requestId, String commandName, String database, long elapsedMs, boolean succeeded) {
+        StartedCommand started = inFlight.remove(requestId);
+        if (started == null || elapsedMs < thresholdMs) {
+            return;
+        }
+        SlowQuery slowQuery = SlowQuery.builder()
+                .id(slowQueryLog.nextId())
+                .timestamp(Instant.now())
+                .database(database)
+                .collection(started.collection())
+                .command(commandName)
+                .durationMs(elapsedMs)
+                .succeeded(succeeded)
+                .shape(started.shape())
+                .build();
+        slowQueryLog.add(slowQuery);
+        slowQueries.increment();
+        logger.warn("Slow MongoDB command {} on {}.{} took {} ms (slow query #{}): {}",
+                commandName, database, started.collection(), elapsedMs, slowQuery.getId(), slowQuery.getShapeJson());
+    }
+
+    private record StartedCommand(String collection, BsonDocument shape) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.minidocto.shared.monitoring;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.*;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pool listener recording how long operations wait to check out a connection
+ * and how saturated the pool is. Pool size and wait queue gauges come from Spring Boot's
+ * own listener (mongodb.driver.pool.*).
+ * The driver keeps one pool per server; pools are tracked by server, so a closed pool (server
+ * removed or replaced) stops counting towards the maximum.
+ */
+@Component
+public class MongoPoolMonitor implements ConnectionPoolListener {
+    private final Timer checkoutSucceeded;
+    private final Timer checkoutFailed;
+    private final Map<ServerId, Pool> pools = new ConcurrentHashMap<>();
+
+    public MongoPoolMonitor(MeterRegistry registry) {
+        this.checkoutSucceeded = checkoutTimer(registry, "success");
+        this.checkoutFailed = checkoutTimer(registry, "failed");
+        Gauge.builder("minidocto.mongo.pool.saturation", this, MongoPoolMonitor::saturation)
+                .description("Checked-out connections as a fraction of the maximum pool size")
+                .register(registry);
+    }
+
+    private static Timer checkoutTimer(MeterRegistry registry, String status) {
+        return Timer.builder("minidocto.mongo.pool.checkout")
+                .description("Time spent waiting to check out a pooled connection")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        pools.put(event.getServerId(), new Pool(event.getSettings().getMaxSize()));
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        pools.remove(event.getServerId());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.checkedOut.incrementAndGet();
+        }
+        checkoutSucceeded.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkoutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.checkedOut.decrementAndGet();
+        }
+    }
+
+    double saturation() {
+        int max = 0;
+        int checkedOut = 0;
+        for (Pool pool : pools.values()) {
+            max += pool.maxSize;
+            checkedOut += pool.checkedOut.get();
+        }
+        return max > 0 ? (double) checkedOut / max : 0;
+    }
+
+    private static final class Pool {
+        final int maxSize;
+        final AtomicInteger checkedOut = new AtomicInteger();
+
+        Pool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.minidocto.shared.monitoring;
+
+import com.minidocto.shared.config.MongoMonitoringProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the MongoDB commands issued while serving each HTTP request. The count is returned in
+ * the {@value #HEADER} response header and recorded per endpoint as
+ * {@code minidocto.http.mongo.queries}; requests over their query budget are logged with the
+ * call sites responsible, which is how N+1 loops show up.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Mongo-Queries";
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final MongoMonitoringProperties properties;
+    private final MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            // The header has to be written before the body commits the response
+            OnCommittedResponseWrapper countingResponse = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    setHeader(HEADER, String.valueOf(scope.count()));
+                }
+            };
+            try {
+                filterChain.doFilter(request, countingResponse);
+            } finally {
+                if (!response.isCommitted()) {
+                    response.setHeader(HEADER, String.valueOf(scope.count()));
+                }
+                record(request, scope);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int count = scope.count();
+        DistributionSummary.builder("minidocto.http.mongo.queries")
+                .description("MongoDB commands issued per HTTP request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50)
+                .register(registry)
+                .record(count);
+
+        int budget = properties.getQueryBudgets().getOrDefault(uri, properties.getQueryBudget());
+        if (count > budget) {
+            Counter.builder("minidocto.http.mongo.budget.exceeded")
+                    .description("HTTP requests that issued more MongoDB commands than their query budget")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(registry)
+                    .increment();
+            logger.warn("{} {} issued {} MongoDB queries, budget is {}: {}",
+                    request.getMethod(), uri, count, budget, scope.describeCallSites());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.minidocto.shared.monitoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the MongoDB commands issued by the current thread while a {@link Scope} is open.
+ * {@link QueryBudgetFilter} opens one per HTTP request; tests open their own to pin the
+ * number of queries an operation costs:
+ * <pre>
+ * try (QueryCounter.Scope scope = QueryCounter.open()) {
+ *     mockMvc.perform(get("/availability/doctors/{id}/schedule-groups", doctorId).header("Authorization", bearer));
+ *     scope.assertAtMost(3, "schedule-groups");
+ * }
+ * </pre>
+ * The synchronous driver issues commands on the calling thread, so work handed off to
+ * other threads is not counted.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    private static final int MAX_CALL_SITES = 32;
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Open a scope on the current thread. Scopes nest: a command is counted by every open scope.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String callSite) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.record(callSite);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final Map<String, Integer> callSites = new LinkedHashMap<>();
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void record(String callSite) {
+            count++;
+            if (callSite != null && (callSites.size() < MAX_CALL_SITES || callSites.containsKey(callSite))) {
+                callSites.merge(callSite, 1, Integer::sum);
+            }
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Commands issued per application call site (class.method:line), in first-seen order.
+         */
+        public Map<String, Integer> callSites() {
+            return Collections.unmodifiableMap(callSites);
+        }
+
+        /**
+         * Call sites ordered by number of commands, e.g. "AppointmentService.convertToDTO:212 x20, ...".
+         */
+        public String describeCallSites() {
+            return callSites.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .map(entry -> entry.getKey() + " x" + entry.getValue())
+                    .collect(Collectors.joining(", "));
+        }
+
+        /**
+         * Fail with an {@link AssertionError} if more than {@code budget} commands were issued.
+         */
+        public void assertAtMost(int budget, String operation) {
+            if (count > budget) {
+                throw new AssertionError(operation + " issued " + count + " MongoDB queries, budget is "
+                        + budget + ": " + describeCallSites());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
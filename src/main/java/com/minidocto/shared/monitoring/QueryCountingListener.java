@@ -0,0 +1,43 @@
+package com.minidocto.shared.monitoring;
+
+import com.minidocto.shared.config.MongoMonitoringProperties;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Driver command listener feeding {@link QueryCounter}. When enabled, each command is attributed
+ * to the first application frame on the stack that is not part of the monitoring code, which
+ * points at the service or repository call responsible for it.
+ */
+@Component
+public class QueryCountingListener implements CommandListener {
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final String APPLICATION_PACKAGE = "com.minidocto.";
+    private static final String MONITORING_PACKAGE = "com.minidocto.shared.monitoring.";
+
+    private final boolean captureCallSites;
+
+    public QueryCountingListener(MongoMonitoringProperties properties) {
+        this.captureCallSites = properties.isCaptureCallSites();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!QueryCounter.isActive() || MongoCommandMonitor.IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        QueryCounter.record(captureCallSites ? callSite() : null);
+    }
+
+    static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(MONITORING_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.minidocto.shared.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+import org.bson.BsonDocument;
+
+import java.time.Instant;
+
+/**
+ * A MongoDB command that exceeded the slow query threshold.
+ * The command is kept as a shape: filter values are replaced by typed placeholders,
+ * so no user data is retained but the query can still be explained.
+ */
+@Value
+@Builder
+public class SlowQuery {
+    long id;
+    Instant timestamp;
+    String database;
+    String collection;
+    String command;
+    long durationMs;
+    boolean succeeded;
+    @JsonIgnore
+    BsonDocument shape;
+
+    public String getShapeJson() {
+        return shape != null ? shape.toJson() : null;
+    }
+
+    public boolean isExplainable() {
+        return shape != null && CommandShapes.isExplainable(command);
+    }
+}
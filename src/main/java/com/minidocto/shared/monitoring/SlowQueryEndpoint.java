@@ -0,0 +1,56 @@
+package com.minidocto.shared.monitoring;
+
+import com.mongodb.client.MongoClient;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoint over the slow query log:
+ * GET /actuator/slowqueries lists captured queries, POST /actuator/slowqueries/{id} runs
+ * explain() on a query shape, DELETE /actuator/slowqueries clears the log.
+ */
+@Component
+@Profile("!inmemory")
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+    private final SlowQueryLog slowQueryLog;
+    private final MongoClient mongoClient;
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryLog.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> explain(@Selector long id) {
+        SlowQuery query = slowQueryLog.find(id).orElse(null);
+        if (query == null) {
+            return Map.of("error", "Slow query " + id + " is no longer in the log");
+        }
+        if (!query.isExplainable()) {
+            return Map.of("error", "Command " + query.getCommand() + " cannot be explained");
+        }
+        BsonDocument explain = new BsonDocument("explain", query.getShape())
+                .append("verbosity", new BsonString("queryPlanner"));
+        Document plan = mongoClient.getDatabase(query.getDatabase()).runCommand(explain);
+        return Map.of("query", query, "explain", plan);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package com.minidocto.shared.monitoring;
+
+import com.minidocto.shared.config.MongoMonitoringProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer of the most recent slow queries.
+ * Writers claim a sequence number and overwrite the oldest entry; readers take a snapshot.
+ */
+@Component
+public class SlowQueryLog {
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowQueryLog(MongoMonitoringProperties properties) {
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, properties.getSlowQueryBufferSize()));
+    }
+
+    public long nextId() {
+        return sequence.incrementAndGet();
+    }
+
+    public void add(SlowQuery query) {
+        buffer.set((int) (query.getId() % buffer.length()), query);
+    }
+
+    /**
+     * Slow queries currently in the buffer, most recent first.
+     */
+    public List<SlowQuery> snapshot() {
+        List<SlowQuery> queries = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            SlowQuery query = buffer.get(i);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        queries.sort((a, b) -> Long.compare(b.getId(), a.getId()));
+        return queries;
+    }
+
+    public Optional<SlowQuery> find(long id) {
+        SlowQuery query = buffer.get((int) (id % buffer.length()));
+        return query != null && query.getId() == id ? Optional.of(query) : Optional.empty();
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+}
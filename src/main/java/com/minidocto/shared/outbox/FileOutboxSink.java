@@ -0,0 +1,45 @@
+package com.minidocto.shared.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.shared.config.OutboxProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every event to an NDJSON file ({@code minidocto.outbox.file}), one write per batch.
+ */
+@Component
+@ConditionalOnProperty(prefix = "minidocto.outbox", name = "file")
+public class FileOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    public FileOutboxSink(ObjectMapper objectMapper, OutboxProperties properties) {
+        this.objectMapper = objectMapper;
+        this.file = Path.of(properties.getFile());
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (OutboxEvent event : events) {
+            objectMapper.writeValue(buffer, OutboxRecord.of(event));
+            buffer.write('\n');
+        }
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            buffer.writeTo(out);
+        }
+    }
+}
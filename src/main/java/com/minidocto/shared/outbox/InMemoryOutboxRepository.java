@@ -0,0 +1,96 @@
+package com.minidocto.shared.outbox;
+
+import com.minidocto.shared.inmemory.InMemoryRepository;
+import com.minidocto.shared.inmemory.SortedIndex;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * In-memory {@link OutboxRepository} for the "inmemory" profile. Events are indexed by status and due
+ * time, like {status, nextAttemptAt} in MongoDB. Delivered events are dropped at once, as there is no
+ * TTL index to remove them later.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryOutboxRepository extends InMemoryRepository<OutboxEvent> implements OutboxRepository {
+    private final SortedIndex<OutboxStatus, Instant> byStatus = new SortedIndex<>();
+
+    @Override
+    public synchronized List<OutboxEvent> claimDue(Instant now, Instant claimedUntil, String claimId, int limit) {
+        List<OutboxEvent> claimed = resolve(byStatus.ids(OutboxStatus.PENDING, null, false, now, true))
+                .limit(limit)
+                .toList();
+        claimed.forEach(event -> {
+            event.setNextAttemptAt(claimedUntil);
+            event.setClaimedBy(claimId);
+            save(event);
+        });
+        return claimed;
+    }
+
+    @Override
+    public synchronized void markDelivered(Collection<String> ids, String claimId, Instant deliveredAt) {
+        ids.forEach(id -> findById(id)
+                .filter(event -> claimId.equals(event.getClaimedBy()))
+                .ifPresent(event -> deleteById(id)));
+    }
+
+    @Override
+    public synchronized void markFailed(String id, String claimId, int attempts, Instant nextAttemptAt, boolean dead,
+                                        String error) {
+        findById(id).filter(event -> claimId.equals(event.getClaimedBy())).ifPresent(event -> {
+            event.setAttempts(attempts);
+            event.setLastError(error);
+            event.setClaimedBy(null);
+            if (dead) {
+                event.setStatus(OutboxStatus.DEAD);
+                event.setNextAttemptAt(null);
+            } else {
+                event.setNextAttemptAt(nextAttemptAt);
+            }
+            save(event);
+        });
+    }
+
+    @Override
+    protected String idOf(OutboxEvent event) {
+        return event.getId();
+    }
+
+    @Override
+    protected void assignId(OutboxEvent event, String id) {
+        event.setId(id);
+    }
+
+    @Override
+    protected OutboxEvent copy(OutboxEvent event) {
+        return OutboxEvent.builder()
+                .id(event.getId())
+                .type(event.getType())
+                .aggregateId(event.getAggregateId())
+                .payload(event.getPayload() != null ? new LinkedHashMap<>(event.getPayload()) : null)
+                .status(event.getStatus())
+                .attempts(event.getAttempts())
+                .createdAt(event.getCreatedAt())
+                .nextAttemptAt(event.getNextAttemptAt())
+                .claimedBy(event.getClaimedBy())
+                .lastError(event.getLastError())
+                .deliveredAt(event.getDeliveredAt())
+                .build();
+    }
+
+    @Override
+    protected void index(OutboxEvent event) {
+        byStatus.add(event.getStatus(), event.getNextAttemptAt(), event.getId());
+    }
+
+    @Override
+    protected void unindex(OutboxEvent event) {
+        byStatus.remove(event.getStatus(), event.getNextAttemptAt(), event.getId());
+    }
+}
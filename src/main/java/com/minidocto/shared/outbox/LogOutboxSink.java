@@ -0,0 +1,37 @@
+package com.minidocto.shared.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs every event as one JSON line under the {@code minidocto.outbox} logger; stands in for the
+ * notification and integration sinks.
+ */
+@Component
+@ConditionalOnProperty(prefix = "minidocto.outbox", name = "log-sink", havingValue = "true", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+    private static final Logger logger = LoggerFactory.getLogger("minidocto.outbox");
+
+    private final ObjectMapper objectMapper;
+
+    public LogOutboxSink(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws Exception {
+        for (OutboxEvent event : events) {
+            logger.info("{}", objectMapper.writeValueAsString(OutboxRecord.of(event)));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.minidocto.shared.outbox;
+
+import com.minidocto.shared.config.OutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to every {@link OutboxSink} in the background, in batches. Each batch is
+ * claimed first, so several nodes can dispatch at once without delivering the same event twice
+ * (except after a claim timeout). A failed batch is retried with exponential backoff, and events
+ * that keep failing are parked as DEAD.
+ * Metrics: {@code minidocto.outbox.events{outcome}} (throughput), {@code minidocto.outbox.delivery.lag}
+ * (creation to delivery) and {@code minidocto.outbox.lag.seconds} (age of the oldest event claimed by
+ * the last run, 0 once the outbox is drained).
+ */
+@Component
+@ConditionalOnProperty(prefix = "minidocto.outbox", name = "dispatch-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxSink> sinks;
+    private final OutboxProperties properties;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dead;
+    private final Timer deliveryLag;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public OutboxDispatcher(OutboxRepository outboxRepository, List<OutboxSink> sinks, OutboxProperties properties,
+                            MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.delivered = outcome(registry, "delivered");
+        this.failed = outcome(registry, "failed");
+        this.dead = outcome(registry, "dead");
+        this.deliveryLag = Timer.builder("minidocto.outbox.delivery.lag")
+                .description("Time from recording an event to its delivery")
+                .register(registry);
+        registry.gauge("minidocto.outbox.lag.seconds", lagSeconds);
+        logger.info("Outbox dispatcher delivering to {}", sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("minidocto.outbox.events")
+                .description("Outbox events by delivery outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${minidocto.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                if (dispatchBatch() < properties.getBatchSize()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Outbox dispatch failed, retrying next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim and deliver one batch.
+     *
+     * @return the number of events claimed
+     */
+    int dispatchBatch() {
+        Instant now = Instant.now();
+        String claimId = UUID.randomUUID().toString();
+        List<OutboxEvent> events = outboxRepository.claimDue(now, now.plus(properties.getClaimTimeout()), claimId,
+                properties.getBatchSize());
+        lagSeconds.set(events.stream()
+                .map(event -> Duration.between(event.getCreatedAt(), now).toSeconds())
+                .max(Long::compare)
+                .orElse(0L));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            for (OutboxSink sink : sinks) {
+                sink.deliver(events);
+            }
+        } catch (Exception e) {
+            fail(events, claimId, e);
+            return events.size();
+        }
+
+        Instant deliveredAt = Instant.now();
+        outboxRepository.markDelivered(events.stream().map(OutboxEvent::getId).toList(), claimId, deliveredAt);
+        delivered.increment(events.size());
+        events.forEach(event -> deliveryLag.record(Duration.between(event.getCreatedAt(), deliveredAt)));
+        return events.size();
+    }
+
+    private void fail(List<OutboxEvent> events, String claimId, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        error = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        logger.warn("Delivery of {} outbox event(s) failed: {}", events.size(), error);
+        Instant now = Instant.now();
+        for (OutboxEvent event : events) {
+            int attempts = event.getAttempts() + 1;
+            boolean parked = attempts >= properties.getMaxAttempts();
+            outboxRepository.markFailed(event.getId(), claimId, attempts, now.plus(backoff(attempts)), parked, error);
+            if (parked) {
+                logger.error("Outbox event {} ({}) parked after {} attempts", event.getId(), event.getType(), attempts);
+                dead.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+}
@@ -0,0 +1,41 @@
+package com.minidocto.shared.outbox;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A side effect of a domain change (e.g. "appointment.booked"), recorded with the change and delivered
+ * to the {@link OutboxSink}s in the background, at least once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "outbox")
+@CompoundIndexes({
+    // Dispatcher: events due for delivery, oldest due first
+    @CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}")
+})
+public class OutboxEvent {
+    @Id
+    private String id; // Also the idempotency key for sinks: an event may be delivered more than once
+    private String type;
+    private String aggregateId;
+    private Map<String, Object> payload;
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt; // Due time; pushed forward while a dispatcher holds the event
+    private String claimedBy; // Dispatch run holding the event until nextAttemptAt
+    private String lastError;
+    @Indexed(name = "deliveredAt_ttl", expireAfter = "7d")
+    private Instant deliveredAt;
+}
@@ -0,0 +1,32 @@
+package com.minidocto.shared.outbox;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Records side effects in the outbox, next to the change that causes them, instead of running them
+ * inline. With {@code minidocto.mongo.transactions=true} the insert joins the caller's transaction, so
+ * the event exists if and only if the change was committed; without transactions it is one extra insert
+ * right after the change.
+ */
+@Component
+public class OutboxPublisher {
+    private final OutboxRepository outboxRepository;
+
+    public OutboxPublisher(OutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    public void publish(String type, String aggregateId, Map<String, Object> payload) {
+        Instant now = Instant.now();
+        outboxRepository.insert(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .payload(payload)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+}
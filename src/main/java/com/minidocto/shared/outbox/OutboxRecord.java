@@ -0,0 +1,14 @@
+package com.minidocto.shared.outbox;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * What the stand-in sinks write for an event: its identity and content, without dispatch state.
+ */
+record OutboxRecord(String id, String type, String aggregateId, Instant createdAt, Map<String, Object> payload) {
+    static OutboxRecord of(OutboxEvent event) {
+        return new OutboxRecord(event.getId(), event.getType(), event.getAggregateId(), event.getCreatedAt(),
+                event.getPayload());
+    }
+}
@@ -0,0 +1,6 @@
+package com.minidocto.shared.outbox;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OutboxRepository extends MongoRepository<OutboxEvent, String>, OutboxRepositoryCustom {
+}
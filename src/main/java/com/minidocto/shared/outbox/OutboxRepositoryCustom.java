@@ -0,0 +1,30 @@
+package com.minidocto.shared.outbox;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Claiming and settling outbox events. A claim pushes the due time of the events forward, so
+ * dispatchers on other nodes skip them until the claim times out.
+ */
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Claim up to limit PENDING events due at now, oldest due first, until claimedUntil.
+     *
+     * @param claimId unique ID of this dispatch run
+     * @return the events claimed by this run
+     */
+    List<OutboxEvent> claimDue(Instant now, Instant claimedUntil, String claimId, int limit);
+
+    /**
+     * Mark events of a claim as delivered.
+     */
+    void markDelivered(Collection<String> ids, String claimId, Instant deliveredAt);
+
+    /**
+     * Record a failed delivery: the event is due again at nextAttemptAt, or parked as DEAD.
+     */
+    void markFailed(String id, String claimId, int attempts, Instant nextAttemptAt, boolean dead, String error);
+}
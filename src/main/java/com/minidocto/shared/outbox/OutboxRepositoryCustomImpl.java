@@ -0,0 +1,59 @@
+package com.minidocto.shared.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<OutboxEvent> claimDue(Instant now, Instant claimedUntil, String claimId, int limit) {
+        // Served by {status, nextAttemptAt}: read the due IDs, claim those still due, read back the ones won
+        Criteria due = Criteria.where("status").is(OutboxStatus.PENDING.name()).and("nextAttemptAt").lte(now);
+        Query candidates = new Query(due).with(Sort.by(Sort.Direction.ASC, "nextAttemptAt")).limit(limit);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)
+                        .and("status").is(OutboxStatus.PENDING.name()).and("nextAttemptAt").lte(now)),
+                Update.update("nextAttemptAt", claimedUntil).set("claimedBy", claimId), OutboxEvent.class);
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(ids).and("claimedBy").is(claimId))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt")), OutboxEvent.class);
+    }
+
+    @Override
+    public void markDelivered(Collection<String> ids, String claimId, Instant deliveredAt) {
+        Update update = Update.update("status", OutboxStatus.DELIVERED.name())
+                .set("deliveredAt", deliveredAt)
+                .unset("claimedBy")
+                .unset("nextAttemptAt")
+                .unset("lastError");
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).and("claimedBy").is(claimId)),
+                update, OutboxEvent.class);
+    }
+
+    @Override
+    public void markFailed(String id, String claimId, int attempts, Instant nextAttemptAt, boolean dead, String error) {
+        Update update = Update.update("attempts", attempts)
+                .set("lastError", error)
+                .unset("claimedBy");
+        if (dead) {
+            update.set("status", OutboxStatus.DEAD.name()).unset("nextAttemptAt");
+        } else {
+            update.set("nextAttemptAt", nextAttemptAt);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("claimedBy").is(claimId)),
+                update, OutboxEvent.class);
+    }
+}
@@ -0,0 +1,18 @@
+package com.minidocto.shared.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of outbox events (email, SMS, calendar sync, audit...). Every sink bean receives every
+ * batch; a batch that fails in any sink is delivered again to all of them later, so sinks must
+ * tolerate duplicates, using {@link OutboxEvent#getId()} as the idempotency key.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    /**
+     * Deliver a batch, in creation order. Throwing fails the whole batch.
+     */
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,7 @@
+package com.minidocto.shared.outbox;
+
+public enum OutboxStatus {
+    PENDING, // Waiting for delivery, or for a retry at nextAttemptAt
+    DELIVERED, // Handed to every sink; removed by a TTL index after a week
+    DEAD // Failed maxAttempts times; left for inspection
+}
@@ -0,0 +1,92 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties;
+import com.minidocto.shared.config.RateLimitProperties.Limit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token buckets, lock-free. Each bucket is a single {@link AtomicLong} holding the time at
+ * which it will be full again (the generic cell rate algorithm): a request is allowed if adding one
+ * token's worth of time keeps that point within capacity × token interval of now, and is committed
+ * with one compare-and-set. Buckets live in a ConcurrentHashMap, whose bins are locked independently.
+ * Memory is bounded: full buckets carry no state and are evicted, and once {@code maxBuckets} busy
+ * buckets exist, new clients of a scope share one overflow bucket instead of getting their own.
+ */
+@Component
+public class LocalRateLimiter implements RateLimiter {
+    private static final String OVERFLOW = "*";
+    private static final long MIN_SWEEP_INTERVAL = 1_000_000_000L; // A full map is swept at most once a second
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+    private final LongSupplier clock;
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    @Autowired
+    public LocalRateLimiter(RateLimitProperties properties) {
+        this(properties.getMaxBuckets(), System::nanoTime);
+    }
+
+    LocalRateLimiter(int maxBuckets, LongSupplier clock) {
+        this.maxBuckets = maxBuckets;
+        this.clock = clock;
+        this.lastSweep.set(clock.getAsLong() - MIN_SWEEP_INTERVAL - 1);
+    }
+
+    @Override
+    public Decision tryAcquire(String scope, String client, Limit limit) {
+        long now = clock.getAsLong();
+        long interval = limit.getPeriod().toNanos() / limit.getCapacity();
+        long burst = interval * limit.getCapacity();
+        AtomicLong fullAt = bucket(scope + '|' + client, scope + '|' + OVERFLOW, now);
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            if (next - now > burst) {
+                return new Decision(false, next - now - burst);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Decision.ALLOWED;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key, String overflowKey, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            long swept = lastSweep.get();
+            if (now - swept > MIN_SWEEP_INTERVAL && lastSweep.compareAndSet(swept, now)) {
+                evictFull(now);
+            }
+            if (buckets.size() >= maxBuckets) {
+                return buckets.computeIfAbsent(overflowKey, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Drop buckets that have refilled: they hold nothing a new bucket would not.
+     */
+    @Scheduled(fixedDelayString = "${minidocto.ratelimit.eviction-interval:PT1M}")
+    public void evictFull() {
+        evictFull(clock.getAsLong());
+    }
+
+    private void evictFull(long now) {
+        buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties.Limit;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets shared by every node, one document per bucket in {@code rate_limits}, for
+ * {@code minidocto.ratelimit.store=mongo}. The same cell rate algorithm as {@link LocalRateLimiter}
+ * runs server-side in a single upserting findAndModify with an update pipeline on {@code $$NOW}, so
+ * it is atomic and independent of node clocks. A TTL index (see MongoIndexConfig) removes buckets
+ * once they are full again.
+ * The local buckets are checked first: a client over the limit on this node is rejected without a
+ * round trip, and if MongoDB fails the local decision stands.
+ */
+@Component
+@Primary
+@Profile("!inmemory")
+@ConditionalOnProperty(prefix = "minidocto.ratelimit", name = "store", havingValue = "mongo")
+public class MongoRateLimiter implements RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(MongoRateLimiter.class);
+    public static final String COLLECTION = "rate_limits";
+    private static final long FAILURE_LOG_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final LocalRateLimiter localRateLimiter;
+    private final AtomicLong lastFailureLog = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL);
+
+    public MongoRateLimiter(MongoTemplate mongoTemplate, LocalRateLimiter localRateLimiter) {
+        this.mongoTemplate = mongoTemplate;
+        this.localRateLimiter = localRateLimiter;
+    }
+
+    @Override
+    public Decision tryAcquire(String scope, String client, Limit limit) {
+        Decision local = localRateLimiter.tryAcquire(scope, client, limit);
+        if (!local.allowed()) {
+            return local;
+        }
+        try {
+            return acquireShared(scope + '|' + client, limit);
+        } catch (DuplicateKeyException e) {
+            // Two nodes created the bucket at once; the document exists now
+            return acquireShared(scope + '|' + client, limit);
+        } catch (RuntimeException e) {
+            long last = lastFailureLog.get();
+            if (System.nanoTime() - last > FAILURE_LOG_INTERVAL && lastFailureLog.compareAndSet(last, System.nanoTime())) {
+                logger.warn("Shared rate limit unavailable, using local buckets only: {}", e.getMessage());
+            }
+            return local;
+        }
+    }
+
+    private Decision acquireShared(String key, Limit limit) {
+        long interval = Math.max(1, limit.getPeriod().toMillis() / limit.getCapacity());
+        long burst = interval * limit.getCapacity();
+        // fullAt: when the bucket is full again; a request is allowed if one more token keeps it within the burst
+        Document next = new Document("$add", List.of(new Document("$max", List.of(
+                new Document("$ifNull", List.of("$fullAt", "$$NOW")), "$$NOW")), interval));
+        Document wait = new Document("$subtract", List.of(new Document("$subtract", List.of("$next", "$$NOW")), burst));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                context -> new Document("$set", new Document("next", next)),
+                context -> new Document("$set", new Document("allowed", new Document("$lte", List.of(wait, 0)))),
+                context -> new Document("$set", new Document("retryAfterMs",
+                        new Document("$cond", List.of("$allowed", 0, wait)))
+                        .append("fullAt", new Document("$cond", List.of("$allowed", "$next", "$fullAt")))),
+                context -> new Document("$set", new Document("expiresAt", "$fullAt")),
+                context -> new Document("$unset", "next")));
+        Document bucket = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(key)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        if (bucket == null || bucket.getBoolean("allowed", true)) {
+            return Decision.ALLOWED;
+        }
+        return new Decision(false, TimeUnit.MILLISECONDS.toNanos(((Number) bucket.get("retryAfterMs")).longValue()));
+    }
+}
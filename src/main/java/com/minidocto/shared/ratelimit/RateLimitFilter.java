@@ -0,0 +1,118 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties;
+import com.minidocto.shared.config.RateLimitProperties.Route;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the configured per-route limits, by client address and, once the JWT filter has run, by
+ * authenticated user. Rejected requests get 429 with a {@code Retry-After} header before any
+ * password hashing or database work. Registered in the security filter chain (see SecurityConfig),
+ * not as a servlet filter, so the principal is known. Behind a proxy, set
+ * {@code server.forward-headers-strategy} so the client address is the real one.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry registry;
+    private final List<CompiledRoute> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.registry = registry;
+        this.routes = properties.getRoutes().entrySet().stream().map(CompiledRoute::of).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledRoute route = match(request);
+        if (route != null) {
+            RateLimiter.Decision decision = RateLimiter.Decision.ALLOWED;
+            if (route.config().getIp() != null) {
+                decision = rateLimiter.tryAcquire(route.name() + "|ip", request.getRemoteAddr(), route.config().getIp());
+                if (!decision.allowed()) {
+                    reject(response, route.name(), "ip", decision);
+                    return;
+                }
+            }
+            String principal = principal();
+            if (route.config().getPrincipal() != null && principal != null) {
+                decision = rateLimiter.tryAcquire(route.name() + "|user", principal, route.config().getPrincipal());
+                if (!decision.allowed()) {
+                    reject(response, route.name(), "user", decision);
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledRoute match(HttpServletRequest request) {
+        if (routes.isEmpty()) {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledRoute route : routes) {
+            if (route.matches(request.getMethod(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private void reject(HttpServletResponse response, String route, String key, RateLimiter.Decision decision) throws IOException {
+        Counter.builder("minidocto.ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tags("route", route, "key", key)
+                .register(registry)
+                .increment();
+        long retryAfterSeconds = Math.max(1, (decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too many requests, retry in " + retryAfterSeconds
+                + " s\",\"retryAfterSeconds\":" + retryAfterSeconds + "}");
+    }
+
+    private record CompiledRoute(String name, Route config, List<PathPattern> patterns) {
+        static CompiledRoute of(Map.Entry<String, Route> entry) {
+            return new CompiledRoute(entry.getKey(), entry.getValue(),
+                    entry.getValue().getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList());
+        }
+
+        boolean matches(String method, PathContainer path) {
+            if (!config.getMethods().isEmpty() && config.getMethods().stream().noneMatch(method::equalsIgnoreCase)) {
+                return false;
+            }
+            return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+}
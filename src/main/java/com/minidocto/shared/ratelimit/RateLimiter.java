@@ -0,0 +1,21 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties.Limit;
+
+/**
+ * Token buckets keyed by a scope (route and key type) and a client identifier.
+ */
+public interface RateLimiter {
+
+    /**
+     * Take one token from the bucket of the given client.
+     */
+    Decision tryAcquire(String scope, String client, Limit limit);
+
+    /**
+     * @param retryAfterNanos time until a token is available again, 0 when allowed
+     */
+    record Decision(boolean allowed, long retryAfterNanos) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+}
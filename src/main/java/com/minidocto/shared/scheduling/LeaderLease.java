@@ -0,0 +1,107 @@
+package com.minidocto.shared.scheduling;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Named leases in the {@code scheduler_leases} collection, so a scheduled job runs on one node at a time.
+ * A lease is one document ({@code _id} = job name, owner, expiresAt) taken with a single upserting
+ * findAndModify: it matches only if this node already owns the lease or the lease has expired, and a
+ * node losing the race gets a duplicate key error on the upsert. Expiry is computed with the server's
+ * {@code $$NOW}, so node clocks do not need to agree. The lease document also carries the job's
+ * checkpoint, which only the current owner can move.
+ */
+@Component
+@Profile("!inmemory")
+public class LeaderLease {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderLease.class);
+    static final String COLLECTION = "scheduler_leases";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner;
+
+    public LeaderLease(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.owner = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Take or renew the lease for the given duration.
+     *
+     * @return true if this node holds the lease until the duration elapses
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        Query claimable = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(name),
+                new Criteria().orOperator(
+                        Criteria.where("owner").is(owner),
+                        Criteria.expr(MongoExpression.create("{ $lt: ['$expiresAt', '$$NOW'] }")))));
+        AggregationUpdate claim = AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document("owner", owner)
+                        .append("expiresAt", new Document("$add", List.of("$$NOW", duration.toMillis()))))));
+        try {
+            Document lease = mongoTemplate.findAndModify(claimable, claim,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+            return lease != null && owner.equals(lease.getString("owner"));
+        } catch (DuplicateKeyException e) {
+            // Held by another node: the filter did not match and the upsert collided with its document
+            return false;
+        }
+    }
+
+    /**
+     * Give the lease up early (e.g. on shutdown) so another node can take over at its next run.
+     */
+    public void release(String name) {
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(name).and("owner").is(owner)),
+                    AggregationUpdate.from(List.of(context -> new Document("$set", new Document("expiresAt", "$$NOW")))),
+                    COLLECTION);
+        } catch (RuntimeException e) {
+            logger.warn("Could not release lease {}: {}", name, e.getMessage());
+        }
+    }
+
+    public String checkpoint(String name) {
+        Document lease = mongoTemplate.findById(name, Document.class, COLLECTION);
+        return lease != null ? lease.getString("checkpoint") : null;
+    }
+
+    /**
+     * Store the job's checkpoint, only if this node still owns the lease.
+     *
+     * @return false if the lease was lost and the checkpoint left unchanged
+     */
+    public boolean checkpoint(String name, String value) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(name).and("owner").is(owner)),
+                Update.update("checkpoint", value), COLLECTION).getMatchedCount() > 0;
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
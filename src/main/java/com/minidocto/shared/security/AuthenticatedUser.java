@@ -0,0 +1,23 @@
+package com.minidocto.shared.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal of JWT-authenticated requests. Carries the user ID loaded with the account, so
+ * services keyed by ID need not look the user up again by email.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AuthenticatedUser extends User {
+    private final String id;
+
+    public AuthenticatedUser(String id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.id = id;
+    }
+}
@@ -1,5 +1,6 @@
 package com.minidocto.user.controller;
 
+import com.minidocto.user.dto.DoctorSuggestionDTO;
 import com.minidocto.user.dto.UserResponse;
 import com.minidocto.user.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,8 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/user")
 @RequiredArgsConstructor
@@ -19,4 +22,11 @@ public class UserController {
         String email = userDetails.getUsername();
         return ResponseEntity.ok(userService.getUserByEmail(email));
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/doctors/autocomplete")
+    public ResponseEntity<List<DoctorSuggestionDTO>> autocompleteDoctors(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.suggestDoctors(query, limit));
+    }
+}
@@ -0,0 +1,13 @@
+package com.minidocto.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DoctorSuggestionDTO {
+    private String id;
+    private String name;
+    private String specialty;
+    private Integer score;
+}
@@ -2,6 +2,7 @@ package com.minidocto.user.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.List;
 import com.minidocto.user.model.Role;
@@ -11,6 +12,7 @@ import com.minidocto.user.model.Role;
  * Doctors have role PRO and availability slots.
  */
 @Document(collection = "users")
+@CompoundIndex(name = "role_specialty_score", def = "{'role': 1, 'specialty': 1, 'score': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
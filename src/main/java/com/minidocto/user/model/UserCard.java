@@ -0,0 +1,13 @@
+package com.minidocto.user.model;
+
+/**
+ * The public, rarely changing part of a {@link User} shown next to slots and appointments:
+ * no password, tokens or appointment list.
+ */
+public record UserCard(String id, String name, String email, Role role, String specialty, Integer score) {
+
+    public static UserCard of(User user) {
+        return new UserCard(user.getId(), user.getName(), user.getEmail(), user.getRole(), user.getSpecialty(),
+                user.getScore());
+    }
+}
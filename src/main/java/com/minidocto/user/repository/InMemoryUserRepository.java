@@ -0,0 +1,93 @@
+package com.minidocto.user.repository;
+
+import com.minidocto.shared.inmemory.InMemoryRepository;
+import com.minidocto.shared.inmemory.SortedIndex;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link UserRepository} for the "inmemory" profile, indexed by email and by role.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+    private final Map<String, String> idByEmail = new ConcurrentHashMap<>();
+    private final SortedIndex<Role, String> byRole = new SortedIndex<>();
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(email != null ? idByEmail.get(email) : null)
+                .map(documents::get)
+                .map(this::copy);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return email != null && idByEmail.containsKey(email);
+    }
+
+    @Override
+    public Stream<User> streamDoctorsForDirectory() {
+        // Same projection as the MongoDB query: only the fields needed by the directory indexes
+        return byRole.ids(Role.PRO)
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .map(user -> User.builder()
+                        .id(user.getId())
+                        .name(user.getName())
+                        .specialty(user.getSpecialty())
+                        .score(user.getScore())
+                        .role(user.getRole())
+                        .build());
+    }
+
+    @Override
+    protected String idOf(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void assignId(User user, String id) {
+        user.setId(id);
+    }
+
+    @Override
+    protected User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .score(user.getScore())
+                .tokens(user.getTokens() != null ? new ArrayList<>(user.getTokens()) : null)
+                .specialty(user.getSpecialty())
+                .appointments(user.getAppointments() != null ? new ArrayList<>(user.getAppointments()) : null)
+                .build();
+    }
+
+    @Override
+    protected void index(User user) {
+        if (user.getEmail() != null) {
+            idByEmail.put(user.getEmail(), user.getId());
+        }
+        byRole.add(user.getRole(), user.getId(), user.getId());
+    }
+
+    @Override
+    protected void unindex(User user) {
+        if (user.getEmail() != null) {
+            idByEmail.remove(user.getEmail(), user.getId());
+        }
+        byRole.remove(user.getRole(), user.getId(), user.getId());
+    }
+}
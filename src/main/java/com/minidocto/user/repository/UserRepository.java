@@ -2,9 +2,15 @@ package com.minidocto.user.repository;
 
 import com.minidocto.user.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import java.util.Optional;
- 
+import java.util.stream.Stream;
+
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Stream all doctors through a cursor with only the fields needed by the directory indexes
+    @Query(value = "{ 'role': 'PRO' }", fields = "{ 'name': 1, 'specialty': 1, 'score': 1, 'role': 1 }")
+    Stream<User> streamDoctorsForDirectory();
 } 
\ No newline at end of file
@@ -0,0 +1,399 @@
+package com.minidocto.user.service;
+
+import com.minidocto.shared.cache.InvalidationBus;
+import com.minidocto.user.dto.DoctorSuggestionDTO;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process prefix index over doctor names and specialties for type-ahead search.
+ *
+ * <p>The bulk of the index is an immutable snapshot: a sorted array of distinct normalized
+ * tokens (lowercase, accents stripped), each with a posting list of the doctors owning it.
+ * Doctors are ranked by score once at build time and posting lists hold ranks, so a prefix
+ * lookup is a binary search for the token range followed by a k-way merge that stops after
+ * {@code limit} hits. Prefixes of up to {@link #SHORT_PREFIX} characters, whose ranges are
+ * huge, have their best {@link #PRECOMPUTED_TOP} doctors precomputed.
+ * Doctors added after the snapshot was built (signup) go into a small skip-list delta that is
+ * queried alongside it and merged into a new snapshot once it grows past {@link #MERGE_THRESHOLD} entries.
+ * Signups are published on the {@link InvalidationBus} so every node adds the doctor; a whole-cache
+ * invalidation reloads the index.
+ *
+ * <p>Memory footprint at 100k doctors with ~4 tokens each (DoctorAutocompleteIndexBenchmark
+ * bounds it with the allocation of a rebuild): about 25 MB retained, i.e. ~250 bytes per doctor,
+ * most of it the doctor ID and name strings. Specialty and token strings
+ * are de-duplicated, posting lists cost 4 bytes per (token, doctor) pair and the short-prefix
+ * tables add under 2 MB.
+ */
+@Component
+public class DoctorAutocompleteIndex {
+    public static final String NAME = "doctor-autocomplete";
+    private static final Logger logger = LoggerFactory.getLogger(DoctorAutocompleteIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    static final int MERGE_THRESHOLD = 1024;
+    static final int SHORT_PREFIX = 3;
+    static final int PRECOMPUTED_TOP = 64;
+    static final Comparator<Entry> BY_RANK = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::id);
+
+    private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final ConcurrentSkipListMap<String, Entry> delta = new ConcurrentSkipListMap<>();
+    private final Set<String> indexedIds = ConcurrentHashMap.newKeySet();
+    private final Object reloadLock = new Object();
+    private List<Entry> addedDuringReload; // Guarded by this
+
+    public DoctorAutocompleteIndex(UserRepository userRepository, InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(NAME, this::invalidated);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadInBackground();
+    }
+
+    /**
+     * Rebuild the whole index from the PRO users in MongoDB, streaming them through a cursor.
+     * Doctors added while the cursor is read are kept, whether or not it returned them.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                addedDuringReload = new ArrayList<>();
+            }
+            try (Stream<User> doctors = userRepository.streamDoctorsForDirectory()) {
+                List<Entry> entries = new ArrayList<>();
+                doctors.forEach(doctor -> entries.add(toEntry(doctor)));
+                synchronized (this) {
+                    Set<String> loaded = new HashSet<>();
+                    entries.forEach(entry -> loaded.add(entry.id()));
+                    addedDuringReload.stream().filter(entry -> loaded.add(entry.id())).forEach(entries::add);
+                    delta.clear();
+                    indexedIds.clear();
+                    indexedIds.addAll(loaded);
+                    snapshot = Snapshot.build(entries);
+                }
+                logger.info("Doctor autocomplete index loaded with {} doctors", entries.size());
+            } catch (Exception e) {
+                logger.warn("Could not load doctor autocomplete index: {}", e.getMessage());
+            } finally {
+                synchronized (this) {
+                    addedDuringReload = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a newly created doctor to the index without rebuilding it, on this node and, once the
+     * signup is committed, on every other one.
+     */
+    public void add(User doctor) {
+        if (index(doctor)) {
+            invalidationBus.publishAfterCommit(NAME, doctor.getId());
+        }
+    }
+
+    private void invalidated(String doctorId) {
+        if (doctorId == null) {
+            reloadInBackground();
+        } else if (!indexedIds.contains(doctorId)) {
+            // Added on another node
+            userRepository.findById(doctorId).ifPresent(this::index);
+        }
+    }
+
+    private void reloadInBackground() {
+        // Load in the background so an unreachable database never blocks startup or the invalidation bus
+        Thread thread = new Thread(this::reload, "doctor-autocomplete-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private synchronized boolean index(User doctor) {
+        if (doctor.getRole() != Role.PRO || doctor.getId() == null || !indexedIds.add(doctor.getId())) {
+            return false;
+        }
+        Entry entry = toEntry(doctor);
+        if (addedDuringReload != null) {
+            addedDuringReload.add(entry);
+        }
+        for (String token : entry.tokens()) {
+            delta.put(token + '\u0000' + entry.id(), entry);
+        }
+        if (delta.size() > MERGE_THRESHOLD) {
+            mergeDelta();
+        }
+        return true;
+    }
+
+    /**
+     * Return the top {@code limit} doctors by score for which every word of the query
+     * is a prefix of a word of their name or specialty.
+     */
+    public List<DoctorSuggestionDTO> suggest(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        // Drive the lookup with the longest token: it has the narrowest prefix range
+        String driver = queryTokens.stream().max(Comparator.comparingInt(String::length)).get();
+
+        List<Entry> matches = snapshot.topMatches(driver, queryTokens, limit);
+        if (!delta.isEmpty()) {
+            Set<String> seen = new HashSet<>();
+            matches.forEach(entry -> seen.add(entry.id()));
+            for (Entry entry : delta.subMap(driver, driver + Character.MAX_VALUE).values()) {
+                if (entry.matchesAll(queryTokens) && seen.add(entry.id())) {
+                    matches.add(entry);
+                }
+            }
+            matches.sort(BY_RANK);
+            if (matches.size() > limit) {
+                matches = matches.subList(0, limit);
+            }
+        }
+
+        List<DoctorSuggestionDTO> suggestions = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            suggestions.add(new DoctorSuggestionDTO(entry.id(), entry.name(), entry.specialty(), entry.score()));
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return indexedIds.size();
+    }
+
+    private synchronized void mergeDelta() {
+        if (delta.size() <= MERGE_THRESHOLD) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(Arrays.asList(snapshot.entries));
+        new LinkedHashSet<>(delta.values()).forEach(entries::add);
+        // Readers may briefly see an entry in both the new snapshot and the delta; suggest() de-duplicates
+        snapshot = Snapshot.build(entries);
+        delta.clear();
+    }
+
+    private static Entry toEntry(User doctor) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(doctor.getName()));
+        tokens.addAll(tokenize(doctor.getSpecialty()));
+        return new Entry(doctor.getId(), doctor.getName(), doctor.getSpecialty(),
+                doctor.getScore() != null ? doctor.getScore() : 0, tokens.toArray(new String[0]));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    record Entry(String id, String name, String specialty, int score, String[] tokens) {
+        boolean matchesAll(List<String> queryTokens) {
+            for (String queryToken : queryTokens) {
+                boolean matched = false;
+                for (String token : tokens) {
+                    if (token.startsWith(queryToken)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Immutable index built from a set of doctors.
+     * Entries are sorted by rank (score descending), so an entry's position is its rank and every
+     * posting list, being in ascending position order, is already sorted best-first.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new int[0][], Map.of(), new Entry[0]);
+
+        final String[] tokens; // Distinct normalized tokens, sorted
+        final int[][] postings; // postings[t] = positions of the entries owning tokens[t], ascending
+        final Map<String, int[]> topByPrefix; // Best PRECOMPUTED_TOP entries for each prefix of up to SHORT_PREFIX chars
+        final Entry[] entries;
+
+        private Snapshot(String[] tokens, int[][] postings, Map<String, int[]> topByPrefix, Entry[] entries) {
+            this.tokens = tokens;
+            this.postings = postings;
+            this.topByPrefix = topByPrefix;
+            this.entries = entries;
+        }
+
+        static Snapshot build(List<Entry> entryList) {
+            Entry[] entries = entryList.toArray(new Entry[0]);
+            Arrays.sort(entries, BY_RANK);
+
+            // Token strings are de-duplicated: each distinct token is stored once
+            Map<String, Posting> byToken = new HashMap<>();
+            for (int e = 0; e < entries.length; e++) {
+                String[] entryTokens = entries[e].tokens();
+                for (int t = 0; t < entryTokens.length; t++) {
+                    Posting posting = byToken.computeIfAbsent(entryTokens[t], Posting::new);
+                    entryTokens[t] = posting.token;
+                    posting.add(e);
+                }
+            }
+            String[] tokens = byToken.keySet().toArray(new String[0]);
+            Arrays.sort(tokens);
+            int[][] postings = new int[tokens.length][];
+            for (int t = 0; t < tokens.length; t++) {
+                Posting posting = byToken.get(tokens[t]);
+                postings[t] = Arrays.copyOf(posting.positions, posting.size);
+            }
+
+            Snapshot partial = new Snapshot(tokens, postings, Map.of(), entries);
+            Map<String, int[]> topByPrefix = new HashMap<>();
+            for (int length = 1; length <= SHORT_PREFIX; length++) {
+                int t = 0;
+                while (t < tokens.length) {
+                    if (tokens[t].length() < length) {
+                        t++;
+                        continue;
+                    }
+                    String prefix = tokens[t].substring(0, length);
+                    int end = partial.upperBound(prefix, t);
+                    topByPrefix.put(prefix, partial.merge(t, end, PRECOMPUTED_TOP, null));
+                    t = end;
+                }
+            }
+            return new Snapshot(tokens, postings, topByPrefix, entries);
+        }
+
+        /**
+         * Best {@code limit} entries owning a token that starts with {@code prefix} and matching every query token.
+         */
+        List<Entry> topMatches(String prefix, List<String> queryTokens, int limit) {
+            List<Entry> matches = new ArrayList<>(limit);
+            int[] precomputed = prefix.length() <= SHORT_PREFIX ? topByPrefix.get(prefix) : null;
+            if (precomputed != null) {
+                for (int position : precomputed) {
+                    if (entries[position].matchesAll(queryTokens)) {
+                        matches.add(entries[position]);
+                        if (matches.size() == limit) {
+                            return matches;
+                        }
+                    }
+                }
+                if (precomputed.length < PRECOMPUTED_TOP) {
+                    return matches; // The precomputed list holds every entry for this prefix
+                }
+                matches.clear();
+            }
+            int start = lowerBound(prefix);
+            int end = upperBound(prefix, start);
+            for (int position : merge(start, end, limit, queryTokens)) {
+                matches.add(entries[position]);
+            }
+            return matches;
+        }
+
+        /**
+         * K-way merge of the posting lists of tokens[start, end): returns up to {@code limit} distinct
+         * positions in ascending (best-first) order, keeping only entries matching {@code queryTokens} if given.
+         */
+        int[] merge(int start, int end, int limit, List<String> queryTokens) {
+            PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, end - start),
+                    Comparator.comparingInt(cursor -> postings[cursor[0]][cursor[1]]));
+            for (int t = start; t < end; t++) {
+                cursors.add(new int[]{t, 0});
+            }
+            int[] result = new int[limit];
+            int count = 0;
+            int last = -1;
+            while (count < limit && !cursors.isEmpty()) {
+                int[] cursor = cursors.poll();
+                int position = postings[cursor[0]][cursor[1]];
+                if (position != last) {
+                    last = position;
+                    if (queryTokens == null || entries[position].matchesAll(queryTokens)) {
+                        result[count++] = position;
+                    }
+                }
+                if (++cursor[1] < postings[cursor[0]].length) {
+                    cursors.add(cursor);
+                }
+            }
+            return count == limit ? result : Arrays.copyOf(result, count);
+        }
+
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int upperBound(String prefix, int from) {
+            int low = from;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].startsWith(prefix) || tokens[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Posting {
+        final String token;
+        int[] positions = new int[2];
+        int size;
+
+        Posting(String token) {
+            this.token = token;
+        }
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+    }
+}
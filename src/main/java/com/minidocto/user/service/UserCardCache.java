@@ -0,0 +1,223 @@
+package com.minidocto.user.service;
+
+import com.minidocto.shared.cache.InvalidationBus;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.user.model.User;
+import com.minidocto.user.model.UserCard;
+import com.minidocto.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through near-cache of {@link UserCard}s by user ID, so the names, specialties and scores shown
+ * on every booking and listing response are not re-read from {@code users}. Entries live for the
+ * configured TTL, shortened by up to 10% so cards loaded together do not all expire together, and
+ * are invalidated explicitly, on every node through the {@link InvalidationBus}, when a user is
+ * written (see AuthService).
+ * One caller loads a missing or expired card; concurrent callers for the same ID wait on its future
+ * instead of querying too. Unknown IDs are cached as absent. The size is bounded: expired entries go
+ * first, then those expiring soonest. Metrics: {@code minidocto.cache.requests{cache=users,result=hit|miss|coalesced}}.
+ */
+@Component
+public class UserCardCache {
+    private static final String NAME = "users";
+
+    private final UserRepository userRepository;
+    private final UserCacheProperties properties;
+    private final LongSupplier clock;
+    private final InvalidationBus invalidationBus;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Autowired
+    public UserCardCache(UserRepository userRepository, UserCacheProperties properties, InvalidationBus invalidationBus,
+                         MeterRegistry registry) {
+        this(userRepository, properties, invalidationBus, registry, System::nanoTime);
+    }
+
+    UserCardCache(UserRepository userRepository, UserCacheProperties properties, InvalidationBus invalidationBus,
+                  MeterRegistry registry, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.clock = clock;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(NAME, this::evict);
+        this.hits = result(registry, "hit");
+        this.misses = result(registry, "miss");
+        this.coalesced = result(registry, "coalesced");
+        registry.gaugeMapSize("minidocto.cache.size", List.of(Tag.of("cache", NAME)), entries);
+    }
+
+    private static Counter result(MeterRegistry registry, String result) {
+        return Counter.builder("minidocto.cache.requests")
+                .description("Near-cache lookups by result")
+                .tags("cache", NAME, "result", result)
+                .register(registry);
+    }
+
+    public Optional<UserCard> get(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getAll(List.of(userId)).get(userId));
+    }
+
+    /**
+     * Cards of the given users, keyed by ID; unknown users are left out. The misses are loaded
+     * with a single query.
+     */
+    public Map<String, UserCard> getAll(Collection<String> userIds) {
+        Map<String, UserCard> cards = new LinkedHashMap<>();
+        Map<String, Entry> claimed = new HashMap<>();
+        Map<String, Entry> awaited = new HashMap<>();
+        long now = clock.getAsLong();
+        for (String userId : userIds) {
+            if (userId == null || cards.containsKey(userId) || claimed.containsKey(userId) || awaited.containsKey(userId)) {
+                continue;
+            }
+            while (true) {
+                Entry entry = entries.get(userId);
+                if (entry != null && !entry.isExpired(now)) {
+                    awaited.put(userId, entry);
+                    break;
+                }
+                Entry mine = new Entry(new CompletableFuture<>(), now + jitteredTtl());
+                if (entry == null ? entries.putIfAbsent(userId, mine) == null : entries.replace(userId, entry, mine)) {
+                    claimed.put(userId, mine);
+                    break;
+                }
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            misses.increment(claimed.size());
+            load(claimed);
+            evictIfFull();
+        }
+        awaited.forEach((userId, entry) -> {
+            (entry.card().isDone() ? hits : coalesced).increment();
+            UserCard card = await(entry);
+            if (card != null) {
+                cards.put(userId, card);
+            }
+        });
+        claimed.forEach((userId, entry) -> {
+            UserCard card = entry.card().join();
+            if (card != null) {
+                cards.put(userId, card);
+            }
+        });
+        return cards;
+    }
+
+    private void load(Map<String, Entry> claimed) {
+        try {
+            Map<String, UserCard> loaded = new HashMap<>();
+            for (User user : userRepository.findAllById(claimed.keySet())) {
+                loaded.put(user.getId(), UserCard.of(user));
+            }
+            claimed.forEach((userId, entry) -> entry.card().complete(loaded.get(userId)));
+        } catch (RuntimeException e) {
+            // Nothing is cached: waiters fail like this caller, the next lookup loads again
+            claimed.forEach((userId, entry) -> {
+                entries.remove(userId, entry);
+                entry.card().completeExceptionally(e);
+            });
+            throw e;
+        }
+    }
+
+    private static UserCard await(Entry entry) {
+        try {
+            return entry.card().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Forget a user's card on every node, after the user was created or changed.
+     */
+    public void invalidate(String userId) {
+        if (userId != null) {
+            invalidationBus.publish(NAME, userId);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidationBus.publish(NAME, null);
+    }
+
+    private void evict(String userId) {
+        if (userId == null) {
+            entries.clear();
+        } else {
+            entries.remove(userId);
+        }
+    }
+
+    private long jitteredTtl() {
+        long ttl = properties.getTtl().toNanos();
+        return ttl - (long) (ttl * ThreadLocalRandom.current().nextDouble(0.1));
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= properties.getMaxSize()) {
+            return;
+        }
+        evictExpired();
+        // Down to 90% of the limit, so the next misses do not sort again; in-flight loads must stay
+        int excess = entries.size() - properties.getMaxSize() * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> loaded = new ArrayList<>();
+        entries.forEach((userId, entry) -> {
+            if (entry.card().isDone()) {
+                loaded.add(Map.entry(userId, entry));
+            }
+        });
+        loaded.sort(Map.Entry.comparingByValue((a, b) -> Long.compare(a.expiresAtNanos() - b.expiresAtNanos(), 0)));
+        for (int i = 0; i < excess && i < loaded.size(); i++) {
+            entries.remove(loaded.get(i).getKey(), loaded.get(i).getValue());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${minidocto.user-cache.eviction-interval:PT1M}")
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry(CompletableFuture<UserCard> card, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return card.isDone() && now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.minidocto.user.service;
 
+import com.minidocto.user.dto.DoctorSuggestionDTO;
 import com.minidocto.user.dto.UserResponse;
 import com.minidocto.user.model.User;
 import com.minidocto.user.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
+@Timed("minidocto.service")
 public class UserService {
     private final UserRepository userRepository;
+    private final DoctorAutocompleteIndex doctorAutocompleteIndex;
 
     public UserResponse getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
@@ -22,4 +28,8 @@ public class UserService {
                 user.getSpecialty()
         );
     }
-} 
\ No newline at end of file
+
+    public List<DoctorSuggestionDTO> suggestDoctors(String query, int limit) {
+        return doctorAutocompleteIndex.suggest(query, Math.min(Math.max(limit, 1), 50));
+    }
+}
@@ -0,0 +1,90 @@
+package com.minidocto.waitlist.controller;
+
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.UserRepository;
+import com.minidocto.waitlist.dto.JoinWaitlistRequest;
+import com.minidocto.waitlist.dto.WaitlistResponse;
+import com.minidocto.waitlist.service.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistController.class);
+
+    private final WaitlistService waitlistService;
+    private final UserRepository userRepository;
+
+    @PostMapping
+    public ResponseEntity<WaitlistResponse> join(
+            @RequestBody JoinWaitlistRequest request,
+            Authentication authentication) {
+        
+        try {
+            if (!request.isValid()) {
+                return ResponseEntity.badRequest().body(error(request.getValidationError()));
+            }
+            
+            WaitlistResponse response = waitlistService.join(
+                    currentUserId(authentication), request.getDoctorId(), request.getDay());
+            
+            return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            logger.error("Error joining waitlist", e);
+            return ResponseEntity.internalServerError().body(error("Internal server error. Please try again."));
+        }
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<WaitlistResponse> getMyEntries(Authentication authentication) {
+        try {
+            return ResponseEntity.ok(waitlistService.getPatientEntries(currentUserId(authentication)));
+        } catch (Exception e) {
+            logger.error("Error retrieving waitlist entries", e);
+            return ResponseEntity.internalServerError().body(error("Failed to retrieve waitlist entries"));
+        }
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<WaitlistResponse> leave(
+            @PathVariable String entryId,
+            Authentication authentication) {
+        
+        try {
+            WaitlistResponse response = waitlistService.leave(currentUserId(authentication), entryId);
+            
+            return response.isSuccess() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+            
+        } catch (Exception e) {
+            logger.error("Error leaving waitlist", e);
+            return ResponseEntity.internalServerError().body(error("Internal server error. Please try again."));
+        }
+    }
+
+    private ObjectId currentUserId(Authentication authentication) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return new ObjectId(user.getId());
+    }
+
+    private static WaitlistResponse error(String message) {
+        return WaitlistResponse.builder()
+                .success(false)
+                .message(message)
+                .entries(List.of())
+                .build();
+    }
+}
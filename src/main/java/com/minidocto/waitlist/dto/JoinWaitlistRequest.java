@@ -0,0 +1,20 @@
+package com.minidocto.waitlist.dto;
+
+import lombok.Data;
+
+@Data
+public class JoinWaitlistRequest {
+    private String doctorId;
+    private String day; // Optional, yyyy-MM-dd: wait for a slot on that day only
+    
+    public boolean isValid() {
+        return doctorId != null && !doctorId.trim().isEmpty();
+    }
+    
+    public String getValidationError() {
+        if (doctorId == null || doctorId.trim().isEmpty()) {
+            return "Doctor ID is required";
+        }
+        return null;
+    }
+}
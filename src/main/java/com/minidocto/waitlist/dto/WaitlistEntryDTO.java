@@ -0,0 +1,23 @@
+package com.minidocto.waitlist.dto;
+
+import com.minidocto.waitlist.model.WaitlistStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class WaitlistEntryDTO {
+    private String id;
+    private String doctorId;
+    private String day;
+    private WaitlistStatus status;
+    private LocalDateTime createdAt;
+    // Set while OFFERED: the slot held for the patient, to confirm with POST /appointments/hold/confirm
+    private String offeredSlotId;
+    private String offeredStartTime;
+    private String offeredEndTime;
+    private Instant offerExpiresAt;
+}
@@ -0,0 +1,14 @@
+package com.minidocto.waitlist.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class WaitlistResponse {
+    private boolean success;
+    private String message;
+    private List<WaitlistEntryDTO> entries;
+}
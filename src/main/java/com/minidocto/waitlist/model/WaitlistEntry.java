@@ -0,0 +1,46 @@
+package com.minidocto.waitlist.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A patient waiting for a slot of a doctor, on a given day or on any day (day null).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "waitlist")
+@CompoundIndexes({
+    // Queue heads: oldest waiting entry of a doctor, for a day or for any day
+    @CompoundIndex(name = "doctorId_status_day_createdAt", def = "{'doctorId': 1, 'status': 1, 'day': 1, 'createdAt': 1}"),
+    // A patient's entries
+    @CompoundIndex(name = "patientId_status", def = "{'patientId': 1, 'status': 1}"),
+    // Lapsed offers: only entries with an offer are indexed
+    @CompoundIndex(name = "status_offerExpiresAt", def = "{'status': 1, 'offerExpiresAt': 1}",
+            partialFilter = "{'status': 'OFFERED'}")
+})
+public class WaitlistEntry {
+    @Id
+    private String id;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId doctorId;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId patientId;
+    private String day; // yyyy-MM-dd, or null for the first slot on any day
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    private String offeredSlotId; // Set while OFFERED
+    private Instant offerExpiresAt; // Set while OFFERED: also the expiry of the hold on the slot
+    private LocalDateTime createdAt; // Queue order; kept when an offer falls through, so the patient keeps their place
+    private LocalDateTime updatedAt;
+}
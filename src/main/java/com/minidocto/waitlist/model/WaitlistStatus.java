@@ -0,0 +1,10 @@
+package com.minidocto.waitlist.model;
+
+public enum WaitlistStatus {
+    WAITING, // In the doctor's queue
+    OFFERED, // A freed slot is held for the patient until offerExpiresAt
+    FULFILLED, // The patient confirmed the offered slot
+    DECLINED, // The patient released the offered slot
+    EXPIRED, // The offer lapsed; the slot went to the next patient
+    LEFT // The patient left the queue
+}
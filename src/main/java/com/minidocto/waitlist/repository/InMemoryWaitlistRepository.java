@@ -0,0 +1,169 @@
+package com.minidocto.waitlist.repository;
+
+import com.minidocto.shared.inmemory.InMemoryRepository;
+import com.minidocto.shared.inmemory.SortedIndex;
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link WaitlistRepository} for the "inmemory" profile. WAITING entries are indexed per
+ * (doctor, day) queue in creation order, so a queue head is the first key of a skip-list; offers are
+ * indexed by expiry, like the partial index in MongoDB.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryWaitlistRepository extends InMemoryRepository<WaitlistEntry> implements WaitlistRepository {
+    private final SortedIndex<Queue, LocalDateTime> queues = new SortedIndex<>();
+    private final SortedIndex<ObjectId, LocalDateTime> byPatient = new SortedIndex<>();
+    private final SortedIndex<WaitlistStatus, Instant> offers = new SortedIndex<>();
+
+    @Override
+    public List<WaitlistEntry> findByPatientIdAndStatusIn(ObjectId patientId, Collection<WaitlistStatus> statuses) {
+        return resolve(byPatient.ids(patientId))
+                .filter(entry -> statuses.contains(entry.getStatus()))
+                .toList();
+    }
+
+    @Override
+    public synchronized Optional<WaitlistEntry> offerHead(ObjectId doctorId, String day, ObjectId excludedPatientId,
+                                                          String slotId, Instant expiresAt) {
+        Optional<WaitlistEntry> head = Stream.of(new Queue(doctorId, null), new Queue(doctorId, day))
+                .distinct()
+                .flatMap(queue -> resolve(queues.ids(queue))
+                        .filter(entry -> !Objects.equals(excludedPatientId, entry.getPatientId()))
+                        .limit(1))
+                .min(Comparator.comparing(WaitlistEntry::getCreatedAt).thenComparing(WaitlistEntry::getId));
+        return head.flatMap(entry -> update(entry.getId(), waiting -> waiting.getStatus() == WaitlistStatus.WAITING,
+                offered -> {
+                    offered.setStatus(WaitlistStatus.OFFERED);
+                    offered.setOfferedSlotId(slotId);
+                    offered.setOfferExpiresAt(expiresAt);
+                    offered.setUpdatedAt(LocalDateTime.now());
+                }));
+    }
+
+    @Override
+    public boolean requeue(String entryId) {
+        return update(entryId, entry -> entry.getStatus() == WaitlistStatus.OFFERED, entry -> {
+            entry.setStatus(WaitlistStatus.WAITING);
+            entry.setOfferedSlotId(null);
+            entry.setOfferExpiresAt(null);
+            entry.setUpdatedAt(LocalDateTime.now());
+        }).isPresent();
+    }
+
+    @Override
+    public synchronized boolean resolveOffer(ObjectId patientId, String slotId, WaitlistStatus outcome) {
+        return resolve(byPatient.ids(patientId))
+                .filter(entry -> entry.getStatus() == WaitlistStatus.OFFERED && slotId.equals(entry.getOfferedSlotId()))
+                .findFirst()
+                .flatMap(entry -> update(entry.getId(), offered -> offered.getStatus() == WaitlistStatus.OFFERED,
+                        offered -> settle(offered, outcome)))
+                .isPresent();
+    }
+
+    @Override
+    public boolean expireOffer(String entryId, Instant now) {
+        return update(entryId,
+                entry -> entry.getStatus() == WaitlistStatus.OFFERED && !entry.getOfferExpiresAt().isAfter(now),
+                entry -> settle(entry, WaitlistStatus.EXPIRED)).isPresent();
+    }
+
+    @Override
+    public List<WaitlistEntry> findLapsedOffers(Instant now, int limit) {
+        return resolve(offers.ids(WaitlistStatus.OFFERED, null, false, now, true))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized Optional<WaitlistEntry> leave(String entryId, ObjectId patientId) {
+        Optional<WaitlistEntry> before = findById(entryId)
+                .filter(entry -> patientId.equals(entry.getPatientId()))
+                .filter(entry -> entry.getStatus() == WaitlistStatus.WAITING || entry.getStatus() == WaitlistStatus.OFFERED);
+        before.ifPresent(entry -> update(entryId, left -> true, left -> {
+            left.setStatus(WaitlistStatus.LEFT);
+            left.setUpdatedAt(LocalDateTime.now());
+        }));
+        return before;
+    }
+
+    private static void settle(WaitlistEntry entry, WaitlistStatus outcome) {
+        entry.setStatus(outcome);
+        entry.setOfferExpiresAt(null);
+        entry.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Conditional update of one entry, atomic like a filtered findAndModify: writes are serialized on this repository.
+     */
+    private synchronized Optional<WaitlistEntry> update(String entryId, Predicate<WaitlistEntry> condition,
+                                                        Consumer<WaitlistEntry> change) {
+        Optional<WaitlistEntry> entry = findById(entryId).filter(condition);
+        entry.ifPresent(found -> {
+            change.accept(found);
+            save(found);
+        });
+        return entry;
+    }
+
+    @Override
+    protected String idOf(WaitlistEntry entry) {
+        return entry.getId();
+    }
+
+    @Override
+    protected void assignId(WaitlistEntry entry, String id) {
+        entry.setId(id);
+    }
+
+    @Override
+    protected WaitlistEntry copy(WaitlistEntry entry) {
+        return WaitlistEntry.builder()
+                .id(entry.getId())
+                .doctorId(entry.getDoctorId())
+                .patientId(entry.getPatientId())
+                .day(entry.getDay())
+                .status(entry.getStatus())
+                .offeredSlotId(entry.getOfferedSlotId())
+                .offerExpiresAt(entry.getOfferExpiresAt())
+                .createdAt(entry.getCreatedAt())
+                .updatedAt(entry.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    protected void index(WaitlistEntry entry) {
+        if (entry.getStatus() == WaitlistStatus.WAITING) {
+            queues.add(new Queue(entry.getDoctorId(), entry.getDay()), entry.getCreatedAt(), entry.getId());
+        }
+        byPatient.add(entry.getPatientId(), entry.getCreatedAt(), entry.getId());
+        if (entry.getStatus() == WaitlistStatus.OFFERED) {
+            offers.add(WaitlistStatus.OFFERED, entry.getOfferExpiresAt(), entry.getId());
+        }
+    }
+
+    @Override
+    protected void unindex(WaitlistEntry entry) {
+        queues.remove(new Queue(entry.getDoctorId(), entry.getDay()), entry.getCreatedAt(), entry.getId());
+        byPatient.remove(entry.getPatientId(), entry.getCreatedAt(), entry.getId());
+        offers.remove(WaitlistStatus.OFFERED, entry.getOfferExpiresAt(), entry.getId());
+    }
+
+    private record Queue(ObjectId doctorId, String day) {
+    }
+}
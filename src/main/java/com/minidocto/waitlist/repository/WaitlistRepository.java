@@ -0,0 +1,14 @@
+package com.minidocto.waitlist.repository;
+
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WaitlistRepository extends MongoRepository<WaitlistEntry, String>, WaitlistRepositoryCustom {
+    // A patient's entries in the given statuses (served by the {patientId, status} index)
+    List<WaitlistEntry> findByPatientIdAndStatusIn(ObjectId patientId, Collection<WaitlistStatus> statuses);
+}
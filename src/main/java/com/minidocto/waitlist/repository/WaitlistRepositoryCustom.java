@@ -0,0 +1,54 @@
+package com.minidocto.waitlist.repository;
+
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Atomic queue operations on waitlist entries. Each is a single conditional update, so concurrent
+ * nodes never hand the same entry or the same offer twice.
+ */
+public interface WaitlistRepositoryCustom {
+
+    /**
+     * Pop the head of a doctor's queue for a slot on the given day: the oldest WAITING entry for that
+     * day or for any day, which becomes OFFERED with the slot until expiresAt.
+     *
+     * @param excludedPatientId patient who must not be offered the slot (e.g. the one who freed it), or null
+     */
+    Optional<WaitlistEntry> offerHead(ObjectId doctorId, String day, ObjectId excludedPatientId, String slotId,
+                                      Instant expiresAt);
+
+    /**
+     * Put an OFFERED entry back in the queue, at its original place.
+     */
+    boolean requeue(String entryId);
+
+    /**
+     * Settle the patient's offer of a slot (FULFILLED or DECLINED).
+     */
+    boolean resolveOffer(ObjectId patientId, String slotId, WaitlistStatus outcome);
+
+    /**
+     * Mark an offer that lapsed before now as EXPIRED.
+     *
+     * @return false if the offer was settled meanwhile
+     */
+    boolean expireOffer(String entryId, Instant now);
+
+    /**
+     * Offers that lapsed before now, oldest first. Served by the partial {status, offerExpiresAt} index.
+     */
+    List<WaitlistEntry> findLapsedOffers(Instant now, int limit);
+
+    /**
+     * Take the patient's WAITING or OFFERED entry out of the queue (LEFT).
+     *
+     * @return the entry as it was before leaving, or empty if it is not the patient's or no longer active
+     */
+    Optional<WaitlistEntry> leave(String entryId, ObjectId patientId);
+}
@@ -0,0 +1,90 @@
+package com.minidocto.waitlist.repository;
+
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class WaitlistRepositoryCustomImpl implements WaitlistRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<WaitlistEntry> offerHead(ObjectId doctorId, String day, ObjectId excludedPatientId, String slotId,
+                                             Instant expiresAt) {
+        // Two index ranges of {doctorId, status, day, createdAt} (this day and any day), merged in queue order
+        Criteria criteria = Criteria.where("doctorId").is(doctorId)
+                .and("status").is(WaitlistStatus.WAITING.name())
+                .and("day").in(Arrays.asList(null, day));
+        if (excludedPatientId != null) {
+            criteria.and("patientId").ne(excludedPatientId);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
+        Update update = Update.update("status", WaitlistStatus.OFFERED.name())
+                .set("offeredSlotId", slotId)
+                .set("offerExpiresAt", expiresAt)
+                .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), WaitlistEntry.class));
+    }
+
+    @Override
+    public boolean requeue(String entryId) {
+        Query query = Query.query(Criteria.where("_id").is(entryId).and("status").is(WaitlistStatus.OFFERED.name()));
+        Update update = Update.update("status", WaitlistStatus.WAITING.name())
+                .unset("offeredSlotId")
+                .unset("offerExpiresAt")
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, WaitlistEntry.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean resolveOffer(ObjectId patientId, String slotId, WaitlistStatus outcome) {
+        Query query = Query.query(Criteria.where("patientId").is(patientId)
+                .and("status").is(WaitlistStatus.OFFERED.name())
+                .and("offeredSlotId").is(slotId));
+        return mongoTemplate.updateFirst(query, settle(outcome), WaitlistEntry.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean expireOffer(String entryId, Instant now) {
+        Query query = Query.query(Criteria.where("_id").is(entryId)
+                .and("status").is(WaitlistStatus.OFFERED.name())
+                .and("offerExpiresAt").lte(now));
+        return mongoTemplate.updateFirst(query, settle(WaitlistStatus.EXPIRED), WaitlistEntry.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<WaitlistEntry> findLapsedOffers(Instant now, int limit) {
+        Query query = Query.query(Criteria.where("status").is(WaitlistStatus.OFFERED.name()).and("offerExpiresAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "offerExpiresAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, WaitlistEntry.class);
+    }
+
+    @Override
+    public Optional<WaitlistEntry> leave(String entryId, ObjectId patientId) {
+        Query query = Query.query(Criteria.where("_id").is(entryId)
+                .and("patientId").is(patientId)
+                .and("status").in(WaitlistStatus.WAITING.name(), WaitlistStatus.OFFERED.name()));
+        Update update = Update.update("status", WaitlistStatus.LEFT.name()).set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, WaitlistEntry.class));
+    }
+
+    // The offered slot ID stays on settled entries, for the record
+    private static Update settle(WaitlistStatus outcome) {
+        return Update.update("status", outcome.name()).unset("offerExpiresAt").set("updatedAt", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,275 @@
+package com.minidocto.waitlist.service;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.availability.repository.AvailabilitySlotRepository;
+import com.minidocto.shared.config.WaitlistProperties;
+import com.minidocto.shared.outbox.OutboxPublisher;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.UserCard;
+import com.minidocto.user.service.UserCardCache;
+import com.minidocto.waitlist.dto.WaitlistEntryDTO;
+import com.minidocto.waitlist.dto.WaitlistResponse;
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import com.minidocto.waitlist.repository.WaitlistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * FIFO waitlists per doctor, for a given day or any day. A freed slot is not reopened to whoever polls
+ * first: it is handed to the head of the queue as a hold ({@link SlotStatus#PENDING}) for the offer
+ * duration, which the patient confirms like any hold. An offer that is declined or lapses passes the
+ * slot on to the next patient; when nobody is waiting the slot is simply open. Each offer is pushed to
+ * the patient as a {@code waitlist.offered} outbox event.
+ */
+@Service
+public class WaitlistService {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+    private static final List<WaitlistStatus> ACTIVE = List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+
+    private final WaitlistRepository waitlistRepository;
+    private final AvailabilitySlotRepository slotRepository;
+    private final UserCardCache userCardCache;
+    private final WaitlistProperties properties;
+    private final OutboxPublisher outboxPublisher;
+    private final Map<WaitlistStatus, Counter> transitions = new EnumMap<>(WaitlistStatus.class);
+
+    public WaitlistService(WaitlistRepository waitlistRepository, AvailabilitySlotRepository slotRepository,
+                           UserCardCache userCardCache, WaitlistProperties properties,
+                           OutboxPublisher outboxPublisher, MeterRegistry registry) {
+        this.waitlistRepository = waitlistRepository;
+        this.slotRepository = slotRepository;
+        this.userCardCache = userCardCache;
+        this.properties = properties;
+        this.outboxPublisher = outboxPublisher;
+        for (WaitlistStatus status : WaitlistStatus.values()) {
+            transitions.put(status, Counter.builder("minidocto.waitlist.transitions")
+                    .description("Waitlist entries entering each status")
+                    .tag("status", status.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public WaitlistResponse join(ObjectId patientId, String doctorIdStr, String day) {
+        if (!ObjectId.isValid(doctorIdStr)) {
+            return failure("Invalid doctor ID format");
+        }
+        if (day != null) {
+            try {
+                if (LocalDate.parse(day).isBefore(LocalDate.now(ZoneOffset.UTC))) {
+                    return failure("Day must be today or later");
+                }
+            } catch (DateTimeParseException e) {
+                return failure("Invalid day format, expected yyyy-MM-dd");
+            }
+        }
+        Optional<UserCard> doctor = userCardCache.get(doctorIdStr);
+        if (doctor.isEmpty() || doctor.get().role() != Role.PRO) {
+            return failure("Doctor not found");
+        }
+
+        ObjectId doctorId = new ObjectId(doctorIdStr);
+        List<WaitlistEntry> active = waitlistRepository.findByPatientIdAndStatusIn(patientId, ACTIVE);
+        Optional<WaitlistEntry> existing = active.stream()
+                .filter(entry -> doctorId.equals(entry.getDoctorId()) && Objects.equals(day, entry.getDay()))
+                .findFirst();
+        if (existing.isPresent()) {
+            return success("Already on this waitlist", List.of(existing.get()));
+        }
+        if (active.size() >= properties.getMaxEntriesPerPatient()) {
+            return failure("You are already on " + active.size() + " waitlists");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        WaitlistEntry entry = waitlistRepository.save(WaitlistEntry.builder()
+                .doctorId(doctorId)
+                .patientId(patientId)
+                .day(day)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        transitions.get(WaitlistStatus.WAITING).increment();
+        logger.info("Patient {} joined the waitlist of doctor {} (day {})", patientId, doctorId, day);
+        return success("Joined the waitlist", List.of(entry));
+    }
+
+    public WaitlistResponse leave(ObjectId patientId, String entryId) {
+        if (!ObjectId.isValid(entryId)) {
+            return failure("Waitlist entry not found");
+        }
+        Optional<WaitlistEntry> left = waitlistRepository.leave(entryId, patientId);
+        if (left.isEmpty()) {
+            return failure("Waitlist entry not found or no longer active");
+        }
+        transitions.get(WaitlistStatus.LEFT).increment();
+        WaitlistEntry entry = left.get();
+        if (entry.getStatus() == WaitlistStatus.OFFERED
+                && slotRepository.releaseHold(entry.getOfferedSlotId(), patientId)) {
+            slotRepository.findById(entry.getOfferedSlotId()).ifPresent(slot -> offer(slot, patientId));
+        }
+        return success("Left the waitlist", List.of());
+    }
+
+    public WaitlistResponse getPatientEntries(ObjectId patientId) {
+        return success("Waitlist entries retrieved", waitlistRepository.findByPatientIdAndStatusIn(patientId, ACTIVE));
+    }
+
+    /**
+     * Pop the head of the slot's queue for a slot that is being freed, without touching the slot: the
+     * caller writes it as held by the returned patient until the entry's offerExpiresAt, in the same
+     * write that frees it, then calls {@link #announceOffer}.
+     *
+     * @param excludedPatientId patient freeing the slot
+     */
+    public Optional<WaitlistEntry> claimHead(AvailabilitySlot slot, ObjectId excludedPatientId) {
+        if (slot.getStartTime().compareTo(SlotTimes.now()) <= 0) {
+            return Optional.empty();
+        }
+        return waitlistRepository.offerHead(slot.getDoctorId(), day(slot), excludedPatientId,
+                slot.getId(), Instant.now().plus(properties.getOfferDuration()));
+    }
+
+    /**
+     * Tell the patient about an offer once the slot is written as held for them, so a failed slot write
+     * never leaves them with a notification for a slot they cannot confirm.
+     */
+    public void announceOffer(AvailabilitySlot slot, WaitlistEntry entry) {
+        transitions.get(WaitlistStatus.OFFERED).increment();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("patientId", entry.getPatientId().toHexString());
+        payload.put("doctorId", entry.getDoctorId().toHexString());
+        payload.put("slotId", slot.getId());
+        payload.put("startTime", slot.getStartTime());
+        payload.put("endTime", slot.getEndTime());
+        payload.put("offerExpiresAt", entry.getOfferExpiresAt().toString());
+        outboxPublisher.publish("waitlist.offered", entry.getId(), payload);
+        logger.info("Slot {} offered to waitlisted patient {} until {}", slot.getId(), entry.getPatientId(),
+                entry.getOfferExpiresAt());
+    }
+
+    /**
+     * Offer an open slot, or one whose hold lapsed, to the head of its queue.
+     *
+     * @return true if the slot is now held for a waitlisted patient
+     */
+    public boolean offer(AvailabilitySlot slot, ObjectId excludedPatientId) {
+        Optional<WaitlistEntry> head = claimHead(slot, excludedPatientId);
+        if (head.isEmpty()) {
+            return false;
+        }
+        WaitlistEntry entry = head.get();
+        Instant now = Instant.now();
+        if (slotRepository.holdSlot(slot.getId(), slot.getDoctorId(), entry.getPatientId(),
+                SlotTimes.now(), now, entry.getOfferExpiresAt()).isPresent()) {
+            announceOffer(slot, entry);
+            return true;
+        }
+        // Someone else took the slot first; the patient keeps their place
+        waitlistRepository.requeue(entry.getId());
+        return false;
+    }
+
+    /**
+     * The patient booked a slot they held: settle their offer for it, if it came from the waitlist.
+     */
+    public void slotConfirmed(ObjectId patientId, String slotId) {
+        if (waitlistRepository.resolveOffer(patientId, slotId, WaitlistStatus.FULFILLED)) {
+            transitions.get(WaitlistStatus.FULFILLED).increment();
+        }
+    }
+
+    /**
+     * The patient released a slot they held: if it was a waitlist offer, pass the slot on.
+     */
+    public void holdReleased(ObjectId patientId, String slotId) {
+        if (waitlistRepository.resolveOffer(patientId, slotId, WaitlistStatus.DECLINED)) {
+            transitions.get(WaitlistStatus.DECLINED).increment();
+            slotRepository.findById(slotId).ifPresent(slot -> offer(slot, patientId));
+        }
+    }
+
+    /**
+     * Expire the offers that lapsed and pass their slots on to the next patient of each queue, before
+     * the slots are reopened. Each offer is expired with a conditional update, so concurrent sweeps on
+     * several nodes pass a slot on once.
+     *
+     * @return the number of offers expired
+     */
+    public int passOnLapsedOffers() {
+        Instant now = Instant.now();
+        int expired = 0;
+        for (WaitlistEntry entry : waitlistRepository.findLapsedOffers(now, properties.getSweepBatchSize())) {
+            if (!waitlistRepository.expireOffer(entry.getId(), now)) {
+                continue;
+            }
+            expired++;
+            transitions.get(WaitlistStatus.EXPIRED).increment();
+            slotRepository.findById(entry.getOfferedSlotId())
+                    // Still held for the patient, or already reopened by a hold sweep
+                    .filter(slot -> slot.getStatus() == SlotStatus.AVAILABLE
+                            || (slot.getStatus() == SlotStatus.PENDING && entry.getPatientId().equals(slot.getBookedBy())))
+                    .ifPresent(slot -> offer(slot, entry.getPatientId()));
+        }
+        return expired;
+    }
+
+    private static String day(AvailabilitySlot slot) {
+        return slot.getStartTime().substring(0, 10);
+    }
+
+    private WaitlistResponse success(String message, List<WaitlistEntry> entries) {
+        Map<String, AvailabilitySlot> offeredSlots = slotRepository.findAllById(entries.stream()
+                        .map(WaitlistEntry::getOfferedSlotId)
+                        .filter(Objects::nonNull)
+                        .toList()).stream()
+                .collect(Collectors.toMap(AvailabilitySlot::getId, Function.identity()));
+        return WaitlistResponse.builder()
+                .success(true)
+                .message(message)
+                .entries(entries.stream().map(entry -> toDTO(entry, offeredSlots.get(entry.getOfferedSlotId()))).toList())
+                .build();
+    }
+
+    private static WaitlistResponse failure(String message) {
+        return WaitlistResponse.builder()
+                .success(false)
+                .message(message)
+                .entries(List.of())
+                .build();
+    }
+
+    private static WaitlistEntryDTO toDTO(WaitlistEntry entry, AvailabilitySlot offeredSlot) {
+        boolean offered = entry.getStatus() == WaitlistStatus.OFFERED;
+        return WaitlistEntryDTO.builder()
+                .id(entry.getId())
+                .doctorId(entry.getDoctorId().toHexString())
+                .day(entry.getDay())
+                .status(entry.getStatus())
+                .createdAt(entry.getCreatedAt())
+                .offeredSlotId(offered ? entry.getOfferedSlotId() : null)
+                .offeredStartTime(offered && offeredSlot != null ? offeredSlot.getStartTime() : null)
+                .offeredEndTime(offered && offeredSlot != null ? offeredSlot.getEndTime() : null)
+                .offerExpiresAt(offered ? entry.getOfferExpiresAt() : null)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.minidocto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Signup, availability, idempotent booking and export end to end on the in-memory repositories, without MongoDB.
+ */
+@SpringBootTest(properties = "jwt.secret=inMemoryProfileTestsSecretKeyThatIsLongEnoughForHs256")
+@ActiveProfiles("inmemory")
+@AutoConfigureMockMvc
+class InMemoryProfileTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void patientBooksADoctorSlot() throws Exception {
+		signup("Dr Claire Moreau", "claire@minidocto.test", "PRO");
+		signup("Jean Dupont", "jean@minidocto.test", "USER");
+
+		String day = LocalDate.now(ZoneOffset.UTC).plusDays(1).toString();
+		String doctorToken = login("/auth/doctor/login", "claire@minidocto.test");
+		JsonNode slots = send("/availability/update", doctorToken, "{\"addedSlots\":[{\"startTime\":\"" + day
+				+ "T09:00:00Z\",\"endTime\":\"" + day + "T09:30:00Z\"}],\"removedSlots\":[]}");
+		JsonNode slot = slots.get("slots").get(0);
+
+		String patientToken = login("/auth/patient/login", "jean@minidocto.test");
+		String bookingRequest = "{\"doctorId\":\"" + slot.get("doctorId").asText()
+				+ "\",\"slotId\":\"" + slot.get("id").asText() + "\"}";
+		MvcResult booking = book(patientToken, "booking-1", bookingRequest);
+		assertTrue(objectMapper.readTree(booking.getResponse().getContentAsString()).get("success").asBoolean());
+
+		// A retry with the same key replays the response instead of rebooking
+		MvcResult retry = book(patientToken, "booking-1", bookingRequest);
+		assertEquals("true", retry.getResponse().getHeader("Idempotent-Replayed"));
+		assertEquals(booking.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+		assertEquals(422, book(patientToken, "booking-1", bookingRequest.replace("{", "{ ")).getResponse().getStatus());
+
+		String appointments = mockMvc.perform(get("/appointments/me").header("Authorization", "Bearer " + patientToken))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertEquals(1, objectMapper.readTree(appointments).get("totalCount").asInt());
+
+		MvcResult export = mockMvc.perform(get("/appointments/doctor/me/export").param("format", "csv")
+						.header("Authorization", "Bearer " + doctorToken))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String csv = mockMvc.perform(asyncDispatch(export))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = csv.split("\r\n");
+		assertEquals(2, lines.length, csv);
+		assertTrue(lines[1].contains("Jean Dupont") && lines[1].contains(day + "T09:00:00Z"), lines[1]);
+	}
+
+	private MvcResult book(String token, String idempotencyKey, String json) throws Exception {
+		return mockMvc.perform(post("/appointments/book")
+						.header("Authorization", "Bearer " + token)
+						.header("Idempotency-Key", idempotencyKey)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json))
+				.andReturn();
+	}
+
+	private void signup(String name, String email, String role) throws Exception {
+		mockMvc.perform(post("/auth/signup").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"" + name + "\",\"email\":\"" + email
+								+ "\",\"password\":\"password123\",\"role\":\"" + role + "\",\"specialty\":\"Cardiology\"}"))
+				.andExpect(status().isOk());
+	}
+
+	private String login(String path, String email) throws Exception {
+		String body = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"" + email + "\",\"password\":\"password123\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("token").asText();
+	}
+
+	private JsonNode send(String path, String token, String json) throws Exception {
+		String body = mockMvc.perform(post(path)
+						.header("Authorization", "Bearer " + token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
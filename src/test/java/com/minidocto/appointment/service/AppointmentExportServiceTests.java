@@ -0,0 +1,152 @@
+package com.minidocto.appointment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.model.AppointmentStatus;
+import com.minidocto.appointment.repository.InMemoryAppointmentRepository;
+import com.minidocto.archive.repository.ArchiveRepository;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import com.minidocto.user.service.UserCardCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentExportServiceTests {
+
+	private final InMemoryUserRepository userRepository = spy(new InMemoryUserRepository());
+	private final InMemoryAvailabilitySlotRepository slotRepository = spy(new InMemoryAvailabilitySlotRepository(userRepository));
+	private final InMemoryAppointmentRepository appointmentRepository = new InMemoryAppointmentRepository();
+	private final ArchiveRepository archiveRepository = mock(ArchiveRepository.class);
+	private final UserCardCache userCardCache = new UserCardCache(userRepository, new UserCacheProperties(),
+			new LocalInvalidationBus(), new SimpleMeterRegistry());
+	private final AppointmentExportService exportService = new AppointmentExportService(appointmentRepository,
+			slotRepository, userCardCache, archiveRepository,
+			new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+	@BeforeEach
+	void setUp() {
+		when(archiveRepository.streamDoctorAppointments(any())).thenReturn(Stream.empty());
+		when(archiveRepository.findSlotsById(anyCollection())).thenReturn(List.of());
+	}
+
+	@Test
+	void enrichesWithOneBulkLookupPerBatch() throws Exception {
+		ObjectId doctorId = new ObjectId();
+		userRepository.save(User.builder().id(doctorId.toHexString()).name("Dr Claire Moreau").role(Role.PRO).build());
+		int appointments = AppointmentExportService.BATCH_SIZE * 2 + 1;
+		for (int i = 0; i < appointments; i++) {
+			ObjectId patientId = new ObjectId();
+			userRepository.save(User.builder().id(patientId.toHexString()).name("Patient " + i)
+					.email("patient" + i + "@minidocto.test").role(Role.USER).build());
+			AvailabilitySlot slot = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+					.startTime("2030-01-01T09:00:00Z").endTime("2030-01-01T09:30:00Z").bookedBy(patientId).build());
+			appointmentRepository.save(Appointment.builder().doctorId(doctorId).patientId(patientId)
+					.slotId(new ObjectId(slot.getId())).createdAt(LocalDateTime.of(2030, 1, 1, 0, 0).plusMinutes(i)).build());
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long count = exportService.exportDoctorAppointments(doctorId, AppointmentExportService.Format.NDJSON, out);
+
+		List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+		assertEquals(appointments, count);
+		assertEquals(appointments, lines.size());
+		assertTrue(lines.get(0).contains("\"patientName\":\"Patient 0\""), lines.get(0));
+		assertTrue(lines.get(appointments - 1).contains("\"patientName\":\"Patient " + (appointments - 1) + "\""));
+		verify(slotRepository, times(3)).findAllById(anyIterable());
+		verify(userRepository, times(3)).findAllById(anyIterable());
+		verify(userRepository, never()).findById(anyString());
+	}
+
+	@Test
+	void archivedAppointmentsComeFirstWithTheirArchivedSlots() throws Exception {
+		ObjectId doctorId = new ObjectId();
+		ObjectId patientId = new ObjectId();
+		AvailabilitySlot archivedSlot = AvailabilitySlot.builder().id(new ObjectId().toHexString()).doctorId(doctorId)
+				.startTime("2020-01-01T09:00:00Z").endTime("2020-01-01T09:30:00Z").build();
+		Appointment archived = Appointment.builder().id(new ObjectId().toHexString()).doctorId(doctorId)
+				.patientId(patientId).slotId(new ObjectId(archivedSlot.getId())).status(AppointmentStatus.COMPLETED)
+				.createdAt(LocalDateTime.of(2019, 12, 1, 0, 0)).build();
+		when(archiveRepository.streamDoctorAppointments(doctorId)).thenReturn(Stream.of(archived));
+		when(archiveRepository.findSlotsById(List.of(archivedSlot.getId()))).thenReturn(List.of(archivedSlot));
+		AvailabilitySlot slot = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+				.startTime("2030-01-01T09:00:00Z").endTime("2030-01-01T09:30:00Z").build());
+		appointmentRepository.save(Appointment.builder().doctorId(doctorId).patientId(patientId)
+				.slotId(new ObjectId(slot.getId())).createdAt(LocalDateTime.of(2029, 12, 1, 0, 0)).build());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.exportDoctorAppointments(doctorId, AppointmentExportService.Format.CSV, out);
+
+		List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(1).startsWith(archived.getId() + ",COMPLETED,2020-01-01T09:00:00Z"), lines.get(1));
+		assertTrue(lines.get(2).contains("2030-01-01T09:00:00Z"), lines.get(2));
+	}
+
+	@Test
+	void opensEachSourceOnlyOnceThePreviousOneIsDrainedAndClosed() {
+		List<String> events = new ArrayList<>();
+		Stream<String> sources = AppointmentExportService.oneAfterAnother(List.of(
+				() -> {
+					events.add("open archive");
+					return Stream.of("a1", "a2").onClose(() -> events.add("close archive"));
+				},
+				() -> {
+					events.add("open live");
+					return Stream.of("l1").onClose(() -> events.add("close live"));
+				}));
+
+		Iterator<String> cursor = sources.iterator();
+		assertEquals("a1", cursor.next());
+		assertEquals("a2", cursor.next());
+		assertEquals(List.of("open archive"), events);
+		assertEquals("l1", cursor.next());
+		assertEquals(List.of("open archive", "close archive", "open live"), events);
+		assertFalse(cursor.hasNext());
+		sources.close();
+		assertEquals(List.of("open archive", "close archive", "open live", "close live"), events);
+	}
+
+	@Test
+	void closingMidwayClosesTheOpenSourceOnly() {
+		List<String> events = new ArrayList<>();
+		Stream<String> sources = AppointmentExportService.oneAfterAnother(List.of(
+				() -> Stream.of("a1", "a2").onClose(() -> events.add("close archive")),
+				() -> {
+					events.add("open live");
+					return Stream.of("l1");
+				}));
+
+		assertEquals("a1", sources.iterator().next());
+		sources.close();
+		assertEquals(List.of("close archive"), events);
+	}
+
+	@Test
+	void csvFieldsAreQuotedAndNeutralized() {
+		assertEquals("Dupont", AppointmentExportService.csvField("Dupont"));
+		assertEquals("\"Dupont, Jean\"", AppointmentExportService.csvField("Dupont, Jean"));
+		assertEquals("\"say \"\"hi\"\"\"", AppointmentExportService.csvField("say \"hi\""));
+		assertEquals("'=HYPERLINK(1)", AppointmentExportService.csvField("=HYPERLINK(1)"));
+		assertEquals("", AppointmentExportService.csvField(null));
+	}
+}
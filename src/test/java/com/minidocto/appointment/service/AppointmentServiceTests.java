@@ -0,0 +1,311 @@
+package com.minidocto.appointment.service;
+
+import com.minidocto.appointment.dto.AppointmentResponse;
+import com.minidocto.appointment.model.Appointment;
+import com.minidocto.appointment.repository.InMemoryAppointmentRepository;
+import com.minidocto.archive.repository.InMemoryArchiveRepository;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.model.SlotTimes;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.availability.service.SlotOverlapGuard;
+import com.minidocto.shared.audit.AuditLog;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.config.HoldProperties;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.shared.config.WaitlistProperties;
+import com.minidocto.shared.outbox.InMemoryOutboxRepository;
+import com.minidocto.shared.outbox.OutboxEvent;
+import com.minidocto.shared.outbox.OutboxPublisher;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import com.minidocto.user.service.UserCardCache;
+import com.minidocto.waitlist.repository.InMemoryWaitlistRepository;
+import com.minidocto.waitlist.service.WaitlistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentServiceTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+	private final InMemoryAvailabilitySlotRepository slotRepository = spy(new InMemoryAvailabilitySlotRepository(userRepository));
+	private final InMemoryAppointmentRepository appointmentRepository = spy(new InMemoryAppointmentRepository());
+	private final InMemoryOutboxRepository outboxRepository = spy(new InMemoryOutboxRepository());
+	private final UserCardCache userCardCache = new UserCardCache(userRepository, new UserCacheProperties(),
+			new LocalInvalidationBus(), registry);
+	private final OutboxPublisher outboxPublisher = new OutboxPublisher(outboxRepository);
+	private final WaitlistService waitlistService = new WaitlistService(new InMemoryWaitlistRepository(), slotRepository,
+			userCardCache, new WaitlistProperties(), outboxPublisher, registry);
+	private final AppointmentService service = new AppointmentService(appointmentRepository, slotRepository,
+			userCardCache, new SlotOverlapGuard(slotRepository), new BookingMetrics(registry),
+			new InMemoryArchiveRepository(), new HoldProperties(), waitlistService,
+			outboxPublisher, mock(AuditLog.class), new LocalInvalidationBus());
+	private final ObjectId doctorId = new ObjectId();
+	private final ObjectId patientId = new ObjectId();
+	private AvailabilitySlot slot;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.save(User.builder().id(doctorId.toHexString()).name("Dr A").role(Role.PRO).build());
+		userRepository.save(User.builder().id(patientId.toHexString()).name("Patient").role(Role.USER).build());
+		slot = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+				.startTime("2030-01-01T09:00:00Z").endTime("2030-01-01T09:30:00Z").build());
+	}
+
+	@Test
+	void confirmingAHoldBooksTheSlot() {
+		assertTrue(service.holdSlot(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+
+		AppointmentResponse response = service.confirmHold(patientId, doctorId.toHexString(), slot.getId());
+
+		assertTrue(response.isSuccess(), response.getMessage());
+		AvailabilitySlot booked = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.BOOKED, booked.getStatus());
+		assertEquals(patientId, booked.getBookedBy());
+		assertNull(booked.getHoldExpiresAt());
+		assertEquals(1, appointmentRepository.count());
+		assertEquals("appointment.booked", outboxRepository.findAll().get(0).getType());
+	}
+
+	@Test
+	void failedConfirmationPutsTheHoldBack() {
+		assertTrue(service.holdSlot(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		AvailabilitySlot held = slotRepository.findById(slot.getId()).orElseThrow();
+		doThrow(new IllegalStateException("write failed")).when(appointmentRepository).save(any(Appointment.class));
+
+		assertThrows(IllegalStateException.class,
+				() -> service.confirmHold(patientId, doctorId.toHexString(), slot.getId()));
+
+		AvailabilitySlot restored = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.PENDING, restored.getStatus());
+		assertEquals(patientId, restored.getBookedBy());
+		assertEquals(held.getHoldExpiresAt(), restored.getHoldExpiresAt());
+
+		// The patient can retry while the hold lasts
+		doCallRealMethod().when(appointmentRepository).save(any(Appointment.class));
+		assertTrue(service.confirmHold(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+	}
+
+	@Test
+	void holdOnAStartedSlotIsNotConfirmed() {
+		AvailabilitySlot started = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+				.startTime(SlotTimes.format(LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5)))
+				.endTime(SlotTimes.format(LocalDateTime.now(ZoneOffset.UTC).plusMinutes(25)))
+				.status(SlotStatus.PENDING).bookedBy(patientId).holdExpiresAt(Instant.now().plusSeconds(600)).build());
+
+		AppointmentResponse response = service.confirmHold(patientId, doctorId.toHexString(), started.getId());
+
+		assertFalse(response.isSuccess());
+		assertEquals("This time slot has already started", response.getMessage());
+		assertEquals(SlotStatus.PENDING, slotRepository.findById(started.getId()).orElseThrow().getStatus());
+		assertEquals(0, appointmentRepository.count());
+	}
+
+	@Test
+	void failedBookingReopensTheSlot() {
+		doThrow(new IllegalStateException("write failed")).when(appointmentRepository).save(any(Appointment.class));
+
+		// Unexpected failures propagate, so the client sees a server error it may retry
+		assertThrows(IllegalStateException.class,
+				() -> service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()));
+
+		AvailabilitySlot reopened = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.AVAILABLE, reopened.getStatus());
+		assertNull(reopened.getBookedBy());
+	}
+
+	@Test
+	void failedBookingDoesNotBringBackADeletedSlot() {
+		// The doctor deletes the slot while the appointment write is failing
+		doAnswer(invocation -> {
+			slotRepository.deleteById(slot.getId());
+			throw new IllegalStateException("write failed");
+		}).when(appointmentRepository).save(any(Appointment.class));
+
+		assertThrows(IllegalStateException.class,
+				() -> service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()));
+
+		assertTrue(slotRepository.findById(slot.getId()).isEmpty());
+	}
+
+	@Test
+	void failedRebookingKeepsTheOldSlot() {
+		AvailabilitySlot other = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+				.startTime("2030-01-02T09:00:00Z").endTime("2030-01-02T09:30:00Z").build());
+		assertTrue(service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		doThrow(new IllegalStateException("write failed")).when(appointmentRepository).save(any(Appointment.class));
+
+		assertThrows(IllegalStateException.class,
+				() -> service.bookAppointment(patientId, doctorId.toHexString(), other.getId()));
+
+		AvailabilitySlot kept = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.BOOKED, kept.getStatus());
+		assertEquals(patientId, kept.getBookedBy());
+		assertEquals(SlotStatus.AVAILABLE, slotRepository.findById(other.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void bookingWithoutTransactionsSucceedsWhenTheOutboxFails() {
+		doThrow(new IllegalStateException("outbox unavailable")).when(outboxRepository).insert(any(OutboxEvent.class));
+
+		// Slot and appointment are already written: reporting a failure would leave the patient booked unknowingly
+		AppointmentResponse response = service.bookAppointment(patientId, doctorId.toHexString(), slot.getId());
+
+		assertTrue(response.isSuccess(), response.getMessage());
+		assertEquals(SlotStatus.BOOKED, slotRepository.findById(slot.getId()).orElseThrow().getStatus());
+		assertEquals(1, appointmentRepository.count());
+	}
+
+	@Test
+	void concurrentBookingOfTheSameSlotLosesTheClaim() {
+		ObjectId otherPatientId = new ObjectId();
+		AvailabilitySlot readBeforeTheOtherBooking = slotRepository.findById(slot.getId()).orElseThrow();
+		assertTrue(service.bookAppointment(otherPatientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		// The patient read the slot while it was still open; the claim itself sees the current state
+		doReturn(Optional.of(readBeforeTheOtherBooking)).doCallRealMethod().when(slotRepository).findById(slot.getId());
+
+		AppointmentResponse response = service.bookAppointment(patientId, doctorId.toHexString(), slot.getId());
+
+		assertFalse(response.isSuccess());
+		assertEquals("This time slot is no longer available", response.getMessage());
+		assertEquals(otherPatientId, slotRepository.findAll().get(0).getBookedBy());
+		assertEquals(1, appointmentRepository.count());
+	}
+
+	@Test
+	void overlappingBookingWrittenElsewhereRejectsTheBooking() {
+		// Booked through another node: only the database knows about it
+		slotRepository.save(AvailabilitySlot.builder().doctorId(new ObjectId()).startTime("2030-01-01T09:15:00Z")
+				.endTime("2030-01-01T09:45:00Z").status(SlotStatus.BOOKED).bookedBy(patientId).build());
+
+		AppointmentResponse response = service.bookAppointment(patientId, doctorId.toHexString(), slot.getId());
+
+		assertFalse(response.isSuccess());
+		assertEquals("You already have another appointment at this time", response.getMessage());
+		assertEquals(SlotStatus.AVAILABLE, slotRepository.findById(slot.getId()).orElseThrow().getStatus());
+		assertEquals(0, appointmentRepository.count());
+	}
+
+	@Test
+	void cancellationHandsTheSlotToTheWaitlist() {
+		ObjectId waitingPatientId = new ObjectId();
+		assertTrue(service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		assertTrue(waitlistService.join(waitingPatientId, doctorId.toHexString(), null).isSuccess());
+		String appointmentId = appointmentRepository.findAll().get(0).getId();
+
+		assertTrue(service.cancelAppointment(appointmentId, patientId).isSuccess());
+
+		assertEquals(waitingPatientId, slotRepository.findById(slot.getId()).orElseThrow().getBookedBy());
+		assertTrue(outboxRepository.findAll().stream().anyMatch(event -> event.getType().equals("waitlist.offered")));
+	}
+
+	@Test
+	void holdingAnotherSlotPassesAWaitlistOfferOn() {
+		ObjectId offeredPatientId = new ObjectId();
+		ObjectId nextPatientId = new ObjectId();
+		AvailabilitySlot other = slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId)
+				.startTime("2030-01-02T09:00:00Z").endTime("2030-01-02T09:30:00Z").build());
+		assertTrue(service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		assertTrue(waitlistService.join(offeredPatientId, doctorId.toHexString(), null).isSuccess());
+		assertTrue(waitlistService.join(nextPatientId, doctorId.toHexString(), null).isSuccess());
+		assertTrue(service.cancelAppointment(appointmentRepository.findAll().get(0).getId(), patientId).isSuccess());
+		assertEquals(offeredPatientId, slotRepository.findById(slot.getId()).orElseThrow().getBookedBy());
+
+		assertTrue(service.holdSlot(offeredPatientId, doctorId.toHexString(), other.getId()).isSuccess());
+
+		// The offered slot goes to the next patient in the queue, not back to the open listings
+		AvailabilitySlot passedOn = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.PENDING, passedOn.getStatus());
+		assertEquals(nextPatientId, passedOn.getBookedBy());
+	}
+
+	@Test
+	void noWaitlistOfferIsAnnouncedWhenTheSlotWriteFails() {
+		assertTrue(service.bookAppointment(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		assertTrue(waitlistService.join(new ObjectId(), doctorId.toHexString(), null).isSuccess());
+		String appointmentId = appointmentRepository.findAll().get(0).getId();
+		doThrow(new IllegalStateException("write failed")).when(slotRepository).save(any(AvailabilitySlot.class));
+
+		assertFalse(service.cancelAppointment(appointmentId, patientId).isSuccess());
+
+		assertTrue(outboxRepository.findAll().stream().noneMatch(event -> event.getType().equals("waitlist.offered")));
+	}
+
+	@Test
+	void failedOutboxInsertRollsTheBookingBack() {
+		RecordingTransactionManager transactions = new RecordingTransactionManager();
+		AppointmentService transactional = transactional(transactions);
+		doThrow(new IllegalStateException("outbox unavailable")).when(outboxRepository).insert(any(OutboxEvent.class));
+
+		assertThrows(IllegalStateException.class,
+				() -> transactional.bookAppointment(patientId, doctorId.toHexString(), slot.getId()));
+
+		assertEquals(List.of("rollback"), transactions.outcomes);
+	}
+
+	@Test
+	void failedOutboxInsertRollsTheCancellationBack() {
+		RecordingTransactionManager transactions = new RecordingTransactionManager();
+		AppointmentService transactional = transactional(transactions);
+		assertTrue(transactional.bookAppointment(patientId, doctorId.toHexString(), slot.getId()).isSuccess());
+		String appointmentId = appointmentRepository.findAll().get(0).getId();
+		doThrow(new IllegalStateException("outbox unavailable")).when(outboxRepository).insert(any(OutboxEvent.class));
+
+		assertFalse(transactional.cancelAppointment(appointmentId, patientId).isSuccess());
+
+		assertEquals(List.of("commit", "rollback"), transactions.outcomes);
+	}
+
+	private AppointmentService transactional(RecordingTransactionManager transactions) {
+		ProxyFactory proxyFactory = new ProxyFactory(service);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(new TransactionInterceptor(transactions, new AnnotationTransactionAttributeSource()));
+		return (AppointmentService) proxyFactory.getProxy();
+	}
+
+	/**
+	 * Records how each transaction ended, without writing anything.
+	 */
+	private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+		private final List<String> outcomes = new ArrayList<>();
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			outcomes.add("commit");
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+			outcomes.add("rollback");
+		}
+	}
+}
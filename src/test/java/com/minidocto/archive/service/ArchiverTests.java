@@ -0,0 +1,77 @@
+package com.minidocto.archive.service;
+
+import com.minidocto.shared.config.ArchiveProperties;
+import com.minidocto.shared.scheduling.LeaderLease;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ArchiverTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulkOperations = mock(BulkOperations.class);
+	private final ArchiveProperties properties = new ArchiveProperties();
+
+	@Test
+	void copiesBeforeRemovingAndOnlyRemovesDocumentsThatStillMatch() throws Exception {
+		properties.setBatchSize(3);
+		List<Document> batch = documents(2);
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("appointments"))).thenReturn(batch);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "appointments_archive")).thenReturn(bulkOperations);
+		// One of the two documents was modified between the read and the removal
+		when(mongoTemplate.remove(any(Query.class), eq("appointments"))).thenReturn(DeleteResult.acknowledged(1));
+
+		long moved = new Archiver(mongoTemplate, mock(LeaderLease.class), properties, new SimpleMeterRegistry())
+				.archive("appointments", "appointments_archive", Criteria.where("status").is("COMPLETED"));
+
+		assertEquals(1, moved);
+		var order = inOrder(bulkOperations, mongoTemplate);
+		order.verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Document.class), any());
+		order.verify(bulkOperations).execute();
+		order.verify(mongoTemplate).remove(argThat((Query query) -> query.getQueryObject().toJson().contains("COMPLETED")
+				&& query.getQueryObject().toJson().contains(batch.get(0).getObjectId("_id").toHexString())), eq("appointments"));
+		assertTrue(batch.stream().allMatch(document -> document.containsKey("archivedAt")));
+	}
+
+	@Test
+	void slowBatchesShrinkTheBatchSizeDownToTheMinimum() throws Exception {
+		properties.setBatchSize(8);
+		properties.setMinBatchSize(3);
+		properties.setTargetBatchLatency(Duration.ZERO); // Every batch counts as slow
+		List<Integer> requested = new ArrayList<>();
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("availability_slots"))).thenAnswer(invocation -> {
+			int limit = invocation.getArgument(0, Query.class).getLimit();
+			requested.add(limit);
+			return requested.size() <= 3 ? documents(limit) : List.of();
+		});
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "availability_slots_archive")).thenReturn(bulkOperations);
+		when(mongoTemplate.remove(any(Query.class), eq("availability_slots")))
+				.thenAnswer(invocation -> DeleteResult.acknowledged(requested.get(requested.size() - 1)));
+		Archiver archiver = new Archiver(mongoTemplate, mock(LeaderLease.class), properties, new SimpleMeterRegistry());
+
+		long moved = archiver.archive("availability_slots", "availability_slots_archive", Criteria.where("startTime").lt("2030-01-01"));
+
+		assertEquals(List.of(8, 4, 3, 3), requested);
+		assertEquals(15, moved);
+		assertEquals(3, archiver.batchSize());
+	}
+
+	private static List<Document> documents(int count) {
+		return IntStream.range(0, count).mapToObj(i -> new Document("_id", new ObjectId())).toList();
+	}
+}
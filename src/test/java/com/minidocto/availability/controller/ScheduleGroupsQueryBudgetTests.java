@@ -0,0 +1,127 @@
+package com.minidocto.availability.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.shared.monitoring.QueryBudgetFilter;
+import com.minidocto.shared.monitoring.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the MongoDB cost of the authenticated schedule-groups endpoint on a local MongoDB, e.g.
+ * {@code docker run -p 27017:27017 mongo} and {@code MINIDOCTO_TEST_MONGODB_URI=mongodb://localhost:27017}.
+ */
+@SpringBootTest(properties = {"jwt.secret=scheduleGroupsQueryBudgetTestsSecretKeyLongEnoughForHs256",
+		"minidocto.mongo.ensure-indexes=false"})
+@AutoConfigureMockMvc
+@EnabledIfEnvironmentVariable(named = "MINIDOCTO_TEST_MONGODB_URI", matches = ".+")
+class ScheduleGroupsQueryBudgetTests {
+
+	private static final int DAYS = 30;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@DynamicPropertySource
+	static void mongo(DynamicPropertyRegistry registry) {
+		registry.add("spring.data.mongodb.uri",
+				() -> System.getenv("MINIDOCTO_TEST_MONGODB_URI") + "/minidocto_query_budget_test");
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongoTemplate.getDb().drop();
+	}
+
+	@Test
+	void authenticatedScheduleOfAMonthCostsThreeQueries() throws Exception {
+		signup("Dr Claire Moreau", "claire@minidocto.test", "PRO");
+		signup("Jean Dupont", "jean@minidocto.test", "USER");
+		String doctorToken = login("/auth/doctor/login", "claire@minidocto.test");
+		String patientToken = login("/auth/patient/login", "jean@minidocto.test");
+
+		StringJoiner addedSlots = new StringJoiner(",");
+		LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+		for (int day = 0; day < DAYS; day++) {
+			String date = firstDay.plusDays(day).toString();
+			addedSlots.add("{\"startTime\":\"" + date + "T09:00:00Z\",\"endTime\":\"" + date + "T09:30:00Z\"}");
+			addedSlots.add("{\"startTime\":\"" + date + "T10:00:00Z\",\"endTime\":\"" + date + "T10:30:00Z\"}");
+		}
+		JsonNode slots = send("/availability/update", doctorToken,
+				"{\"addedSlots\":[" + addedSlots + "],\"removedSlots\":[]}").get("slots");
+		String doctorId = slots.get(0).get("doctorId").asText();
+		send("/appointments/book", patientToken, "{\"doctorId\":\"" + doctorId
+				+ "\",\"slotId\":\"" + slots.get(0).get("id").asText() + "\"}");
+
+		// Warm-up: the first request also fills the user card cache used for booked slots
+		scheduleGroups(doctorId, patientToken);
+		MvcResult result;
+		try (QueryCounter.Scope scope = QueryCounter.open()) {
+			result = scheduleGroups(doctorId, patientToken);
+			scope.assertAtMost(3, "GET /availability/doctors/{doctorId}/schedule-groups");
+		}
+		assertTrue(Integer.parseInt(result.getResponse().getHeader(QueryBudgetFilter.HEADER)) <= 3);
+
+		JsonNode groups = objectMapper.readTree(result.getResponse().getContentAsString())
+				.get("data").get("scheduleGroups");
+		assertEquals(DAYS, groups.size());
+		assertTrue(groups.get(0).get("hasUserBookingInGroup").asBoolean());
+		assertFalse(groups.get(1).get("hasUserBookingInGroup").asBoolean());
+	}
+
+	private MvcResult scheduleGroups(String doctorId, String token) throws Exception {
+		return mockMvc.perform(get("/availability/doctors/{doctorId}/schedule-groups", doctorId)
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private void signup(String name, String email, String role) throws Exception {
+		mockMvc.perform(post("/auth/signup").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"" + name + "\",\"email\":\"" + email
+								+ "\",\"password\":\"password123\",\"role\":\"" + role + "\",\"specialty\":\"Cardiology\"}"))
+				.andExpect(status().isOk());
+	}
+
+	private String login(String path, String email) throws Exception {
+		String body = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"" + email + "\",\"password\":\"password123\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("token").asText();
+	}
+
+	private JsonNode send(String path, String token, String json) throws Exception {
+		String body = mockMvc.perform(post(path)
+						.header("Authorization", "Bearer " + token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
@@ -0,0 +1,157 @@
+package com.minidocto.availability.repository;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryAvailabilitySlotRepositoryTests {
+
+	private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+	private final InMemoryAvailabilitySlotRepository repository = new InMemoryAvailabilitySlotRepository(userRepository);
+	private final ObjectId doctorId = new ObjectId();
+	private final ObjectId patientId = new ObjectId();
+
+	@Test
+	void rangeQueriesFollowTheMongoOperators() {
+		slot("2030-01-01T09:00:00Z", SlotStatus.AVAILABLE, null);
+		slot("2030-01-01T10:00:00Z", SlotStatus.BOOKED, patientId);
+		slot("2030-01-01T11:00:00Z", SlotStatus.AVAILABLE, null);
+		slot("2030-01-01T12:00:00Z", SlotStatus.BOOKED, patientId);
+
+		// Between is exclusive on both ends, $gte/$lte inclusive, $gt exclusive
+		assertEquals(List.of("2030-01-01T10:00:00Z", "2030-01-01T11:00:00Z"), startTimes(
+				repository.findByDoctorIdAndStartTimeBetween(doctorId, "2030-01-01T09:00:00Z", "2030-01-01T12:00:00Z")));
+		assertEquals(List.of("2030-01-01T10:00:00Z", "2030-01-01T12:00:00Z"), startTimes(
+				repository.findBookedSlotsByUserInDateRange(patientId, "2030-01-01T10:00:00Z", "2030-01-01T12:00:00Z")));
+		assertEquals(List.of("2030-01-01T11:00:00Z"), startTimes(
+				repository.findByDoctorIdAndStatusAndStartTimeAfter(doctorId, SlotStatus.AVAILABLE, "2030-01-01T09:00:00Z")));
+		assertEquals(List.of("2030-01-01T12:00:00Z"), startTimes(
+				repository.findByDoctorIdAndBookedByAndStartTimeAfter(doctorId, patientId, "2030-01-01T10:00:00Z")));
+	}
+
+	@Test
+	void readsAreCopiesAndSavesReindex() {
+		AvailabilitySlot saved = slot("2030-01-01T09:00:00Z", SlotStatus.AVAILABLE, null);
+
+		AvailabilitySlot loaded = repository.findById(saved.getId()).orElseThrow();
+		loaded.setStatus(SlotStatus.BOOKED);
+		loaded.setBookedBy(patientId);
+		assertEquals(1, repository.findByDoctorIdAndStatus(doctorId, SlotStatus.AVAILABLE).size(),
+				"an unsaved change must not be visible");
+
+		repository.save(loaded);
+		assertTrue(repository.findByDoctorIdAndStatus(doctorId, SlotStatus.AVAILABLE).isEmpty());
+		assertEquals(1, repository.findByBookedByAndStatusAndStartTimeGreaterThan(
+				patientId, SlotStatus.BOOKED, "2029-12-31T00:00:00Z").size());
+
+		repository.deleteById(saved.getId());
+		assertTrue(repository.findByDoctorId(doctorId).isEmpty());
+		assertTrue(repository.findByBookedByAndStatusAndStartTimeGreaterThan(
+				patientId, SlotStatus.BOOKED, "2029-12-31T00:00:00Z").isEmpty());
+	}
+
+	@Test
+	void searchGroupsOpenSlotsByDoctorWithFacets() {
+		ObjectId otherDoctorId = new ObjectId();
+		userRepository.save(User.builder().id(doctorId.toHexString()).name("Dr A").role(Role.PRO)
+				.specialty("Cardiology").score(70).build());
+		userRepository.save(User.builder().id(otherDoctorId.toHexString()).name("Dr B").role(Role.PRO)
+				.specialty("Dermatology").score(90).build());
+		slot("2030-01-01T11:00:00Z", SlotStatus.AVAILABLE, null);
+		slot("2030-01-01T09:00:00Z", SlotStatus.AVAILABLE, null);
+		repository.save(AvailabilitySlot.builder().doctorId(otherDoctorId)
+				.startTime("2030-01-01T10:00:00Z").endTime("2030-01-01T10:30:00Z").build());
+
+		DoctorSearchResult all = repository.searchAvailableDoctors(
+				"2030-01-01T00:00:00Z", "2030-01-02T00:00:00Z", null, null, 0, 10);
+		assertEquals(2, all.getTotalHits());
+		assertEquals("Dr B", all.getHits().get(0).getName());
+		assertEquals("2030-01-01T09:00:00Z", all.getHits().get(1).getNextAvailable());
+
+		DoctorSearchResult cardiology = repository.searchAvailableDoctors(
+				"2030-01-01T00:00:00Z", "2030-01-02T00:00:00Z", "Cardiology", null, 0, 10);
+		assertEquals(1, cardiology.getTotalHits());
+		assertEquals(2, cardiology.getSpecialtyCounts().size(), "facets ignore the specialty filter");
+		assertEquals("2030-01-01T09:00:00Z", cardiology.getHits().get(0).getNextAvailable());
+		assertEquals(1, repository.searchAvailableDoctors(
+				"2030-01-01T00:00:00Z", "2030-01-02T00:00:00Z", null, 80, 0, 10).getTotalHits());
+		assertEquals(0, repository.searchAvailableDoctors(
+				"2030-01-01T00:00:00Z", "2030-01-02T00:00:00Z", null, 95, 0, 10).getTotalHits());
+	}
+
+	@Test
+	void holdsAreExclusiveUntilTheyLapse() {
+		ObjectId otherPatientId = new ObjectId();
+		String slotId = slot("2030-01-01T09:00:00Z", SlotStatus.AVAILABLE, null).getId();
+		Instant now = Instant.parse("2029-12-31T12:00:00Z");
+		Instant expiresAt = now.plus(Duration.ofMinutes(5));
+		String today = "2029-12-31T12:00:00";
+
+		assertTrue(repository.holdSlot(slotId, doctorId, patientId, today, now, expiresAt).isPresent());
+		assertTrue(repository.findByDoctorIdAndStatus(doctorId, SlotStatus.AVAILABLE).isEmpty(),
+				"a held slot leaves the listings");
+		assertTrue(repository.holdSlot(slotId, doctorId, otherPatientId, today, now, expiresAt).isEmpty());
+		assertTrue(repository.holdSlot(slotId, new ObjectId(), patientId, today, now, expiresAt).isEmpty(),
+				"the slot belongs to another doctor");
+		assertFalse(repository.confirmHold(slotId, otherPatientId, today, now));
+
+		// Once lapsed, the hold can no longer be confirmed, but another patient can take it over
+		Instant later = expiresAt.plusSeconds(1);
+		assertFalse(repository.confirmHold(slotId, patientId, today, later));
+		assertTrue(repository.holdSlot(slotId, doctorId, otherPatientId, today, later, later.plus(Duration.ofMinutes(5)))
+				.isPresent());
+		assertFalse(repository.confirmHold(slotId, otherPatientId, "2030-01-01T09:00:00Z", later),
+				"a started slot is not booked");
+		assertTrue(repository.confirmHold(slotId, otherPatientId, today, later));
+		AvailabilitySlot booked = repository.findById(slotId).orElseThrow();
+		assertEquals(SlotStatus.BOOKED, booked.getStatus());
+		assertEquals(otherPatientId, booked.getBookedBy());
+		assertNull(booked.getHoldExpiresAt());
+		assertEquals(0, repository.releaseExpiredHolds(later.plus(Duration.ofHours(1))), "booked slots are not swept");
+	}
+
+	@Test
+	void lapsedAndReplacedHoldsAreReopened() {
+		String first = slot("2030-01-01T09:00:00Z", SlotStatus.AVAILABLE, null).getId();
+		String second = slot("2030-01-01T10:00:00Z", SlotStatus.AVAILABLE, null).getId();
+		String third = slot("2030-01-01T11:00:00Z", SlotStatus.AVAILABLE, null).getId();
+		Instant now = Instant.parse("2029-12-31T12:00:00Z");
+		String today = "2029-12-31T12:00:00";
+		repository.holdSlot(first, doctorId, patientId, today, now, now.plusSeconds(60));
+		repository.holdSlot(second, doctorId, patientId, today, now, now.plusSeconds(60));
+		repository.holdSlot(third, doctorId, new ObjectId(), today, now, now.plusSeconds(600));
+
+		assertEquals(List.of(first), repository.releaseOtherHolds(patientId, second));
+		assertEquals(1, repository.releaseExpiredHolds(now.plusSeconds(60)));
+		assertEquals(List.of("2030-01-01T09:00:00Z", "2030-01-01T10:00:00Z"),
+				startTimes(repository.findByDoctorIdAndStatus(doctorId, SlotStatus.AVAILABLE)));
+		assertNull(repository.findById(second).orElseThrow().getBookedBy());
+		assertEquals(SlotStatus.PENDING, repository.findById(third).orElseThrow().getStatus());
+		assertTrue(repository.holdSlot(first, doctorId, patientId, "2030-01-01T09:00:00Z", now, now.plusSeconds(60)).isEmpty(),
+				"slots that already started cannot be held");
+	}
+
+	private AvailabilitySlot slot(String startTime, SlotStatus status, ObjectId bookedBy) {
+		return repository.save(AvailabilitySlot.builder()
+				.doctorId(doctorId)
+				.startTime(startTime)
+				.endTime(startTime.replace(":00:00Z", ":30:00Z"))
+				.status(status)
+				.bookedBy(bookedBy)
+				.build());
+	}
+
+	private static List<String> startTimes(List<AvailabilitySlot> slots) {
+		return slots.stream().map(AvailabilitySlot::getStartTime).toList();
+	}
+}
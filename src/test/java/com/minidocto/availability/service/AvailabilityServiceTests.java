@@ -0,0 +1,94 @@
+package com.minidocto.availability.service;
+
+import com.minidocto.availability.dto.ScheduleGroupDTO;
+import com.minidocto.availability.dto.SlotWithUserDTO;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.cache.SingleFlight;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import com.minidocto.user.service.UserCardCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceTests {
+
+	private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+	private final InMemoryAvailabilitySlotRepository slotRepository = spy(new InMemoryAvailabilitySlotRepository(userRepository));
+	private final SingleFlight singleFlight = mock(SingleFlight.class);
+	private final AvailabilityService service = new AvailabilityService(slotRepository, userRepository,
+			new UserCardCache(userRepository, new UserCacheProperties(), new LocalInvalidationBus(), new SimpleMeterRegistry()),
+			new SlotOverlapGuard(slotRepository), null, singleFlight, new LocalInvalidationBus());
+	private final ObjectId doctorId = new ObjectId();
+	private final ObjectId patientId = new ObjectId();
+	private final ObjectId otherPatientId = new ObjectId();
+
+	@BeforeEach
+	void setUp() {
+		// Every call for a key gets the result of the first one, as callers joining a flight in progress would
+		Map<String, Object> flights = new HashMap<>();
+		when(singleFlight.execute(anyString(), anyString(), any())).thenAnswer(invocation -> flights.computeIfAbsent(
+				invocation.getArgument(0) + "|" + invocation.getArgument(1),
+				key -> invocation.<Supplier<?>>getArgument(2).get()));
+		userRepository.save(User.builder().id(doctorId.toHexString()).name("Dr A").role(Role.PRO).build());
+		userRepository.save(User.builder().id(patientId.toHexString()).email("patient@minidocto.test").role(Role.USER).build());
+		slot("2030-01-01T09:00:00Z", null);
+		slot("2030-01-01T10:00:00Z", patientId);
+		slot("2030-01-01T11:00:00Z", null);
+		slot("2030-01-02T09:00:00Z", null);
+		slot("2030-01-03T09:00:00Z", patientId);
+	}
+
+	@Test
+	void overlaysOnlyTheCallersBookingsOnTheSharedOpenSlots() {
+		List<ScheduleGroupDTO> mine = groups(patientId, 0, 10);
+		List<ScheduleGroupDTO> others = groups(otherPatientId, 0, 10);
+
+		assertEquals(List.of("2030-01-01", "2030-01-02", "2030-01-03"), mine.stream().map(ScheduleGroupDTO::getDate).toList());
+		assertEquals(List.of("2030-01-01T09:00:00Z", "2030-01-01T10:00:00Z", "2030-01-01T11:00:00Z"),
+				mine.get(0).getTimeSlots().stream().map(SlotWithUserDTO::getStartTime).toList());
+		assertEquals("patient@minidocto.test", mine.get(0).getTimeSlots().get(1).getBookedByEmail());
+		assertTrue(mine.get(0).isHasUserBookingInGroup());
+		assertFalse(mine.get(1).isHasUserBookingInGroup());
+
+		// The first caller's bookings never leak into the shared slots
+		assertEquals(List.of("2030-01-01", "2030-01-02"), others.stream().map(ScheduleGroupDTO::getDate).toList());
+		assertEquals(2, others.get(0).getTimeSlots().size());
+		assertFalse(others.get(0).isHasUserBookingInGroup());
+	}
+
+	@Test
+	void sharesOpenSlotsAcrossPagesAndCallers() {
+		assertEquals(List.of("2030-01-03"), groups(patientId, 1, 2).stream().map(ScheduleGroupDTO::getDate).toList());
+		assertEquals(List.of("2030-01-01"), groups(otherPatientId, 0, 1).stream().map(ScheduleGroupDTO::getDate).toList());
+
+		verify(slotRepository, times(1)).findByDoctorIdAndStatusAndStartTimeAfter(eq(doctorId), eq(SlotStatus.AVAILABLE),
+				anyString());
+		verify(singleFlight, times(2)).execute(eq("schedule-groups"), eq(doctorId.toHexString()), any());
+	}
+
+	private List<ScheduleGroupDTO> groups(ObjectId userId, int page, int size) {
+		return service.getDoctorScheduleGroups(doctorId.toHexString(), page, size, userId.toHexString())
+				.getData().getScheduleGroups();
+	}
+
+	private void slot(String startTime, ObjectId bookedBy) {
+		slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId).startTime(startTime)
+				.endTime(startTime.replace(":00:00Z", ":30:00Z"))
+				.status(bookedBy != null ? SlotStatus.BOOKED : SlotStatus.AVAILABLE).bookedBy(bookedBy).build());
+	}
+}
@@ -0,0 +1,152 @@
+package com.minidocto.availability.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.availability.dto.AvailableDoctorsResponse;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.cache.SingleFlight;
+import com.minidocto.shared.config.DirectoryCacheProperties;
+import com.minidocto.shared.config.SingleFlightProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DoctorDirectoryCacheTests {
+
+	private final AvailabilityService availabilityService = mock(AvailabilityService.class);
+	private final DirectoryCacheProperties properties = new DirectoryCacheProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final LocalInvalidationBus invalidationBus = new LocalInvalidationBus();
+	private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+	private final AtomicInteger version = new AtomicInteger();
+	private DoctorDirectoryCache cache;
+
+	@BeforeEach
+	void setUp() {
+		properties.setSoftTtl(Duration.ofSeconds(5));
+		properties.setHardTtl(Duration.ofSeconds(60));
+		when(availabilityService.getAvailableDoctors(anyInt(), anyInt())).thenAnswer(invocation -> AvailableDoctorsResponse
+				.builder().currentPage(invocation.getArgument(0)).totalPages(version.incrementAndGet()).build());
+		cache = new DoctorDirectoryCache(availabilityService, new ObjectMapper(),
+				new SingleFlight(new SingleFlightProperties(), registry), invalidationBus, properties, registry, now::get);
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.close();
+	}
+
+	@Test
+	void servesEncodedPagesUntilTheSoftTtl() {
+		String first = page(0);
+		assertTrue(first.contains("\"currentPage\":0"), first);
+		assertTrue(first.contains("\"totalPages\":1"), first);
+
+		now.addAndGet(Duration.ofSeconds(4).toNanos());
+		assertEquals(first, page(0));
+		assertTrue(page(1).contains("\"currentPage\":1"), "pages are cached separately");
+		verify(availabilityService, times(1)).getAvailableDoctors(0, 10);
+		assertEquals(1, requests("hit"));
+		assertEquals(2, requests("miss"));
+	}
+
+	@Test
+	void servesStalePagesWhileRefreshingInTheBackground() {
+		String first = page(0);
+		now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+		assertEquals(first, page(0), "stale, but still served");
+		verify(availabilityService, timeout(2000).times(2)).getAvailableDoctors(0, 10);
+		awaitRefreshes(1);
+		assertTrue(page(0).contains("\"totalPages\":2"));
+		assertEquals(1, requests("stale"));
+	}
+
+	@Test
+	void recomputesPagesPastTheHardTtl() {
+		page(0);
+		now.addAndGet(Duration.ofSeconds(60).toNanos());
+
+		assertTrue(page(0).contains("\"totalPages\":2"));
+		assertEquals(2, requests("miss"));
+	}
+
+	@Test
+	void changesRefreshPagesEarly() {
+		String first = page(0);
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+		invalidationBus.publish(DoctorDirectoryCache.NAME, null);
+		verify(availabilityService, timeout(2000).times(2)).getAvailableDoctors(0, 10);
+		awaitRefreshes(1);
+
+		assertNotEquals(first, page(0));
+		assertEquals(1, requests("hit"), "refreshed, so fresh again");
+	}
+
+	@Test
+	void burstsOfChangesRefreshAPageOncePerInterval() {
+		page(0);
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		invalidationBus.publish(DoctorDirectoryCache.NAME, null);
+		verify(availabilityService, timeout(2000).times(2)).getAvailableDoctors(0, 10);
+		awaitRefreshes(1);
+
+		// Computed just now: the next changes only mark it stale
+		invalidationBus.publish(DoctorDirectoryCache.NAME, null);
+		invalidationBus.publish(DoctorDirectoryCache.NAME, null);
+		assertTrue(page(0).contains("\"totalPages\":2"), "stale, but still served");
+		verify(availabilityService, times(2)).getAvailableDoctors(0, 10);
+
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		page(0);
+		verify(availabilityService, timeout(2000).times(3)).getAvailableDoctors(0, 10);
+		assertEquals(2, requests("stale"));
+	}
+
+	@Test
+	void changesDropPagesNobodyReads() {
+		page(0);
+		now.addAndGet(Duration.ofSeconds(60).toNanos());
+
+		invalidationBus.publish(DoctorDirectoryCache.NAME, null);
+
+		assertEquals(0, cache.size());
+		verify(availabilityService, times(1)).getAvailableDoctors(0, 10);
+	}
+
+	@Test
+	void cachesAtMostMaxPages() {
+		properties.setMaxPages(2);
+		for (int page = 0; page < 5; page++) {
+			page(page);
+		}
+		assertEquals(2, cache.size());
+	}
+
+	private String page(int page) {
+		return new String(cache.getPage(page, 10), StandardCharsets.UTF_8);
+	}
+
+	private void awaitRefreshes(int count) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (registry.get("minidocto.cache.refreshes").tag("outcome", "success").counter().count() < count) {
+			assertTrue(System.nanoTime() < deadline, "no refresh");
+			Thread.onSpinWait();
+		}
+	}
+
+	private double requests(String result) {
+		return registry.get("minidocto.cache.requests").tag("cache", DoctorDirectoryCache.NAME).tag("result", result)
+				.counter().count();
+	}
+}
@@ -0,0 +1,86 @@
+package com.minidocto.availability.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.shared.exception.BadRequestException;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorSlotFeedTests {
+
+	private static final String DOCTOR_EMAIL = "claire@minidocto.test";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+	private final InMemoryAvailabilitySlotRepository slotRepository = new InMemoryAvailabilitySlotRepository(userRepository);
+	private final DoctorSlotFeed feed = new DoctorSlotFeed(slotRepository, userRepository, objectMapper);
+
+	@BeforeEach
+	void setUp() {
+		ObjectId doctorId = new ObjectId();
+		userRepository.save(User.builder().id(doctorId.toHexString()).email(DOCTOR_EMAIL).role(Role.PRO).build());
+		// Two slots share 10:00 so the keyset has to break the tie on the ID
+		for (String time : List.of("2030-01-01T09:00:00Z", "2030-01-01T10:00:00Z", "2030-01-01T10:00:00Z",
+				"2030-01-01T11:00:00Z", "2030-01-02T09:00:00Z")) {
+			slotRepository.save(AvailabilitySlot.builder().doctorId(doctorId).startTime(time)
+					.endTime(time.replace(":00:00Z", ":30:00Z"))
+					.status(time.startsWith("2030-01-01T11") ? SlotStatus.BOOKED : SlotStatus.AVAILABLE)
+					.build());
+		}
+		slotRepository.save(AvailabilitySlot.builder().doctorId(new ObjectId()).startTime("2030-01-01T09:00:00Z")
+				.endTime("2030-01-01T09:30:00Z").build());
+	}
+
+	@Test
+	void pagesThroughTheWindowWithCursors() throws Exception {
+		List<String> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			JsonNode page = page(null, "2030-01-01", "2030-01-02", null, cursor, 2);
+			page.get("slots").forEach(slot -> seen.add(slot.get("startTime").asText()));
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(List.of("2030-01-01T09:00:00Z", "2030-01-01T10:00:00Z", "2030-01-01T10:00:00Z",
+				"2030-01-01T11:00:00Z"), seen);
+		assertEquals(3, pages, "the last full page is followed by an empty one");
+	}
+
+	@Test
+	void filtersByDayAndStatus() throws Exception {
+		assertEquals(1, page("2030-01-02", null, null, null, null, null).get("slots").size());
+		JsonNode booked = page(null, "2030-01-01T00:00", null, "booked", null, null);
+		assertEquals(1, booked.get("slots").size());
+		assertTrue(booked.get("nextCursor").isNull());
+	}
+
+	@Test
+	void rejectsInvalidParameters() {
+		assertThrows(BadRequestException.class, () -> feed.window(DOCTOR_EMAIL, "2030-01-01", "2030-01-01", null, null, null, null));
+		assertThrows(BadRequestException.class, () -> feed.window(DOCTOR_EMAIL, null, "2030-01-02", "2030-01-01", null, null, null));
+		assertThrows(BadRequestException.class, () -> feed.window(DOCTOR_EMAIL, null, null, null, "OPEN", null, null));
+		assertThrows(BadRequestException.class, () -> feed.window(DOCTOR_EMAIL, null, null, null, null, "not-a-cursor", null));
+		assertThrows(BadRequestException.class, () -> feed.window(DOCTOR_EMAIL, null, null, null, null, null, 5000));
+	}
+
+	private JsonNode page(String date, String from, String to, String status, String cursor, Integer limit) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		feed.write(feed.window(DOCTOR_EMAIL, date, from, to, status, cursor, limit), out);
+		return objectMapper.readTree(out.toByteArray());
+	}
+}
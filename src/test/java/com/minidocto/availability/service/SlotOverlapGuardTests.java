@@ -0,0 +1,100 @@
+package com.minidocto.availability.service;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.shared.exception.BadRequestException;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotOverlapGuardTests {
+
+	private final String day = LocalDate.now().plusDays(7).toString();
+	private final ObjectId doctorId = new ObjectId();
+	private final InMemoryAvailabilitySlotRepository repository = new InMemoryAvailabilitySlotRepository(new InMemoryUserRepository());
+	private final SlotOverlapGuard guard = new SlotOverlapGuard(repository);
+
+	@Test
+	void rejectsOverlapWithExistingSlot() {
+		repository.save(slot("09:00", "09:30"));
+
+		assertThrows(BadRequestException.class,
+				() -> guard.checkDoctorSlots(doctorId, new ArrayList<>(List.of(slot("09:15", "09:45")))));
+		assertThrows(BadRequestException.class,
+				() -> guard.checkDoctorSlots(doctorId, new ArrayList<>(List.of(slot("08:45", "09:15")))));
+		guard.checkDoctorSlots(doctorId, new ArrayList<>(List.of(slot("09:30", "10:00"), slot("08:30", "09:00"))));
+	}
+
+	@Test
+	void ignoresCancelledSlotsAndSlotsSavedAgain() {
+		AvailabilitySlot existing = repository.save(slot("09:00", "09:30"));
+		AvailabilitySlot cancelled = slot("10:00", "10:30");
+		cancelled.setStatus(SlotStatus.CANCELLED);
+		repository.save(cancelled);
+
+		guard.checkDoctorSlots(doctorId, new ArrayList<>(List.of(existing, slot("10:00", "10:30"))));
+	}
+
+	@Test
+	void rejectsOverlapInsideBatch() {
+		List<AvailabilitySlot> batch = new ArrayList<>(List.of(
+				slot("10:00", "10:30"), slot("11:00", "11:30"), slot("10:00", "10:30")));
+
+		assertThrows(BadRequestException.class, () -> guard.checkDoctorSlots(doctorId, batch));
+		guard.checkDoctorSlots(doctorId, new ArrayList<>(List.of(slot("10:00", "10:30"), slot("11:00", "11:30"))));
+	}
+
+	@Test
+	void flagsPatientDoubleBookingAcrossDoctors() {
+		ObjectId patientId = new ObjectId();
+		AvailabilitySlot first = booked(slot("14:00", "14:30"), patientId);
+		AvailabilitySlot second = booked(slot("14:15", "14:45"), patientId);
+
+		assertTrue(guard.overlapsPatientBooking(patientId, second, null));
+		assertTrue(guard.overlapsPatientBooking(patientId, first, null));
+		assertFalse(guard.overlapsPatientBooking(patientId, second, first.getId()));
+		assertFalse(guard.overlapsPatientBooking(new ObjectId(), second, null));
+	}
+
+	@Test
+	void countsOnlyUnexpiredHolds() {
+		ObjectId patientId = new ObjectId();
+		AvailabilitySlot held = slot("14:00", "14:30");
+		held.setStatus(SlotStatus.PENDING);
+		held.setBookedBy(patientId);
+		held.setHoldExpiresAt(Instant.now().plusSeconds(600));
+		repository.save(held);
+		AvailabilitySlot other = slot("14:15", "14:45");
+
+		assertTrue(guard.overlapsPatientBooking(patientId, other, null));
+
+		held.setHoldExpiresAt(Instant.now().minusSeconds(1));
+		repository.save(held);
+		assertFalse(guard.overlapsPatientBooking(patientId, other, null));
+	}
+
+	private AvailabilitySlot booked(AvailabilitySlot slot, ObjectId patientId) {
+		slot.setDoctorId(new ObjectId());
+		slot.setStatus(SlotStatus.BOOKED);
+		slot.setBookedBy(patientId);
+		return repository.save(slot);
+	}
+
+	private AvailabilitySlot slot(String start, String end) {
+		return AvailabilitySlot.builder()
+				.id(new ObjectId().toHexString())
+				.doctorId(doctorId)
+				.startTime(day + "T" + start + ":00Z")
+				.endTime(day + "T" + end + ":00Z")
+				.status(SlotStatus.AVAILABLE)
+				.build();
+	}
+}
@@ -0,0 +1,81 @@
+package com.minidocto.lifecycle.service;
+
+import com.minidocto.shared.config.LifecycleProperties;
+import com.minidocto.shared.config.LifecycleProperties.PendingAction;
+import com.minidocto.shared.scheduling.LeaderLease;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LifecycleEngineTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final LeaderLease lease = mock(LeaderLease.class);
+	private final LifecycleProperties properties = new LifecycleProperties();
+	private final LifecycleEngine engine = new LifecycleEngine(mongoTemplate, lease, properties, new SimpleMeterRegistry());
+
+	@Test
+	void completionResumesAtTheFirstSlotStillInProgress() {
+		when(lease.checkpoint(LifecycleEngine.LEASE)).thenReturn("2030-01-01T08:00:00Z");
+		when(lease.checkpoint(eq(LifecycleEngine.LEASE), anyString())).thenReturn(true);
+		ObjectId ended = new ObjectId();
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("availability_slots"))).thenReturn(Stream.of(
+				slot(ended, "2030-01-01T08:30:00Z", "2030-01-01T09:00:00Z"),
+				slot(new ObjectId(), "2030-01-01T09:00:00Z", "2030-01-01T09:30:00Z"),
+				slot(new ObjectId(), "2030-01-01T09:05:00Z", "2030-01-01T09:10:00Z")));
+		when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq("appointments")))
+				.thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+		long completed = engine.completeEndedAppointments("2030-01-01T09:15:00Z", LocalDateTime.of(2030, 1, 1, 9, 15));
+
+		assertEquals(2, completed);
+		verify(mongoTemplate).stream(argThat((Query query) -> query.getQueryObject().toJson().contains("2030-01-01T08:00:00Z")),
+				eq(Document.class), eq("availability_slots"));
+		verify(mongoTemplate).updateMulti(argThat((Query query) -> query.getQueryObject().toJson().contains(ended.toHexString())
+				&& query.getQueryObject().toJson().contains("PENDING")), any(Update.class), eq("appointments"));
+		verify(lease).checkpoint(LifecycleEngine.LEASE, "2030-01-01T09:00:00Z");
+	}
+
+	@Test
+	void expiredPendingAppointmentsReleaseOnlySlotsStillBookedByTheirPatient() {
+		properties.setPendingAction(PendingAction.EXPIRE);
+		ObjectId appointmentId = new ObjectId();
+		ObjectId slotId = new ObjectId();
+		ObjectId patientId = new ObjectId();
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("appointments")))
+				.thenReturn(List.of(new Document("_id", appointmentId)))
+				.thenReturn(List.of(new Document("_id", appointmentId).append("slotId", slotId).append("patientId", patientId)));
+		when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq("appointments")))
+				.thenReturn(UpdateResult.acknowledged(1, 1L, null));
+		BulkOperations release = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "availability_slots")).thenReturn(release);
+
+		assertEquals(1, engine.settlePendingAppointments(LocalDateTime.now()));
+
+		verify(mongoTemplate).updateMulti(argThat((Query query) -> query.getQueryObject().toString().contains("PENDING")),
+				argThat((Update update) -> update.getUpdateObject().toString().contains("EXPIRED")), eq("appointments"));
+		verify(release).updateOne(argThat((Query query) -> {
+			String filter = query.getQueryObject().toString();
+			return filter.contains(slotId.toHexString()) && filter.contains(patientId.toHexString()) && filter.contains("BOOKED");
+		}), any(Update.class));
+		verify(release).execute();
+	}
+
+	private static Document slot(ObjectId id, String startTime, String endTime) {
+		return new Document("_id", id).append("startTime", startTime).append("endTime", endTime);
+	}
+}
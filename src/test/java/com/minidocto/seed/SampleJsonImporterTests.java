@@ -0,0 +1,41 @@
+package com.minidocto.seed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleJsonImporterTests {
+
+	private final SampleJsonImporter importer = new SampleJsonImporter(new ObjectMapper());
+	private final ObjectId doctorId = new ObjectId();
+
+	@Test
+	void importsArraysAndUpdateRequestsAndSkipsEmptyFiles() throws Exception {
+		List<Document> slots = new ArrayList<>();
+		DocumentSink sink = (collection, document) -> slots.add(document);
+
+		assertEquals(0, importSlots("", sink));
+		assertEquals(2, importSlots("[{\"startTime\":\"2025-07-23T09:00:00Z\",\"endTime\":\"2025-07-23T09:30:00Z\"},"
+				+ "{\"startTime\":\"2025-07-23T09:30:00Z\",\"endTime\":\"2025-07-23T10:00:00Z\",\"status\":\"BOOKED\",\"extra\":1}]", sink));
+		assertEquals(1, importSlots("{\"message\":\"ok\",\"addedSlots\":[{\"startTime\":\"2025-07-24T09:00:00Z\","
+				+ "\"endTime\":\"2025-07-24T09:30:00Z\"},{\"startTime\":\"2025-07-24T10:00:00Z\"}],\"removedSlots\":[{}]}", sink));
+
+		assertEquals(3, slots.size());
+		assertEquals(doctorId, slots.get(0).get("doctorId"));
+		assertEquals("AVAILABLE", slots.get(0).getString("status"));
+		assertEquals("BOOKED", slots.get(1).getString("status"));
+		assertEquals("2025-07-24T09:00:00Z", slots.get(2).getString("startTime"));
+	}
+
+	private long importSlots(String json, DocumentSink sink) throws Exception {
+		return importer.importSlots(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "test", doctorId, sink);
+	}
+}
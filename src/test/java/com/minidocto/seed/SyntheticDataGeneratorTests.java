@@ -0,0 +1,70 @@
+package com.minidocto.seed;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataGeneratorTests {
+
+	@Test
+	void generatesConfiguredVolumesWithoutDoubleBookingPatients() {
+		SeedProperties properties = new SeedProperties();
+		properties.setDoctors(20);
+		properties.setPatients(40);
+		properties.setPastDays(2);
+		properties.setFutureDays(5);
+		properties.setSlotsPerDay(10);
+		properties.setBookingRatio(0.5);
+
+		Map<String, List<Document>> documents = new HashMap<>();
+		new SyntheticDataGenerator(properties, "hash")
+				.generate((collection, document) -> documents.computeIfAbsent(collection, c -> new ArrayList<>()).add(document));
+
+		assertEquals(60, documents.get(SyntheticDataGenerator.USERS).size());
+		List<Document> slots = documents.get(SyntheticDataGenerator.SLOTS);
+		assertEquals(20 * 7 * 10, slots.size());
+
+		Set<String> patientTimes = new HashSet<>();
+		long booked = 0;
+		for (Document slot : slots) {
+			if (slot.get("bookedBy") != null) {
+				booked++;
+				assertTrue(patientTimes.add(slot.get("bookedBy") + "@" + slot.getString("startTime")),
+						"patient booked twice at " + slot.getString("startTime"));
+			}
+		}
+		assertEquals(booked, documents.get(SyntheticDataGenerator.APPOINTMENTS).size());
+		assertTrue(booked > slots.size() * 0.4 && booked < slots.size() * 0.6);
+	}
+
+	@Test
+	void booksEachPatientOnceInADoctorsFutureSchedule() {
+		// 7919 patients share a factor with the historical stride; 5 patients are fewer than the future slots
+		for (int patients : new int[]{7919, 5}) {
+			SeedProperties properties = new SeedProperties();
+			properties.setDoctors(3);
+			properties.setPatients(patients);
+			properties.setPastDays(1);
+			properties.setFutureDays(3);
+			properties.setSlotsPerDay(8);
+			properties.setBookingRatio(1.0);
+
+			Map<String, List<Document>> documents = new HashMap<>();
+			new SyntheticDataGenerator(properties, "hash")
+					.generate((collection, document) -> documents.computeIfAbsent(collection, c -> new ArrayList<>()).add(document));
+
+			Map<Object, Set<Object>> patientsByDoctor = new HashMap<>();
+			for (Document appointment : documents.get(SyntheticDataGenerator.APPOINTMENTS)) {
+				if ("CONFIRMED".equals(appointment.getString("status"))) {
+					assertTrue(patientsByDoctor.computeIfAbsent(appointment.get("doctorId"), d -> new HashSet<>())
+							.add(appointment.get("patientId")), "patient booked twice with one doctor");
+				}
+			}
+			patientsByDoctor.values().forEach(booked -> assertTrue(booked.size() <= patients));
+			assertEquals(3, patientsByDoctor.size());
+		}
+	}
+}
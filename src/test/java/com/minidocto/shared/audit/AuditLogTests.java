@@ -0,0 +1,112 @@
+package com.minidocto.shared.audit;
+
+import com.minidocto.shared.config.AuditProperties;
+import com.minidocto.shared.config.AuditProperties.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTests {
+
+	private final AuditProperties properties = new AuditProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CountDownLatch storeOpen = new CountDownLatch(1);
+	private AuditLog auditLog;
+
+	@AfterEach
+	void close() {
+		storeOpen.countDown();
+		if (auditLog != null) {
+			auditLog.close();
+		}
+	}
+
+	@Test
+	void writesEventsInOrderInTheBackground() {
+		InMemoryAuditStore store = new InMemoryAuditStore();
+		auditLog = new AuditLog(store, properties, registry);
+
+		auditLog.record("appointment.booked", "p1", "a1", Map.of("slotId", "s1"));
+		auditLog.record("appointment.cancelled", "p1", "a1", Map.of());
+		auditLog.close();
+
+		assertEquals(List.of("appointment.booked", "appointment.cancelled"),
+				store.recent().stream().map(AuditEvent::action).toList());
+		assertEquals("p1", store.recent().get(0).actorId());
+		assertEquals(2, written());
+	}
+
+	@Test
+	void dropPolicyCountsOverflowWithoutWaiting() throws InterruptedException {
+		properties.setQueueSize(2);
+		CountDownLatch writing = new CountDownLatch(1);
+		auditLog = new AuditLog(blockedStore(writing), properties, registry);
+		auditLog.record("slot.added", "d1", "s0", Map.of());
+		assertTrue(writing.await(5, TimeUnit.SECONDS), "the writer holds the first event");
+
+		long start = System.nanoTime();
+		for (int i = 1; i <= 5; i++) {
+			auditLog.record("slot.added", "d1", "s" + i, Map.of());
+		}
+
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		assertEquals(3, dropped());
+	}
+
+	@Test
+	void blockPolicyWaitsForRoomThenDrops() throws InterruptedException {
+		properties.setQueueSize(1);
+		properties.setOverflowPolicy(OverflowPolicy.BLOCK);
+		properties.setBlockTimeout(Duration.ofMillis(100));
+		CountDownLatch writing = new CountDownLatch(1);
+		auditLog = new AuditLog(blockedStore(writing), properties, registry);
+		auditLog.record("slot.added", "d1", "s0", Map.of());
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		auditLog.record("slot.added", "d1", "s1", Map.of());
+
+		long start = System.nanoTime();
+		auditLog.record("slot.added", "d1", "s2", Map.of());
+
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100), "waited for the writer");
+		assertEquals(1, dropped());
+	}
+
+	@Test
+	void disabledLogRecordsNothing() {
+		properties.setEnabled(false);
+		InMemoryAuditStore store = new InMemoryAuditStore();
+		auditLog = new AuditLog(store, properties, registry);
+
+		auditLog.record("slot.added", "d1", "s1", Map.of());
+		auditLog.close();
+
+		assertTrue(store.recent().isEmpty());
+	}
+
+	private AuditStore blockedStore(CountDownLatch writing) {
+		return batch -> {
+			writing.countDown();
+			try {
+				storeOpen.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+	}
+
+	private double written() {
+		return registry.get("minidocto.audit.events").tag("outcome", "written").counter().count();
+	}
+
+	private double dropped() {
+		return registry.get("minidocto.audit.events").tag("outcome", "dropped").counter().count();
+	}
+}
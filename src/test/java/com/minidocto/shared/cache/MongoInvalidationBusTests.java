@@ -0,0 +1,120 @@
+package com.minidocto.shared.cache;
+
+import com.minidocto.shared.config.InvalidationProperties;
+import com.minidocto.shared.config.InvalidationProperties.Transport;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.RenameCollectionOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes sharing a local MongoDB, e.g. {@code docker run -p 27017:27017 mongo} and
+ * {@code MINIDOCTO_TEST_MONGODB_URI=mongodb://localhost:27017}.
+ */
+@EnabledIfEnvironmentVariable(named = "MINIDOCTO_TEST_MONGODB_URI", matches = ".+")
+class MongoInvalidationBusTests {
+
+	private MongoClient client;
+	private MongoTemplate mongoTemplate;
+	private MongoInvalidationBus first;
+	private MongoInvalidationBus second;
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	void setUp() {
+		client = MongoClients.create(System.getenv("MINIDOCTO_TEST_MONGODB_URI"));
+		mongoTemplate = new MongoTemplate(client, "minidocto_invalidation_test");
+		mongoTemplate.dropCollection(MongoInvalidationBus.COLLECTION);
+		InvalidationProperties properties = new InvalidationProperties();
+		properties.setTransport(Transport.TAILABLE);
+		first = new MongoInvalidationBus(mongoTemplate, new LocalInvalidationBus(), properties, new SimpleMeterRegistry());
+		second = new MongoInvalidationBus(mongoTemplate, new LocalInvalidationBus(), properties, registry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		first.close();
+		second.close();
+		mongoTemplate.getDb().drop();
+		client.close();
+	}
+
+	@Test
+	void deliversInvalidationsToOtherNodesOnce() throws InterruptedException {
+		BlockingQueue<String> onFirst = new LinkedBlockingQueue<>();
+		BlockingQueue<String> onSecond = new LinkedBlockingQueue<>();
+		first.subscribe("users", onFirst::add);
+		second.subscribe("users", onSecond::add);
+		first.start();
+		second.start();
+		awaitConnected(second);
+
+		first.publish("users", "u1");
+		first.publish("users", "u2");
+
+		assertEquals("u1", onSecond.poll(5, TimeUnit.SECONDS));
+		assertEquals("u2", onSecond.poll(5, TimeUnit.SECONDS));
+		assertEquals(List.of("u1", "u2"), List.copyOf(onFirst), "applied once, when published");
+		assertEquals(2, registry.get("minidocto.invalidation.events").tag("outcome", "applied").counter().count());
+		assertEquals(2, registry.get("minidocto.invalidation.delay").timer().count());
+	}
+
+	@Test
+	void catchesUpAfterReconnecting() throws InterruptedException {
+		BlockingQueue<String> onSecond = new LinkedBlockingQueue<>();
+		second.subscribe("users", onSecond::add);
+		second.start();
+		awaitConnected(second);
+
+		// Kills the tailing cursor; what is published meanwhile is read on reconnect
+		mongoTemplate.dropCollection(MongoInvalidationBus.COLLECTION);
+		first.publish("users", "u1");
+
+		assertEquals("u1", onSecond.poll(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void flushesWhenMissedEventsAreNoLongerInTheCollection() throws InterruptedException {
+		BlockingQueue<String> onSecond = new LinkedBlockingQueue<>();
+		second.subscribe("users", key -> onSecond.add(key != null ? key : "*"));
+		second.start();
+		awaitConnected(second);
+
+		// Swapped for a collection that starts after the resume point, as if it had wrapped while disconnected
+		String replacement = MongoInvalidationBus.COLLECTION + "_wrapped";
+		mongoTemplate.createCollection(replacement, CollectionOptions.empty().capped().size(4096));
+		mongoTemplate.getCollection(replacement).insertOne(new Document("_id", new ObjectId())
+				.append("cache", "users").append("key", "u1").append("origin", "other").append("publishedAt", new Date()));
+		mongoTemplate.getCollection(replacement).renameCollection(
+				new MongoNamespace(mongoTemplate.getDb().getName(), MongoInvalidationBus.COLLECTION),
+				new RenameCollectionOptions().dropTarget(true));
+
+		assertEquals("*", onSecond.poll(10, TimeUnit.SECONDS));
+		assertEquals("u1", onSecond.poll(10, TimeUnit.SECONDS));
+	}
+
+	private static void awaitConnected(MongoInvalidationBus bus) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!bus.isConnected()) {
+			assertTrue(System.nanoTime() < deadline, "feed did not connect");
+			Thread.sleep(20);
+		}
+	}
+}
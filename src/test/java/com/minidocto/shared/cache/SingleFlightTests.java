@@ -0,0 +1,111 @@
+package com.minidocto.shared.cache;
+
+import com.minidocto.shared.config.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+	private final SingleFlightProperties properties = new SingleFlightProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SingleFlight singleFlight = new SingleFlight(properties, registry);
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentIdenticalCallsShareOneComputation() throws Exception {
+		Future<String> leader = executor.submit(() -> singleFlight.execute("available-doctors", "0|10", this::slowPage));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		List<Future<String>> followers = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			followers.add(executor.submit(() -> singleFlight.execute("available-doctors", "0|10", this::slowPage)));
+		}
+		String other = singleFlight.execute("available-doctors", "1|10", () -> "page 1");
+		Thread.sleep(200); // Lets the followers reach the leader's future
+		release.countDown();
+
+		assertEquals("page 0", leader.get(5, TimeUnit.SECONDS));
+		for (Future<String> follower : followers) {
+			assertEquals("page 0", follower.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals("page 1", other, "other keys are not held up");
+		assertEquals(1, executions.get());
+		assertEquals(2, calls("executed"));
+		assertEquals(5, calls("coalesced"));
+		assertEquals(0, singleFlight.inFlight());
+		assertEquals("page 0", singleFlight.execute("available-doctors", "0|10", this::slowPage),
+				"nothing is cached once the call completes");
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void failuresReachTheWaitingCallers() throws Exception {
+		Future<String> leader = executor.submit(() -> singleFlight.execute("schedule-groups", "d1", () -> {
+			started.countDown();
+			await(release);
+			throw new IllegalStateException("slots unavailable");
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<String> follower = executor.submit(() -> singleFlight.execute("schedule-groups", "d1", this::slowPage));
+		Thread.sleep(200);
+		release.countDown();
+
+		ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+		ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+		assertSame(leaderFailure.getCause(), followerFailure.getCause());
+	}
+
+	@Test
+	void callersComputeAloneAfterTheMaxWait() throws Exception {
+		properties.setMaxWait(Duration.ofMillis(50));
+		executor.submit(() -> singleFlight.execute("available-doctors", "0|10", this::slowPage));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		assertEquals("fresh", singleFlight.execute("available-doctors", "0|10", () -> "fresh"));
+		assertEquals(1, calls("timed_out"));
+	}
+
+	private String slowPage() {
+		executions.incrementAndGet();
+		started.countDown();
+		await(release);
+		return "page 0";
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private double calls(String outcome) {
+		return registry.find("minidocto.singleflight.calls").tag("outcome", outcome).counters().stream()
+				.mapToDouble(Counter::count).sum();
+	}
+}
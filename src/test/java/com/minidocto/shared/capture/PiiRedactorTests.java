@@ -0,0 +1,38 @@
+package com.minidocto.shared.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PiiRedactorTests {
+
+	private final PiiRedactor redactor = new PiiRedactor("test-key".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	void pseudonymizesEmailsAndMasksSecretsAtAnyDepth() throws Exception {
+		JsonNode body = new ObjectMapper().readTree("{\"email\":\"Jean.Dupont@example.com\",\"password\":\"secret\","
+				+ "\"profile\":{\"name\":\"Jean Dupont\",\"specialty\":\"Cardiology\"},\"slots\":[{\"token\":\"abc\",\"slotId\":\"42\"}]}");
+
+		JsonNode redacted = redactor.redact(body);
+
+		assertEquals(redactor.pseudonym("jean.dupont@example.com"), redacted.get("email").asText());
+		assertTrue(redacted.get("email").asText().startsWith("u-"));
+		assertEquals(PiiRedactor.MASK, redacted.get("password").asText());
+		assertEquals(PiiRedactor.MASK, redacted.path("profile").get("name").asText());
+		assertEquals("Cardiology", redacted.path("profile").get("specialty").asText());
+		assertEquals(PiiRedactor.MASK, redacted.path("slots").get(0).get("token").asText());
+		assertEquals("42", redacted.path("slots").get(0).get("slotId").asText());
+		assertFalse(redacted.toString().contains("Dupont"));
+	}
+
+	@Test
+	void masksPersonalQueryParameters() {
+		assertEquals("q=***&limit=10", redactor.redactQuery("q=martin&limit=10"));
+		assertEquals("page=0&size=10", redactor.redactQuery("page=0&size=10"));
+		assertNull(redactor.redactQuery(null));
+	}
+}
@@ -0,0 +1,51 @@
+package com.minidocto.shared.idempotency;
+
+import com.minidocto.shared.config.IdempotencyProperties;
+import com.minidocto.shared.idempotency.IdempotencyService.Action;
+import com.minidocto.shared.idempotency.IdempotencyService.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTests {
+
+	private final IdempotencyProperties properties = new IdempotencyProperties();
+	private final IdempotencyService service = new IdempotencyService(new InMemoryIdempotencyStore(), properties);
+
+	@Test
+	void concurrentDuplicateWaitsForTheOriginalResponse() throws Exception {
+		assertEquals(Action.EXECUTE, service.begin("patient|k1", "fp").action());
+
+		CompletableFuture<Outcome> duplicate = CompletableFuture.supplyAsync(() -> {
+			try {
+				return service.begin("patient|k1", "fp");
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(100);
+		assertFalse(duplicate.isDone(), "the duplicate must wait, not execute");
+
+		StoredResponse response = new StoredResponse(200, "application/json", "{\"success\":true}".getBytes(StandardCharsets.UTF_8));
+		service.complete("patient|k1", response);
+		Outcome replayed = duplicate.get(1, TimeUnit.SECONDS);
+		assertEquals(Action.REPLAY, replayed.action());
+		assertSame(response, replayed.response());
+		assertEquals(Action.MISMATCH, service.begin("patient|k1", "other body").action());
+	}
+
+	@Test
+	void abandonedKeyIsExecutedAgainAndUnfinishedOnesTimeOut() throws Exception {
+		properties.setWaitTimeout(Duration.ofMillis(50));
+		assertEquals(Action.EXECUTE, service.begin("patient|k2", "fp").action());
+		assertEquals(Action.BUSY, service.begin("patient|k2", "fp").action());
+
+		service.abandon("patient|k2");
+		assertEquals(Action.EXECUTE, service.begin("patient|k2", "fp").action());
+	}
+}
@@ -0,0 +1,78 @@
+package com.minidocto.shared.inmemory;
+
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRepositoryTests {
+
+	private final InMemoryUserRepository repository = new InMemoryUserRepository();
+
+	@BeforeEach
+	void setUp() {
+		repository.save(User.builder().id("d1").name("Dr Claire Moreau").email("claire@minidocto.test")
+				.role(Role.PRO).specialty("Cardiology").score(87).build());
+		repository.save(User.builder().id("d2").name("Dr Marc Petit").email("marc@minidocto.test")
+				.role(Role.PRO).specialty("Cardiology").score(64).build());
+		repository.save(User.builder().id("d3").name("Dr Inès Haddad").email("ines@minidocto.test")
+				.role(Role.PRO).specialty("Dermatology").score(91).build());
+		repository.save(User.builder().id("p1").name("Jean Dupont").email("jean@minidocto.test")
+				.role(Role.USER).build());
+	}
+
+	@Test
+	void matchesOnTheProbesNonNullProperties() {
+		Example<User> cardiologists = Example.of(User.builder().role(Role.PRO).specialty("Cardiology").build());
+
+		assertEquals(2, repository.count(cardiologists));
+		assertEquals(List.of("d1", "d2"), repository.findAll(cardiologists, Sort.by(Sort.Direction.DESC, "score"))
+				.stream().map(User::getId).toList());
+		assertEquals("d2", repository.findAll(cardiologists, PageRequest.of(1, 1, Sort.by("score").descending()))
+				.getContent().get(0).getId());
+		assertThrows(IncorrectResultSizeDataAccessException.class, () -> repository.findOne(cardiologists));
+		assertEquals("p1", repository.findOne(Example.of(User.builder().role(Role.USER).build())).get().getId());
+		assertFalse(repository.exists(Example.of(User.builder().role(Role.USER).specialty("Cardiology").build())));
+	}
+
+	@Test
+	void appliesStringMatchingAndMatchMode() {
+		ExampleMatcher startingIgnoringCase = ExampleMatcher.matching()
+				.withStringMatcher(ExampleMatcher.StringMatcher.STARTING).withIgnoreCase();
+		assertEquals(3, repository.count(Example.of(User.builder().name("dr ").build(), startingIgnoringCase)));
+
+		ExampleMatcher emailDomain = ExampleMatcher.matching()
+				.withMatcher("email", ExampleMatcher.GenericPropertyMatchers.endsWith());
+		assertEquals(4, repository.count(Example.of(User.builder().email("@minidocto.test").build(), emailDomain)));
+
+		Example<User> anyOf = Example.of(User.builder().specialty("Dermatology").role(Role.USER).build(),
+				ExampleMatcher.matchingAny());
+		assertEquals(List.of("d3", "p1"), repository.findAll(anyOf, Sort.by("id")).stream().map(User::getId).toList());
+
+		Example<User> ignoringScore = Example.of(User.builder().specialty("Cardiology").score(0).build(),
+				ExampleMatcher.matching().withIgnorePaths("score"));
+		assertEquals(2, repository.count(ignoringScore));
+	}
+
+	@Test
+	void supportsFluentQueries() {
+		Example<User> doctors = Example.of(User.builder().role(Role.PRO).build());
+
+		assertEquals("d3", repository.findBy(doctors, query -> query.sortBy(Sort.by(Sort.Direction.DESC, "score"))
+				.firstValue()).getId());
+		assertEquals(2, repository.findBy(doctors, query -> query.sortBy(Sort.by("name")).limit(2).all()).size());
+		assertEquals(Boolean.TRUE, repository.findBy(doctors, query -> query.as(Object.class).exists()));
+		long count = repository.findBy(doctors, query -> query.count());
+		assertEquals(3, count);
+	}
+}
@@ -0,0 +1,46 @@
+package com.minidocto.shared.monitoring;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoPoolMonitorTests {
+
+	private final MongoPoolMonitor monitor = new MongoPoolMonitor(new SimpleMeterRegistry());
+	private final ClusterId cluster = new ClusterId();
+	private final ServerId first = new ServerId(cluster, new ServerAddress("mongo-1"));
+	private final ServerId replacement = new ServerId(cluster, new ServerAddress("mongo-2"));
+
+	@Test
+	void closedPoolsStopCountingTowardsTheMaximum() {
+		monitor.connectionPoolCreated(created(first));
+		checkOut(first);
+
+		// The server is replaced: its pool closes and a new one opens
+		monitor.connectionPoolClosed(new ConnectionPoolClosedEvent(first));
+		monitor.connectionPoolCreated(created(replacement));
+		monitor.connectionCheckedIn(new ConnectionCheckedInEvent(new ConnectionId(first), 1));
+		checkOut(replacement);
+		checkOut(replacement);
+
+		assertEquals(0.2, monitor.saturation(), 1e-9);
+	}
+
+	private ConnectionPoolCreatedEvent created(ServerId server) {
+		return new ConnectionPoolCreatedEvent(server, ConnectionPoolSettings.builder().maxSize(10).build());
+	}
+
+	private void checkOut(ServerId server) {
+		monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(server), 1, 0));
+	}
+}
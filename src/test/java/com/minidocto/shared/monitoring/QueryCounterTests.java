@@ -0,0 +1,57 @@
+package com.minidocto.shared.monitoring;
+
+import com.minidocto.shared.config.MongoMonitoringProperties;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCounterTests {
+
+	private final QueryCountingListener listener = new QueryCountingListener(new MongoMonitoringProperties());
+	private final ConnectionDescription connection =
+			new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+	@Test
+	void countsCommandsPerScopeAndReportsCallSites() {
+		try (QueryCounter.Scope scope = QueryCounter.open()) {
+			for (int i = 0; i < 3; i++) {
+				issue("find");
+			}
+			issue("hello");
+
+			assertEquals(3, scope.count());
+			scope.assertAtMost(3, "schedule-groups");
+			AssertionError error = assertThrows(AssertionError.class, () -> scope.assertAtMost(2, "schedule-groups"));
+			assertTrue(error.getMessage().startsWith("schedule-groups issued 3 MongoDB queries, budget is 2"));
+			// Frames of the monitoring package itself are skipped, so the caller here is unattributed
+			assertEquals("unknown x3", scope.describeCallSites());
+		}
+	}
+
+	@Test
+	void nestedScopesBothCountAndClosingRestoresOuterScope() {
+		try (QueryCounter.Scope outer = QueryCounter.open()) {
+			issue("find");
+			try (QueryCounter.Scope inner = QueryCounter.open()) {
+				issue("aggregate");
+				assertEquals(1, inner.count());
+			}
+			issue("update");
+			assertEquals(3, outer.count());
+		}
+		assertFalse(QueryCounter.isActive());
+		issue("find");
+	}
+
+	private void issue(String commandName) {
+		BsonDocument command = new BsonDocument(commandName, new BsonString("availability_slots"));
+		listener.commandStarted(new CommandStartedEvent(null, 1, 1, connection, "minidocto", commandName, command));
+	}
+}
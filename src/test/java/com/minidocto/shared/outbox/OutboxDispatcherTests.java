@@ -0,0 +1,86 @@
+package com.minidocto.shared.outbox;
+
+import com.minidocto.shared.config.OutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxDispatcherTests {
+
+	private final InMemoryOutboxRepository repository = new InMemoryOutboxRepository();
+	private final OutboxPublisher publisher = new OutboxPublisher(repository);
+	private final OutboxProperties properties = new OutboxProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final List<String> received = new ArrayList<>();
+	private boolean failing;
+
+	private final OutboxSink sink = new OutboxSink() {
+		@Override
+		public String name() {
+			return "test";
+		}
+
+		@Override
+		public void deliver(List<OutboxEvent> events) {
+			if (failing) {
+				throw new IllegalStateException("sink down");
+			}
+			events.forEach(event -> received.add(event.getType() + ":" + event.getAggregateId()));
+		}
+	};
+
+	@Test
+	void deliversInBatchesInCreationOrder() {
+		properties.setBatchSize(2);
+		OutboxDispatcher dispatcher = new OutboxDispatcher(repository, List.of(sink), properties, registry);
+		publisher.publish("appointment.booked", "a1", Map.of("slotId", "s1"));
+		publisher.publish("appointment.cancelled", "a1", Map.of("slotId", "s1"));
+		publisher.publish("appointment.booked", "a2", Map.of("slotId", "s2"));
+
+		dispatcher.dispatch();
+
+		assertEquals(List.of("appointment.booked:a1", "appointment.cancelled:a1", "appointment.booked:a2"), received);
+		assertEquals(0, repository.count(), "delivered events are dropped");
+		assertEquals(3, registry.get("minidocto.outbox.events").tag("outcome", "delivered").counter().count());
+		assertEquals(3, registry.get("minidocto.outbox.delivery.lag").timer().count());
+	}
+
+	@Test
+	void failedBatchesBackOffThenPark() {
+		properties.setMaxAttempts(2);
+		OutboxDispatcher dispatcher = new OutboxDispatcher(repository, List.of(sink), properties, registry);
+		publisher.publish("appointment.booked", "a1", Map.of());
+		failing = true;
+
+		assertEquals(1, dispatcher.dispatchBatch());
+		OutboxEvent retried = repository.findAll().get(0);
+		assertEquals(1, retried.getAttempts());
+		assertEquals("sink down", retried.getLastError());
+		assertTrue(retried.getNextAttemptAt().isAfter(Instant.now().plus(Duration.ofSeconds(4))));
+		assertEquals(0, dispatcher.dispatchBatch(), "not due before its backoff");
+
+		// Due again: fails for the last allowed time and is parked
+		retried.setNextAttemptAt(Instant.now());
+		repository.save(retried);
+		assertEquals(1, dispatcher.dispatchBatch());
+		assertEquals(OutboxStatus.DEAD, repository.findAll().get(0).getStatus());
+		failing = false;
+		assertEquals(0, dispatcher.dispatchBatch());
+		assertTrue(received.isEmpty());
+	}
+
+	@Test
+	void backoffDoublesUpToTheMaximum() {
+		OutboxDispatcher dispatcher = new OutboxDispatcher(repository, List.of(sink), properties, registry);
+		assertEquals(Duration.ofSeconds(5), dispatcher.backoff(1));
+		assertEquals(Duration.ofSeconds(40), dispatcher.backoff(4));
+		assertEquals(Duration.ofMinutes(15), dispatcher.backoff(20));
+	}
+}
@@ -0,0 +1,59 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties.Limit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterTests {
+
+	private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+	@Test
+	void allowsABurstThenRefillsOneTokenPerInterval() {
+		LocalRateLimiter limiter = new LocalRateLimiter(100, now::get);
+		Limit limit = limit(3, Duration.ofSeconds(3));
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limiter.tryAcquire("auth|ip", "10.0.0.1", limit).allowed());
+		}
+		RateLimiter.Decision rejected = limiter.tryAcquire("auth|ip", "10.0.0.1", limit);
+		assertFalse(rejected.allowed());
+		assertEquals(TimeUnit.SECONDS.toNanos(1), rejected.retryAfterNanos());
+		assertTrue(limiter.tryAcquire("auth|ip", "10.0.0.2", limit).allowed(), "other clients keep their own budget");
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertTrue(limiter.tryAcquire("auth|ip", "10.0.0.1", limit).allowed());
+		assertFalse(limiter.tryAcquire("auth|ip", "10.0.0.1", limit).allowed());
+	}
+
+	@Test
+	void evictsFullBucketsAndSharesAnOverflowBucketWhenFull() {
+		LocalRateLimiter limiter = new LocalRateLimiter(2, now::get);
+		Limit limit = limit(2, Duration.ofSeconds(2));
+		limiter.tryAcquire("auth|ip", "a", limit);
+		limiter.tryAcquire("auth|ip", "b", limit);
+
+		// Both buckets are busy: new clients share the overflow bucket
+		assertTrue(limiter.tryAcquire("auth|ip", "c", limit).allowed());
+		assertTrue(limiter.tryAcquire("auth|ip", "d", limit).allowed());
+		assertFalse(limiter.tryAcquire("auth|ip", "e", limit).allowed());
+		assertEquals(3, limiter.size());
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		limiter.evictFull();
+		assertEquals(0, limiter.size());
+		assertTrue(limiter.tryAcquire("auth|ip", "e", limit).allowed());
+	}
+
+	private static Limit limit(int capacity, Duration period) {
+		Limit limit = new Limit();
+		limit.setCapacity(capacity);
+		limit.setPeriod(period);
+		return limit;
+	}
+}
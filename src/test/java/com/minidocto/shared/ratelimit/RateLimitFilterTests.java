@@ -0,0 +1,79 @@
+package com.minidocto.shared.ratelimit;
+
+import com.minidocto.shared.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+
+	private final RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(new RateLimitProperties()),
+			properties(), new SimpleMeterRegistry());
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void rejectsOverTheLimitWithRetryAfter() throws Exception {
+		assertEquals(200, send("POST", "/auth/login", "10.0.0.1").getStatus());
+
+		MockHttpServletResponse rejected = send("POST", "/auth/login", "10.0.0.1");
+		assertEquals(429, rejected.getStatus());
+		assertEquals("60", rejected.getHeader("Retry-After"));
+
+		assertEquals(200, send("POST", "/auth/login", "10.0.0.2").getStatus());
+		assertEquals(200, send("GET", "/auth/login", "10.0.0.1").getStatus(), "other methods are not limited");
+		assertEquals(200, send("POST", "/auth/refresh", "10.0.0.1").getStatus(), "other paths are not limited");
+	}
+
+	@Test
+	void limitsAuthenticatedUsersAcrossAddresses() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("patient@minidocto.test", null, List.of()));
+
+		assertEquals(200, send("POST", "/appointments/book", "10.0.0.1").getStatus());
+		assertEquals(429, send("POST", "/appointments/book", "10.0.0.2").getStatus());
+	}
+
+	private MockHttpServletResponse send(String method, String path, String address) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setRemoteAddr(address);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static RateLimitProperties properties() {
+		RateLimitProperties properties = new RateLimitProperties();
+		RateLimitProperties.Route auth = new RateLimitProperties.Route();
+		auth.setPaths(List.of("/auth/login"));
+		auth.setMethods(List.of("POST"));
+		auth.setIp(limit(1));
+		RateLimitProperties.Route booking = new RateLimitProperties.Route();
+		booking.setPaths(List.of("/appointments/book"));
+		booking.setIp(limit(10));
+		booking.setPrincipal(limit(1));
+		properties.getRoutes().put("auth", auth);
+		properties.getRoutes().put("booking", booking);
+		return properties;
+	}
+
+	private static RateLimitProperties.Limit limit(int capacity) {
+		RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+		limit.setCapacity(capacity);
+		limit.setPeriod(Duration.ofMinutes(1));
+		return limit;
+	}
+}
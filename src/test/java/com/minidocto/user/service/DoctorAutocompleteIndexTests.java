@@ -0,0 +1,111 @@
+package com.minidocto.user.service;
+
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.user.dto.DoctorSuggestionDTO;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prefix matching and ranking of the doctor autocomplete index.
+ * Lookup latency and footprint are measured by DoctorAutocompleteIndexBenchmark (src/jmh).
+ */
+class DoctorAutocompleteIndexTests {
+
+	private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Lefèvre", "Marchand", "Benali"};
+	private static final String[] SPECIALTIES = {"Cardiology", "Dermatology", "Pediatrics", "General Medicine"};
+
+	@Test
+	void ranksPrefixMatchesByScore() {
+		Random random = new Random(42);
+		List<User> doctors = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			doctors.add(User.builder()
+					.id(String.format("%024x", i))
+					.name("Dr " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "-" + Integer.toString(i, 36))
+					.specialty(SPECIALTIES[random.nextInt(SPECIALTIES.length)])
+					.score(random.nextInt(101))
+					.role(Role.PRO)
+					.build());
+		}
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.streamDoctorsForDirectory()).thenAnswer(invocation -> doctors.stream());
+		DoctorAutocompleteIndex index = new DoctorAutocompleteIndex(repository, new LocalInvalidationBus());
+		index.reload();
+		assertEquals(doctors.size(), index.size());
+
+		// Short prefixes are served from the precomputed tables, longer ones by merging posting lists
+		for (String query : List.of("c", "ca", "car", "cardio", "lef", "mar derm")) {
+			List<DoctorSuggestionDTO> top = index.suggest(query, 5);
+			assertEquals(5, top.size(), query);
+			for (int i = 1; i < top.size(); i++) {
+				assertTrue(top.get(i - 1).getScore() >= top.get(i).getScore(), query);
+			}
+		}
+		assertTrue(index.suggest("cardio", 10).stream().allMatch(s -> s.getSpecialty().equals("Cardiology")));
+		assertTrue(index.suggest("lefev", 10).stream().allMatch(s -> s.getName().startsWith("Dr Lefèvre")),
+				"accents are stripped from both sides");
+		assertTrue(index.suggest("mar derm", 10).stream().allMatch(s -> s.getSpecialty().equals("Dermatology")
+				&& (s.getName().startsWith("Dr Martin") || s.getName().startsWith("Dr Marchand"))));
+
+		int best = doctors.stream().filter(d -> d.getSpecialty().equals("Pediatrics"))
+				.mapToInt(User::getScore).max().getAsInt();
+		assertEquals(best, index.suggest("pediatrics", 1).get(0).getScore());
+		assertTrue(index.suggest("zzz", 10).isEmpty());
+	}
+
+	@Test
+	void signupIsVisibleWithoutRebuild() {
+		UserRepository repository = mock(UserRepository.class);
+		DoctorAutocompleteIndex index = new DoctorAutocompleteIndex(repository, new LocalInvalidationBus());
+
+		index.add(User.builder().id("a1").name("Dr Élodie Marchand").specialty("Dermatology").score(80).role(Role.PRO).build());
+		index.add(User.builder().id("a2").name("Dr Marc Petit").specialty("Cardiology").score(90).role(Role.PRO).build());
+
+		List<DoctorSuggestionDTO> suggestions = index.suggest("mar", 10);
+		assertEquals(List.of("a2", "a1"), suggestions.stream().map(DoctorSuggestionDTO::getId).toList());
+		assertEquals(List.of("a1"), index.suggest("elo derm", 10).stream().map(DoctorSuggestionDTO::getId).toList());
+	}
+
+	@Test
+	void signupOnAnotherNodeIsPickedUpFromTheBus() {
+		User doctor = User.builder().id("a1").name("Dr Élodie Marchand").specialty("Dermatology").score(80).role(Role.PRO).build();
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findById("a1")).thenReturn(Optional.of(doctor));
+		// Both indexes share one bus, as two nodes do
+		LocalInvalidationBus bus = new LocalInvalidationBus();
+		DoctorAutocompleteIndex signupNode = new DoctorAutocompleteIndex(repository, bus);
+		DoctorAutocompleteIndex otherNode = new DoctorAutocompleteIndex(repository, bus);
+
+		signupNode.add(doctor);
+
+		assertEquals(List.of("a1"), otherNode.suggest("elo", 10).stream().map(DoctorSuggestionDTO::getId).toList());
+		verify(repository, times(1)).findById("a1");
+	}
+
+	@Test
+	void signupDuringReloadIsKept() {
+		UserRepository repository = mock(UserRepository.class);
+		DoctorAutocompleteIndex index = new DoctorAutocompleteIndex(repository, new LocalInvalidationBus());
+		User loaded = User.builder().id("a1").name("Dr Marc Petit").specialty("Cardiology").score(90).role(Role.PRO).build();
+		User signedUp = User.builder().id("a2").name("Dr Marie Durand").specialty("Pediatrics").score(70).role(Role.PRO).build();
+		// The signup lands after the cursor has passed the point where it would have appeared
+		when(repository.streamDoctorsForDirectory()).thenAnswer(invocation -> Stream.of(loaded)
+				.peek(doctor -> index.add(signedUp)));
+
+		index.reload();
+
+		assertEquals(2, index.size());
+		assertEquals(List.of("a1", "a2"), index.suggest("mar", 10).stream().map(DoctorSuggestionDTO::getId).toList());
+	}
+}
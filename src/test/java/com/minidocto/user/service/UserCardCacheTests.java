@@ -0,0 +1,148 @@
+package com.minidocto.user.service;
+
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.model.UserCard;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCardCacheTests {
+
+	private final InMemoryUserRepository userRepository = spy(new InMemoryUserRepository());
+	private final UserCacheProperties properties = new UserCacheProperties();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+	private final LocalInvalidationBus invalidationBus = new LocalInvalidationBus();
+	private final UserCardCache cache = new UserCardCache(userRepository, properties, invalidationBus, registry, now::get);
+
+	@Test
+	void loadsMissesInOneQueryThenServesHits() {
+		String doctor = save("Dr A", Role.PRO);
+		String patient = save("Patient B", Role.USER);
+		String unknown = new ObjectId().toHexString();
+
+		Map<String, UserCard> cards = cache.getAll(List.of(doctor, patient, unknown));
+		assertEquals("Dr A", cards.get(doctor).name());
+		assertEquals(Role.USER, cards.get(patient).role());
+		assertFalse(cards.containsKey(unknown));
+
+		assertEquals("Dr A", cache.get(doctor).map(UserCard::name).orElseThrow());
+		assertEquals(Optional.empty(), cache.get(unknown), "unknown users are cached as absent");
+		verify(userRepository, times(1)).findAllById(anyIterable());
+		assertEquals(3, requests("miss"));
+		assertEquals(2, requests("hit"));
+	}
+
+	@Test
+	void reloadsAfterTheTtlOrAnInvalidation() {
+		properties.setTtl(Duration.ofMinutes(10));
+		String doctor = save("Dr A", Role.PRO);
+		cache.get(doctor);
+
+		userRepository.save(User.builder().id(doctor).name("Dr A. Martin").role(Role.PRO).build());
+		assertEquals("Dr A", cache.get(doctor).orElseThrow().name(), "still fresh");
+		cache.invalidate(doctor);
+		assertEquals("Dr A. Martin", cache.get(doctor).orElseThrow().name());
+
+		userRepository.save(User.builder().id(doctor).name("Dr Martin").role(Role.PRO).build());
+		now.addAndGet(Duration.ofMinutes(10).toNanos());
+		assertEquals("Dr Martin", cache.get(doctor).orElseThrow().name());
+		verify(userRepository, times(3)).findAllById(anyIterable());
+	}
+
+	@Test
+	void invalidationsArriveThroughTheBus() {
+		String doctor = save("Dr A", Role.PRO);
+		List<String> published = new ArrayList<>();
+		invalidationBus.subscribe("users", published::add);
+		cache.get(doctor);
+
+		cache.invalidate(doctor);
+		assertEquals(List.of(doctor), published);
+		assertEquals(0, cache.size());
+
+		cache.get(doctor);
+		invalidationBus.publish("users", null); // e.g. from another node
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		String doctor = save("Dr A", Role.PRO);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			loading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return invocation.callRealMethod();
+		}).when(userRepository).findAllById(anyIterable());
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Optional<UserCard>>> results = new ArrayList<>();
+			results.add(executor.submit(() -> cache.get(doctor)));
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 7; i++) {
+				results.add(executor.submit(() -> cache.get(doctor)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<Optional<UserCard>> result : results) {
+				assertEquals("Dr A", result.get(5, TimeUnit.SECONDS).orElseThrow().name());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(userRepository, times(1)).findAllById(anyIterable());
+		assertEquals(7, requests("coalesced"));
+	}
+
+	@Test
+	void failedLoadsAreNotCached() {
+		String doctor = save("Dr A", Role.PRO);
+		doThrow(new IllegalStateException("users unavailable")).doCallRealMethod()
+				.when(userRepository).findAllById(anyIterable());
+
+		assertThrows(IllegalStateException.class, () -> cache.get(doctor));
+		assertEquals("Dr A", cache.get(doctor).orElseThrow().name());
+	}
+
+	@Test
+	void staysWithinItsMaximumSize() {
+		properties.setMaxSize(10);
+		for (int i = 0; i < 25; i++) {
+			cache.get(save("User " + i, Role.USER));
+			now.addAndGet(1);
+		}
+		assertTrue(cache.size() <= 10, "size " + cache.size());
+	}
+
+	private String save(String name, Role role) {
+		String id = new ObjectId().toHexString();
+		userRepository.save(User.builder().id(id).name(name).email(id + "@minidocto.test").role(role).build());
+		return id;
+	}
+
+	private double requests(String result) {
+		return registry.get("minidocto.cache.requests").tag("result", result).counter().count();
+	}
+}
@@ -0,0 +1,129 @@
+package com.minidocto.waitlist.service;
+
+import com.minidocto.availability.model.AvailabilitySlot;
+import com.minidocto.availability.model.SlotStatus;
+import com.minidocto.availability.repository.InMemoryAvailabilitySlotRepository;
+import com.minidocto.shared.cache.LocalInvalidationBus;
+import com.minidocto.shared.config.UserCacheProperties;
+import com.minidocto.shared.config.WaitlistProperties;
+import com.minidocto.shared.outbox.InMemoryOutboxRepository;
+import com.minidocto.shared.outbox.OutboxPublisher;
+import com.minidocto.user.model.Role;
+import com.minidocto.user.model.User;
+import com.minidocto.user.repository.InMemoryUserRepository;
+import com.minidocto.user.service.UserCardCache;
+import com.minidocto.waitlist.dto.WaitlistEntryDTO;
+import com.minidocto.waitlist.model.WaitlistEntry;
+import com.minidocto.waitlist.model.WaitlistStatus;
+import com.minidocto.waitlist.repository.InMemoryWaitlistRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistServiceTests {
+
+	private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+	private final InMemoryAvailabilitySlotRepository slotRepository = new InMemoryAvailabilitySlotRepository(userRepository);
+	private final InMemoryWaitlistRepository waitlistRepository = new InMemoryWaitlistRepository();
+	private final WaitlistProperties properties = new WaitlistProperties();
+	private final InMemoryOutboxRepository outboxRepository = new InMemoryOutboxRepository();
+	private final UserCardCache userCardCache = new UserCardCache(userRepository, new UserCacheProperties(),
+			new LocalInvalidationBus(), new SimpleMeterRegistry());
+	private final WaitlistService service = new WaitlistService(waitlistRepository, slotRepository, userCardCache,
+			properties, new OutboxPublisher(outboxRepository), new SimpleMeterRegistry());
+	private final ObjectId doctorId = new ObjectId();
+	private final ObjectId first = new ObjectId();
+	private final ObjectId second = new ObjectId();
+	private final ObjectId third = new ObjectId();
+
+	@BeforeEach
+	void setUp() {
+		userRepository.save(User.builder().id(doctorId.toHexString()).name("Dr A").role(Role.PRO).build());
+	}
+
+	@Test
+	void freedSlotGoesToTheOldestMatchingEntry() {
+		assertTrue(service.join(first, doctorId.toHexString(), "2030-01-02").isSuccess());
+		assertTrue(service.join(second, doctorId.toHexString(), null).isSuccess());
+		assertTrue(service.join(third, doctorId.toHexString(), "2030-01-01").isSuccess());
+		assertEquals(1, service.join(second, doctorId.toHexString(), null).getEntries().size(), "joining twice is a no-op");
+
+		// The first patient waits for another day: the slot goes to the oldest entry for this day or any day
+		AvailabilitySlot slot = slot("2030-01-01T09:00:00Z");
+		assertTrue(service.offer(slot, null));
+		AvailabilitySlot held = slotRepository.findById(slot.getId()).orElseThrow();
+		assertEquals(SlotStatus.PENDING, held.getStatus());
+		assertEquals(second, held.getBookedBy());
+
+		WaitlistEntryDTO offer = service.getPatientEntries(second).getEntries().get(0);
+		assertEquals(WaitlistStatus.OFFERED, offer.getStatus());
+		assertEquals("2030-01-01T09:00:00Z", offer.getOfferedStartTime());
+		assertEquals(held.getHoldExpiresAt(), offer.getOfferExpiresAt());
+		assertEquals("waitlist.offered", outboxRepository.findAll().get(0).getType(), "the offer is pushed to the patient");
+
+		service.slotConfirmed(second, slot.getId());
+		assertTrue(service.getPatientEntries(second).getEntries().isEmpty());
+		assertEquals(WaitlistStatus.WAITING, service.getPatientEntries(third).getEntries().get(0).getStatus());
+	}
+
+	@Test
+	void declinedAndLapsedOffersPassToTheNextPatient() {
+		properties.setOfferDuration(Duration.ZERO);
+		service.join(first, doctorId.toHexString(), null);
+		service.join(second, doctorId.toHexString(), null);
+		service.join(third, doctorId.toHexString(), null);
+		AvailabilitySlot slot = slot("2030-01-01T09:00:00Z");
+
+		// Handed over on cancellation: the patient freeing the slot is skipped
+		WaitlistEntry claimed = service.claimHead(slot, first).orElseThrow();
+		assertEquals(second, claimed.getPatientId());
+		slot.setStatus(SlotStatus.PENDING);
+		slot.setBookedBy(second);
+		slot.setHoldExpiresAt(claimed.getOfferExpiresAt());
+		slotRepository.save(slot);
+
+		// The offer lapses: the sweep passes the slot on, oldest waiting first
+		assertEquals(1, service.passOnLapsedOffers());
+		assertEquals(first, slotRepository.findById(slot.getId()).orElseThrow().getBookedBy());
+		assertTrue(service.getPatientEntries(second).getEntries().isEmpty());
+
+		// Declined: passed on again, without going back to the patient who declined
+		assertTrue(slotRepository.releaseHold(slot.getId(), first));
+		service.holdReleased(first, slot.getId());
+		assertEquals(third, slotRepository.findById(slot.getId()).orElseThrow().getBookedBy());
+
+		// Nobody left: the slot is reopened
+		assertEquals(1, service.passOnLapsedOffers());
+		assertEquals(1, slotRepository.releaseExpiredHolds(Instant.now()));
+		assertEquals(SlotStatus.AVAILABLE, slotRepository.findById(slot.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void offerFallsThroughWhenTheSlotIsTaken() {
+		service.join(first, doctorId.toHexString(), null);
+		AvailabilitySlot slot = slot("2030-01-01T09:00:00Z");
+		slot.setStatus(SlotStatus.BOOKED);
+		slot.setBookedBy(second);
+		slotRepository.save(slot);
+
+		assertFalse(service.offer(slot, null));
+		assertTrue(outboxRepository.findAll().isEmpty(), "no offer is announced for a slot that could not be held");
+		List<WaitlistEntryDTO> entries = service.getPatientEntries(first).getEntries();
+		assertEquals(WaitlistStatus.WAITING, entries.get(0).getStatus(), "the patient keeps their place");
+	}
+
+	private AvailabilitySlot slot(String startTime) {
+		return slotRepository.save(AvailabilitySlot.builder()
+				.doctorId(doctorId)
+				.startTime(startTime)
+				.endTime(startTime.replace(":00:00Z", ":30:00Z"))
+				.build());
+	}
+}